@@ -1,8 +1,12 @@
 package com.perforce.p4java;
 
 import com.perforce.p4java.server.callback.ILogCallback;
+import com.perforce.p4java.server.callback.ILogCallback.LogCategory;
+import com.perforce.p4java.server.callback.ILogCallback.LogLevel;
 import com.perforce.p4java.server.callback.ILogCallback.LogTraceLevel;
 
+import java.util.function.Supplier;
+
 import static com.perforce.p4java.common.base.StringHelper.format;
 import static java.util.Objects.nonNull;
 
@@ -24,10 +28,19 @@ import static java.util.Objects.nonNull;
  * besides the setLogCallback method are mainly intended for API-internal
  * use, but participating apps may find the other methods useful for
  * interpolating marker text or other messages to the API's log.
+ * <p>
+ * Messages are only formatted once the callback has said it wants them
+ * (see ILogCallback.isLogging) and their category is enabled; the methods
+ * taking a Supplier go further and do not build the message at all
+ * otherwise, so they are the ones to use on hot paths.
  */
 public class Log {
 
-	private static ILogCallback logCallback = null;
+	private static volatile ILogCallback logCallback = null;
+
+	// One bit per LogCategory ordinal; replaced whole so that every thread
+	// sees a change as soon as it is made.
+	private static volatile int disabledCategories = 0;
 
 	/**
 	 * @return the current log callback, if any. May return null.
@@ -53,6 +66,49 @@ public class Log {
 		return oldCallback;
 	}
 
+	/**
+	 * Turn logging of a category on or off for all levels, whatever the
+	 * callback's isLogging says. All categories are on by default.
+	 *
+	 * @param category category to set
+	 * @param enabled  false to drop all messages in the category
+	 * @since 2025.2
+	 */
+	public static synchronized void setCategoryEnabled(LogCategory category, boolean enabled) {
+		int bit = 1 << category.ordinal();
+		disabledCategories = enabled ? disabledCategories & ~bit : disabledCategories | bit;
+	}
+
+	/**
+	 * @param category category to check
+	 * @return true unless the category has been turned off with setCategoryEnabled
+	 * @since 2025.2
+	 */
+	public static boolean isCategoryEnabled(LogCategory category) {
+		return (disabledCategories & (1 << category.ordinal())) == 0;
+	}
+
+	/**
+	 * @param level level to check
+	 * @return true if a general message at the level would reach the callback
+	 * @since 2025.2
+	 */
+	public static boolean isEnabled(LogLevel level) {
+		return isEnabled(level, LogCategory.GENERAL);
+	}
+
+	/**
+	 * @param level    level to check
+	 * @param category category to check
+	 * @return true if a message at the level and in the category would reach
+	 * the callback
+	 * @since 2025.2
+	 */
+	public static boolean isEnabled(LogLevel level, LogCategory category) {
+		ILogCallback callback = logCallback;
+		return nonNull(callback) && isCategoryEnabled(category) && callback.isLogging(level, category);
+	}
+
 	/**
 	 * Report a P4Java-internal error to the log callback (if it exists).
 	 *
@@ -60,13 +116,19 @@ public class Log {
 	 * @param args        args
 	 */
 	public static void error(String errorString, Object... args) {
-		if (nonNull(logCallback)) {
-			String errorMessage = errorString;
-			if (nonNull(args)) {
-				errorMessage = format(errorString, args);
-			}
-			logCallback.internalError(errorMessage);
-		}
+		log(LogLevel.ERROR, LogCategory.GENERAL, errorString, args);
+	}
+
+	/**
+	 * Report a P4Java-internal error to the log callback (if it exists),
+	 * building the message only if it will be logged.
+	 *
+	 * @param category category of the message
+	 * @param message  supplies the non-null error string
+	 * @since 2025.2
+	 */
+	public static void error(LogCategory category, Supplier<String> message) {
+		log(LogLevel.ERROR, category, message);
 	}
 
 	/**
@@ -76,13 +138,19 @@ public class Log {
 	 * @param args       args
 	 */
 	public static void warn(String warnString, Object... args) {
-		if (nonNull(logCallback)) {
-			String warningMessage = warnString;
-			if (nonNull(args)) {
-				warningMessage = format(warnString, args);
-			}
-			logCallback.internalWarn(warningMessage);
-		}
+		log(LogLevel.WARN, LogCategory.GENERAL, warnString, args);
+	}
+
+	/**
+	 * Report a P4Java-internal warning to the log callback (if it exists),
+	 * building the message only if it will be logged.
+	 *
+	 * @param category category of the message
+	 * @param message  supplies the non-null warning message
+	 * @since 2025.2
+	 */
+	public static void warn(LogCategory category, Supplier<String> message) {
+		log(LogLevel.WARN, category, message);
 	}
 
 	/**
@@ -92,13 +160,19 @@ public class Log {
 	 * @param args       args
 	 */
 	public static void info(String infoString, Object... args) {
-		if (nonNull(logCallback)) {
-			String infoMessage = infoString;
-			if (nonNull(args)) {
-				infoMessage = format(infoString, args);
-			}
-			logCallback.internalInfo(infoMessage);
-		}
+		log(LogLevel.INFO, LogCategory.GENERAL, infoString, args);
+	}
+
+	/**
+	 * Report a P4Java-internal informational event to the log callback (if
+	 * it exists), building the message only if it will be logged.
+	 *
+	 * @param category category of the message
+	 * @param message  supplies the non-null info message
+	 * @since 2025.2
+	 */
+	public static void info(LogCategory category, Supplier<String> message) {
+		log(LogLevel.INFO, category, message);
 	}
 
 	/**
@@ -108,13 +182,19 @@ public class Log {
 	 * @param args        args
 	 */
 	public static void stats(String statsString, Object... args) {
-		if (nonNull(logCallback)) {
-			String statsMessage = statsString;
-			if (nonNull(args)) {
-				statsMessage = format(statsString, args);
-			}
-			logCallback.internalStats(statsMessage);
-		}
+		log(LogLevel.STATS, LogCategory.GENERAL, statsString, args);
+	}
+
+	/**
+	 * Report a P4Java-internal statistics message to the log callback (if
+	 * it exists), building the message only if it will be logged.
+	 *
+	 * @param category category of the message
+	 * @param message  supplies the non-null stats message
+	 * @since 2025.2
+	 */
+	public static void stats(LogCategory category, Supplier<String> message) {
+		log(LogLevel.STATS, category, message);
 	}
 
 	/**
@@ -124,8 +204,9 @@ public class Log {
 	 * @param thr non-null Throwable
 	 */
 	public static void exception(Throwable thr) {
-		if (nonNull(logCallback) && nonNull(thr)) {
-			logCallback.internalException(thr);
+		ILogCallback callback = logCallback;
+		if (nonNull(callback) && nonNull(thr)) {
+			callback.internalException(thr);
 		}
 	}
 
@@ -137,16 +218,75 @@ public class Log {
 	 * @param traceMessage traceMessage
 	 */
 	public static void trace(LogTraceLevel traceLevel, String traceMessage) {
-		if (nonNull(logCallback) && nonNull(traceLevel) && nonNull(traceMessage) && isTracingAtLevel(traceLevel)) {
-			logCallback.internalTrace(traceLevel, traceMessage);
+		ILogCallback callback = logCallback;
+		if (nonNull(callback) && nonNull(traceLevel) && nonNull(traceMessage) && isTracingAtLevel(callback, traceLevel)) {
+			callback.internalTrace(traceLevel, traceMessage);
+		}
+	}
+
+	/**
+	 * Report a P4Java-internal trace message to the log callback (if it
+	 * exists), building the message only if tracing is on at the level.
+	 *
+	 * @param traceLevel   traceLevel
+	 * @param traceMessage supplies the trace message
+	 * @since 2025.2
+	 */
+	public static void trace(LogTraceLevel traceLevel, Supplier<String> traceMessage) {
+		ILogCallback callback = logCallback;
+		if (nonNull(callback) && nonNull(traceLevel) && isTracingAtLevel(callback, traceLevel)) {
+			String message = traceMessage.get();
+			if (nonNull(message)) {
+				callback.internalTrace(traceLevel, message);
+			}
 		}
 	}
 
 	/**
 	 * @param traceLevel traceLevel
-	 * @return true if the
+	 * @return true if the callback is tracing at the passed-in level or finer
 	 */
 	public static boolean isTracingAtLevel(LogTraceLevel traceLevel) {
-		return nonNull(logCallback) && nonNull(logCallback.getTraceLevel()) && (traceLevel.compareTo(logCallback.getTraceLevel()) <= 0);
+		ILogCallback callback = logCallback;
+		return nonNull(callback) && isTracingAtLevel(callback, traceLevel);
+	}
+
+	private static boolean isTracingAtLevel(ILogCallback callback, LogTraceLevel traceLevel) {
+		LogTraceLevel callbackLevel = callback.getTraceLevel();
+		return nonNull(callbackLevel) && (traceLevel.compareTo(callbackLevel) <= 0);
+	}
+
+	private static void log(LogLevel level, LogCategory category, String message, Object[] args) {
+		ILogCallback callback = logCallback;
+		if (nonNull(callback) && isCategoryEnabled(category) && callback.isLogging(level, category)) {
+			if (nonNull(args) && args.length > 0) {
+				message = format(message, args);
+			}
+			deliver(callback, level, message);
+		}
+	}
+
+	private static void log(LogLevel level, LogCategory category, Supplier<String> message) {
+		ILogCallback callback = logCallback;
+		if (nonNull(callback) && isCategoryEnabled(category) && callback.isLogging(level, category)) {
+			deliver(callback, level, message.get());
+		}
+	}
+
+	private static void deliver(ILogCallback callback, LogLevel level, String message) {
+		switch (level) {
+			case ERROR:
+				callback.internalError(message);
+				break;
+			case WARN:
+				callback.internalWarn(message);
+				break;
+			case INFO:
+				callback.internalInfo(message);
+				break;
+			default:
+				callback.internalStats(message);
+				break;
+		}
 	}
 }
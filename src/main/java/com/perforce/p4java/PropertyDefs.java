@@ -520,4 +520,315 @@ public class PropertyDefs {
 	 */
 	public static final String CUSTOM_SPEC_KEY = Metadata.P4JAVA_PROPS_KEY_PREFIX + CUSTOM_SPEC_KEY_SHORT_FORM;
 
+	/**
+	 * Short form of the ENABLE_METADATA_CACHE property (below).
+	 *
+	 * @since 2025.2
+	 */
+	public static final String ENABLE_METADATA_CACHE_SHORT_FORM = "enableMetadataCache";
+
+	/**
+	 * If the ENABLE_METADATA_CACHE property is set (to any value), server
+	 * metadata that rarely changes (the 'info' results used for the server
+	 * version, unicode and case handling checks, and the 'jobspec -o' and
+	 * 'spec -o' definitions) is shared across server objects connected to the
+	 * same address, avoiding redundant round trips on connect.
+	 *
+	 * @see com.perforce.p4java.impl.mapbased.server.ServerMetadataCache
+	 * @since 2025.2
+	 */
+	public static final String ENABLE_METADATA_CACHE = Metadata.P4JAVA_PROPS_KEY_PREFIX + ENABLE_METADATA_CACHE_SHORT_FORM;
+
+	/**
+	 * Short form of the METADATA_CACHE_TTL property (below).
+	 *
+	 * @since 2025.2
+	 */
+	public static final String METADATA_CACHE_TTL_SHORT_FORM = "metadataCacheTtl";
+
+	/**
+	 * If this property is set, use this value as the number of milliseconds a
+	 * server metadata cache entry remains valid; zero or less means entries
+	 * only go away when explicitly invalidated. Defaults to
+	 * METADATA_CACHE_TTL_DEFAULT.
+	 *
+	 * @since 2025.2
+	 */
+	public static final String METADATA_CACHE_TTL = Metadata.P4JAVA_PROPS_KEY_PREFIX + METADATA_CACHE_TTL_SHORT_FORM;
+
+	/**
+	 * Default server metadata cache time-to-live in milliseconds (5 minutes).
+	 *
+	 * @since 2025.2
+	 */
+	public static final long METADATA_CACHE_TTL_DEFAULT = 300000L;
+
+	/**
+	 * Short form of the ENABLE_GRAPH_OBJECT_CACHE property (below).
+	 *
+	 * @since 2025.2
+	 */
+	public static final String ENABLE_GRAPH_OBJECT_CACHE_SHORT_FORM = "enableGraphObjectCache";
+
+	/**
+	 * If the ENABLE_GRAPH_OBJECT_CACHE property is set (to any value), graph
+	 * commits, trees, object types and blobs looked up by full SHA are cached
+	 * in a cache shared by all server objects using the same tmp directory.
+	 *
+	 * @see com.perforce.p4java.impl.mapbased.server.GraphObjectCache
+	 * @since 2025.2
+	 */
+	public static final String ENABLE_GRAPH_OBJECT_CACHE = Metadata.P4JAVA_PROPS_KEY_PREFIX + ENABLE_GRAPH_OBJECT_CACHE_SHORT_FORM;
+
+	/**
+	 * Short form of the GRAPH_OBJECT_CACHE_MAX_OBJECTS property (below).
+	 *
+	 * @since 2025.2
+	 */
+	public static final String GRAPH_OBJECT_CACHE_MAX_OBJECTS_SHORT_FORM = "graphObjectCacheMaxObjects";
+
+	/**
+	 * If this property is set, use this value as the maximum number of graph
+	 * commits, trees and object types held in memory by the graph object
+	 * cache. Defaults to GRAPH_OBJECT_CACHE_MAX_OBJECTS_DEFAULT.
+	 *
+	 * @since 2025.2
+	 */
+	public static final String GRAPH_OBJECT_CACHE_MAX_OBJECTS = Metadata.P4JAVA_PROPS_KEY_PREFIX + GRAPH_OBJECT_CACHE_MAX_OBJECTS_SHORT_FORM;
+
+	/**
+	 * Default maximum number of objects held in memory by the graph object cache.
+	 *
+	 * @since 2025.2
+	 */
+	public static final int GRAPH_OBJECT_CACHE_MAX_OBJECTS_DEFAULT = 10000;
+
+	/**
+	 * Short form of the GRAPH_OBJECT_CACHE_MAX_BLOB_BYTES property (below).
+	 *
+	 * @since 2025.2
+	 */
+	public static final String GRAPH_OBJECT_CACHE_MAX_BLOB_BYTES_SHORT_FORM = "graphObjectCacheMaxBlobBytes";
+
+	/**
+	 * If this property is set, use this value as the maximum total size in
+	 * bytes of the graph object cache's on-disk blob store; zero or less
+	 * means blobs are not cached. Defaults to
+	 * GRAPH_OBJECT_CACHE_MAX_BLOB_BYTES_DEFAULT.
+	 *
+	 * @since 2025.2
+	 */
+	public static final String GRAPH_OBJECT_CACHE_MAX_BLOB_BYTES = Metadata.P4JAVA_PROPS_KEY_PREFIX + GRAPH_OBJECT_CACHE_MAX_BLOB_BYTES_SHORT_FORM;
+
+	/**
+	 * Default maximum size of the graph object cache blob store (256MB).
+	 *
+	 * @since 2025.2
+	 */
+	public static final long GRAPH_OBJECT_CACHE_MAX_BLOB_BYTES_DEFAULT = 256L * 1024 * 1024;
+
+	/**
+	 * Short form of the ENABLE_CONTENT_CACHE property (below).
+	 *
+	 * @since 2025.2
+	 */
+	public static final String ENABLE_CONTENT_CACHE_SHORT_FORM = "enableContentCache";
+
+	/**
+	 * If the ENABLE_CONTENT_CACHE property is set (to any value), file content
+	 * printed by getFileContents for a single revision is cached on disk in a
+	 * cache shared by all server objects using the same tmp directory.
+	 *
+	 * @see com.perforce.p4java.impl.mapbased.server.RevisionContentCache
+	 * @since 2025.2
+	 */
+	public static final String ENABLE_CONTENT_CACHE = Metadata.P4JAVA_PROPS_KEY_PREFIX + ENABLE_CONTENT_CACHE_SHORT_FORM;
+
+	/**
+	 * Short form of the CONTENT_CACHE_MAX_BYTES property (below).
+	 *
+	 * @since 2025.2
+	 */
+	public static final String CONTENT_CACHE_MAX_BYTES_SHORT_FORM = "contentCacheMaxBytes";
+
+	/**
+	 * If this property is set, use this value as the maximum total size in
+	 * bytes of the file content cache; zero or less means nothing is cached.
+	 * Defaults to CONTENT_CACHE_MAX_BYTES_DEFAULT.
+	 *
+	 * @since 2025.2
+	 */
+	public static final String CONTENT_CACHE_MAX_BYTES = Metadata.P4JAVA_PROPS_KEY_PREFIX + CONTENT_CACHE_MAX_BYTES_SHORT_FORM;
+
+	/**
+	 * Default maximum size of the file content cache (512MB).
+	 *
+	 * @since 2025.2
+	 */
+	public static final long CONTENT_CACHE_MAX_BYTES_DEFAULT = 512L * 1024 * 1024;
+
+	/**
+	 * Short form of the ENABLE_CHANGELIST_CACHE property (below).
+	 *
+	 * @since 2025.2
+	 */
+	public static final String ENABLE_CHANGELIST_CACHE_SHORT_FORM = "enableChangelistCache";
+
+	/**
+	 * If the ENABLE_CHANGELIST_CACHE property is set (to any value), 'change -o'
+	 * and 'describe' results for submitted changelists, and shelved file lists
+	 * for pending ones, are cached for each user in a cache shared by all
+	 * server objects. Shelved file lists expire after the METADATA_CACHE_TTL.
+	 *
+	 * @see com.perforce.p4java.impl.mapbased.server.ChangelistCache
+	 * @since 2025.2
+	 */
+	public static final String ENABLE_CHANGELIST_CACHE = Metadata.P4JAVA_PROPS_KEY_PREFIX + ENABLE_CHANGELIST_CACHE_SHORT_FORM;
+
+	/**
+	 * Short form of the CHANGELIST_CACHE_MAX_CHANGES property (below).
+	 *
+	 * @since 2025.2
+	 */
+	public static final String CHANGELIST_CACHE_MAX_CHANGES_SHORT_FORM = "changelistCacheMaxChanges";
+
+	/**
+	 * If this property is set, use this value as the maximum number of
+	 * changelists held by the changelist cache. Defaults to
+	 * CHANGELIST_CACHE_MAX_CHANGES_DEFAULT.
+	 *
+	 * @since 2025.2
+	 */
+	public static final String CHANGELIST_CACHE_MAX_CHANGES = Metadata.P4JAVA_PROPS_KEY_PREFIX + CHANGELIST_CACHE_MAX_CHANGES_SHORT_FORM;
+
+	/**
+	 * Default maximum number of changelists held by the changelist cache.
+	 *
+	 * @since 2025.2
+	 */
+	public static final int CHANGELIST_CACHE_MAX_CHANGES_DEFAULT = 5000;
+
+	/**
+	 * Short form of the COMPACT_FILE_SPEC_LISTS property (below).
+	 *
+	 * @since 2025.2
+	 */
+	public static final String COMPACT_FILE_SPEC_LISTS_SHORT_FORM = "compactFileSpecLists";
+
+	/**
+	 * If the COMPACT_FILE_SPEC_LISTS property is set (to any value), the file
+	 * spec lists returned for 'files', 'have', 'opened' and 'fstat' hold their
+	 * results in compact column form and decode each element on access. This
+	 * uses far less heap for large result sets, but elements are read-only
+	 * snapshots and are not kept between calls to get.
+	 *
+	 * @see com.perforce.p4java.impl.generic.core.file.CompactFileSpecList
+	 * @since 2025.2
+	 */
+	public static final String COMPACT_FILE_SPEC_LISTS = Metadata.P4JAVA_PROPS_KEY_PREFIX + COMPACT_FILE_SPEC_LISTS_SHORT_FORM;
+
+	/**
+	 * Short form of the ENABLE_METRICS property (below).
+	 *
+	 * @since 2025.2
+	 */
+	public static final String ENABLE_METRICS_SHORT_FORM = "enableMetrics";
+
+	/**
+	 * If the ENABLE_METRICS property is set (to any value), the latency,
+	 * traffic and errors of every command are recorded in the shared metrics
+	 * registry, which is also published over JMX. Without it, and without a
+	 * registry set explicitly, no metrics are gathered.
+	 *
+	 * @see com.perforce.p4java.impl.mapbased.rpc.MetricsRegistry
+	 * @since 2025.2
+	 */
+	public static final String ENABLE_METRICS = Metadata.P4JAVA_PROPS_KEY_PREFIX + ENABLE_METRICS_SHORT_FORM;
+
+	/**
+	 * Short form of the ENABLE_WORKSPACE_INDEX property (below).
+	 *
+	 * @since 2025.2
+	 */
+	public static final String ENABLE_WORKSPACE_INDEX_SHORT_FORM = "enableWorkspaceIndex";
+
+	/**
+	 * If the ENABLE_WORKSPACE_INDEX property is set (to any value), the
+	 * digests of client files computed or checked during sync, submit,
+	 * reconcile and similar commands are kept in a per-client index under
+	 * the tmp directory, and files whose size, modification time and inode
+	 * have not changed since are not read again.
+	 *
+	 * @see com.perforce.p4java.impl.mapbased.rpc.sys.WorkspaceStateIndex
+	 * @since 2025.2
+	 */
+	public static final String ENABLE_WORKSPACE_INDEX = Metadata.P4JAVA_PROPS_KEY_PREFIX + ENABLE_WORKSPACE_INDEX_SHORT_FORM;
+
+	/**
+	 * Short form of the ENABLE_COMMAND_COALESCING property (below).
+	 *
+	 * @since 2025.2
+	 */
+	public static final String ENABLE_COMMAND_COALESCING_SHORT_FORM = "enableCommandCoalescing";
+
+	/**
+	 * If the ENABLE_COMMAND_COALESCING property is set (to any value),
+	 * identical read-only commands issued concurrently through the same
+	 * server object share a single server call and its results.
+	 *
+	 * @see com.perforce.p4java.impl.mapbased.rpc.CommandCoalescer
+	 * @since 2025.2
+	 */
+	public static final String ENABLE_COMMAND_COALESCING = Metadata.P4JAVA_PROPS_KEY_PREFIX + ENABLE_COMMAND_COALESCING_SHORT_FORM;
+
+	/**
+	 * Short form of the COALESCED_COMMANDS property (below).
+	 *
+	 * @since 2025.2
+	 */
+	public static final String COALESCED_COMMANDS_SHORT_FORM = "coalescedCommands";
+
+	/**
+	 * If this property is set, use this comma separated list of command
+	 * names instead of the default list of commands that may be coalesced
+	 * when ENABLE_COMMAND_COALESCING is set. Only list commands that never
+	 * change anything on the server.
+	 *
+	 * @since 2025.2
+	 */
+	public static final String COALESCED_COMMANDS = Metadata.P4JAVA_PROPS_KEY_PREFIX + COALESCED_COMMANDS_SHORT_FORM;
+
+	/**
+	 * Short form of the COMMAND_SCHEDULER_MAX_ACTIVE property (below).
+	 *
+	 * @since 2025.2
+	 */
+	public static final String COMMAND_SCHEDULER_MAX_ACTIVE_SHORT_FORM = "commandSchedulerMaxActive";
+
+	/**
+	 * If this property is set to a value greater than zero, a server object
+	 * runs at most this many commands at once, starting waiting commands in
+	 * order of their priority class. Without it, commands are not scheduled.
+	 *
+	 * @see com.perforce.p4java.impl.mapbased.rpc.CommandScheduler
+	 * @since 2025.2
+	 */
+	public static final String COMMAND_SCHEDULER_MAX_ACTIVE = Metadata.P4JAVA_PROPS_KEY_PREFIX + COMMAND_SCHEDULER_MAX_ACTIVE_SHORT_FORM;
+
+	/**
+	 * Short form of the COMMAND_SCHEDULER_BATCH_LIMIT property (below).
+	 *
+	 * @since 2025.2
+	 */
+	public static final String COMMAND_SCHEDULER_BATCH_LIMIT_SHORT_FORM = "commandSchedulerBatchLimit";
+
+	/**
+	 * If this property is set, use this value as the maximum number of
+	 * BATCH commands the command scheduler runs at once. Defaults to half
+	 * of COMMAND_SCHEDULER_MAX_ACTIVE.
+	 *
+	 * @since 2025.2
+	 */
+	public static final String COMMAND_SCHEDULER_BATCH_LIMIT = Metadata.P4JAVA_PROPS_KEY_PREFIX + COMMAND_SCHEDULER_BATCH_LIMIT_SHORT_FORM;
+
 }
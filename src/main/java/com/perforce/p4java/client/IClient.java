@@ -23,6 +23,7 @@ import com.perforce.p4java.option.client.EditFilesOptions;
 import com.perforce.p4java.option.client.GetDiffFilesOptions;
 import com.perforce.p4java.option.client.IntegrateFilesOptions;
 import com.perforce.p4java.option.client.LabelSyncOptions;
+import com.perforce.p4java.option.client.LocalDiffOptions;
 import com.perforce.p4java.option.client.LockFilesOptions;
 import com.perforce.p4java.option.client.MergeFilesOptions;
 import com.perforce.p4java.option.client.ParallelSyncOptions;
@@ -43,6 +44,7 @@ import com.perforce.p4java.server.IServer;
 import com.perforce.p4java.server.callback.IStreamingCallback;
 
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -980,6 +982,28 @@ public interface IClient extends IClientSummary, IWhereDelegator {
 	 */
 	List<IFileSpec> getDiffFiles(List<IFileSpec> fileSpecs, GetDiffFilesOptions opts) throws P4JavaException;
 
+	/**
+	 * Diff files opened in this client against their have revisions on the
+	 * client side, writing the diffs to the output stream.
+	 * <p>
+	 * Unlike the server-side diff used by getDiffFiles and the server's
+	 * getFileDiffsStream, the base revisions are fetched with concurrent
+	 * print commands and diffed locally in parallel; the output is still
+	 * in the deterministic order of the opened files. Only text files
+	 * opened for edit or integrate are diffed.
+	 *
+	 * @param fileSpecs candidate file specs; if null or empty, all files opened
+	 *                  in this client.
+	 * @param opts      possibly-null LocalDiffOptions object specifying method options.
+	 * @param out       output for the diffs; flushed but not closed.
+	 * @return non-null but possibly-empty list of the opened files that differ
+	 * from their have revisions, plus error specs for files that could not be diffed.
+	 * @throws P4JavaException if an error occurs processing this method and its parameters
+	 * @see com.perforce.p4java.option.client.LocalDiffOptions
+	 * @since 2025.2
+	 */
+	List<IFileSpec> getLocalDiffs(List<IFileSpec> fileSpecs, LocalDiffOptions opts, OutputStream out) throws P4JavaException;
+
 	/**
 	 * Shelve files in a changelist.
 	 *
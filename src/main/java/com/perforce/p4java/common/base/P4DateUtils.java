@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.common.base;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.text.ParseException;
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.ResolverStyle;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Parsing and formatting of the dates sent and accepted by Perforce servers,
+ * in place of per-call SimpleDateFormat instances.
+ * <p>
+ * Dates in specs and some command output are local server-style date strings
+ * ("yyyy/MM/dd HH:mm:ss"); these are parsed by hand without any allocation
+ * beyond the result. Other patterns use java.time formatters, which are
+ * immutable and cached by pattern. Parsing follows SimpleDateFormat's
+ * default behavior: dates are in the JVM's default time zone unless the
+ * text carries an offset, numeric fields may have fewer digits than the
+ * pattern, out of range fields roll over, and any text after the date is
+ * ignored.
+ * <p>
+ * Summary output and fstat carry dates as seconds since the epoch; see
+ * {@link #fromEpochSeconds(String)}.
+ *
+ * @since 2025.2
+ */
+public final class P4DateUtils {
+
+	/**
+	 * The date format used in specs and formatted command output.
+	 */
+	public static final String DATE_PATTERN = "yyyy/MM/dd HH:mm:ss";
+
+	// Patterns are few and come from code, not data; this is just a backstop.
+	private static final int MAX_FORMATTERS = 64;
+
+	private static final ConcurrentMap<String, DateTimeFormatter> parsers = new ConcurrentHashMap<>();
+	private static final ConcurrentMap<String, DateTimeFormatter> formatters = new ConcurrentHashMap<>();
+
+	private P4DateUtils() { /* util */ }
+
+	/**
+	 * Parse a "yyyy/MM/dd HH:mm:ss" date.
+	 *
+	 * @param value date string
+	 * @return the date
+	 * @throws ParseException if the string does not start with a date
+	 */
+	@Nonnull
+	public static Date parseDate(final String value) throws ParseException {
+		if (isNull(value)) {
+			throw new ParseException("Unparseable date: null", 0);
+		}
+		Date date = parseStandardDate(value);
+		return isNull(date) ? parseDate(value, DATE_PATTERN) : date;
+	}
+
+	/**
+	 * Parse a date in the given SimpleDateFormat-style pattern.
+	 *
+	 * @param value   date string
+	 * @param pattern date pattern; e.g. "yyyy/MM/dd"
+	 * @return the date
+	 * @throws ParseException if the string does not start with a date
+	 */
+	@Nonnull
+	public static Date parseDate(final String value, @Nonnull final String pattern) throws ParseException {
+		if (isNull(value)) {
+			throw new ParseException("Unparseable date: null", 0);
+		}
+		if (DATE_PATTERN.equals(pattern)) {
+			Date date = parseStandardDate(value);
+			if (!isNull(date)) {
+				return date;
+			}
+		}
+
+		ParsePosition position = new ParsePosition(0);
+		try {
+			TemporalAccessor parsed = getFormatter(parsers, pattern).parseUnresolved(value, position);
+			if (isNull(parsed) || position.getErrorIndex() >= 0) {
+				throw new ParseException("Unparseable date: \"" + value + "\"", Math.max(position.getErrorIndex(), 0));
+			}
+			return toDate(getFormatter(parsers, pattern).parse(value.substring(0, position.getIndex())));
+		} catch (DateTimeException e) {
+			ParseException pe = new ParseException("Unparseable date: \"" + value + "\"", 0);
+			pe.initCause(e);
+			throw pe;
+		}
+	}
+
+	/**
+	 * Parse a date sent as seconds since the epoch.
+	 *
+	 * @param value decimal seconds since the epoch
+	 * @return the date
+	 * @throws NumberFormatException if the value is not a number, as for
+	 *                               Long.parseLong
+	 */
+	@Nonnull
+	public static Date fromEpochSeconds(final String value) {
+		if (isNull(value)) {
+			throw new NumberFormatException("null");
+		}
+		int length = value.length();
+		if (length == 0 || length > 18) {
+			return new Date(Long.parseLong(value) * 1000);
+		}
+		long seconds = 0;
+		for (int i = 0; i < length; i++) {
+			int digit = value.charAt(i) - '0';
+			if (digit < 0 || digit > 9) {
+				return new Date(Long.parseLong(value) * 1000);
+			}
+			seconds = seconds * 10 + digit;
+		}
+		return new Date(seconds * 1000);
+	}
+
+	/**
+	 * @param value string to check
+	 * @return true if the value is a number of seconds since the epoch that
+	 * fromEpochSeconds accepts: anything Long.parseLong accepts, including a
+	 * leading sign
+	 */
+	public static boolean isEpochSeconds(@Nullable final String value) {
+		if (isNull(value) || value.isEmpty()) {
+			return false;
+		}
+		int start = value.charAt(0) == '-' || value.charAt(0) == '+' ? 1 : 0;
+		if (start == value.length()) {
+			return false;
+		}
+		boolean ascii = true;
+		for (int i = start; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c < '0' || c > '9') {
+				if (Character.digit(c, 10) < 0) {
+					return false;
+				}
+				ascii = false;
+			}
+		}
+		if (ascii && value.length() - start <= 18) {
+			return true;
+		}
+		// Out of range, or digits other than ASCII ones.
+		try {
+			Long.parseLong(value);
+			return true;
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Format a date as "yyyy/MM/dd HH:mm:ss" in the default time zone.
+	 *
+	 * @param date non-null date
+	 * @return the formatted date
+	 */
+	@Nonnull
+	public static String formatDate(@Nonnull final Date date) {
+		return formatDate(date, DATE_PATTERN);
+	}
+
+	/**
+	 * Format a date in the given SimpleDateFormat-style pattern in the
+	 * default time zone.
+	 *
+	 * @param date    non-null date
+	 * @param pattern date pattern; e.g. "yyyy/MM/dd:HH:mm:ss"
+	 * @return the formatted date
+	 */
+	@Nonnull
+	public static String formatDate(@Nonnull final Date date, @Nonnull final String pattern) {
+		return getFormatter(formatters, pattern).format(Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()));
+	}
+
+	/**
+	 * Parse an exact "yyyy/MM/dd HH:mm:ss" prefix.
+	 *
+	 * @return the date, or null if the value needs the general parser
+	 */
+	private static Date parseStandardDate(final String value) {
+		if (value.length() < 19 || value.charAt(4) != '/' || value.charAt(7) != '/' || value.charAt(10) != ' '
+				|| value.charAt(13) != ':' || value.charAt(16) != ':') {
+			return null;
+		}
+		int year = digits(value, 0, 4);
+		int month = digits(value, 5, 7);
+		int day = digits(value, 8, 10);
+		int hour = digits(value, 11, 13);
+		int minute = digits(value, 14, 16);
+		int second = digits(value, 17, 19);
+		// Anything after the seconds must not be more digits.
+		if ((year | month | day | hour | minute | second) < 0
+				|| value.length() > 19 && Character.isDigit(value.charAt(19))
+				|| month < 1 || month > 12 || day < 1 || day > 28 && day > LocalDate.of(year, month, 1).lengthOfMonth()
+				|| hour > 23 || minute > 59 || second > 59) {
+			return null;
+		}
+		return toDate(LocalDateTime.of(year, month, day, hour, minute, second));
+	}
+
+	/**
+	 * @return the value of the decimal digits in [start, end), or -1
+	 */
+	private static int digits(final String value, final int start, final int end) {
+		int n = 0;
+		for (int i = start; i < end; i++) {
+			int digit = value.charAt(i) - '0';
+			if (digit < 0 || digit > 9) {
+				return -1;
+			}
+			n = n * 10 + digit;
+		}
+		return n;
+	}
+
+	private static Date toDate(final TemporalAccessor parsed) {
+		if (parsed.isSupported(ChronoField.INSTANT_SECONDS)) {
+			return new Date(parsed.getLong(ChronoField.INSTANT_SECONDS) * 1000
+					+ (parsed.isSupported(ChronoField.MILLI_OF_SECOND) ? parsed.get(ChronoField.MILLI_OF_SECOND) : 0));
+		}
+		LocalDate date = parsed.isSupported(ChronoField.EPOCH_DAY) ? LocalDate.from(parsed) : LocalDate.of(1970, 1, 1);
+		LocalTime time = parsed.isSupported(ChronoField.NANO_OF_DAY) ? LocalTime.from(parsed) : LocalTime.MIDNIGHT;
+		Period excess = parsed.query(DateTimeFormatter.parsedExcessDays());
+		return toDate(LocalDateTime.of(date, time).plus(excess));
+	}
+
+	private static Date toDate(final LocalDateTime dateTime) {
+		ZoneId zone = ZoneId.systemDefault();
+		// In an overlap SimpleDateFormat picks the standard time offset, which
+		// is the later of the two.
+		return Date.from(dateTime.atZone(zone).withLaterOffsetAtOverlap().toInstant());
+	}
+
+	private static DateTimeFormatter getFormatter(final ConcurrentMap<String, DateTimeFormatter> cache, final String pattern) {
+		DateTimeFormatter formatter = cache.get(pattern);
+		if (isNull(formatter)) {
+			if (cache == parsers) {
+				formatter = new DateTimeFormatterBuilder()
+						.parseLenient()
+						.appendPattern(pattern)
+						.toFormatter()
+						.withResolverStyle(ResolverStyle.LENIENT);
+			} else {
+				formatter = DateTimeFormatter.ofPattern(pattern);
+			}
+			if (cache.size() < MAX_FORMATTERS) {
+				cache.putIfAbsent(pattern, formatter);
+			}
+		}
+		return formatter;
+	}
+}
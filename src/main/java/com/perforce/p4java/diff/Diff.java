@@ -3,12 +3,22 @@ package com.perforce.p4java.diff;
 import com.perforce.p4java.exception.FileEncoderException;
 import com.perforce.p4java.impl.mapbased.rpc.sys.RpcPerforceFile;
 
+import org.apache.commons.io.output.WriterOutputStream;
+
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.nio.charset.Charset;
-import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Produce diff output for a pair of sequences, read either from files or from
+ * content already held in memory.
+ * <p>
+ * Diff headers and markers are encoded with the output charset; the content
+ * lines themselves are copied to the output byte for byte.
+ */
 public class Diff {
 
     public void SetInput(RpcPerforceFile f1, Charset c1, RpcPerforceFile f2, Charset c2, DiffFlags flags) throws FileEncoderException, IOException {
@@ -21,11 +31,66 @@ public class Diff {
         diff = new DiffAnalyze(spx, spy, fastMaxD);
     }
 
+    /**
+     * Diff two sequences that have already been loaded, for example from
+     * in-memory content; the sequences must have been loaded with the same
+     * flags.
+     */
+    public void SetInput(Sequence from, Sequence to, DiffFlags flags) throws IOException, FileEncoderException {
+        spx = from;
+        this.flags = flags;
+        spy = to;
+
+        diff = new DiffAnalyze(spx, spy, fastMaxD);
+    }
+
+    /**
+     * Diff two in-memory contents; no filesystem access is needed.
+     */
+    public void SetInput(byte[] from, byte[] to, DiffFlags flags) throws IOException, FileEncoderException {
+        SetInput(new Sequence(from, flags), new Sequence(to, flags), flags);
+    }
+
     public void SetOutput(OutputStream o) {
-        this.out = new PrintWriter(o);
+        SetOutput(o, Charset.defaultCharset());
+    }
+
+    /**
+     * Write the diff to the stream, encoding headers and markers with the
+     * given charset. The stream is closed by CloseOutput().
+     */
+    public void SetOutput(OutputStream o, Charset charset) {
+        this.out = new BufferedOutputStream(o, OUTPUT_BUFSIZE);
+        this.charset = charset;
         closeOut = true;
     }
 
+    /**
+     * Write the diff to a character stream; content lines are decoded with
+     * the given charset. The writer is closed by CloseOutput().
+     */
+    public void SetOutput(Writer w, Charset charset) {
+        SetOutput(WriterStream(w, charset), charset);
+    }
+
+    // Bytes written are decoded with the charset and passed straight on.
+    static OutputStream WriterStream(Writer w, Charset charset) {
+        try {
+            return WriterOutputStream.builder()
+                    .setWriter(w)
+                    .setCharset(charset)
+                    .setWriteImmediately(true)
+                    .get();
+        } catch (IOException e) {
+            // Not expected; building over a writer does no I/O.
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void FlushOutput() throws IOException {
+        if (out != null) out.flush();
+    }
+
     public void CloseOutput() throws IOException {
         if (closeOut) out.close();
         closeOut = false;
@@ -66,66 +131,68 @@ public class Diff {
         // snakes, before the first snake, or after the last snake.
 
         if (c < 0) c = 3;
-        Snake s = diff.GetSnake();
-        Snake t;
+        final DiffAnalyze d = diff;
+        final int last = d.GetSnakeCount() - 1;
+        int s = 0;
+        int t;
 
-        for (; (t = s.next) != null; s = t) {
+        for (; (t = s + 1) <= last; s = t) {
             // Look for snake > 2 * CONTEXT
 
-            while (t.next != null && t.x.get() + 2 * c >= t.u.get())
-                t = t.next;
+            while (t < last && d.GetX(t) + 2 * c >= d.GetU(t))
+                t++;
 
             // Compute first/last lines of diff block
 
-            int sx = s.u.get() - c > 0 ? s.u.get() - c : 0;
-            int sy = s.v.get() - c > 0 ? s.v.get() - c : 0;
-            int ex = t.x.get() + c < spx.Lines() ? t.x.get() + c : spx.Lines();
-            int ey = t.y.get() + c < spy.Lines() ? t.y.get() + c : spy.Lines();
+            int sx = d.GetU(s) - c > 0 ? d.GetU(s) - c : 0;
+            int sy = d.GetV(s) - c > 0 ? d.GetV(s) - c : 0;
+            int ex = d.GetX(t) + c < spx.Lines() ? d.GetX(t) + c : spx.Lines();
+            int ey = d.GetY(t) + c < spy.Lines() ? d.GetY(t) + c : spy.Lines();
 
             // Display [s,t]
 
-            out.printf("***************%s", newLines);
+            Print("***************%s", newLines);
 
             // File 1
 
-            out.printf("*** %d,%d ****%s", sx + 1, ex, newLines);
+            Print("*** %d,%d ****%s", sx + 1, ex, newLines);
 
             // Now walk the snake between s,t, displaying the diffs
 
-            Snake ss, tt;
+            int ss, tt;
 
             for (ss = s; ss != t; ss = tt) {
-                tt = ss.next;
+                tt = ss + 1;
 
-                if (ss.u.get() < tt.x.get()) {
-                    Walker("  ", spx, sx, ss.u.get());
-                    String mark = ss.v.get() < tt.y.get() ? "! " : "- ";
-                    Walker(mark, spx, ss.u.get(), tt.x.get());
-                    sx = tt.x.get();
+                if (d.GetU(ss) < d.GetX(tt)) {
+                    Walker("  ", spx, sx, d.GetU(ss));
+                    String mark = d.GetV(ss) < d.GetY(tt) ? "! " : "- ";
+                    Walker(mark, spx, d.GetU(ss), d.GetX(tt));
+                    sx = d.GetX(tt);
                 }
             }
 
-            if (s.u.get() < sx)
+            if (d.GetU(s) < sx)
                 Walker("  ", spx, sx, ex);
 
             // File 2
 
-            out.printf("--- %d,%d ----%s", sy + 1, ey, newLines);
+            Print("--- %d,%d ----%s", sy + 1, ey, newLines);
 
             // Now walk the snake between s,t, displaying the diffs
 
             for (ss = s; ss != t; ss = tt) {
-                tt = ss.next;
+                tt = ss + 1;
 
-                if (ss.v.get() < tt.y.get()) {
-                    Walker("  ", spy, sy, ss.v.get());
-                    String mark = ss.u.get() < tt.x.get() ? "! " : "+ ";
-                    Walker(mark, spy, ss.v.get(), tt.y.get());
-                    sy = tt.y.get();
+                if (d.GetV(ss) < d.GetY(tt)) {
+                    Walker("  ", spy, sy, d.GetV(ss));
+                    String mark = d.GetU(ss) < d.GetX(tt) ? "! " : "+ ";
+                    Walker(mark, spy, d.GetV(ss), d.GetY(tt));
+                    sy = d.GetY(tt);
                 }
             }
 
-            if (s.v.get() < sy)
+            if (d.GetV(s) < sy)
                 Walker("  ", spy, sy, ey);
         }
     }
@@ -139,38 +206,40 @@ public class Diff {
         // snakes, before the first snake, or after the last snake.
 
         if (c < 0) c = 3;
-        Snake s = diff.GetSnake();
-        Snake t;
+        final DiffAnalyze d = diff;
+        final int last = d.GetSnakeCount() - 1;
+        int s = 0;
+        int t;
 
-        while ((t = s.next) != null) {
+        while ((t = s + 1) <= last) {
             // Look for snake > 2 * CONTEXT
 
-            while (t.next != null && t.x.get() + 2 * c >= t.u.get())
-                t = t.next;
+            while (t < last && d.GetX(t) + 2 * c >= d.GetU(t))
+                t++;
 
             // Compute first/last lines of diff block
 
-            int sx = s.u.get() - c > 0 ? s.u.get() - c : 0;
-            int sy = s.v.get() - c > 0 ? s.v.get() - c : 0;
-            int ex = t.x.get() + c < spx.Lines() ? t.x.get() + c : spx.Lines();
-            int ey = t.y.get() + c < spy.Lines() ? t.y.get() + c : spy.Lines();
+            int sx = d.GetU(s) - c > 0 ? d.GetU(s) - c : 0;
+            int sy = d.GetV(s) - c > 0 ? d.GetV(s) - c : 0;
+            int ex = d.GetX(t) + c < spx.Lines() ? d.GetX(t) + c : spx.Lines();
+            int ey = d.GetY(t) + c < spy.Lines() ? d.GetY(t) + c : spy.Lines();
 
             // Display [s,t]
 
-            out.printf("@@ -%d,%d +%d,%d @@%s",
+            Print("@@ -%d,%d +%d,%d @@%s",
                     sx + 1, ex - sx, sy + 1, ey - sy, newLines);
 
             // Now walk the snake between s,t, displaying the diffs
 
             do {
-                int nx = s.u.get();
-                int ny = s.v.get();
+                int nx = d.GetU(s);
+                int ny = d.GetV(s);
 
                 Walker(" ", spx, sx, nx);
 
-                s = s.next;
-                sx = s.x.get();
-                sy = s.y.get();
+                s++;
+                sx = d.GetX(s);
+                sy = d.GetY(s);
 
                 Walker("-", spx, nx, sx);
                 Walker("+", spy, ny, sy);
@@ -184,91 +253,106 @@ public class Diff {
     }
 
     public void DiffNorm() throws IOException, FileEncoderException {
-        Snake s = diff.GetSnake();
-        Snake t;
+        final DiffAnalyze d = diff;
+        final int last = d.GetSnakeCount() - 1;
+        int s = 0;
+        int t;
 
-        for (; (t = s.next) != null; s = t) {
+        for (; (t = s + 1) <= last; s = t) {
             /* Print edit operator */
 
             char c;
-            int nx = s.u.get(), ny = s.v.get();
+            int su = d.GetU(s), sv = d.GetV(s);
+            int tx = d.GetX(t), ty = d.GetY(t);
+            int nx = su, ny = sv;
 
-            if (s.u.get() < t.x.get() && s.v.get() < t.y.get()) {
+            if (su < tx && sv < ty) {
                 c = 'c';
                 ++nx;
                 ++ny;
-            } else if (s.u.get() < t.x.get()) {
+            } else if (su < tx) {
                 c = 'd';
                 ++nx;
-            } else if (s.v.get() < t.y.get()) {
+            } else if (sv < ty) {
                 c = 'a';
                 ++ny;
             } else continue;
 
-            out.printf("%d", nx);
-            if (t.x.get() > nx) out.printf(",%d", t.x.get());
-            out.printf("%c%d", c, ny);
-            if (t.y.get() > ny) out.printf(",%d", t.y.get());
-            out.printf("%s", newLines);
+            Print("%d", nx);
+            if (tx > nx) Print(",%d", tx);
+            Print("%c%d", c, ny);
+            if (ty > ny) Print(",%d", ty);
+            Print("%s", newLines);
 
             /* Line lines that differ */
 
-            Walker("< ", spx, s.u.get(), t.x.get());
+            Walker("< ", spx, su, tx);
 
-            if (c == 'c') out.printf("---%s", newLines);
+            if (c == 'c') Print("---%s", newLines);
 
-            Walker("> ", spy, s.v.get(), t.y.get());
+            Walker("> ", spy, sv, ty);
         }
     }
 
     public void DiffRcs() throws IOException, FileEncoderException {
-        Snake s = diff.GetSnake();
-        Snake t;
-
-        for (; (t = s.next) != null; s = t) {
-            if (s.u.get() < t.x.get()) {
-                out.printf("d%d %d%s", s.u.get() + 1, t.x.get() - s.u.get(), newLines);
+        final DiffAnalyze d = diff;
+        final int last = d.GetSnakeCount() - 1;
+        int s = 0;
+        int t;
+
+        for (; (t = s + 1) <= last; s = t) {
+            if (d.GetU(s) < d.GetX(t)) {
+                Print("d%d %d%s", d.GetU(s) + 1, d.GetX(t) - d.GetU(s), newLines);
                 chunkCnt++;
             }
-            if (s.v.get() < t.y.get()) {
-                out.printf("a%d %d%s", t.x.get(), t.y.get() - s.v.get(), newLines);
+            if (d.GetV(s) < d.GetY(t)) {
+                Print("a%d %d%s", d.GetX(t), d.GetY(t) - d.GetV(s), newLines);
                 chunkCnt++;
-                spy.SeekLine(s.v.get());
-                spy.Dump(out, s.v, t.y.get(), lineType);
+                spy.SeekLine(d.GetV(s));
+                spy.Dump(out, d.GetY(t), lineType);
             }
         }
     }
 
     public void DiffHTML() throws IOException, FileEncoderException {
-        Snake s = diff.GetSnake();
-        Snake t;
+        final DiffAnalyze d = diff;
+        final int last = d.GetSnakeCount() - 1;
+        int s = 0;
+        int t;
 
-        for (; (t = s.next) != null; s = t) {
+        for (; (t = s + 1) <= last; s = t) {
             // Dump the common stuff
 
-            spx.SeekLine(s.x.get());
-            spy.SeekLine(s.v.get());
-            spx.Dump(out, s.x, s.u.get(), lineType);
+            spx.SeekLine(d.GetX(s));
+            spy.SeekLine(d.GetV(s));
+            spx.Dump(out, d.GetU(s), lineType);
 
             // Dump spx
 
-            out.printf("<font color=red>");
-            spx.Dump(out, s.u, t.x.get(), lineType);
+            Print("<font color=red>");
+            spx.Dump(out, d.GetX(t), lineType);
 
             // dump spy
 
-            out.printf("</font><font color=blue>");
-            spy.Dump(out, s.v, t.y.get(), lineType);
+            Print("</font><font color=blue>");
+            spy.Dump(out, d.GetY(t), lineType);
 
             // Done
 
-            out.printf("</font>");
+            Print("</font>");
         }
     }
 
+    /**
+     * Print a summary of the changes.
+     *
+     * @throws UncheckedIOException if the output cannot be written
+     */
     public void DiffSummary() {
-        Snake s = diff.GetSnake();
-        Snake t;
+        final DiffAnalyze d = diff;
+        final int last = d.GetSnakeCount() - 1;
+        int s = 0;
+        int t;
 
         int l_deleted = 0;
         int l_added = 0;
@@ -279,29 +363,37 @@ public class Diff {
         int c_added = 0;
         int c_edited = 0;
 
-        for (; (t = s.next) != null; s = t) {
+        for (; (t = s + 1) <= last; s = t) {
             /* Print edit operator */
 
-            if (s.u.get() < t.x.get() && s.v.get() < t.y.get()) {
-                l_edited_in += (t.x.get() - s.u.get());
-                l_edited_out += (t.y.get() - s.v.get());
+            int su = d.GetU(s), sv = d.GetV(s);
+            int tx = d.GetX(t), ty = d.GetY(t);
+
+            if (su < tx && sv < ty) {
+                l_edited_in += (tx - su);
+                l_edited_out += (ty - sv);
                 ++c_edited;
-            } else if (s.v.get() < t.y.get()) {
-                l_added += (t.y.get() - s.v.get());
+            } else if (sv < ty) {
+                l_added += (ty - sv);
                 ++c_added;
-            } else if (s.u.get() < t.x.get()) {
-                l_deleted += (t.x.get() - s.u.get());
+            } else if (su < tx) {
+                l_deleted += (tx - su);
                 ++c_deleted;
             }
         }
 
-        out.printf(
-                "add %d chunks %d lines%s" +
-                        "deleted %d chunks %d lines%s" +
-                        "changed %d chunks %d / %d lines%s",
-                c_added, l_added, newLines,
-                c_deleted, l_deleted, newLines,
-                c_edited, l_edited_in, l_edited_out, newLines);
+        try {
+            Print(
+                    "add %d chunks %d lines%s" +
+                            "deleted %d chunks %d lines%s" +
+                            "changed %d chunks %d / %d lines%s",
+                    c_added, l_added, newLines,
+                    c_deleted, l_deleted, newLines,
+                    c_edited, l_edited_in, l_edited_out, newLines);
+        } catch (IOException e) {
+            // Kept unchecked so the method's signature stays as it was.
+            throw new UncheckedIOException(e);
+        }
     }
 
     public void DiffFast() {
@@ -313,7 +405,7 @@ public class Diff {
     }
 
     public boolean IsIdentical() {
-        boolean retval = diff != null && diff.GetSnake() != null && diff.GetSnake().next == null;
+        boolean retval = diff != null && diff.GetSnakeCount() == 1;
 
         return retval;
     }
@@ -325,17 +417,25 @@ public class Diff {
         boolean lineEnd = true;
 
         for (; sx < ex; ++sx) {
-            out.print(mark);
-            lineEnd = s.Dump(out, new AtomicInteger(sx), sx + 1, lineType);
+            Print(mark);
+            lineEnd = s.Dump(out, sx + 1, lineType);
         }
 
         if (!lineEnd && this.flags.type == DiffFlags.Type.Unified)
-            out.printf("%s\\ No newline at end of file%s", newLines, newLines);
+            Print("%s\\ No newline at end of file%s", newLines, newLines);
     }
 
+    private void Print(String format, Object... args) throws IOException {
+        String text = args.length == 0 ? format : String.format(format, args);
+        out.write(text.getBytes(charset));
+    }
+
+    private static final int OUTPUT_BUFSIZE = 64 * 1024;
+
     private Sequence spx = null;
     private Sequence spy = null;
-    private PrintWriter out = null;
+    private OutputStream out = null;
+    private Charset charset = Charset.defaultCharset();
     private DiffAnalyze diff = null;
     private DiffFlags flags = null;
     private boolean closeOut = false;
@@ -3,8 +3,17 @@ package com.perforce.p4java.diff;
 import com.perforce.p4java.exception.FileEncoderException;
 
 import java.io.IOException;
-import java.util.concurrent.atomic.AtomicInteger;
-
+import java.util.Arrays;
+
+/**
+ * Myers O(ND) longest common subsequence analysis of two sequences.
+ * <p>
+ * The result is an edit script of matching chunks ("snakes") kept packed in a
+ * single int array, four ints per snake: x, u (the matching lines of the first
+ * sequence) and y, v (the matching lines of the second sequence), with
+ * u - x == v - y. The first snake always starts at (0,0) and the last always
+ * ends at the end of both sequences; differences lie between snakes.
+ */
 public class DiffAnalyze {
 
     static int P4TUNE_DIFF_STHRESH = 50000;
@@ -61,6 +70,14 @@ public class DiffAnalyze {
         a = fromFile;
         b = toFile;
 
+        // Line hashes, if both sequences expose them, let the inner loops
+        // compare array elements instead of calling ProbablyEqual().
+
+        hashA = a.LineHashes();
+        hashB = b.LineHashes();
+        if (hashA == null || hashB == null)
+            hashA = hashB = null;
+
         // Calculate a limit on the amount of searching FindSnake does, so as to have
         // a reasonable upper bound on compute time (and space, although that's less relevant;
         // it's only 2*maxD elements of length LineNo, i.e. typically 8*maxD bytes).
@@ -114,7 +131,8 @@ public class DiffAnalyze {
         fV.Resize(maxD);
         rV.Resize(maxD);
 
-        firstSnake = lastSnake = null;
+        snakes = new int[SNAKE_INTS * 16];
+        snakeCount = 0;
 
         if (DEBUG_LEVEL > 0) {
             System.out.printf("N %d M %d maxD %d\n", a.Lines(), b.Lines(), maxD);
@@ -155,44 +173,107 @@ public class DiffAnalyze {
         return b;
     }
 
+    /**
+     * @return the number of snakes in the edit script; always at least one.
+     */
+    public int GetSnakeCount() {
+        return snakeCount;
+    }
+
+    /**
+     * @param i snake index
+     * @return first matching line of the first sequence
+     */
+    public int GetX(int i) {
+        return snakes[i * SNAKE_INTS];
+    }
+
+    /**
+     * @param i snake index
+     * @return line after the last matching line of the first sequence
+     */
+    public int GetU(int i) {
+        return snakes[i * SNAKE_INTS + 1];
+    }
+
+    /**
+     * @param i snake index
+     * @return first matching line of the second sequence
+     */
+    public int GetY(int i) {
+        return snakes[i * SNAKE_INTS + 2];
+    }
+
+    /**
+     * @param i snake index
+     * @return line after the last matching line of the second sequence
+     */
+    public int GetV(int i) {
+        return snakes[i * SNAKE_INTS + 3];
+    }
+
+    /**
+     * Returns the edit script as a linked list of Snake objects. The list is
+     * built on first use; prefer the indexed accessors in new code.
+     *
+     * @return the first snake
+     */
     public Snake GetSnake() {
+        if (firstSnake == null && snakeCount > 0) {
+            Snake last = null;
+            for (int i = 0; i < snakeCount; i++) {
+                Snake s = new Snake(GetX(i), GetU(i), GetY(i), GetV(i));
+                if (last == null)
+                    firstSnake = s;
+                else
+                    last.next = s;
+                last = s;
+            }
+        }
         return firstSnake;
     }
 
+    private static final int SNAKE_INTS = 4;
 
     private int maxD;
     private ISequence a;
     private ISequence b;
+    private int[] hashA;
+    private int[] hashB;
 
+    // Packed edit script: x, u, y, v per snake.
+    private int[] snakes;
+    private int snakeCount;
     private Snake firstSnake;
-    private Snake lastSnake;
+
+    // The snake found by the last FindSnake() call.
+    private int sx, su, sy, sv;
 
     private SymmetricVector fV = new SymmetricVector();
     private SymmetricVector rV = new SymmetricVector();
 
+    private void AddSnake(int x, int u, int y, int v) {
+        if ((snakeCount + 1) * SNAKE_INTS > snakes.length)
+            snakes = Arrays.copyOf(snakes, snakes.length * 2);
+
+        int i = snakeCount++ * SNAKE_INTS;
+        snakes[i] = x;
+        snakes[i + 1] = u;
+        snakes[i + 2] = y;
+        snakes[i + 3] = v;
+    }
+
     private void BracketSnake() {
-        Snake s;
 
         // If the first snake doesn't include the first lines of
         // both files, make a "null" snake for the beginning.
         // Note that if there is no snake (files completely unmatched)
         // we'll add a start snake anyhow.
 
-        s = firstSnake;
-
-        if (s == null || s.x.get() != 0 || s.y.get() != 0) {
-            Snake toadd = new Snake();
-
-            toadd.x.set(0);
-            toadd.u.set(0);
-            toadd.y.set(0);
-            toadd.v.set(0);
-            toadd.next = s;
-
-            if (s == null)
-                lastSnake = toadd;
-
-            firstSnake = toadd;
+        if (snakeCount == 0 || GetX(0) != 0 || GetY(0) != 0) {
+            AddSnake(0, 0, 0, 0);
+            System.arraycopy(snakes, 0, snakes, SNAKE_INTS, (snakeCount - 1) * SNAKE_INTS);
+            Arrays.fill(snakes, 0, SNAKE_INTS, 0);
         }
 
         // If the last snake doesn't include the last lines of
@@ -201,80 +282,104 @@ public class DiffAnalyze {
         // above, then we'll only wind up adding a tailing snake
         // if the files are not both empty.
 
-        s = lastSnake;
-
-        if (s.u.get() < a.Lines() || s.v.get() < b.Lines()) {
-            Snake toadd = new Snake();
-
-            toadd.x.set(a.Lines());
-            toadd.u.set(a.Lines());
-            toadd.y.set(b.Lines());
-            toadd.v.set(b.Lines());
-            toadd.next = null;
+        int last = snakeCount - 1;
 
-            s.next = toadd;
-            lastSnake = toadd;
-        }
+        if (GetU(last) < a.Lines() || GetV(last) < b.Lines())
+            AddSnake(a.Lines(), a.Lines(), b.Lines(), b.Lines());
     }
 
     private void ApplyForwardBias() throws IOException, FileEncoderException {
-        Snake s, next;
         int endx = a.Lines();
         int endy = b.Lines();
+        int last = snakeCount - 1;
 
         // Traverse the list of snakes, extending any which can be extended.
         // If the current snake extends into the next snake, then that snake
         // is shortened.  If the second snake is totally consumed then it is
-        // removed.
+        // removed: s is the write position of the compacted script and
+        // next the read position of the following snake.
+
+        int s = 0;
+
+        for (int next = 1; next <= last; next++) {
+            int si = s * SNAKE_INTS;
+            int ni = next * SNAKE_INTS;
 
-        for (s = firstSnake, next = s.next; next != null; s = next, next = next.next) {
-            while (s.u.get() < endx && s.v.get() < endy && a.Equal(s.u.get(), b, s.v.get())) {
+            while (snakes[si + 1] < endx && snakes[si + 3] < endy && a.Equal(snakes[si + 1], b, snakes[si + 3])) {
                 // start stretching current chunk
 
-                s.u.incrementAndGet();
-                s.v.incrementAndGet();
+                snakes[si + 1]++;
+                snakes[si + 3]++;
 
                 // if we are in an adjacent chunk then start compacting it
 
-                if (s.u.get() > next.x.get() || s.v.get() > next.y.get()) {
+                if (snakes[si + 1] > snakes[ni] || snakes[si + 3] > snakes[ni + 2]) {
 
-                    next.x.incrementAndGet();
-                    next.y.incrementAndGet();
+                    snakes[ni]++;
+                    snakes[ni + 2]++;
 
                     // if its totally consumed remove it (unless its the last).
 
-                    if (next.x.get() == next.u.get() && next != lastSnake) {
+                    if (snakes[ni] == snakes[ni + 1] && next != last) {
                         // handle special case of snake completely eating up the
                         // next snake - but don't delete the last snake!
 
-                        s.next = next.next;
-                        next = s.next;
+                        next++;
+                        ni = next * SNAKE_INTS;
                     }
                 }
             }
+
+            // move on to the next snake, compacting out removed ones
+
+            s++;
+            if (s != next)
+                System.arraycopy(snakes, next * SNAKE_INTS, snakes, s * SNAKE_INTS, SNAKE_INTS);
         }
+
+        snakeCount = s + 1;
     }
 
-    private void FollowDiagonal(
-            AtomicInteger x, AtomicInteger y,
-            int endx, int endy) {
-        while (x.get() < endx && y.get() < endy && a.ProbablyEqual(x.get(), b, y.get())) {
-            x.incrementAndGet();
-            y.incrementAndGet();
+    // Returns the number of lines the diagonal from (x,y) can be followed.
+    private int FollowDiagonal(int x, int y, int endx, int endy) {
+        int x0 = x;
+        if (hashA != null) {
+            final int[] ha = hashA;
+            final int[] hb = hashB;
+            while (x < endx && y < endy && ha[x] == hb[y]) {
+                x++;
+                y++;
+            }
+        } else {
+            while (x < endx && y < endy && a.ProbablyEqual(x, b, y)) {
+                x++;
+                y++;
+            }
         }
+        return x - x0;
     }
 
-    private void FollowReverseDiagonal(
-            AtomicInteger x, AtomicInteger y,
-            int startx, int starty) {
-        while (x.get() > startx && y.get() > starty && a.ProbablyEqual(x.get() - 1, b, y.get() - 1)) {
-            x.decrementAndGet();
-            y.decrementAndGet();
+    // Returns the number of lines the diagonal ending at (x,y) can be followed backwards.
+    private int FollowReverseDiagonal(int x, int y, int startx, int starty) {
+        int x0 = x;
+        if (hashA != null) {
+            final int[] ha = hashA;
+            final int[] hb = hashB;
+            while (x > startx && y > starty && ha[x - 1] == hb[y - 1]) {
+                x--;
+                y--;
+            }
+        } else {
+            while (x > startx && y > starty && a.ProbablyEqual(x - 1, b, y - 1)) {
+                x--;
+                y--;
+            }
         }
+        return x0 - x;
     }
 
-    private void FindSnake(Snake s,
-                           int startx, int starty,
+    // Leaves the snake found in sx, su, sy, sv.
+    private void FindSnake(int startx, int starty,
                            int endx, int endy) {
         final int n = endx - startx;
         final int m = endy - starty;
@@ -290,40 +395,46 @@ public class DiffAnalyze {
             }
         }
 
+        int step;
+
         // initialize values for D=0
 
-        s.x.set(startx);
-        s.u.set(startx);
+        sx = startx;
+        su = startx;
         fV.Set(0, startx);
-        s.y.set(starty);
-        s.v.set(starty);
+        sy = starty;
+        sv = starty;
 
-        // advances s.u,s.v to end of snake
-        FollowDiagonal(s.u, s.v, endx, endy);
+        // advances su,sv to end of snake
+        step = FollowDiagonal(su, sv, endx, endy);
+        su += step;
+        sv += step;
 
         // Heuristic: return immediately with initial prefix
 
-        if (s.u.get() > s.x.get()) {
+        if (su > sx) {
             if (DEBUG_LEVEL > 2) {
-                System.out.printf("FindSnake returning with initial prefix %d to %d\n", s.x.get(), s.u.get());
+                System.out.printf("FindSnake returning with initial prefix %d to %d\n", sx, su);
             }
             return;
         }
 
-        s.u.set(endx);
-        s.x.set(endx);
+        su = endx;
+        sx = endx;
         rV.Set(0, endx);
-        s.y.set(endy);
-        s.v.set(endy);
+        sy = endy;
+        sv = endy;
 
-        // s.x,s.y set to start of snake
-        FollowReverseDiagonal(s.x, s.y, startx, starty);
+        // sx,sy set to start of snake
+        step = FollowReverseDiagonal(sx, sy, startx, starty);
+        sx -= step;
+        sy -= step;
 
         // Heuristic: return immediately with initial suffix
 
-        if (s.u.get() > s.x.get()) {
+        if (su > sx) {
             if (DEBUG_LEVEL > 2) {
-                System.out.printf("FindSnake returning with initial suffix %d to %d\n", s.x.get(), s.u.get());
+                System.out.printf("FindSnake returning with initial suffix %d to %d\n", sx, su);
             }
             return;
         }
@@ -345,18 +456,20 @@ public class DiffAnalyze {
             for (k = minkF; k <= maxkF; k += 2) {
 
                 if (k == minkF || (k != maxkF && fV.Get(k + 1) > fV.Get(k - 1)))
-                    s.x.set(fV.Get(k + 1));   // down in edit graph
+                    sx = fV.Get(k + 1);   // down in edit graph
                 else
-                    s.x.set(fV.Get(k - 1) + 1); // to the right in edit graph
+                    sx = fV.Get(k - 1) + 1; // to the right in edit graph
 
                 // Follow the (possibly 0 length) diagonal in the
                 // edit graph (aka snake)
 
-                s.u.set(s.x.get());
-                s.v.set(mapxtoy(s.u.get(), k, startx, starty));
+                su = sx;
+                sv = mapxtoy(su, k, startx, starty);
 
-                // advances s.u,s.v to end of snake
-                FollowDiagonal(s.u, s.v, endx, endy);
+                // advances su,sv to end of snake
+                step = FollowDiagonal(su, sv, endx, endy);
+                su += step;
+                sv += step;
 
                 if (!deltaEven) { // Delta odd
 
@@ -373,22 +486,22 @@ public class DiffAnalyze {
 
                     if (k - delta >= pminkR && k - delta <= pmaxkR) {
                         if (DEBUG_LEVEL > 3) {
-                            System.out.printf("s.u %d rv[%d] %d\n", s.u.get(), k - delta, rV.Get(k - delta));
+                            System.out.printf("s.u %d rv[%d] %d\n", su, k - delta, rV.Get(k - delta));
                         }
-                        if (s.u.get() >= rV.Get(k - delta)) {
-                            // fill in the fields of s which haven't
+                        if (su >= rV.Get(k - delta)) {
+                            // fill in the fields of the snake which haven't
                             // already been filled in
 
-                            s.y.set(mapxtoy(s.x.get(), k, startx, starty));
+                            sy = mapxtoy(sx, k, startx, starty);
                             if (DEBUG_LEVEL > 2) {
-                                System.out.printf("FindSnake returning during forward search (%d,%d) to (%d,%d)\n", s.x.get(), s.y.get(), s.u.get(), s.v.get());
+                                System.out.printf("FindSnake returning during forward search (%d,%d) to (%d,%d)\n", sx, sy, su, sv);
                             }
                             return; // finished!
                         }
                     }
                 }
 
-                fV.Set(k, s.u.get()); // ok, now set it to the end of the snake
+                fV.Set(k, su); // ok, now set it to the end of the snake
             }
 
             if (DEBUG_LEVEL > 2) {
@@ -401,13 +514,15 @@ public class DiffAnalyze {
             for (k = minkR; k <= maxkR; k += 2) {
 
                 if (k == maxkR || (k != minkR && rV.Get(-1) < rV.Get(k + 1)))
-                    s.u.set(rV.Get(k - 1)); // up
+                    su = rV.Get(k - 1); // up
                 else
-                    s.u.set(rV.Get(k + 1) - 1); // to the left
+                    su = rV.Get(k + 1) - 1; // to the left
 
-                s.x.set(s.u.get());
-                s.y.set(mapxtoy(s.x.get(), k, endx, endy));
-                FollowReverseDiagonal(s.x, s.y, startx, starty);
+                sx = su;
+                sy = mapxtoy(sx, k, endx, endy);
+                step = FollowReverseDiagonal(sx, sy, startx, starty);
+                sx -= step;
+                sy -= step;
 
                 // check if path overlaps end of furthest reaching
                 // forward D-path
@@ -416,20 +531,20 @@ public class DiffAnalyze {
 
                     if (k + delta >= minkF && k + delta <= maxkF) {
                         if (DEBUG_LEVEL > 3) {
-                            System.out.printf("s.x %d fV[%d] %d\n", s.x.get(), k + delta, fV.Get(k + delta));
+                            System.out.printf("s.x %d fV[%d] %d\n", sx, k + delta, fV.Get(k + delta));
                         }
-                        if (s.x.get() <= fV.Get(k + delta)) {
-                            // fill in the fields of s which haven't
+                        if (sx <= fV.Get(k + delta)) {
+                            // fill in the fields of the snake which haven't
                             // already been filled in
-                            s.v.set(mapxtoy(s.u.get(), k, endx, endy));
+                            sv = mapxtoy(su, k, endx, endy);
                             if (DEBUG_LEVEL > 2) {
-                                System.out.printf("FindSnake returning during reverse search (%d,%d) to (%d,%d)\n", s.x.get(), s.y.get(), s.u.get(), s.v.get());
+                                System.out.printf("FindSnake returning during reverse search (%d,%d) to (%d,%d)\n", sx, sy, su, sv);
                             }
                             return; // finished!
                         }
                     }
                 }
-                rV.Set(k, s.x.get()); // ok, now set it to the end of the snake
+                rV.Set(k, sx); // ok, now set it to the end of the snake
             }
 
             if (DEBUG_LEVEL > 2) {
@@ -444,20 +559,24 @@ public class DiffAnalyze {
         // stumbled upon a snake in the middle, then extend it to its
         // maximum length.
 
-        s.u.set(startx + (endx - startx) / 2);
-        s.x.set(s.u.get());
-        s.v.set(starty + (endy - starty) / 2);
-        s.y.set(s.v.get());
+        su = startx + (endx - startx) / 2;
+        sx = su;
+        sv = starty + (endy - starty) / 2;
+        sy = sv;
 
         if (DEBUG_LEVEL > 2) {
-            System.out.printf("exceeded maxD midpt (%d,%d)\n", s.x.get(), s.y.get());
+            System.out.printf("exceeded maxD midpt (%d,%d)\n", sx, sy);
         }
 
-        FollowReverseDiagonal(s.x, s.y, startx, starty);
-        FollowDiagonal(s.u, s.v, endx, endy);
+        step = FollowReverseDiagonal(sx, sy, startx, starty);
+        sx -= step;
+        sy -= step;
+        step = FollowDiagonal(su, sv, endx, endy);
+        su += step;
+        sv += step;
 
         if (DEBUG_LEVEL > 2) {
-            System.out.printf("after extending: (%d,%d) to (%d,%d)\n", s.x.get(), s.y.get(), s.u.get(), s.v.get());
+            System.out.printf("after extending: (%d,%d) to (%d,%d)\n", sx, sy, su, sv);
         }
     }
 
@@ -472,62 +591,53 @@ public class DiffAnalyze {
     private void LCS(
             final int startx, final int starty,
             final int endx, final int endy) throws IOException, FileEncoderException {
-        Snake s = new Snake();
-        FindSnake(s, startx, starty, endx, endy); // s is a reference parameter for speed
+        FindSnake(startx, starty, endx, endy);
+
+        // FindSnake() leaves its result in sx, su, sy, sv; take local
+        // copies as the recursive calls below overwrite them.
+
+        int x = sx, u = su, y = sy, v = sv;
 
-        if (s.x.get() > startx && s.y.get() > starty) {
+        if (x > startx && y > starty) {
 
             if (DEBUG_LEVEL > 0) {
-                System.out.printf("LCS %d , %d , %d , %d\n", startx, starty, s.x.get(), s.y.get());
-                if (s.x.get() == endx && s.y.get() == endy) {
+                System.out.printf("LCS %d , %d , %d , %d\n", startx, starty, x, y);
+                if (x == endx && y == endy) {
                     throw new RuntimeException("INFINITE RECURSION!");
                 }
             }
-            LCS(startx, starty, s.x.get(), s.y.get());
+            LCS(startx, starty, x, y);
         }
 
-        if (s.u.get() > s.x.get()) { // snake has nonzero length
+        if (u > x) { // snake has nonzero length
 
             int snakes_added = 0;
             if (DEBUG_LEVEL > 1) {
-                System.out.printf("SNAKE (%d,%d) to (%d,%d)\n", s.x.get(), s.y.get(), s.u.get(), s.v.get());
+                System.out.printf("SNAKE (%d,%d) to (%d,%d)\n", x, y, u, v);
             }
-            // verify actual sequence contents, splitting snake up if there 
+            // verify actual sequence contents, splitting snake up if there
             // are any pairs of lines which are ProbablyEqual() but not Equal()
 
             int cx, cy;
-            for (cx = s.x.get(), cy = s.y.get(); cx < s.u.get(); cx++, cy++) {
+            for (cx = x, cy = y; cx < u; cx++, cy++) {
 
-                s.x.set(cx);
-                s.y.set(cy);
-                while (cx < s.u.get() && a.Equal(cx, b, cy)) {
+                x = cx;
+                y = cy;
+                while (cx < u && a.Equal(cx, b, cy)) {
                     cx++;
                     cy++;
                 }
 
-                if (cx > s.x.get()) { // nonzero length snake to add
-                    Snake toadd = new Snake();
-
-                    toadd.next = null;
-                    toadd.x.set(s.x.get());
-                    toadd.y.set(s.y.get());
-                    toadd.u.set(cx);
-                    toadd.v.set(cy);
+                if (cx > x) { // nonzero length snake to add
 
                     if (DEBUG_LEVEL > 1) {
                         snakes_added++;
-                        System.out.printf("Adding snake (%d,%d) to (%d,%d)\n", toadd.x.get(), toadd.y.get(), toadd.u.get(), toadd.v.get());
+                        System.out.printf("Adding snake (%d,%d) to (%d,%d)\n", x, y, cx, cy);
                     }
 
-                    // add snake to end of linked list
+                    // add snake to end of edit script
 
-                    if (firstSnake != null) {
-                        // already found first one
-                        lastSnake.next = toadd;
-                        lastSnake = toadd;
-                    } else {
-                        firstSnake = lastSnake = toadd;
-                    }
+                    AddSnake(x, cx, y, cy);
                 }
             }
             if (DEBUG_LEVEL > 1) {
@@ -538,16 +648,16 @@ public class DiffAnalyze {
             }
         }
 
-        if (endx > s.u.get() && endy > s.v.get()) {
+        if (endx > u && endy > v) {
 
             if (DEBUG_LEVEL > 0) {
-                System.out.printf("LCS %d , %d , %d , %d\n", s.u.get(), s.v.get(), endx, endy);
-                if (s.u.get() == startx && s.v.get() == starty) {
+                System.out.printf("LCS %d , %d , %d , %d\n", u, v, endx, endy);
+                if (u == startx && v == starty) {
                     throw new RuntimeException("INFINITE RECURSION!");
                 }
             }
 
-            LCS(s.u.get(), s.v.get(), endx, endy);
+            LCS(u, v, endx, endy);
         }
     }
 }
@@ -0,0 +1,120 @@
+package com.perforce.p4java.diff;
+
+import com.perforce.p4java.exception.FileEncoderException;
+
+import org.apache.commons.io.output.CloseShieldOutputStream;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+/**
+ * Stream the diffs of any number of content pairs to a single output, each
+ * preceded by a header naming the pair, without touching the filesystem.
+ * <p>
+ * Unified diffs get "--- from" / "+++ to" headers, context diffs get
+ * "*** from" / "--- to" and all other types a "==== from - to ====" line.
+ * Identical pairs produce no output at all.
+ * <p>
+ * The output is only closed by close(); write() just flushes after each pair.
+ *
+ * @since 2025.2
+ */
+public class DiffWriter implements Closeable, Flushable {
+
+    private final OutputStream out;
+    private final Charset charset;
+    private final DiffFlags flags;
+    private final String newLines = System.lineSeparator();
+
+    /**
+     * @param out   output stream; headers and markers use the default charset
+     * @param flags diff type and line/word splitting mode
+     */
+    public DiffWriter(OutputStream out, DiffFlags flags) {
+        this(out, Charset.defaultCharset(), flags);
+    }
+
+    /**
+     * @param out     output stream
+     * @param charset charset for headers and markers
+     * @param flags   diff type and line/word splitting mode
+     */
+    public DiffWriter(OutputStream out, Charset charset, DiffFlags flags) {
+        this.out = out;
+        this.charset = charset;
+        this.flags = flags;
+    }
+
+    /**
+     * @param writer  character output
+     * @param charset charset used to decode content lines for the writer
+     * @param flags   diff type and line/word splitting mode
+     */
+    public DiffWriter(Writer writer, Charset charset, DiffFlags flags) {
+        this(Diff.WriterStream(writer, charset), charset, flags);
+    }
+
+    /**
+     * Diff two in-memory contents.
+     *
+     * @return true if the contents differ and a diff was written
+     */
+    public boolean write(String fromLabel, byte[] from, String toLabel, byte[] to) throws IOException {
+        return write(fromLabel, new Sequence(from, flags), toLabel, new Sequence(to, flags));
+    }
+
+    /**
+     * Diff two sequences, which must have been loaded with this writer's
+     * flags. The sequences are not closed.
+     *
+     * @return true if the sequences differ and a diff was written
+     */
+    public boolean write(String fromLabel, Sequence from, String toLabel, Sequence to) throws IOException {
+        try {
+            Diff diff = new Diff();
+            diff.SetInput(from, to, flags);
+            if (diff.IsIdentical())
+                return false;
+
+            out.write(header(fromLabel, toLabel).getBytes(charset));
+
+            diff.SetOutput(CloseShieldOutputStream.wrap(out), charset);
+            try {
+                diff.DiffWithFlags(flags);
+            } finally {
+                diff.CloseOutput();
+            }
+        } catch (FileEncoderException e) {
+            // Only file-backed sequences ever re-open their files.
+            throw new IOException(e);
+        }
+
+        out.flush();
+        return true;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private String header(String fromLabel, String toLabel) {
+        switch (flags.type) {
+            case Unified:
+                return "--- " + fromLabel + newLines + "+++ " + toLabel + newLines;
+            case Context:
+                return "*** " + fromLabel + newLines + "--- " + toLabel + newLines;
+            default:
+                return "==== " + fromLabel + " - " + toLabel + " ====" + newLines;
+        }
+    }
+}
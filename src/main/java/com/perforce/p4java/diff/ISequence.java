@@ -10,4 +10,15 @@ public interface ISequence {
     boolean Equal(int lA, ISequence B, int lB) throws IOException, FileEncoderException;
 
     boolean ProbablyEqual(int lA, ISequence B, int lB);
+
+    /**
+     * Returns the per-line hashes that ProbablyEqual() compares, indexed by
+     * line number, so DiffAnalyze can compare them without a call per line.
+     * The array may be longer than Lines() and must not be modified.
+     *
+     * @return line hashes, or null if not available
+     */
+    default int[] LineHashes() {
+        return null;
+    }
 }
@@ -4,18 +4,32 @@ import com.perforce.p4java.exception.FileEncoderException;
 import com.perforce.p4java.impl.mapbased.rpc.sys.RpcInputStream;
 import com.perforce.p4java.impl.mapbased.rpc.sys.RpcPerforceFile;
 
+import org.apache.commons.io.IOUtils;
+
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.nio.charset.Charset;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * A file or in-memory text split into lines (or words, for the word based
+ * DiffFlags modes), each with a hash, for comparison by DiffAnalyze.
+ * <p>
+ * File-backed sequences read through an RpcInputStream, so charset and line
+ * ending conversion follow the file type. Memory-backed sequences are
+ * compared exactly as given and need no filesystem access at all.
+ */
 public class Sequence implements ISequence, Closeable {
 
     public static int P4TUNE_FILESYS_BUFSIZE = 64 * 1024 * 1024;
 
+    // Smallest read window allocated for a file-backed sequence.
+    private static final int MIN_FILESYS_BUFSIZE = 64 * 1024;
+
     class ReadFile {
         private Charset charset = null;
         private RpcPerforceFile file = null;
@@ -24,15 +38,38 @@ public class Sequence implements ISequence, Closeable {
             this.file = f;
             this.charset = charset;
             in = new RpcInputStream(f, charset);
-            buf = new byte[P4TUNE_FILESYS_BUFSIZE];
+            buf = new byte[WindowSize(f)];
+        }
+
+        // The whole of the data is the memory window; there is nothing
+        // further to Read() and no need to ever rewind.
+        public void Open(byte[] data, int length) {
+            this.file = null;
+            this.charset = null;
+            in = null;
+            buf = data;
+            pos = 0;
+            len = length;
+            offset = length;
+            size = length;
         }
 
         public void Close() throws IOException {
-            in.close();
+            if (in != null)
+                in.close();
         }
 
         private void deleteFile() throws IOException {
-            file.delete();
+            if (file != null)
+                file.delete();
+        }
+
+        // Room for the whole file, allowing for growth through charset
+        // conversion, so that seeks stay within the window; if the
+        // converted content turns out bigger the window just slides.
+        private int WindowSize(RpcPerforceFile f) {
+            long want = Math.max(MIN_FILESYS_BUFSIZE, 2 * f.length() + 1);
+            return (int) Math.min(P4TUNE_FILESYS_BUFSIZE, want);
         }
 
         public char Char() {
@@ -72,7 +109,7 @@ public class Sequence implements ISequence, Closeable {
 
                 if (Read() != 0)
                     Seek(o);
-            } else if (o < windowStart) {
+            } else if (o < windowStart && file != null) {
                 // Seek before current buffer.
 
                 // The in-memory offset and file offset
@@ -230,7 +267,7 @@ public class Sequence implements ISequence, Closeable {
 
         private int Read() throws IOException {
 
-            int l = in.read(buf);
+            int l = in != null ? in.read(buf) : 0;
 
             if (l <= 0) {
                 // say what? file got short?
@@ -266,11 +303,6 @@ public class Sequence implements ISequence, Closeable {
 
     public enum LineType {LineTypeRaw, LineTypeCr, LineTypeCrLf, LineTypeLfcrlf}
 
-    class VarInfo {
-        public int hash;
-        public long offset;
-    }
-
     abstract class ISequencer {
         abstract boolean Equal(int lineA, Sequence b, int lineB) throws IOException, FileEncoderException;
 
@@ -689,79 +721,117 @@ public class Sequence implements ISequence, Closeable {
     }
 
     public Sequence(final Sequence other, final DiffFlags flags) {
-        lines.addAll(other.lines);
-
-        sequencer = null;
+        // Copied rather than shared, as StoreLine() writes into the arrays.
+        hashes = Arrays.copyOf(other.hashes, other.count + 1);
+        offsets = Arrays.copyOf(other.offsets, other.count + 1);
+        count = other.count;
 
         readfile = new ReadFile();
+        sequencer = NewSequencer(flags);
 
-        switch (flags.sequence) {
-            case Line:
-                sequencer = new LineReader();
-                break;
-            case Word:
-                sequencer = new WordReader();
-                break;
-            case WClass:
-                sequencer = new WClassReader();
-                break;
-            case DashL:
-                sequencer = new DifflReader();
-                break;
-            case DashB:
-                sequencer = new DiffbReader();
-                break;
-            case DashW:
-                sequencer = new DiffwReader();
-                break;
-        }
-
-        sequencer.a = this;
-        sequencer.src = readfile;
         // Must call Reuse() before using this instance
     }
 
     public Sequence(RpcPerforceFile f, Charset charset, final DiffFlags flags) throws IOException, FileEncoderException {
-        sequencer = null;
-
         readfile = new ReadFile();
 
         // Build list of line hashes.
 
+        sequencer = NewSequencer(flags);
+
+        // We open, ~Sequence() closes.
+
+        readfile.Open(f, charset);
+        Load();
+    }
+
+    /**
+     * Create a sequence over in-memory content. The array is used as is,
+     * not copied, and must not be modified while the sequence is in use.
+     *
+     * @param content content bytes
+     * @param flags   diff flags selecting the line/word splitting mode
+     * @throws IOException never in practice; declared by the shared loaders
+     */
+    public Sequence(byte[] content, final DiffFlags flags) throws IOException {
+        this(content, content.length, flags);
+    }
+
+    /**
+     * Create a sequence over the first length bytes of an in-memory buffer.
+     * The array is used as is, not copied.
+     *
+     * @param content content bytes
+     * @param length  number of valid bytes in content
+     * @param flags   diff flags selecting the line/word splitting mode
+     * @throws IOException never in practice; declared by the shared loaders
+     */
+    public Sequence(byte[] content, int length, final DiffFlags flags) throws IOException {
+        readfile = new ReadFile();
+        sequencer = NewSequencer(flags);
+        readfile.Open(content, length);
+        Load();
+    }
+
+    /**
+     * Create a sequence over text, encoded with the given charset.
+     *
+     * @param text    text content
+     * @param charset charset used to encode the text
+     * @param flags   diff flags selecting the line/word splitting mode
+     * @throws IOException never in practice; declared by the shared loaders
+     */
+    public Sequence(CharSequence text, Charset charset, final DiffFlags flags) throws IOException {
+        this(text.toString().getBytes(charset), flags);
+    }
+
+    /**
+     * Create a sequence over the remaining content of a stream, which is
+     * read fully into memory; the stream is not closed.
+     *
+     * @param in    content stream
+     * @param flags diff flags selecting the line/word splitting mode
+     * @throws IOException if the stream cannot be read
+     */
+    public Sequence(InputStream in, final DiffFlags flags) throws IOException {
+        this(IOUtils.toByteArray(in), flags);
+    }
+
+    private ISequencer NewSequencer(final DiffFlags flags) {
+        ISequencer seq = null;
+
         switch (flags.sequence) {
             case Line:
-                sequencer = new LineReader();
+                seq = new LineReader();
                 break;
             case Word:
-                sequencer = new WordReader();
+                seq = new WordReader();
                 break;
             case WClass:
-                sequencer = new WClassReader();
+                seq = new WClassReader();
                 break;
             case DashL:
-                sequencer = new DifflReader();
+                seq = new DifflReader();
                 break;
             case DashB:
-                sequencer = new DiffbReader();
+                seq = new DiffbReader();
                 break;
             case DashW:
-                sequencer = new DiffwReader();
+                seq = new DiffwReader();
                 break;
         }
 
-        // We open, ~Sequence() closes.
-
-        sequencer.a = this;
-        sequencer.src = readfile;
-        readfile.Open(f, charset);
+        seq.a = this;
+        seq.src = readfile;
+        return seq;
+    }
 
+    private void Load() throws IOException {
         // allocate initial space
 
-        lines.clear();
-        VarInfo vi =new VarInfo();
-        vi.offset=0;
-        vi.hash=0;
-        lines.add(vi);
+        hashes = new int[INITIAL_LINES];
+        offsets = new long[INITIAL_LINES];
+        count = 1;
 
         // Load lines
 
@@ -769,7 +839,7 @@ public class Sequence implements ISequence, Closeable {
     }
 
     public int Lines() {
-        return lines.size() -1;
+        return count - 1;
     }
 
     public void SeekLine(int l) throws IOException, FileEncoderException {
@@ -811,6 +881,54 @@ public class Sequence implements ISequence, Closeable {
 
     }
 
+    /**
+     * Write the lines from the current position up to line m.
+     *
+     * @return true if the output ended with a newline
+     */
+    public boolean Dump(PrintWriter out, int m, LineType lineType) throws IOException {
+        int len;
+        int llen = 0;
+        byte[] buf = dumpBuf;
+
+        // Don't go past the end of the file!
+
+        if (Lines() < m)
+            m = Lines();
+
+        while ((len = readfile.Textcpy(buf, DUMP_BUFSIZE, LengthLeft(m - 1), lineType)) != 0) {
+            for (int i = 0; i < len; i++)
+                out.write(buf[i]);
+            llen = len;
+        }
+
+        return llen <= 0 || buf[llen - 1] == '\n';
+    }
+
+    /**
+     * Write the raw bytes of the lines from the current position up to
+     * line m.
+     *
+     * @return true if the output ended with a newline
+     */
+    public boolean Dump(OutputStream out, int m, LineType lineType) throws IOException {
+        int len;
+        int llen = 0;
+        byte[] buf = dumpBuf;
+
+        // Don't go past the end of the file!
+
+        if (Lines() < m)
+            m = Lines();
+
+        while ((len = readfile.Textcpy(buf, DUMP_BUFSIZE, LengthLeft(m - 1), lineType)) != 0) {
+            out.write(buf, 0, len);
+            llen = len;
+        }
+
+        return llen <= 0 || buf[llen - 1] == '\n';
+    }
+
     public long Length(int l) {
         return Off(l + 1) - Off(l);
     }
@@ -829,29 +947,40 @@ public class Sequence implements ISequence, Closeable {
     }
 
     public boolean ProbablyEqual(int lA, ISequence b, int lB) {
-        return Hash(lA) == ((Sequence) b).Hash(lB);
+        return hashes[lA] == ((Sequence) b).hashes[lB];
     }
 
-    public void StoreLine(int intue) {
-        lines.get(Lines()).hash = intue;
-        VarInfo varInfo = new VarInfo();
-        varInfo.hash = 0;
-        varInfo.offset = readfile.Tell();
-        lines.add(varInfo);
+    public int[] LineHashes() {
+        return hashes;
     }
 
-
-    private int Hash(int l) {
-        return lines.get(l).hash;
+    public void StoreLine(int intue) {
+        hashes[count - 1] = intue;
+        if (count == hashes.length) {
+            hashes = Arrays.copyOf(hashes, count * 2);
+            offsets = Arrays.copyOf(offsets, count * 2);
+        }
+        hashes[count] = 0;
+        offsets[count] = readfile.Tell();
+        count++;
     }
 
+
     private long Off(int l) {
-        return lines.get(l).offset;
+        return offsets[l];
     }
 
-    /* Variable length list of lines */
+    /* Variable length table of lines: hash and start offset of each line,
+       plus a trailing entry holding the end offset of the last line */
+
+    private static final int INITIAL_LINES = 1024;
+    private static final int DUMP_BUFSIZE = 1024;
+
+    private int[] hashes;
+    private long[] offsets;
+    private int count;
 
-    private final List<VarInfo> lines = new ArrayList<>();
+    private final byte[] dumpBuf = new byte[DUMP_BUFSIZE];
 
     public void close() {
         try {
@@ -873,6 +1002,16 @@ public class Sequence implements ISequence, Closeable {
         readfile.Open(f, charset);
     }
 
+    /**
+     * Attach in-memory content to a sequence created with the copying
+     * constructor; the content must be the same as that of the original.
+     *
+     * @param content content bytes
+     */
+    public void Reuse(byte[] content) {
+        readfile.Open(content, content.length);
+    }
+
     /* Actual underlying file reader */
 
     private ISequencer sequencer;
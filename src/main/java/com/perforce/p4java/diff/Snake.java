@@ -2,9 +2,24 @@ package com.perforce.p4java.diff;
 
 import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * A matching chunk of the two sequences compared by DiffAnalyze, as returned
+ * by DiffAnalyze.GetSnake(). DiffAnalyze itself keeps its edit script packed
+ * in an int array; see its indexed accessors.
+ */
 public class Snake {
     public Snake next = null;
     // u-x == v-y 'cause they match
     public AtomicInteger x = new AtomicInteger(0), u = new AtomicInteger(0);    // matching part of first file
     public AtomicInteger y = new AtomicInteger(0), v = new AtomicInteger(0);    // matching part of second file
+
+    public Snake() {
+    }
+
+    public Snake(int x, int u, int y, int v) {
+        this.x.set(x);
+        this.u.set(u);
+        this.y.set(y);
+        this.v.set(v);
+    }
 }
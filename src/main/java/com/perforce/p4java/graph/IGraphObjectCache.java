@@ -0,0 +1,58 @@
+package com.perforce.p4java.graph;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Cache for immutable graph depot objects, keyed by repo and object SHA.
+ * <p>
+ * Only full object SHAs are ever passed in, never refs or abbreviations, so
+ * an entry never goes stale. The repo passed in is the repo name qualified
+ * by the server address and user name, so that objects fetched for one
+ * user are never returned to another; its repo part is empty for lookups
+ * that are not qualified by a repo. Implementations must be thread-safe;
+ * cached commits and tree entries are shared and must be treated as
+ * read-only.
+ *
+ * @since 2025.2
+ */
+public interface IGraphObjectCache {
+
+	ICommit getCommit(String repo, String sha);
+
+	void putCommit(String repo, String sha, ICommit commit);
+
+	List<IGraphListTree> getTree(String repo, String sha);
+
+	void putTree(String repo, String sha, List<IGraphListTree> tree);
+
+	IGraphObject getObject(String repo, String sha);
+
+	void putObject(String repo, String sha, IGraphObject object);
+
+	/**
+	 * @return a stream over the cached blob content, or null if not cached
+	 * @throws IOException if the cached content cannot be opened
+	 */
+	InputStream getBlob(String repo, String sha) throws IOException;
+
+	/**
+	 * Store blob content as read from the server. The content stream is
+	 * consumed and closed.
+	 *
+	 * @return a stream over the stored content, to be returned to the caller
+	 * in place of the original stream
+	 * @throws IOException if the content cannot be read or stored
+	 */
+	InputStream putBlob(String repo, String sha, InputStream content) throws IOException;
+
+	/**
+	 * Drop all cached objects.
+	 */
+	void clear();
+
+	long getHitCount();
+
+	long getMissCount();
+}
@@ -5,9 +5,8 @@ package com.perforce.p4java.impl.generic.admin;
 
 import com.perforce.p4java.Log;
 import com.perforce.p4java.admin.IProperty;
+import com.perforce.p4java.common.base.P4DateUtils;
 
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Map;
 
@@ -76,8 +75,7 @@ public class Property implements IProperty {
 					this.time = new Long((String) map.get("time"));
 				}
 				if (map.containsKey("modified")) {
-		            DateFormat df = new SimpleDateFormat(DATE_PATTERN);
-		            this.modified = df.parse((String) map.get("modified"));
+					this.modified = P4DateUtils.parseDate((String) map.get("modified"));
 				}
 				if (map.containsKey("modifiedBy")) {
 					this.modifiedBy = (String) map.get("modifiedBy");
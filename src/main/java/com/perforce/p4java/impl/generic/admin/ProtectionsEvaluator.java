@@ -0,0 +1,441 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.impl.generic.admin;
+
+import com.perforce.p4java.admin.IProtectionEntry;
+import com.perforce.p4java.core.IUserGroup;
+import com.perforce.p4java.exception.P4JavaException;
+import com.perforce.p4java.mapapi.MapFlag;
+import com.perforce.p4java.mapapi.MapTable;
+import com.perforce.p4java.mapapi.MapTableT;
+import com.perforce.p4java.option.server.GetProtectionEntriesOptions;
+import com.perforce.p4java.option.server.GetUserGroupsOptions;
+import com.perforce.p4java.server.IOptionsServer;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Answers access questions against a snapshot of the protections table
+ * without going back to the server.
+ * <p>
+ * The snapshot is the output of 'protects -a' together with the group
+ * membership from 'groups'; see {@link #load(IOptionsServer)}. For a given
+ * user and host, the protections lines that apply to them are compiled into
+ * one map per access right, in table order, each line granting or (for
+ * exclusionary lines) revoking the rights its mode stands for; as on the
+ * server, later lines take precedence over earlier ones. Answering a query
+ * is then a lookup in the compiled map. Compiled maps are cached, and shared
+ * between users and hosts to whom the same lines apply.
+ * <p>
+ * Modes and the rights they grant or revoke follow the server: 'list',
+ * 'read', 'open', 'write', 'admin', 'owner' and 'super' each include the
+ * rights below them ('review' includes 'list' and 'read'), and an
+ * exclusionary line revokes the right of its mode and all rights above it;
+ * the '=read', '=branch', '=open' and '=write' modes grant or revoke that
+ * one right alone. An empty protections table grants everything to
+ * everyone.
+ * <p>
+ * Hosts are matched against the host field as the server would see the
+ * client's address; wildcards and IPv4 CIDR notation are understood.
+ * <p>
+ * Instances are immutable apart from their cache, and safe for concurrent
+ * use.
+ *
+ * @since 2025.2
+ */
+public class ProtectionsEvaluator {
+
+	/**
+	 * Access modes from lowest to highest, as reported by 'protects -m'.
+	 */
+	public static final List<String> ACCESS_LEVELS = Collections.unmodifiableList(
+			Arrays.asList("list", "read", "open", "write", "admin", "owner", "super"));
+
+	/**
+	 * The mode reported when a user has no access to a path.
+	 */
+	public static final String NO_ACCESS = "none";
+
+	// The individual rights, as bit positions.
+
+	private static final int RIGHT_LIST = 0;
+	private static final int RIGHT_READ = 1;
+	private static final int RIGHT_BRANCH = 2;
+	private static final int RIGHT_OPEN = 3;
+	private static final int RIGHT_WRITE = 4;
+	private static final int RIGHT_REVIEW = 5;
+	private static final int RIGHT_ADMIN = 6;
+	private static final int RIGHT_OWNER = 7;
+	private static final int RIGHT_SUPER = 8;
+	private static final int RIGHT_COUNT = 9;
+
+	private static final int ALL_RIGHTS = (1 << RIGHT_COUNT) - 1;
+
+	private static final Map<String, Integer> GRANTS = new HashMap<>();
+	private static final Map<String, Integer> REVOKES = new HashMap<>();
+	private static final Map<String, Integer> QUERY_RIGHTS = new HashMap<>();
+
+	static {
+		int list = bit(RIGHT_LIST);
+		int read = list | bit(RIGHT_READ) | bit(RIGHT_BRANCH);
+		int open = read | bit(RIGHT_OPEN);
+		int write = open | bit(RIGHT_WRITE);
+		int admin = write | bit(RIGHT_REVIEW) | bit(RIGHT_ADMIN);
+		int owner = admin | bit(RIGHT_OWNER);
+
+		GRANTS.put("list", list);
+		GRANTS.put("read", read);
+		GRANTS.put("open", open);
+		GRANTS.put("write", write);
+		GRANTS.put("review", read | bit(RIGHT_REVIEW));
+		GRANTS.put("admin", admin);
+		GRANTS.put("owner", owner);
+		GRANTS.put("super", ALL_RIGHTS);
+		GRANTS.put("=read", bit(RIGHT_READ));
+		GRANTS.put("=branch", bit(RIGHT_BRANCH));
+		GRANTS.put("=open", bit(RIGHT_OPEN));
+		GRANTS.put("=write", bit(RIGHT_WRITE));
+
+		int aboveAdmin = bit(RIGHT_ADMIN) | bit(RIGHT_OWNER) | bit(RIGHT_SUPER);
+		REVOKES.put("list", ALL_RIGHTS);
+		REVOKES.put("read", ALL_RIGHTS & ~list);
+		REVOKES.put("open", bit(RIGHT_OPEN) | bit(RIGHT_WRITE) | aboveAdmin);
+		REVOKES.put("write", bit(RIGHT_WRITE) | aboveAdmin);
+		REVOKES.put("review", bit(RIGHT_REVIEW) | aboveAdmin);
+		REVOKES.put("admin", aboveAdmin);
+		REVOKES.put("owner", bit(RIGHT_OWNER) | bit(RIGHT_SUPER));
+		REVOKES.put("super", bit(RIGHT_SUPER));
+		REVOKES.put("=read", bit(RIGHT_READ));
+		REVOKES.put("=branch", bit(RIGHT_BRANCH));
+		REVOKES.put("=open", bit(RIGHT_OPEN));
+		REVOKES.put("=write", bit(RIGHT_WRITE));
+
+		QUERY_RIGHTS.put("list", RIGHT_LIST);
+		QUERY_RIGHTS.put("read", RIGHT_READ);
+		QUERY_RIGHTS.put("branch", RIGHT_BRANCH);
+		QUERY_RIGHTS.put("open", RIGHT_OPEN);
+		QUERY_RIGHTS.put("write", RIGHT_WRITE);
+		QUERY_RIGHTS.put("review", RIGHT_REVIEW);
+		QUERY_RIGHTS.put("admin", RIGHT_ADMIN);
+		QUERY_RIGHTS.put("owner", RIGHT_OWNER);
+		QUERY_RIGHTS.put("super", RIGHT_SUPER);
+	}
+
+	/**
+	 * The access of one user from one host, compiled for lookups.
+	 */
+	public final class Access {
+		private final MapTable[] tables;
+
+		private Access(final MapTable[] tables) {
+			this.tables = tables;
+		}
+
+		/**
+		 * @param path depot path, without revision specifier
+		 * @param mode access mode, e.g. "read", "write" or "=branch"
+		 * @return true if the access is granted for the path
+		 */
+		public boolean hasAccess(final String path, final String mode) {
+			return hasRight(toRight(mode), foldCase(path));
+		}
+
+		/**
+		 * @param path depot path, without revision specifier
+		 * @return the highest of {@link #ACCESS_LEVELS} granted for the
+		 * path, or {@link #NO_ACCESS}
+		 */
+		public String getMaxAccess(final String path) {
+			String folded = foldCase(path);
+			for (int i = ACCESS_LEVELS.size() - 1; i >= 0; i--) {
+				String level = ACCESS_LEVELS.get(i);
+				if (hasRight(QUERY_RIGHTS.get(level), folded)) {
+					return level;
+				}
+			}
+			return NO_ACCESS;
+		}
+
+		private boolean hasRight(final int right, final String path) {
+			if (isNull(tables)) {
+				return true;
+			}
+			MapTable table = tables[right];
+			return nonNull(table) && nonNull(table.check(MapTableT.LHS, path));
+		}
+	}
+
+	/**
+	 * A protections line, reduced to what matters for evaluation.
+	 */
+	private static final class Line {
+		private final boolean group;
+		private final String name;
+		private final String host;
+		private final String path;
+		private final boolean excluded;
+		private final int rights;
+
+		private Line(final boolean group, final String name, final String host, final String path,
+		             final boolean excluded, final int rights) {
+			this.group = group;
+			this.name = name;
+			this.host = host;
+			this.path = path;
+			this.excluded = excluded;
+			this.rights = rights;
+		}
+	}
+
+	private final List<Line> lines = new ArrayList<>();
+	private final boolean caseSensitive;
+	private final Map<String, Set<String>> parentGroups = new HashMap<>();
+	private final Map<String, Set<String>> userGroups = new HashMap<>();
+	private final Map<String, Access> accessByUserAndHost = new ConcurrentHashMap<>();
+	private final Map<BitSet, Access> accessByLines = new ConcurrentHashMap<>();
+
+	/**
+	 * Load the protections table and group membership from the server; this
+	 * needs super access.
+	 *
+	 * @param server the server
+	 * @return an evaluator for the server's current protections
+	 * @throws P4JavaException if the protections or groups cannot be read
+	 */
+	public static ProtectionsEvaluator load(final IOptionsServer server) throws P4JavaException {
+		Validate.notNull(server);
+		List<IProtectionEntry> entries = server.getProtectionEntries(null,
+				new GetProtectionEntriesOptions().setAllUsers(true));
+		List<IUserGroup> groups = server.getUserGroups(null, new GetUserGroupsOptions());
+		return new ProtectionsEvaluator(entries, groups, server.isCaseSensitive());
+	}
+
+	/**
+	 * @param entries       protections lines, in table order
+	 * @param groups        all groups, with their users and subgroups; may
+	 *                      be null if there are no group lines
+	 * @param caseSensitive whether the server is case sensitive
+	 */
+	public ProtectionsEvaluator(final List<IProtectionEntry> entries, final List<IUserGroup> groups,
+	                            final boolean caseSensitive) {
+		Validate.notNull(entries);
+		this.caseSensitive = caseSensitive;
+
+		for (IProtectionEntry entry : entries) {
+			String mode = StringUtils.lowerCase(entry.getMode(), Locale.ROOT);
+			String path = StringUtils.strip(entry.getPath(), "\"");
+			if (isNull(mode) || StringUtils.isBlank(path)) {
+				continue;
+			}
+			boolean excluded = entry.isPathExcluded();
+			if (path.startsWith("-") || path.startsWith("+")) {
+				excluded |= path.startsWith("-");
+				path = path.substring(1);
+			}
+			Integer rights = excluded ? REVOKES.get(mode) : GRANTS.get(mode);
+			if (isNull(rights)) {
+				continue;
+			}
+			String host = StringUtils.defaultIfBlank(entry.getHost(), "*").toLowerCase(Locale.ROOT);
+			lines.add(new Line(entry.isGroup(), foldCase(entry.getName()), host, foldCase(path), excluded,
+					rights));
+		}
+
+		if (nonNull(groups)) {
+			for (IUserGroup group : groups) {
+				String name = foldCase(group.getName());
+				if (nonNull(group.getUsers())) {
+					for (String user : group.getUsers()) {
+						userGroups.computeIfAbsent(foldCase(user), k -> new HashSet<>()).add(name);
+					}
+				}
+				if (nonNull(group.getSubgroups())) {
+					for (String subgroup : group.getSubgroups()) {
+						parentGroups.computeIfAbsent(foldCase(subgroup), k -> new HashSet<>()).add(name);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param user user name
+	 * @param host client address as seen by the server
+	 * @param path depot path, without revision specifier
+	 * @param mode access mode, e.g. "read", "write" or "=branch"
+	 * @return true if the access is granted
+	 */
+	public boolean hasAccess(final String user, final String host, final String path, final String mode) {
+		return getAccess(user, host).hasAccess(path, mode);
+	}
+
+	/**
+	 * @param user user name
+	 * @param host client address as seen by the server
+	 * @param path depot path, without revision specifier
+	 * @return the highest of {@link #ACCESS_LEVELS} granted, or
+	 * {@link #NO_ACCESS}
+	 */
+	public String getMaxAccess(final String user, final String host, final String path) {
+		return getAccess(user, host).getMaxAccess(path);
+	}
+
+	/**
+	 * Get the compiled access of a user from a host, for repeated queries.
+	 *
+	 * @param user user name
+	 * @param host client address as seen by the server
+	 * @return the user's access
+	 */
+	public Access getAccess(final String user, final String host) {
+		Validate.notBlank(user);
+		String hostKey = StringUtils.defaultString(host).toLowerCase(Locale.ROOT);
+		return accessByUserAndHost.computeIfAbsent(foldCase(user) + '\n' + hostKey,
+				key -> compile(foldCase(user), hostKey));
+	}
+
+	/**
+	 * @param user user name
+	 * @return the groups the user belongs to, directly or through subgroups
+	 */
+	public Set<String> getGroups(final String user) {
+		Set<String> groups = new HashSet<>();
+		Deque<String> pending = new ArrayDeque<>(
+				userGroups.getOrDefault(foldCase(user), Collections.emptySet()));
+		while (!pending.isEmpty()) {
+			String group = pending.pop();
+			if (groups.add(group)) {
+				pending.addAll(parentGroups.getOrDefault(group, Collections.emptySet()));
+			}
+		}
+		return groups;
+	}
+
+	/**
+	 * Drop the compiled access of all users.
+	 */
+	public void clearCache() {
+		accessByUserAndHost.clear();
+		accessByLines.clear();
+	}
+
+	private Access compile(final String user, final String host) {
+		if (lines.isEmpty()) {
+			return new Access(null);
+		}
+
+		Set<String> groups = getGroups(user);
+		BitSet applicable = new BitSet(lines.size());
+		for (int i = 0; i < lines.size(); i++) {
+			Line line = lines.get(i);
+			boolean nameMatches = line.group
+					? groups.contains(line.name) || (isWild(line.name) && groups.stream()
+							.anyMatch(group -> matchesName(line.name, group)))
+					: matchesName(line.name, user);
+			if (nameMatches && matchesHost(line.host, host)) {
+				applicable.set(i);
+			}
+		}
+
+		return accessByLines.computeIfAbsent(applicable, this::compileLines);
+	}
+
+	private Access compileLines(final BitSet applicable) {
+		MapTable[] tables = new MapTable[RIGHT_COUNT];
+		for (int right = 0; right < RIGHT_COUNT; right++) {
+			MapTable table = new MapTable();
+			for (int i = applicable.nextSetBit(0); i >= 0; i = applicable.nextSetBit(i + 1)) {
+				Line line = lines.get(i);
+				if ((line.rights & bit(right)) != 0) {
+					table.insert(line.path, line.path, line.excluded ? MapFlag.MfUnmap : MapFlag.MfMap);
+				}
+			}
+			if (table.countByFlag(MapFlag.MfMap) > 0) {
+				// Compiled tables are cached and checked by many threads at
+				// once; check builds the depot path tree on first use.
+				table.check(MapTableT.LHS, "");
+				tables[right] = table;
+			}
+		}
+		return new Access(tables);
+	}
+
+	private static boolean matchesName(final String pattern, final String name) {
+		return isWild(pattern) ? new MapTable().match(pattern, name) : pattern.equals(name);
+	}
+
+	private static boolean matchesHost(final String pattern, final String host) {
+		if ("*".equals(pattern)) {
+			return true;
+		}
+		int slash = pattern.indexOf('/');
+		if (slash > 0) {
+			return matchesCidr(pattern.substring(0, slash), pattern.substring(slash + 1), host);
+		}
+		return isWild(pattern) ? new MapTable().match(pattern, host) : pattern.equals(host);
+	}
+
+	private static boolean matchesCidr(final String network, final String bits, final String host) {
+		long net = parseIpv4(network);
+		long addr = parseIpv4(host);
+		if (net < 0 || addr < 0 || !StringUtils.isNumeric(bits)) {
+			return false;
+		}
+		int prefix = Math.min(Integer.parseInt(bits), 32);
+		long mask = prefix == 0 ? 0 : (0xFFFFFFFFL << (32 - prefix)) & 0xFFFFFFFFL;
+		return (net & mask) == (addr & mask);
+	}
+
+	private static long parseIpv4(final String address) {
+		String[] octets = StringUtils.split(address, '.');
+		if (isNull(octets) || octets.length != 4) {
+			return -1;
+		}
+		long value = 0;
+		for (String octet : octets) {
+			if (!StringUtils.isNumeric(octet) || octet.length() > 3 || Integer.parseInt(octet) > 255) {
+				return -1;
+			}
+			value = (value << 8) | Integer.parseInt(octet);
+		}
+		return value;
+	}
+
+	private static boolean isWild(final String pattern) {
+		return pattern.contains("*") || pattern.contains("...");
+	}
+
+	private static int toRight(final String mode) {
+		Integer right = QUERY_RIGHTS.get(StringUtils.removeStart(
+				StringUtils.lowerCase(mode, Locale.ROOT), "="));
+		Validate.isTrue(nonNull(right), "Unknown access mode: %s", mode);
+		return right;
+	}
+
+	private static int bit(final int right) {
+		return 1 << right;
+	}
+
+	private String foldCase(final String value) {
+		String str = StringUtils.defaultString(value);
+		return caseSensitive ? str : str.toLowerCase(Locale.ROOT);
+	}
+}
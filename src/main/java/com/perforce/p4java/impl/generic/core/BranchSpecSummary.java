@@ -4,10 +4,10 @@
 package com.perforce.p4java.impl.generic.core;
 
 import com.perforce.p4java.Log;
+import com.perforce.p4java.common.base.P4DateUtils;
 import com.perforce.p4java.core.IBranchSpecSummary;
 import com.perforce.p4java.impl.mapbased.MapKeys;
 
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Map;
 
@@ -84,19 +84,16 @@ public class BranchSpecSummary extends ServerResource implements IBranchSpecSumm
 		if (map != null) {
 			if (summaryOnly) {
 				this.name = (String) map.get(MapKeys.BRANCH_LC_KEY);
-				this.accessed = new Date(Long.parseLong((String) map.get(MapKeys.ACCESS_KEY)) * 1000);
-				this.updated = new Date(Long.parseLong((String) map.get(MapKeys.UPDATE_KEY)) * 1000);
+				this.accessed = P4DateUtils.fromEpochSeconds((String) map.get(MapKeys.ACCESS_KEY));
+				this.updated = P4DateUtils.fromEpochSeconds((String) map.get(MapKeys.UPDATE_KEY));
 			} else {
 				try {
-					final String DATE_FORMAT = "yyyy/MM/dd HH:mm:ss";
 					this.name = (String) map.get(MapKeys.BRANCH_KEY);
 					if (map.containsKey(MapKeys.UPDATE_KEY)) {
-						this.updated = new SimpleDateFormat(DATE_FORMAT).parse(
-								(String) map.get(MapKeys.UPDATE_KEY));
+						this.updated = P4DateUtils.parseDate((String) map.get(MapKeys.UPDATE_KEY));
 					}
 					if (map.containsKey(MapKeys.ACCESS_KEY)) {
-						this.accessed = new SimpleDateFormat(DATE_FORMAT).parse(
-								(String) map.get(MapKeys.ACCESS_KEY));
+						this.accessed = P4DateUtils.parseDate((String) map.get(MapKeys.ACCESS_KEY));
 					}
 				} catch (Throwable thr) {
 					Log.warn("Unexpected exception in BranchSpecSummary constructor: "
@@ -701,6 +701,9 @@ public class Changelist extends ChangelistSummary implements IChangelist {
 
 		try {
 			List<Map<String, Object>> retMaps = this.serverImpl.execMapCmdList(CmdSpec.CHANGE, Parameters.processParameters(opts, null, new String[]{"-i"}, this.serverImpl), InputMapper.map(this));
+			if (this.serverImpl instanceof Server) {
+				((Server) this.serverImpl).invalidateChangelistCache(this.id);
+			}
 
 			if (retMaps != null) {
 				for (Map<String, Object> map : retMaps) {
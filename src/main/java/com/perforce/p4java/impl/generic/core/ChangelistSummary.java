@@ -4,6 +4,7 @@
 package com.perforce.p4java.impl.generic.core;
 
 import com.perforce.p4java.Log;
+import com.perforce.p4java.common.base.P4DateUtils;
 import com.perforce.p4java.core.ChangelistStatus;
 import com.perforce.p4java.core.IChangelist;
 import com.perforce.p4java.core.IChangelistSummary;
@@ -11,7 +12,6 @@ import com.perforce.p4java.impl.mapbased.MapKeys;
 import com.perforce.p4java.server.IServer;
 
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Map;
 
@@ -136,7 +136,7 @@ public class ChangelistSummary extends ServerResource implements IChangelistSumm
 					this.username = (String) map.get("user");
 					this.status = ChangelistStatus.fromString((String) map.get("status"));
 					this.date = ((String) map.get("time") == null ?
-							null : new Date(Long.parseLong((String) map.get("time")) * 1000));
+							null : P4DateUtils.fromEpochSeconds((String) map.get("time")));
 					this.description = (String) map.get("desc");
 					this.shelved = map.containsKey("shelved");
 					if (map.containsKey("changeType")) {
@@ -178,7 +178,7 @@ public class ChangelistSummary extends ServerResource implements IChangelistSumm
 						this.date = new Date();
 					} else {
 						try {
-							this.date = new SimpleDateFormat(DATE_FORMAT).parse(dateStr);
+							this.date = P4DateUtils.parseDate(dateStr, DATE_FORMAT);
 						} catch (ParseException pe) {
 							Log.error("Date parse error in Changelist constructor: "
 									+ pe.getLocalizedMessage());
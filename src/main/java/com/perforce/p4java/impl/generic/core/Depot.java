@@ -1,10 +1,10 @@
 package com.perforce.p4java.impl.generic.core;
 
 import com.perforce.p4java.Log;
+import com.perforce.p4java.common.base.P4DateUtils;
 import com.perforce.p4java.core.IDepot;
 import com.perforce.p4java.core.IMapEntry;
 import com.perforce.p4java.core.ViewMap;
-import org.apache.commons.lang3.time.FastDateFormat;
 
 import java.util.Date;
 import java.util.Map;
@@ -92,8 +92,7 @@ public class Depot extends ServerResource implements IDepot {
                     if (nonNull(depotMap.get(TIME_LC_KEY))) {
                         modDate = new Date(parseLong(depotMap, TIME_LC_KEY));
                     } else if (nonNull(depotMap.get(DATE_KEY))) {
-                        FastDateFormat dateFormat = FastDateFormat.getInstance("yyyy/MM/dd HH:mm:ss");
-                        modDate =  dateFormat.parse(parseString(depotMap, DATE_KEY));
+                        modDate = P4DateUtils.parseDate(parseString(depotMap, DATE_KEY));
                     }
                 } catch (Throwable thr) {
                     Log.error("Unexpected exception in Depot constructor: %s", thr.getLocalizedMessage());
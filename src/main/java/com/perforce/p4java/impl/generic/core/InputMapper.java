@@ -12,6 +12,7 @@ import com.perforce.p4java.client.IClient;
 import com.perforce.p4java.client.IClientSummary.IClientOptions;
 import com.perforce.p4java.client.IClientSummary.IClientSubmitOptions;
 import com.perforce.p4java.client.IClientViewMapping;
+import com.perforce.p4java.common.base.P4DateUtils;
 import com.perforce.p4java.core.ChangelistStatus;
 import com.perforce.p4java.core.IBranchMapping;
 import com.perforce.p4java.core.IBranchSpec;
@@ -37,8 +38,6 @@ import com.perforce.p4java.impl.mapbased.MapKeys;
 import com.perforce.p4java.server.CustomSpec;
 import com.perforce.p4java.server.IServer;
 
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -100,8 +99,7 @@ public class InputMapper {
 				changeMap.put("Type", change.getVisibility().toString().toLowerCase());
 			}
 			if (change.getDate() != null) {
-				DateFormat dateFormat = new SimpleDateFormat(DATE_PATTERN);
-				changeMap.put("Date", dateFormat.format(change.getDate()));
+				changeMap.put("Date", P4DateUtils.formatDate(change.getDate(), DATE_PATTERN));
 			}
 			if (change.getStatus() != null) {
 				changeMap.put("Status", change.getStatus().toString().toLowerCase());
@@ -4,6 +4,7 @@
 package com.perforce.p4java.impl.generic.core;
 
 import com.perforce.p4java.Log;
+import com.perforce.p4java.common.base.P4DateUtils;
 import com.perforce.p4java.core.ILabel;
 import com.perforce.p4java.core.ILabelMapping;
 import com.perforce.p4java.core.ILabelSummary;
@@ -16,7 +17,6 @@ import com.perforce.p4java.impl.mapbased.MapKeys;
 import com.perforce.p4java.server.IServer;
 
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Map;
 
@@ -200,12 +200,10 @@ public class Label extends LabelSummary implements ILabel {
 
 			try {
 				if (map.containsKey(MapKeys.UPDATE_KEY)) {
-					this.lastUpdate = new SimpleDateFormat(DATE_FORMAT)
-							.parse((String) map.get(MapKeys.UPDATE_KEY));
+					this.lastUpdate = P4DateUtils.parseDate((String) map.get(MapKeys.UPDATE_KEY), DATE_FORMAT);
 				}
 				if (map.containsKey(MapKeys.ACCESS_KEY)) {
-					this.lastAccess = new SimpleDateFormat(DATE_FORMAT)
-							.parse((String) map.get(MapKeys.ACCESS_KEY));
+					this.lastAccess = P4DateUtils.parseDate((String) map.get(MapKeys.ACCESS_KEY), DATE_FORMAT);
 				}
 			} catch (ParseException pe) {
 				Log
@@ -4,6 +4,7 @@
 package com.perforce.p4java.impl.generic.core;
 
 import com.perforce.p4java.Log;
+import com.perforce.p4java.common.base.P4DateUtils;
 import com.perforce.p4java.core.ILabelSummary;
 import com.perforce.p4java.impl.mapbased.MapKeys;
 
@@ -66,10 +67,8 @@ public class LabelSummary extends ServerResource implements ILabelSummary {
 					this.description = this.description.trim();
 				}
 				this.ownerName = (String) map.get(MapKeys.OWNER_KEY);
-				this.lastUpdate = new Date(Long.parseLong((String) map
-						.get(MapKeys.UPDATE_KEY)) * 1000);
-				this.lastAccess = new Date(Long.parseLong((String) map
-						.get(MapKeys.ACCESS_KEY)) * 1000);
+				this.lastUpdate = P4DateUtils.fromEpochSeconds((String) map.get(MapKeys.UPDATE_KEY));
+				this.lastAccess = P4DateUtils.fromEpochSeconds((String) map.get(MapKeys.ACCESS_KEY));
 				this.revisionSpec = (String) map.get(MapKeys.REVISION_KEY);
 
 				String optStr = (String) map.get(MapKeys.OPTIONS_KEY);
@@ -4,6 +4,7 @@
 package com.perforce.p4java.impl.generic.core;
 
 import com.perforce.p4java.Log;
+import com.perforce.p4java.common.base.P4DateUtils;
 import com.perforce.p4java.core.IServerResource;
 import com.perforce.p4java.exception.AccessException;
 import com.perforce.p4java.exception.ConnectionException;
@@ -13,7 +14,6 @@ import com.perforce.p4java.option.Options;
 import com.perforce.p4java.server.IServer;
 
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -187,16 +187,13 @@ public abstract class ServerResource implements IServerResource {
 		}
 
 		// Look for numeric date (summary spec date)
-		try {
-			long d = Long.parseLong(value);
-			return new Date(d * 1000);
-		} catch (NumberFormatException e) {
-			// continue
+		if (P4DateUtils.isEpochSeconds(value)) {
+			return P4DateUtils.fromEpochSeconds(value);
 		}
 
 		// look for string formatted date (spec -o output)
 		try {
-			return new SimpleDateFormat(DATE_FORMAT).parse(value);
+			return P4DateUtils.parseDate(value, DATE_FORMAT);
 		} catch (ParseException e) {
 			Log.warn("Unexpected date format: " + e.getMessage());
 			Log.exception(e);
@@ -208,8 +205,7 @@ public abstract class ServerResource implements IServerResource {
 		if (date == null) {
 			return "0";  // epoch 0 - undefined date
 		}
-		SimpleDateFormat simpleDateFormat = new SimpleDateFormat(DATE_FORMAT);
-		return simpleDateFormat.format(date);
+		return P4DateUtils.formatDate(date, DATE_FORMAT);
 	}
     /*
     protected String parseComment(String line){
@@ -0,0 +1,436 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.impl.generic.core;
+
+import com.perforce.p4java.client.IClientViewMapping;
+import com.perforce.p4java.core.IMapEntry.EntryType;
+import com.perforce.p4java.core.IStream;
+import com.perforce.p4java.core.IStreamIgnoredMapping;
+import com.perforce.p4java.core.IStreamRemappedMapping;
+import com.perforce.p4java.core.IStreamSummary;
+import com.perforce.p4java.core.IStreamViewMapping;
+import com.perforce.p4java.core.IStreamViewMapping.PathType;
+import com.perforce.p4java.core.ViewMap;
+import com.perforce.p4java.impl.generic.client.ClientView.ClientViewMapping;
+import com.perforce.p4java.mapapi.MapFlag;
+import com.perforce.p4java.mapapi.MapItem;
+import com.perforce.p4java.mapapi.MapTable;
+import com.perforce.p4java.mapapi.MapTableT;
+import com.perforce.p4java.mapapi.MapWrap;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Works out the effective view of streams from their specs, without asking
+ * the server.
+ * <p>
+ * The resolver is given the specs of a stream hierarchy, as returned by
+ * IOptionsServer.getStream, and computes for any stream in it the view a
+ * client of that stream would get: its Paths, with those of its parents
+ * where the stream inherits their view, followed by its Remapped and
+ * Ignored lines. As on the server, a child's share and isolate paths can
+ * only narrow what its parent's view holds; where the parent imports a path
+ * the child keeps importing it, and where the parent has the path itself
+ * the child gets it from its own location. An import path without a depot
+ * path imports from wherever the parent's view takes it, and import and
+ * import+ paths with a depot path are taken as given. Share and isolate
+ * paths of a virtual stream map to the location of its nearest non-virtual
+ * ancestor. Remapped and Ignored lines are inherited along with the view.
+ * <p>
+ * The results are mapapi MapTable based, and can be evaluated for any
+ * number of depot paths locally. Resolved views are cached; the resolver
+ * is safe for concurrent use.
+ *
+ * @since 2025.2
+ */
+public class StreamViewResolver {
+
+	/**
+	 * Root that stream-relative view paths are kept under while resolving.
+	 */
+	private static final String VIEW_ROOT = "//__stream__/";
+
+	private enum Source {
+		OWN, IMPORT, EXCLUDE
+	}
+
+	/**
+	 * One line of a resolved view, with its view path under VIEW_ROOT.
+	 * Lines from the stream's own location carry no depot path; it depends
+	 * on which stream the line ends up in.
+	 */
+	private static final class Line {
+		private final Source source;
+		private final String viewPath;
+		private final String depotPath;
+
+		private Line(final Source source, final String viewPath, final String depotPath) {
+			this.source = source;
+			this.viewPath = viewPath;
+			this.depotPath = depotPath;
+		}
+	}
+
+	/**
+	 * The resolved view of one stream.
+	 */
+	public static final class StreamView {
+		private final String stream;
+		private final String ownRoot;
+		private final List<Line> lines;
+		private final List<String[]> remaps;
+		private final List<String> ignores;
+		private final List<String[]> mappings = new ArrayList<>();
+		private final List<MapFlag> flags = new ArrayList<>();
+		private final MapTable table;
+
+		private StreamView(final String stream, final String ownRoot, final List<Line> lines,
+		                   final List<String[]> remaps, final List<String> ignores) {
+			this.stream = stream;
+			this.ownRoot = ownRoot;
+			this.lines = lines;
+			this.remaps = remaps;
+			this.ignores = ignores;
+			buildMappings();
+
+			table = getMapTable(null);
+			table.disambiguate();
+			// The view maps depot to client and back; build both trees
+			// before it is handed out, as translate builds them lazily.
+			table.check(MapTableT.LHS, "");
+			table.check(MapTableT.RHS, "");
+		}
+
+		/**
+		 * @return the stream's path
+		 */
+		public String getStream() {
+			return stream;
+		}
+
+		/**
+		 * @return the depot location of the stream's own files; that of its
+		 * nearest non-virtual ancestor for a virtual stream
+		 */
+		public String getDepotRoot() {
+			return StringUtils.removeEnd(ownRoot, "/");
+		}
+
+		/**
+		 * @param clientName client name for the right-hand side
+		 * @return the view of a client of this stream
+		 */
+		public ViewMap<IClientViewMapping> getClientView(final String clientName) {
+			Validate.notBlank(clientName);
+			String clientRoot = "//" + clientName + "/";
+			ViewMap<IClientViewMapping> view = new ViewMap<>();
+			for (int i = 0; i < mappings.size(); i++) {
+				view.addEntry(new ClientViewMapping(i,
+						flags.get(i) == MapFlag.MfUnmap ? EntryType.EXCLUDE : EntryType.INCLUDE,
+						mappings.get(i)[0], clientRoot + mappings.get(i)[1]));
+			}
+			return view;
+		}
+
+		/**
+		 * Get the view as a MapTable; each call returns a new table.
+		 *
+		 * @param clientName client name for the right-hand side; if null,
+		 *                   the right-hand side is the stream-relative
+		 *                   path under "//__stream__/"
+		 * @return the view of a client of this stream
+		 */
+		public MapTable getMapTable(final String clientName) {
+			String clientRoot = isNull(clientName) ? VIEW_ROOT : "//" + clientName + "/";
+			MapTable mapTable = new MapTable();
+			for (int i = 0; i < mappings.size(); i++) {
+				mapTable.insert(mappings.get(i)[0], clientRoot + mappings.get(i)[1], flags.get(i));
+			}
+			return mapTable;
+		}
+
+		/**
+		 * @param depotFile depot path, without revision specifier
+		 * @return true if the file is in the stream's view
+		 */
+		public boolean isMapped(final String depotFile) {
+			return nonNull(table.check(MapTableT.LHS, depotFile));
+		}
+
+		/**
+		 * @param depotFile depot path, without revision specifier
+		 * @return the file's path relative to the client root, or null if
+		 * the file is not in the view
+		 */
+		public String getViewPath(final String depotFile) {
+			MapWrap mapped = table.translate(MapTableT.LHS, depotFile);
+			return isNull(mapped) ? null : StringUtils.removeStart(mapped.getTo(), VIEW_ROOT);
+		}
+
+		/**
+		 * @param viewPath path relative to the client root
+		 * @return the depot file at that path, or null if the path is not in
+		 * the view
+		 */
+		public String getDepotPath(final String viewPath) {
+			MapWrap mapped = table.translate(MapTableT.RHS, VIEW_ROOT + StringUtils.removeStart(viewPath, "/"));
+			return isNull(mapped) ? null : mapped.getTo();
+		}
+
+		private void buildMappings() {
+			// Leave out lines wholly replaced by a later line for the same
+			// view path, and exclusions with nothing before them to exclude.
+			Set<String> laterPaths = new HashSet<>();
+			boolean[] replaced = new boolean[lines.size()];
+			for (int i = lines.size() - 1; i >= 0; i--) {
+				replaced[i] = !laterPaths.add(lines.get(i).viewPath);
+			}
+			boolean anyMapped = false;
+			for (int i = 0; i < lines.size(); i++) {
+				Line line = lines.get(i);
+				if (replaced[i] || (line.source == Source.EXCLUDE && !anyMapped)) {
+					continue;
+				}
+				anyMapped |= line.source != Source.EXCLUDE;
+				add(depotPath(line), line.viewPath, line.source == Source.EXCLUDE ? MapFlag.MfUnmap : MapFlag.MfMap);
+			}
+
+			int viewSize = mappings.size();
+			for (String[] remap : remaps) {
+				MapTable remapTable = new MapTable();
+				remapTable.insert(remap[0], remap[1], MapFlag.MfMap);
+				for (int i = 0; i < viewSize; i++) {
+					if (flags.get(i) == MapFlag.MfUnmap) {
+						continue;
+					}
+					MapTable mapping = new MapTable();
+					mapping.insert(VIEW_ROOT + mappings.get(i)[1], mappings.get(i)[0], MapFlag.MfMap);
+					for (Line piece : intersect(mapping, remap[0], Source.IMPORT)) {
+						MapWrap remapped = remapTable.translate(MapTableT.LHS, piece.viewPath);
+						if (nonNull(remapped)) {
+							add(piece.depotPath, remapped.getTo(), MapFlag.MfMap);
+						}
+					}
+				}
+			}
+
+			for (String ignore : ignores) {
+				add(ownRoot + ignore.substring(VIEW_ROOT.length()), ignore, MapFlag.MfUnmap);
+			}
+		}
+
+		private String depotPath(final Line line) {
+			return line.source == Source.IMPORT ? line.depotPath : ownRoot + line.viewPath.substring(VIEW_ROOT.length());
+		}
+
+		private void add(final String depotPath, final String viewPath, final MapFlag flag) {
+			mappings.add(new String[]{depotPath, viewPath.substring(VIEW_ROOT.length())});
+			flags.add(flag);
+		}
+	}
+
+	private final Map<String, IStream> streams = new HashMap<>();
+	private final Map<String, StreamView> views = new ConcurrentHashMap<>();
+
+	/**
+	 * @param streams the specs of the streams to resolve and all their
+	 *                ancestors
+	 */
+	public StreamViewResolver(final Collection<IStream> streams) {
+		Validate.notNull(streams);
+		for (IStream stream : streams) {
+			this.streams.put(stream.getStream(), stream);
+		}
+	}
+
+	/**
+	 * Resolve the view of a stream.
+	 *
+	 * @param streamPath the stream's path, e.g. "//depot/main"
+	 * @return the resolved view
+	 * @throws IllegalArgumentException if the stream or one of its
+	 *                                  ancestors is unknown to the resolver,
+	 *                                  or the hierarchy has a cycle
+	 */
+	public StreamView resolve(final String streamPath) {
+		return resolve(streamPath, new HashSet<>());
+	}
+
+	private StreamView resolve(final String streamPath, final Set<String> resolving) {
+		StreamView view = views.get(streamPath);
+		if (nonNull(view)) {
+			return view;
+		}
+
+		IStream stream = streams.get(streamPath);
+		Validate.isTrue(nonNull(stream), "Unknown stream: %s", streamPath);
+		Validate.isTrue(resolving.add(streamPath), "Stream hierarchy has a cycle at %s", streamPath);
+
+		StreamView parent = null;
+		String parentPath = stream.getParent();
+		if (isNotNone(parentPath)) {
+			parent = resolve(parentPath, resolving);
+		}
+
+		String ownRoot = stream.getType() == IStreamSummary.Type.VIRTUAL && nonNull(parent)
+				? parent.ownRoot : streamPath + "/";
+		boolean inherit = nonNull(parent) && stream.getParentView() != IStreamSummary.ParentView.NOINHERIT;
+
+		List<Line> lines = new ArrayList<>();
+		if (nonNull(stream.getStreamView())) {
+			for (IStreamViewMapping mapping : stream.getStreamView()) {
+				addLines(lines, mapping, inherit ? parent : null);
+			}
+		}
+
+		List<String[]> remaps = new ArrayList<>();
+		List<String> ignores = new ArrayList<>();
+		if (inherit) {
+			remaps.addAll(parent.remaps);
+			ignores.addAll(parent.ignores);
+		}
+		if (nonNull(stream.getRemappedView())) {
+			for (IStreamRemappedMapping remap : stream.getRemappedView()) {
+				if (StringUtils.isNoneBlank(remap.getLeftRemapPath(), remap.getRightRemapPath())) {
+					remaps.add(new String[]{toViewPath(remap.getLeftRemapPath()), toViewPath(remap.getRightRemapPath())});
+				}
+			}
+		}
+		if (nonNull(stream.getIgnoredView())) {
+			for (IStreamIgnoredMapping ignore : stream.getIgnoredView()) {
+				if (StringUtils.isNotBlank(ignore.getIgnorePath())) {
+					ignores.add(toIgnorePath(ignore.getIgnorePath()));
+				}
+			}
+		}
+
+		view = new StreamView(streamPath, ownRoot, lines, remaps, ignores);
+		StreamView existing = views.putIfAbsent(streamPath, view);
+		return nonNull(existing) ? existing : view;
+	}
+
+	/**
+	 * Drop all resolved views, e.g. after changing a stream spec passed to
+	 * the resolver.
+	 */
+	public void clearCache() {
+		views.clear();
+	}
+
+	/**
+	 * Add the lines for one Paths entry of a stream. Every entry first
+	 * excludes its whole path, so that it replaces whatever earlier entries
+	 * mapped there, then maps what it can.
+	 */
+	private static void addLines(final List<Line> lines, final IStreamViewMapping mapping, final StreamView parent) {
+		PathType type = mapping.getPathType();
+		String viewPath = StringUtils.isBlank(mapping.getViewPath()) ? null : toViewPath(mapping.getViewPath());
+		if (isNull(type) || type == PathType.UNKNOWN || isNull(viewPath)) {
+			return;
+		}
+		String depotPath = StringUtils.strip(mapping.getDepotPath(), "\"");
+
+		lines.add(new Line(Source.EXCLUDE, viewPath, null));
+		switch (type) {
+			case SHARE:
+			case ISOLATE:
+				if (isNull(parent)) {
+					lines.add(new Line(Source.OWN, viewPath, null));
+				} else {
+					for (Line inherited : parent.lines) {
+						lines.addAll(intersect(inherited, viewPath, false, parent));
+					}
+				}
+				break;
+
+			case IMPORT:
+			case IMPORTPLUS:
+				if (StringUtils.isNotBlank(depotPath)) {
+					lines.add(new Line(Source.IMPORT, viewPath, depotPath));
+				} else if (nonNull(parent)) {
+					for (Line inherited : parent.lines) {
+						lines.addAll(intersect(inherited, viewPath, true, parent));
+					}
+				}
+				break;
+
+			default:
+				break;
+		}
+	}
+
+	/**
+	 * The part of an inherited line that lies under a view path. Lines from
+	 * the parent's own location stay the child's own, unless they are
+	 * imported from the parent.
+	 */
+	private static List<Line> intersect(final Line inherited, final String viewPath, final boolean importFromParent,
+	                                    final StreamView parent) {
+		Source source = inherited.source;
+		String otherSide = inherited.viewPath;
+		if (source == Source.IMPORT) {
+			otherSide = inherited.depotPath;
+		} else if (source == Source.OWN && importFromParent) {
+			source = Source.IMPORT;
+			otherSide = parent.depotPath(inherited);
+		}
+
+		MapTable mapping = new MapTable();
+		mapping.insert(inherited.viewPath, otherSide,
+				inherited.source == Source.EXCLUDE ? MapFlag.MfUnmap : MapFlag.MfMap);
+		return intersect(mapping, viewPath, source);
+	}
+
+	/**
+	 * Join a one-line mapping from view path to depot path with a view
+	 * path.
+	 */
+	private static List<Line> intersect(final MapTable mapping, final String viewPath, final Source source) {
+		MapTable path = new MapTable();
+		path.insert(viewPath, viewPath, MapFlag.MfMap);
+		MapTable joined = mapping.join(MapTableT.LHS, path, MapTableT.LHS);
+
+		List<Line> pieces = new ArrayList<>();
+		for (MapItem item = joined.entry; item != null; item = item.next()) {
+			if (item.flag() == MapFlag.MfUnmap) {
+				pieces.add(new Line(Source.EXCLUDE, item.lhs().get(), null));
+			} else {
+				pieces.add(new Line(source, item.lhs().get(), source == Source.IMPORT ? item.rhs().get() : null));
+			}
+		}
+		return pieces;
+	}
+
+	private static String toViewPath(final String path) {
+		return VIEW_ROOT + StringUtils.removeStart(StringUtils.strip(path.trim(), "\""), "/");
+	}
+
+	/**
+	 * Ignored entries match anywhere in the view: ".o" is any file ending
+	 * in ".o", and "/tmp/..." any directory named "tmp" and what it holds.
+	 */
+	private static String toIgnorePath(final String path) {
+		String ignore = StringUtils.strip(path.trim(), "\"");
+		if (ignore.startsWith("/") || ignore.startsWith(".")) {
+			return VIEW_ROOT + "..." + ignore;
+		}
+		return VIEW_ROOT + ".../" + ignore;
+	}
+
+	private static boolean isNotNone(final String parent) {
+		return StringUtils.isNotBlank(parent) && !"none".equalsIgnoreCase(parent);
+	}
+}
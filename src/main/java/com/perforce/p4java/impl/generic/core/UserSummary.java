@@ -4,10 +4,10 @@
 package com.perforce.p4java.impl.generic.core;
 
 import com.perforce.p4java.Log;
+import com.perforce.p4java.common.base.P4DateUtils;
 import com.perforce.p4java.core.IUserSummary;
 import com.perforce.p4java.impl.mapbased.MapKeys;
 
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Map;
 
@@ -93,24 +93,23 @@ public class UserSummary extends ServerResource implements IUserSummary {
 					this.type = UserType.fromString(((String) map.get(MapKeys.TYPE_KEY)).toUpperCase());
 				}
 				if (summaryOnly) {
-					this.update = new Date(Long.parseLong((String) map.get(MapKeys.UPDATE_KEY)) * 1000);
-					this.access = new Date(Long.parseLong((String) map.get(MapKeys.ACCESS_KEY)) * 1000);
+					this.update = P4DateUtils.fromEpochSeconds((String) map.get(MapKeys.UPDATE_KEY));
+					this.access = P4DateUtils.fromEpochSeconds((String) map.get(MapKeys.ACCESS_KEY));
 					if (map.get(MapKeys.TICKET_EXPIRATION) != null) {
-						this.ticketExpiration = new Date(Long.parseLong((String) map.get(MapKeys.TICKET_EXPIRATION)) * 1000);
+						this.ticketExpiration = P4DateUtils.fromEpochSeconds((String) map.get(MapKeys.TICKET_EXPIRATION));
 					}
 					if (map.get(MapKeys.PASSWORD_CHANGE_KEY) != null) {
-						this.passwordChange = new Date(Long.parseLong((String) map.get(MapKeys.PASSWORD_CHANGE_KEY)) * 1000);
+						this.passwordChange = P4DateUtils.fromEpochSeconds((String) map.get(MapKeys.PASSWORD_CHANGE_KEY));
 					}
 				} else {
-					SimpleDateFormat simpleDateFormat = new SimpleDateFormat(DATE_FORMAT);
 					if (map.containsKey(MapKeys.UPDATE_KEY)) {
-						this.update = simpleDateFormat.parse((String) map.get(MapKeys.UPDATE_KEY));
+						this.update = P4DateUtils.parseDate((String) map.get(MapKeys.UPDATE_KEY), DATE_FORMAT);
 					}
 					if (map.containsKey(MapKeys.ACCESS_KEY)) {
-						this.access = simpleDateFormat.parse((String) map.get(MapKeys.ACCESS_KEY));
+						this.access = P4DateUtils.parseDate((String) map.get(MapKeys.ACCESS_KEY), DATE_FORMAT);
 					}
 					if (map.get(MapKeys.PASSWORD_CHANGE_LC_KEY) != null) {
-						this.passwordChange = simpleDateFormat.parse((String) map.get(MapKeys.PASSWORD_CHANGE_LC_KEY));
+						this.passwordChange = P4DateUtils.parseDate((String) map.get(MapKeys.PASSWORD_CHANGE_LC_KEY), DATE_FORMAT);
 					}
 				}
 			} catch (Throwable thr) {
@@ -0,0 +1,452 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.impl.generic.core.file;
+
+import com.perforce.p4java.core.file.IExtendedFileSpec;
+import com.perforce.p4java.core.file.IFileSpec;
+import com.perforce.p4java.server.IServer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * A read-mostly list of file specs that holds the server's result maps in
+ * column form rather than as one FileSpec object per file.
+ * <p>
+ * Each result map field gets its own column. Fields that are always plain
+ * integers (revisions, changelists, times, sizes) are held as ints; fields
+ * with few distinct values (actions, file types, users) are dictionary
+ * coded; everything else, notably depot, client and local paths, is front
+ * coded in blocks, storing only what differs from the previous value. As
+ * results come back sorted by path, paths cost little more than their last
+ * component. For 'files', 'have', 'opened' and 'fstat' over large depots
+ * this takes a fraction of the heap of the equivalent ArrayList.
+ * <p>
+ * Elements are decoded from the columns on each call to get, exactly as
+ * the map would have been decoded when building an ordinary list, so each
+ * call returns a new object: changes made to a returned file spec are not
+ * kept, and elements should not be compared by identity. Results that are
+ * not plain string maps (errors, info messages, binary attribute values)
+ * and file specs added with add or set are held as is. Elements cannot be
+ * removed.
+ * <p>
+ * Not thread-safe while being built; safe for concurrent reads once built.
+ *
+ * @param <T> element type
+ * @since 2025.2
+ */
+public class CompactFileSpecList<T extends IFileSpec> extends AbstractList<T> implements RandomAccess {
+
+	/**
+	 * Decodes a result map into a file spec.
+	 */
+	@FunctionalInterface
+	public interface Decoder<T> {
+		T decode(Map<String, Object> map, IServer server);
+	}
+
+	private final IServer server;
+	private final Decoder<T> decoder;
+
+	private int size = 0;
+	private String[] keys = new String[0];
+	private Column[] columns = new Column[0];
+	private final Map<String, Integer> keyIndex = new HashMap<>();
+
+	// Elements not held in the columns, by index.
+	private final Map<Integer, T> others = new HashMap<>();
+
+	/**
+	 * @param server  server the result maps came from
+	 * @param decoder decodes a result map into a file spec
+	 */
+	public CompactFileSpecList(final IServer server, final Decoder<T> decoder) {
+		this.server = server;
+		this.decoder = decoder;
+	}
+
+	/**
+	 * @param server server the result maps came from
+	 * @return a list decoding result maps as FileSpecs, as from 'files',
+	 * 'have' or 'opened'
+	 */
+	public static CompactFileSpecList<IFileSpec> forFileSpecs(final IServer server) {
+		return new CompactFileSpecList<>(server, (map, srv) -> new FileSpec(map, srv, -1));
+	}
+
+	/**
+	 * @param server server the result maps came from
+	 * @return a list decoding result maps as ExtendedFileSpecs, as from 'fstat'
+	 */
+	public static CompactFileSpecList<IExtendedFileSpec> forExtendedFileSpecs(final IServer server) {
+		return new CompactFileSpecList<>(server, ExtendedFileSpec::new);
+	}
+
+	/**
+	 * Append the file spec for an error-free result map. Only the map's
+	 * content is kept; the map itself may be discarded or reused.
+	 *
+	 * @param map result map from the server
+	 */
+	public void addResultMap(final Map<String, Object> map) {
+		if (isNull(map) || !isCompactable(map)) {
+			add(isNull(map) ? null : decoder.decode(map, server));
+			return;
+		}
+		for (String key : map.keySet()) {
+			if (!keyIndex.containsKey(key)) {
+				addColumn(key);
+			}
+		}
+		for (int i = 0; i < columns.length; i++) {
+			columns[i] = columns[i].append((String) map.get(keys[i]));
+		}
+		size++;
+		modCount++;
+	}
+
+	@Override
+	public boolean add(final T spec) {
+		for (int i = 0; i < columns.length; i++) {
+			columns[i] = columns[i].append(null);
+		}
+		others.put(size, spec);
+		size++;
+		modCount++;
+		return true;
+	}
+
+	@Override
+	public T set(final int index, final T spec) {
+		T previous = get(index);
+		others.put(index, spec);
+		return previous;
+	}
+
+	@Override
+	public T get(final int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		if (others.containsKey(index)) {
+			return others.get(index);
+		}
+		Map<String, Object> map = new HashMap<>(columns.length * 2);
+		for (int i = 0; i < columns.length; i++) {
+			String value = columns[i].get(index);
+			if (nonNull(value)) {
+				map.put(keys[i], value);
+			}
+		}
+		return decoder.decode(map, server);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Release any spare capacity; call once the list is complete.
+	 */
+	public void trimToSize() {
+		for (Column column : columns) {
+			column.trim(size);
+		}
+	}
+
+	private static boolean isCompactable(final Map<String, Object> map) {
+		for (Map.Entry<String, Object> entry : map.entrySet()) {
+			if (isNull(entry.getKey()) || !(entry.getValue() instanceof String)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void addColumn(final String key) {
+		Column column = new IntColumn();
+		for (int i = 0; i < size; i++) {
+			column = column.append(null);
+		}
+		keyIndex.put(key, keys.length);
+		keys = Arrays.copyOf(keys, keys.length + 1);
+		keys[keys.length - 1] = key;
+		columns = Arrays.copyOf(columns, columns.length + 1);
+		columns[columns.length - 1] = column;
+	}
+
+	private static int grow(final int length) {
+		return Math.max(16, length + (length >> 1));
+	}
+
+	/**
+	 * The values of one field for every row, null where a row lacks it.
+	 */
+	private abstract static class Column {
+		/**
+		 * @return this column, or the column that replaces it if it cannot
+		 * hold the value
+		 */
+		abstract Column append(String value);
+
+		abstract String get(int row);
+
+		abstract int count();
+
+		abstract void trim(int size);
+
+		Column convertTo(final Column column, final String value) {
+			Column converted = column;
+			for (int row = 0; row < count(); row++) {
+				converted = converted.append(get(row));
+			}
+			return converted.append(value);
+		}
+	}
+
+	/**
+	 * Canonical decimal ints; the first value that is not one moves the
+	 * column to a dictionary.
+	 */
+	private static final class IntColumn extends Column {
+		private static final int ABSENT = Integer.MIN_VALUE;
+
+		private int[] values = new int[16];
+		private int count = 0;
+
+		@Override
+		Column append(final String value) {
+			int n;
+			if (isNull(value)) {
+				n = ABSENT;
+			} else {
+				n = parseCanonical(value);
+				if (n == ABSENT) {
+					return convertTo(new DictionaryColumn(), value);
+				}
+			}
+			if (count == values.length) {
+				values = Arrays.copyOf(values, grow(count));
+			}
+			values[count++] = n;
+			return this;
+		}
+
+		@Override
+		String get(final int row) {
+			return values[row] == ABSENT ? null : Integer.toString(values[row]);
+		}
+
+		@Override
+		int count() {
+			return count;
+		}
+
+		@Override
+		void trim(final int size) {
+			values = Arrays.copyOf(values, size);
+		}
+
+		/**
+		 * @return the value, or ABSENT if it would not read back the same
+		 */
+		private static int parseCanonical(final String value) {
+			int length = value.length();
+			int start = length > 0 && value.charAt(0) == '-' ? 1 : 0;
+			if (length == start || length - start > 10 || length - start > 1 && value.charAt(start) == '0') {
+				return ABSENT;
+			}
+			long n = 0;
+			for (int i = start; i < length; i++) {
+				int digit = value.charAt(i) - '0';
+				if (digit < 0 || digit > 9) {
+					return ABSENT;
+				}
+				n = n * 10 + digit;
+			}
+			if (start == 1) {
+				n = -n;
+			}
+			return n <= Integer.MIN_VALUE || n > Integer.MAX_VALUE || n == 0 && start == 1 ? ABSENT : (int) n;
+		}
+	}
+
+	/**
+	 * Dictionary coded strings; too many distinct values move the column to
+	 * front coding.
+	 */
+	private static final class DictionaryColumn extends Column {
+		private static final int MAX_DISTINCT = 1024;
+
+		private int[] codes = new int[16];
+		private int count = 0;
+		private final List<String> dictionary = new ArrayList<>();
+		private final Map<String, Integer> index = new HashMap<>();
+
+		@Override
+		Column append(final String value) {
+			int code = -1;
+			if (nonNull(value)) {
+				Integer existing = index.get(value);
+				if (isNull(existing)) {
+					if (dictionary.size() >= MAX_DISTINCT) {
+						return convertTo(new FrontCodedColumn(), value);
+					}
+					existing = dictionary.size();
+					dictionary.add(value);
+					index.put(value, existing);
+				}
+				code = existing;
+			}
+			if (count == codes.length) {
+				codes = Arrays.copyOf(codes, grow(count));
+			}
+			codes[count++] = code;
+			return this;
+		}
+
+		@Override
+		String get(final int row) {
+			return codes[row] < 0 ? null : dictionary.get(codes[row]);
+		}
+
+		@Override
+		int count() {
+			return count;
+		}
+
+		@Override
+		void trim(final int size) {
+			codes = Arrays.copyOf(codes, size);
+		}
+	}
+
+	/**
+	 * Front coded UTF-8 strings: each value is stored as the length of the
+	 * prefix it shares with the previous value plus the rest, with a full
+	 * value at the start of every block so a lookup decodes at most a block.
+	 */
+	private static final class FrontCodedColumn extends Column {
+		private static final int BLOCK_SIZE = 16;
+
+		private byte[] data = new byte[256];
+		private int length = 0;
+		private int[] blocks = new int[16];
+		private int count = 0;
+		private byte[] previous = new byte[0];
+
+		@Override
+		Column append(final String value) {
+			if (count % BLOCK_SIZE == 0) {
+				int block = count / BLOCK_SIZE;
+				if (block == blocks.length) {
+					blocks = Arrays.copyOf(blocks, grow(block));
+				}
+				blocks[block] = length;
+				previous = new byte[0];
+			}
+			if (isNull(value)) {
+				// Prefix 0, and 0 for null in place of the suffix length + 1.
+				ensure(2);
+				length = writeVarInt(0, length);
+				length = writeVarInt(0, length);
+			} else {
+				byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+				int prefix = 0;
+				int max = Math.min(bytes.length, previous.length);
+				while (prefix < max && bytes[prefix] == previous[prefix]) {
+					prefix++;
+				}
+				int suffix = bytes.length - prefix;
+				ensure(10 + suffix);
+				length = writeVarInt(prefix, length);
+				length = writeVarInt(suffix + 1, length);
+				System.arraycopy(bytes, prefix, data, length, suffix);
+				length += suffix;
+				previous = bytes;
+			}
+			count++;
+			return this;
+		}
+
+		@Override
+		String get(final int row) {
+			int[] pos = {blocks[row / BLOCK_SIZE]};
+			byte[] current = new byte[64];
+			int currentLength = 0;
+			boolean present = false;
+			for (int i = row - row % BLOCK_SIZE; i <= row; i++) {
+				int prefix = readVarInt(pos);
+				int suffixPlusOne = readVarInt(pos);
+				if (suffixPlusOne == 0) {
+					currentLength = 0;
+					present = false;
+					continue;
+				}
+				int suffix = suffixPlusOne - 1;
+				if (prefix + suffix > current.length) {
+					current = Arrays.copyOf(current, Math.max(prefix + suffix, current.length * 2));
+				}
+				System.arraycopy(data, pos[0], current, prefix, suffix);
+				pos[0] += suffix;
+				currentLength = prefix + suffix;
+				present = true;
+			}
+			return present ? new String(current, 0, currentLength, StandardCharsets.UTF_8) : null;
+		}
+
+		@Override
+		int count() {
+			return count;
+		}
+
+		@Override
+		void trim(final int size) {
+			data = Arrays.copyOf(data, length);
+			blocks = Arrays.copyOf(blocks, (size + BLOCK_SIZE - 1) / BLOCK_SIZE);
+		}
+
+		private void ensure(final int extra) {
+			if (length + extra > data.length) {
+				data = Arrays.copyOf(data, Math.max(length + extra, grow(data.length)));
+			}
+		}
+
+		private int writeVarInt(final int value, final int pos) {
+			int v = value;
+			int p = pos;
+			while ((v & ~0x7F) != 0) {
+				data[p++] = (byte) ((v & 0x7F) | 0x80);
+				v >>>= 7;
+			}
+			data[p++] = (byte) v;
+			return p;
+		}
+
+		/**
+		 * Read a value, advancing the position past it.
+		 */
+		private int readVarInt(final int[] pos) {
+			int value = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = data[pos[0]++];
+				value |= (b & 0x7F) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+			return value;
+		}
+	}
+}
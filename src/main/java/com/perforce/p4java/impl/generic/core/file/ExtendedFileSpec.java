@@ -4,6 +4,7 @@
 package com.perforce.p4java.impl.generic.core.file;
 
 import com.perforce.p4java.Log;
+import com.perforce.p4java.common.base.P4DateUtils;
 import com.perforce.p4java.core.IChangelist;
 import com.perforce.p4java.core.file.FileAction;
 import com.perforce.p4java.core.file.FileSpecOpStatus;
@@ -557,10 +558,10 @@ public class ExtendedFileSpec extends FileSpec implements IExtendedFileSpec {
 				setHeadType(value);
 				break;
 			case HEADTIME:
-				setHeadTime(value == null ? null : new Date(Long.parseLong(value) * 1000));
+				setHeadTime(value == null ? null : P4DateUtils.fromEpochSeconds(value));
 				break;
 			case HEADMODTIME:
-				setHeadModTime(value == null ? null : new Date(Long.parseLong(value) * 1000));
+				setHeadModTime(value == null ? null : P4DateUtils.fromEpochSeconds(value));
 				break;
 			case HEAD_CHARSET:
 				setHeadCharset(value);
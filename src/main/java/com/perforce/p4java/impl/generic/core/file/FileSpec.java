@@ -37,6 +37,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Supplier;
 
 import static com.perforce.p4java.common.base.P4ResultMapUtils.parseInt;
 import static com.perforce.p4java.common.base.P4ResultMapUtils.parseLong;
@@ -101,6 +102,7 @@ public class FileSpec extends ServerResource implements IFileSpec {
 
 	protected FileSpecOpStatus opStatus = FileSpecOpStatus.VALID;
 	protected String statusMessage = null;
+	private Supplier<String> deferredStatusMessage = null;
 	protected int genericCode = 0;
 	protected int severityCode = 0;
 	protected int rawCode = 0;
@@ -296,7 +298,7 @@ public class FileSpec extends ServerResource implements IFileSpec {
 		Validate.notNull(impl);
 
 		opStatus = impl.opStatus;
-		statusMessage = impl.statusMessage;
+		statusMessage = impl.getStatusMessage();
 		genericCode = impl.genericCode;
 		severityCode = impl.severityCode;
 		originalPath = impl.originalPath;
@@ -673,6 +675,11 @@ public class FileSpec extends ServerResource implements IFileSpec {
 
 	@Override
 	public String getStatusMessage() {
+		Supplier<String> deferred = deferredStatusMessage;
+		if (deferred != null) {
+			statusMessage = deferred.get();
+			deferredStatusMessage = null;
+		}
 		return statusMessage;
 	}
 
@@ -722,6 +729,18 @@ public class FileSpec extends ServerResource implements IFileSpec {
 
 	public void setStatusMessage(String statusMessage) {
 		this.statusMessage = statusMessage;
+		this.deferredStatusMessage = null;
+	}
+
+	/**
+	 * Set a status message that is only rendered when first asked for.
+	 *
+	 * @param statusMessage supplier of the status message
+	 * @since 2025.2
+	 */
+	public void setDeferredStatusMessage(Supplier<String> statusMessage) {
+		this.statusMessage = null;
+		this.deferredStatusMessage = statusMessage;
 	}
 
 	public void setOriginalPath(FilePath path) {
@@ -1065,7 +1084,7 @@ public class FileSpec extends ServerResource implements IFileSpec {
 	@Override
 	public String toString() {
 		String usefulDescription = getAnnotatedPreferredPathString();
-		if (usefulDescription == null && statusMessage != null) {
+		if (usefulDescription == null && getStatusMessage() != null) {
 			usefulDescription = opStatus + ": " + statusMessage;
 		}
 		if (usefulDescription == null && repoName != null) {
@@ -4,11 +4,10 @@
 package com.perforce.p4java.impl.generic.core.file;
 
 import com.perforce.p4java.Log;
+import com.perforce.p4java.common.base.P4DateUtils;
 import com.perforce.p4java.core.IChangelist;
 import com.perforce.p4java.core.file.IFileSpec;
 
-import java.text.FieldPosition;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -370,14 +369,14 @@ public class PathAnnotations {
 				mat = nonrevDateShort.matcher(pathStr);
 
 				if (mat.find()) {
-					pathAnnotations.date = new SimpleDateFormat("yyyy/MM/dd").parse(mat.group(2));// HH:mm:ss					
+					pathAnnotations.date = P4DateUtils.parseDate(mat.group(2), "yyyy/MM/dd");// HH:mm:ss					
 					return true;
 				}
 
 				mat = nonrevDateFull.matcher(pathStr);
 
 				if (mat.find()) {
-					pathAnnotations.date = new SimpleDateFormat("yyyy/MM/dd:HH:mm:ss").parse(mat.group(2));// HH:mm:ss					
+					pathAnnotations.date = P4DateUtils.parseDate(mat.group(2), "yyyy/MM/dd:HH:mm:ss");// HH:mm:ss					
 					return true;
 				}
 
@@ -411,12 +410,7 @@ public class PathAnnotations {
 		} else if (getLabel() != null) {
 			return NONREV_PFX + getLabel();
 		} else if (getDate() != null) {
-			SimpleDateFormat sdf = new SimpleDateFormat("yyyy/MM/dd:HH:mm:ss");
-			StringBuffer sBuf = new StringBuffer();
-
-			sdf.format(getDate(), sBuf, new FieldPosition(0));
-
-			return NONREV_PFX + sBuf.toString();
+			return NONREV_PFX + P4DateUtils.formatDate(getDate(), "yyyy/MM/dd:HH:mm:ss");
 		}
 
 		return "";
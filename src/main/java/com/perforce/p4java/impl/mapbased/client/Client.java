@@ -9,9 +9,12 @@ import com.perforce.p4java.client.IClient;
 import com.perforce.p4java.client.IClientSummary;
 import com.perforce.p4java.client.IClientViewMapping;
 import com.perforce.p4java.client.delegator.IWhereDelegator;
+import com.perforce.p4java.common.base.P4DateUtils;
 import com.perforce.p4java.core.IChangelist;
 import com.perforce.p4java.core.IRepo;
 import com.perforce.p4java.core.IStreamSummary;
+import com.perforce.p4java.core.file.FileSpecBuilder;
+import com.perforce.p4java.core.file.IExtendedFileSpec;
 import com.perforce.p4java.core.file.IFileSpec;
 import com.perforce.p4java.core.file.IntegrationOptions;
 import com.perforce.p4java.exception.AccessException;
@@ -32,6 +35,7 @@ import com.perforce.p4java.impl.mapbased.server.Server;
 import com.perforce.p4java.impl.mapbased.server.cmd.IListDelegator;
 import com.perforce.p4java.impl.mapbased.server.cmd.ListDelegator;
 import com.perforce.p4java.impl.mapbased.server.cmd.ReposDelegator;
+import com.perforce.p4java.impl.mapbased.server.cmd.ResultListBuilder;
 import com.perforce.p4java.impl.mapbased.server.cmd.ResultMapParser;
 import com.perforce.p4java.option.client.AddFilesOptions;
 import com.perforce.p4java.option.client.CopyFilesOptions;
@@ -40,6 +44,7 @@ import com.perforce.p4java.option.client.EditFilesOptions;
 import com.perforce.p4java.option.client.GetDiffFilesOptions;
 import com.perforce.p4java.option.client.IntegrateFilesOptions;
 import com.perforce.p4java.option.client.LabelSyncOptions;
+import com.perforce.p4java.option.client.LocalDiffOptions;
 import com.perforce.p4java.option.client.LockFilesOptions;
 import com.perforce.p4java.option.client.MergeFilesOptions;
 import com.perforce.p4java.option.client.ParallelSyncOptions;
@@ -54,6 +59,7 @@ import com.perforce.p4java.option.client.SyncOptions;
 import com.perforce.p4java.option.client.UndoFilesOptions;
 import com.perforce.p4java.option.client.UnlockFilesOptions;
 import com.perforce.p4java.option.client.UnshelveFilesOptions;
+import com.perforce.p4java.option.server.GetExtendedFilesOptions;
 import com.perforce.p4java.option.server.ListOptions;
 import com.perforce.p4java.option.server.OpenedFilesOptions;
 import com.perforce.p4java.server.CmdSpec;
@@ -66,7 +72,7 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.text.SimpleDateFormat;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
@@ -372,7 +378,7 @@ public class Client extends ClientSummary implements IClient {
 			try {
 				// Different format here to what's in ClientSummary.
 				if (map.get(MapKeys.ACCESS_KEY) != null) {
-					this.accessed = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss").parse((String) map.get(MapKeys.ACCESS_KEY));
+					this.accessed = P4DateUtils.parseDate((String) map.get(MapKeys.ACCESS_KEY));
 				}
 			} catch (Exception exc) {
 				Log.error("Access date parse error in Client constructor " + exc.getLocalizedMessage());
@@ -380,7 +386,7 @@ public class Client extends ClientSummary implements IClient {
 			}
 			try {
 				if (map.get(MapKeys.UPDATE_KEY) != null) {
-					this.updated = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss").parse((String) map.get(MapKeys.UPDATE_KEY));
+					this.updated = P4DateUtils.parseDate((String) map.get(MapKeys.UPDATE_KEY));
 				}
 			} catch (Exception exc) {
 				Log.error("Update date parse error in Client constructor " + exc.getLocalizedMessage());
@@ -991,21 +997,13 @@ public class Client extends ClientSummary implements IClient {
 
 	private List<IFileSpec> haveList(List<IFileSpec> fileSpecs, String[] filter) throws ConnectionException, AccessException {
 
-		List<IFileSpec> haveList = new ArrayList<IFileSpec>();
-
 		if ((this.serverImpl.getCurrentClient() == null) || !this.serverImpl.getCurrentClient().getName().equalsIgnoreCase(this.getName())) {
-			return haveList;
+			return new ArrayList<IFileSpec>();
 		}
 
 		List<Map<String, Object>> resultMaps = this.serverImpl.execMapCmdList(CmdSpec.HAVE, Server.getPreferredPathArray(filter, fileSpecs), null);
 
-		if (resultMaps != null) {
-			for (Map<String, Object> result : resultMaps) {
-				haveList.add(handleFileReturn(result, serverImpl));
-			}
-		}
-
-		return haveList;
+		return ResultListBuilder.buildFileSpecListFromCommandResultMaps(resultMaps, serverImpl);
 	}
 
 	/**
@@ -1441,6 +1439,32 @@ public class Client extends ClientSummary implements IClient {
 		return diffList;
 	}
 
+	/**
+	 * @see com.perforce.p4java.client.IClient#getLocalDiffs(java.util.List, com.perforce.p4java.option.client.LocalDiffOptions, java.io.OutputStream)
+	 */
+	@Override
+	public List<IFileSpec> getLocalDiffs(List<IFileSpec> fileSpecs, LocalDiffOptions opts, OutputStream out) throws P4JavaException {
+		if (isNull(out)) {
+			throw new NullPointerError("Null output stream passed to Client.getLocalDiffs");
+		}
+		if (isNull(fileSpecs) || fileSpecs.isEmpty()) {
+			fileSpecs = FileSpecBuilder.makeFileSpecList("//" + this.getName() + "/...");
+		}
+
+		// Set the server's current client to this client
+		IClient currentClient = this.serverImpl.getCurrentClient();
+		this.serverImpl.setCurrentClient(this);
+		List<IExtendedFileSpec> openedFiles;
+		try {
+			openedFiles = this.serverImpl.getExtendedFiles(fileSpecs, new GetExtendedFilesOptions("-Ro"));
+		} finally {
+			// Set the server's current client back to the previous one
+			this.serverImpl.setCurrentClient(currentClient);
+		}
+
+		return new LocalDiff(this.serverImpl, this, opts).diff(openedFiles, out);
+	}
+
 	/**
 	 * @see com.perforce.p4java.client.IClient#shelveFiles(java.util.List, int, com.perforce.p4java.option.client.ShelveFilesOptions)
 	 */
@@ -1458,6 +1482,7 @@ public class Client extends ClientSummary implements IClient {
 		IClient currentClient = this.serverImpl.getCurrentClient();
 		this.serverImpl.setCurrentClient(this);
 		List<Map<String, Object>> resultMaps = this.serverImpl.execMapCmdList(CmdSpec.SHELVE, Parameters.processParameters(opts, fileSpecs, changelistString, serverImpl), null);
+		invalidateChangelistCache(changelistId);
 		if (resultMaps != null) {
 			for (Map<String, Object> result : resultMaps) {
 				resultList.add(handleFileReturn(result, serverImpl));
@@ -1529,6 +1554,7 @@ public class Client extends ClientSummary implements IClient {
 		IClient currentClient = this.serverImpl.getCurrentClient();
 		this.serverImpl.setCurrentClient(this);
 		List<Map<String, Object>> resultMaps = this.serverImpl.execMapCmdList(CmdSpec.SHELVE, new String[]{"-i"}, InputMapper.map(list, true));
+		invalidateChangelistCache(list.getId());
 
 		List<IFileSpec> resultList = new ArrayList<IFileSpec>();
 		if (resultMaps != null) {
@@ -1575,6 +1601,7 @@ public class Client extends ClientSummary implements IClient {
 		}
 
 		List<Map<String, Object>> resultMaps = this.serverImpl.execMapCmdList(CmdSpec.SUBMIT, new String[]{"-e", "" + shelvedChangelistId}, null);
+		invalidateChangelistCache(shelvedChangelistId);
 
 		List<IFileSpec> resultList = new ArrayList<IFileSpec>();
 		if (resultMaps != null) {
@@ -1618,6 +1645,16 @@ public class Client extends ClientSummary implements IClient {
 		return getIntegrationFilesFromReturn(resultMaps);
 	}
 
+	/**
+	 * Drop anything the server's changelist cache holds for a changelist
+	 * whose shelved files have just been changed.
+	 */
+	private void invalidateChangelistCache(int changelistId) {
+		if (changelistId > 0 && this.serverImpl instanceof Server) {
+			((Server) this.serverImpl).invalidateChangelistCache(changelistId);
+		}
+	}
+
 	/**
 	 * Get the integration files from the return results.
 	 */
@@ -0,0 +1,257 @@
+package com.perforce.p4java.impl.mapbased.client;
+
+import com.perforce.p4java.Log;
+import com.perforce.p4java.client.IClient;
+import com.perforce.p4java.client.IClientSummary.ClientLineEnd;
+import com.perforce.p4java.core.file.FileAction;
+import com.perforce.p4java.core.file.FileSpecOpStatus;
+import com.perforce.p4java.core.file.IExtendedFileSpec;
+import com.perforce.p4java.core.file.IFileSpec;
+import com.perforce.p4java.diff.DiffFlags;
+import com.perforce.p4java.diff.DiffWriter;
+import com.perforce.p4java.exception.P4JavaException;
+import com.perforce.p4java.impl.generic.client.ClientLineEnding;
+import com.perforce.p4java.impl.generic.core.file.FileSpec;
+import com.perforce.p4java.impl.mapbased.rpc.NtsServerImpl;
+import com.perforce.p4java.impl.mapbased.rpc.RpcServer;
+import com.perforce.p4java.impl.mapbased.rpc.sys.RpcInputStream;
+import com.perforce.p4java.impl.mapbased.rpc.sys.RpcPerforceFile;
+import com.perforce.p4java.impl.mapbased.rpc.sys.RpcPerforceFileType;
+import com.perforce.p4java.option.client.LocalDiffOptions;
+import com.perforce.p4java.option.server.GetFileContentsOptions;
+import com.perforce.p4java.server.IOptionsServer;
+import org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Client-side diff of opened files against their have revisions, using the
+ * Java diff engine instead of the server-side 'diff' command.
+ * <p>
+ * Base revisions are fetched with concurrent 'print' commands (serially for
+ * the non-thread-safe RPC implementation) and diffed on a bounded pool;
+ * the diffs are written in the order of the given file list, each preceded
+ * by a header naming the depot revision and the local file. Only a bounded
+ * window of files is in flight at any time, so memory use does not grow
+ * with the size of the changelist.
+ * <p>
+ * Only text, unicode and utf8 files opened for edit or integrate are
+ * diffed; local line endings follow the client's LineEnd option. Base
+ * content is taken as printed, i.e. in the client charset with keywords
+ * expanded, and is compared with the local bytes without any further
+ * translation.
+ *
+ * @since 2025.2
+ */
+public class LocalDiff {
+
+	private final IOptionsServer server;
+	private final IClient client;
+	private final DiffFlags flags;
+	private final int diffThreads;
+	private final int fetchThreads;
+
+	/**
+	 * @param server server used to print the base revisions
+	 * @param client client whose opened files are diffed
+	 * @param opts   possibly-null diff options
+	 */
+	public LocalDiff(final IOptionsServer server, final IClient client, final LocalDiffOptions opts) {
+		LocalDiffOptions options = isNull(opts) ? new LocalDiffOptions() : opts;
+		this.server = server;
+		this.client = client;
+		this.flags = new DiffFlags(options.getDiffFlags());
+
+		int threads = options.getNumberOfThreads();
+		this.diffThreads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+
+		int fetch = options.getNumberOfFetchThreads();
+		if (server instanceof NtsServerImpl) {
+			fetch = 1;
+		}
+		this.fetchThreads = fetch > 0 ? fetch : this.diffThreads;
+	}
+
+	/**
+	 * Diff the opened files against their have revisions, writing the diffs
+	 * to the output in the order of the list. The output is flushed but not
+	 * closed.
+	 *
+	 * @param openedFiles opened files as returned by 'fstat -Ro'; each needs
+	 *                    its depot path, local path, have revision, open
+	 *                    action and open type.
+	 * @param out         output for the diffs
+	 * @return the files whose content differs, plus error specs for any files
+	 * that could not be diffed
+	 * @throws P4JavaException if writing the output fails
+	 */
+	public List<IFileSpec> diff(final List<IExtendedFileSpec> openedFiles, final OutputStream out) throws P4JavaException {
+		List<IFileSpec> results = new ArrayList<>();
+		if (isNull(openedFiles) || openedFiles.isEmpty()) {
+			return results;
+		}
+
+		List<IExtendedFileSpec> files = new ArrayList<>();
+		for (IExtendedFileSpec file : openedFiles) {
+			if (isDiffable(file)) {
+				files.add(file);
+			}
+		}
+
+		ExecutorService fetchPool = Executors.newFixedThreadPool(fetchThreads, threadFactory("P4Java Local Diff Fetch"));
+		ExecutorService diffPool = Executors.newFixedThreadPool(diffThreads, threadFactory("P4Java Local Diff"));
+		try {
+			int window = 2 * Math.max(fetchThreads, diffThreads);
+			List<CompletableFuture<byte[]>> pending = new ArrayList<>(files.size());
+			int submitted = 0;
+
+			for (int i = 0; i < files.size(); i++) {
+				while (submitted < files.size() && submitted < i + window) {
+					final IExtendedFileSpec file = files.get(submitted++);
+					pending.add(CompletableFuture
+							.supplyAsync(() -> fetchBase(file), fetchPool)
+							.thenApplyAsync(base -> diffFile(file, base), diffPool));
+				}
+
+				IExtendedFileSpec file = files.get(i);
+				try {
+					byte[] diff = pending.get(i).join();
+					pending.set(i, null);
+					if (diff.length > 0) {
+						out.write(diff);
+						results.add(file);
+					}
+				} catch (CompletionException e) {
+					Throwable cause = isNull(e.getCause()) ? e : e.getCause();
+					Log.error("Local diff of " + file.getDepotPathString() + " failed: " + cause.getLocalizedMessage());
+					results.add(new FileSpec(FileSpecOpStatus.ERROR,
+							file.getDepotPathString() + " - " + cause.getLocalizedMessage()));
+				}
+			}
+			out.flush();
+		} catch (IOException e) {
+			throw new P4JavaException(e.getLocalizedMessage(), e);
+		} finally {
+			fetchPool.shutdownNow();
+			diffPool.shutdownNow();
+		}
+
+		return results;
+	}
+
+	private boolean isDiffable(final IExtendedFileSpec file) {
+		if (isNull(file) || file.getOpStatus() != FileSpecOpStatus.VALID) {
+			return false;
+		}
+		if (isNull(file.getDepotPathString()) || isNull(localPath(file)) || baseRev(file) <= 0) {
+			return false;
+		}
+		FileAction action = file.getOpenAction();
+		if (action != FileAction.EDIT && action != FileAction.INTEGRATE) {
+			return false;
+		}
+		return nonNull(localFileType(file.getOpenType()));
+	}
+
+	private byte[] fetchBase(final IExtendedFileSpec file) {
+		List<IFileSpec> specs = Collections.singletonList(new FileSpec(file.getDepotPathString() + "#" + baseRev(file)));
+		try (InputStream in = server.getFileContents(specs, new GetFileContentsOptions(false, true))) {
+			if (isNull(in)) {
+				throw new CompletionException(new IOException("no content printed"));
+			}
+			return IOUtils.toByteArray(in);
+		} catch (P4JavaException | IOException e) {
+			throw new CompletionException(e);
+		}
+	}
+
+	private byte[] diffFile(final IExtendedFileSpec file, final byte[] base) {
+		String local = localPath(file);
+		RpcPerforceFile localFile = new RpcPerforceFile(local, localFileType(file.getOpenType()), lineEnding());
+		ByteArrayOutputStream diffOut = new ByteArrayOutputStream();
+		try (InputStream in = new RpcInputStream(localFile, null)) {
+			byte[] content = IOUtils.toByteArray(in);
+			DiffWriter writer = new DiffWriter(diffOut, outputCharset(), flags);
+			writer.write(file.getDepotPathString() + "#" + baseRev(file), base, local, content);
+		} catch (Exception e) {
+			throw new CompletionException(e);
+		}
+		return diffOut.toByteArray();
+	}
+
+	private static int baseRev(final IExtendedFileSpec file) {
+		return file.getHaveRev();
+	}
+
+	private static String localPath(final IExtendedFileSpec file) {
+		// fstat reports the clientFile field in local syntax.
+		return nonNull(file.getLocalPathString()) ? file.getLocalPathString() : file.getClientPathString();
+	}
+
+	private static RpcPerforceFileType localFileType(final String openType) {
+		if (isNull(openType)) {
+			return null;
+		}
+		int plus = openType.indexOf('+');
+		String base = plus < 0 ? openType : openType.substring(0, plus);
+		if (base.endsWith("text")) {
+			return RpcPerforceFileType.FST_TEXT;
+		}
+		if (base.endsWith("unicode") || base.endsWith("utf8")) {
+			return RpcPerforceFileType.FST_UNICODE;
+		}
+		return null;
+	}
+
+	private ClientLineEnding lineEnding() {
+		ClientLineEnd lineEnd = isNull(client) ? null : client.getLineEnd();
+		if (isNull(lineEnd)) {
+			return ClientLineEnding.FST_L_LOCAL;
+		}
+		switch (lineEnd) {
+			case UNIX:
+				return ClientLineEnding.FST_L_LF;
+			case MAC:
+				return ClientLineEnding.FST_L_CR;
+			case WIN:
+				return ClientLineEnding.FST_L_CRLF;
+			case SHARE:
+				return ClientLineEnding.FST_L_LFCRLF;
+			default:
+				return ClientLineEnding.FST_L_LOCAL;
+		}
+	}
+
+	private Charset outputCharset() {
+		if (server instanceof RpcServer && nonNull(((RpcServer) server).getClientCharset())) {
+			return ((RpcServer) server).getClientCharset();
+		}
+		return Charset.defaultCharset();
+	}
+
+	private static ThreadFactory threadFactory(final String name) {
+		AtomicInteger count = new AtomicInteger();
+		return runnable -> {
+			Thread thread = new Thread(runnable);
+			thread.setName(name + " " + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+}
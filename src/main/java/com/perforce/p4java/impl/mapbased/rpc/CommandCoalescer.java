@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.impl.mapbased.rpc;
+
+import com.perforce.p4java.PropertyDefs;
+import com.perforce.p4java.exception.AccessException;
+import com.perforce.p4java.exception.ConnectionException;
+import com.perforce.p4java.exception.RequestException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+/**
+ * Lets concurrent, identical read-only commands share a single server call.
+ * <p>
+ * While a command is running, any other thread that asks for the same
+ * command with the same arguments, user, client, host, working directory
+ * and charset waits for it instead of sending its own; each caller then
+ * gets its own copy of the one result, so callers cannot see each other's
+ * changes to it. Nothing is kept once the command has finished, so a
+ * caller never gets results that were complete before it asked. If the
+ * command fails, every caller gets the same exception.
+ * <p>
+ * Only commands on the allow-list are coalesced, and only when they have
+ * no input map or string and no streaming, filter or parallel callback.
+ * The default allow-list holds commands that never change anything on the
+ * server, whatever their arguments.
+ * <p>
+ * Used by server objects created with the
+ * {@link PropertyDefs#ENABLE_COMMAND_COALESCING} property set.
+ *
+ * @since 2025.2
+ */
+public class CommandCoalescer {
+
+	/**
+	 * Commands coalesced unless another allow-list is given.
+	 */
+	public static final Set<String> DEFAULT_COMMANDS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+			"annotate", "branches", "changes", "clients", "depots", "describe", "diff2", "dirs", "filelog",
+			"files", "fixes", "fstat", "groups", "have", "info", "integrated", "interchanges", "jobs", "labels",
+			"opened", "sizes", "streams", "users", "where")));
+
+	/**
+	 * Runs a command.
+	 */
+	@FunctionalInterface
+	public interface CommandCall {
+		List<Map<String, Object>> execute() throws ConnectionException, AccessException, RequestException;
+	}
+
+	private final Set<String> commands;
+	private final ConcurrentMap<String, CompletableFuture<List<Map<String, Object>>>> inFlight = new ConcurrentHashMap<>();
+
+	private final AtomicLong executed = new AtomicLong();
+	private final AtomicLong coalesced = new AtomicLong();
+
+	/**
+	 * Create a coalescer for the default allow-list.
+	 */
+	public CommandCoalescer() {
+		this(DEFAULT_COMMANDS);
+	}
+
+	/**
+	 * @param commands names of the commands that may be coalesced; these
+	 *                 must not change anything on the server
+	 */
+	public CommandCoalescer(final Set<String> commands) {
+		Set<String> names = new HashSet<>();
+		for (String command : commands) {
+			names.add(command.toLowerCase(Locale.ENGLISH));
+		}
+		this.commands = Collections.unmodifiableSet(names);
+	}
+
+	/**
+	 * Parse a comma separated allow-list, as given by the
+	 * COALESCED_COMMANDS property.
+	 *
+	 * @param commandList command names separated by commas; null or blank
+	 *                    for the default allow-list
+	 * @return the allow-list
+	 */
+	public static Set<String> parseCommands(final String commandList) {
+		if (isBlank(commandList)) {
+			return DEFAULT_COMMANDS;
+		}
+		Set<String> names = new HashSet<>();
+		for (String name : commandList.split(",")) {
+			if (!isBlank(name)) {
+				names.add(name.trim());
+			}
+		}
+		return names;
+	}
+
+	/**
+	 * @param cmdName command name
+	 * @return true if the command is on the allow-list
+	 */
+	public boolean isCoalesced(final String cmdName) {
+		return nonNull(cmdName) && commands.contains(cmdName.toLowerCase(Locale.ENGLISH));
+	}
+
+	/**
+	 * Build the key identifying a command call; calls with the same key get
+	 * the same results.
+	 *
+	 * @param cmdName command name
+	 * @param cmdArgs command arguments; may be null
+	 * @param context anything else the results depend on, such as the user,
+	 *                client and charset
+	 * @return the key
+	 */
+	public static String keyOf(final String cmdName, final String[] cmdArgs, final String... context) {
+		StringBuilder key = new StringBuilder(cmdName.toLowerCase(Locale.ENGLISH));
+		if (nonNull(cmdArgs)) {
+			for (String arg : cmdArgs) {
+				key.append('\0').append(arg);
+			}
+		}
+		key.append('\1');
+		for (String value : context) {
+			key.append('\0').append(value);
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Run a command, or wait for an identical one that is already running.
+	 *
+	 * @param key  key of the call, from keyOf
+	 * @param call runs the command
+	 * @return this caller's copy of the results; null if the command
+	 * returned null
+	 * @throws ConnectionException if the command did
+	 * @throws AccessException     if the command did
+	 * @throws RequestException    if the command did
+	 */
+	public List<Map<String, Object>> execute(final String key, final CommandCall call) throws ConnectionException, AccessException, RequestException {
+		CompletableFuture<List<Map<String, Object>>> flight = new CompletableFuture<>();
+		CompletableFuture<List<Map<String, Object>>> other = inFlight.putIfAbsent(key, flight);
+		if (nonNull(other)) {
+			coalesced.incrementAndGet();
+			return copyOf(await(other));
+		}
+
+		// The entry is removed before the future completes, so a caller that
+		// arrives once the results are known runs the command again rather
+		// than being handed results from before it asked.
+		executed.incrementAndGet();
+		List<Map<String, Object>> results;
+		try {
+			results = call.execute();
+		} catch (ConnectionException | AccessException | RequestException | RuntimeException | Error exc) {
+			inFlight.remove(key, flight);
+			flight.completeExceptionally(exc);
+			throw exc;
+		}
+		inFlight.remove(key, flight);
+		try {
+			flight.complete(copyOf(results));
+		} catch (RuntimeException | Error exc) {
+			flight.completeExceptionally(exc);
+			throw exc;
+		}
+		return results;
+	}
+
+	/**
+	 * @return number of commands actually sent to the server
+	 */
+	public long getExecutedCount() {
+		return executed.get();
+	}
+
+	/**
+	 * @return number of calls that shared another call's results
+	 */
+	public long getCoalescedCount() {
+		return coalesced.get();
+	}
+
+	public Set<String> getCommands() {
+		return commands;
+	}
+
+	private static List<Map<String, Object>> await(final CompletableFuture<List<Map<String, Object>>> flight)
+			throws ConnectionException, AccessException, RequestException {
+		try {
+			return flight.join();
+		} catch (CompletionException exc) {
+			Throwable cause = exc.getCause();
+			if (cause instanceof ConnectionException) {
+				throw (ConnectionException) cause;
+			} else if (cause instanceof AccessException) {
+				throw (AccessException) cause;
+			} else if (cause instanceof RequestException) {
+				throw (RequestException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw exc;
+		}
+	}
+
+	private static List<Map<String, Object>> copyOf(final List<Map<String, Object>> results) {
+		if (isNull(results)) {
+			return null;
+		}
+		List<Map<String, Object>> copy = new ArrayList<>(results.size());
+		for (Map<String, Object> map : results) {
+			copy.add(isNull(map) ? null : new HashMap<>(map));
+		}
+		return copy;
+	}
+}
@@ -192,6 +192,11 @@ public class CommandEnv {
 	 */
 	private RpcConnection rpcConnection = null;
 
+	/**
+	 * Trace span of this command; null unless a trace listener is set.
+	 */
+	private TraceSpan traceSpan = null;
+
 	private boolean userCanceled = false; // true if the user tried to cancel the command
 
 	public CommandEnv(RpcServer server, RpcCmdSpec cmdSpec, RpcConnection rpcConnection, ProtocolCommand protocolSpecs, Map<String, Object> serverProtocolSpecsMap, IProgressCallback progressCallback, int cmdCallBackKey, boolean syncInPlace, boolean nonCheckedSyncs) {
@@ -319,6 +324,20 @@ public class CommandEnv {
 		return this.stateMap;
 	}
 
+	/**
+	 * @since 2025.2
+	 */
+	public TraceSpan getTraceSpan() {
+		return this.traceSpan;
+	}
+
+	/**
+	 * @since 2025.2
+	 */
+	public void setTraceSpan(TraceSpan traceSpan) {
+		this.traceSpan = traceSpan;
+	}
+
 	public void setStateMap(Map<String, Object> stateMap) {
 		this.stateMap = stateMap;
 	}
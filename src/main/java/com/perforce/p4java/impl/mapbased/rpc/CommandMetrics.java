@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.impl.mapbased.rpc;
+
+import com.perforce.p4java.exception.MessageSeverityCode;
+import com.perforce.p4java.impl.mapbased.rpc.msg.RpcMessage;
+import com.perforce.p4java.server.ICommandMetrics;
+
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Gathers the metrics of a single command as it runs. Only created when a
+ * metrics registry is in use; the connection and server code check for a
+ * null CommandMetrics before timing anything.
+ * <p>
+ * Not thread-safe: a command and its connection are only ever used by one
+ * thread at a time.
+ *
+ * @since 2025.2
+ */
+public class CommandMetrics implements ICommandMetrics {
+
+	private final String commandName;
+	private final long startNanos;
+	private long totalNanos = 0;
+	private long connectNanos = 0;
+	private long poolWaitNanos = 0;
+	private long sendNanos = 0;
+	private long serverWaitNanos = 0;
+	private long bytesSent = 0;
+	private long bytesReceived = 0;
+	private long packetsSent = 0;
+	private long packetsReceived = 0;
+	private int serverErrors = 0;
+	private boolean completed = false;
+
+	public CommandMetrics(final String commandName) {
+		this.commandName = commandName;
+		this.startNanos = System.nanoTime();
+	}
+
+	public void connected(final long nanos, final long poolWaitNanos) {
+		this.connectNanos += nanos;
+		this.poolWaitNanos += poolWaitNanos;
+	}
+
+	public void packetSent(final long bytes, final long nanos) {
+		bytesSent += bytes;
+		packetsSent++;
+		sendNanos += nanos;
+	}
+
+	public void packetReceived(final long bytes, final long nanos) {
+		bytesReceived += bytes;
+		packetsReceived++;
+		serverWaitNanos += nanos;
+	}
+
+	/**
+	 * Count the server error messages in a command's results.
+	 *
+	 * @param resultMaps the command's results; may be null
+	 */
+	public void results(final List<Map<String, Object>> resultMaps) {
+		serverErrors += countServerErrors(resultMaps);
+	}
+
+	/**
+	 * @param resultMaps a command's results; may be null
+	 * @return the number of results carrying a server error message
+	 */
+	public static int countServerErrors(final List<Map<String, Object>> resultMaps) {
+		int errors = 0;
+		if (nonNull(resultMaps)) {
+			for (Map<String, Object> map : resultMaps) {
+				if (nonNull(map)) {
+					Object code = map.get(RpcMessage.CODE + "0");
+					if (code instanceof String
+							&& RpcMessage.getSeverity((String) code) >= MessageSeverityCode.E_FAILED) {
+						errors++;
+					}
+				}
+			}
+		}
+		return errors;
+	}
+
+	/**
+	 * Mark the command as having finished without an exception.
+	 */
+	public void completed() {
+		completed = true;
+	}
+
+	/**
+	 * Stop the clock; called once, whether or not the command completed.
+	 */
+	public void finish() {
+		totalNanos = System.nanoTime() - startNanos;
+	}
+
+	@Override
+	public String getCommandName() {
+		return commandName;
+	}
+
+	@Override
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	@Override
+	public long getConnectNanos() {
+		return connectNanos;
+	}
+
+	@Override
+	public long getPoolWaitNanos() {
+		return poolWaitNanos;
+	}
+
+	@Override
+	public long getSendNanos() {
+		return sendNanos;
+	}
+
+	@Override
+	public long getServerWaitNanos() {
+		return serverWaitNanos;
+	}
+
+	@Override
+	public long getProcessingNanos() {
+		return Math.max(0, totalNanos - connectNanos - sendNanos - serverWaitNanos);
+	}
+
+	@Override
+	public long getBytesSent() {
+		return bytesSent;
+	}
+
+	@Override
+	public long getBytesReceived() {
+		return bytesReceived;
+	}
+
+	@Override
+	public long getPacketsSent() {
+		return packetsSent;
+	}
+
+	@Override
+	public long getPacketsReceived() {
+		return packetsReceived;
+	}
+
+	@Override
+	public int getServerErrors() {
+		return serverErrors;
+	}
+
+	@Override
+	public boolean isFailed() {
+		return !completed;
+	}
+}
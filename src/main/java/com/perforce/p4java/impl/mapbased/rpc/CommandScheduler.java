@@ -0,0 +1,419 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.impl.mapbased.rpc;
+
+import com.perforce.p4java.PropertyDefs;
+import com.perforce.p4java.server.CommandPriority;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Decides which commands may open a connection, so that a server object
+ * shared by interactive and bulk work keeps answering interactive requests
+ * quickly.
+ * <p>
+ * At most maxActive commands run at once, and each priority class can be
+ * limited further; BATCH is limited to half of maxActive by default, so
+ * that there is always room for more urgent work. When a command finishes,
+ * the next command to start is the longest waiting one in the most urgent
+ * class that is under its limit, except that a command that has waited
+ * longer than the aging time goes first whatever its class, so that no
+ * class can be starved. Within a class, commands start in the order they
+ * arrived.
+ * <p>
+ * A command's class is the one set for the calling thread with
+ * setThreadPriority, or the scheduler's default class. Queue depths and
+ * wait times are kept for each class.
+ * <p>
+ * Permits are reentrant: a command run by a thread that already holds a
+ * permit from this scheduler, such as one run from a callback of another
+ * command, starts at once and is not counted, since the thread could not
+ * release the permit it holds while waiting for another.
+ * <p>
+ * Used by server objects created with the
+ * {@link PropertyDefs#COMMAND_SCHEDULER_MAX_ACTIVE} property set.
+ *
+ * @since 2025.2
+ */
+public class CommandScheduler {
+
+	/**
+	 * Default time after which a waiting command goes ahead of more urgent
+	 * classes.
+	 */
+	public static final long DEFAULT_AGING_MILLIS = 5000;
+
+	private static final CommandPriority[] PRIORITIES = CommandPriority.values();
+
+	private static final ThreadLocal<CommandPriority> threadPriority = new ThreadLocal<>();
+
+	/**
+	 * Permission for one command to run; release it when the command has
+	 * finished.
+	 */
+	public final class Permit {
+		private final CommandPriority priority;
+		private final int[] holdCount;
+		private final boolean nested;
+		private boolean released = false;
+
+		private Permit(final CommandPriority priority, final int[] holdCount, final boolean nested) {
+			this.priority = priority;
+			this.holdCount = holdCount;
+			this.nested = nested;
+		}
+
+		public CommandPriority getPriority() {
+			return priority;
+		}
+
+		/**
+		 * @return true if the permit was given to a thread that already held
+		 * one, and so was not scheduled
+		 */
+		public boolean isNested() {
+			return nested;
+		}
+
+		/**
+		 * Let the next waiting command run; does nothing if already
+		 * released. Must be called by the thread the permit was given to.
+		 */
+		public void release() {
+			if (nested) {
+				if (!released) {
+					released = true;
+					holdCount[0]--;
+				}
+				return;
+			}
+			lock.lock();
+			try {
+				if (!released) {
+					released = true;
+					holdCount[0]--;
+					active[priority.ordinal()]--;
+					totalActive--;
+					dispatch();
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	private static final class Waiter {
+		private final CommandPriority priority;
+		private final long enqueueNanos = System.nanoTime();
+		private final Condition condition;
+		private boolean granted = false;
+
+		private Waiter(final CommandPriority priority, final Condition condition) {
+			this.priority = priority;
+			this.condition = condition;
+		}
+	}
+
+	// Number of permits held by each thread, nested ones included.
+	private final ThreadLocal<int[]> holds = ThreadLocal.withInitial(() -> new int[1]);
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final int maxActive;
+	private final int[] limits = new int[PRIORITIES.length];
+	private final int[] active = new int[PRIORITIES.length];
+	private int totalActive = 0;
+	private final ArrayDeque<Waiter>[] queues;
+	private volatile long agingNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_AGING_MILLIS);
+	private volatile CommandPriority defaultPriority = CommandPriority.NORMAL;
+
+	private final LongAdder[] started = new LongAdder[PRIORITIES.length];
+	private final LongAdder[] waitNanos = new LongAdder[PRIORITIES.length];
+	private final LongAccumulator[] maxWaitNanos = new LongAccumulator[PRIORITIES.length];
+
+	/**
+	 * @param maxActive maximum number of commands running at once; at
+	 *                  least one
+	 */
+	@SuppressWarnings("unchecked")
+	public CommandScheduler(final int maxActive) {
+		this.maxActive = Math.max(1, maxActive);
+		this.queues = new ArrayDeque[PRIORITIES.length];
+		for (int i = 0; i < PRIORITIES.length; i++) {
+			queues[i] = new ArrayDeque<>();
+			limits[i] = this.maxActive;
+			started[i] = new LongAdder();
+			waitNanos[i] = new LongAdder();
+			maxWaitNanos[i] = new LongAccumulator(Long::max, 0);
+		}
+		limits[CommandPriority.BATCH.ordinal()] = Math.max(1, this.maxActive / 2);
+	}
+
+	/**
+	 * Set the priority class of commands run by the current thread.
+	 *
+	 * @param priority priority class, or null for the scheduler's default
+	 * @return the class previously set for the thread, or null if none
+	 */
+	public static CommandPriority setThreadPriority(final CommandPriority priority) {
+		CommandPriority previous = threadPriority.get();
+		if (isNull(priority)) {
+			threadPriority.remove();
+		} else {
+			threadPriority.set(priority);
+		}
+		return previous;
+	}
+
+	/**
+	 * @return the priority class set for the current thread, or null if
+	 * none
+	 */
+	public static CommandPriority getThreadPriority() {
+		return threadPriority.get();
+	}
+
+	/**
+	 * Wait until a command of the current thread's priority class may run.
+	 *
+	 * @return the command's permit
+	 * @throws InterruptedException if the thread is interrupted while
+	 *                              waiting
+	 */
+	public Permit acquire() throws InterruptedException {
+		CommandPriority priority = threadPriority.get();
+		return acquire(isNull(priority) ? defaultPriority : priority);
+	}
+
+	/**
+	 * Wait until a command of the given priority class may run. A thread
+	 * that already holds a permit gets a nested one at once.
+	 *
+	 * @param priority the command's priority class
+	 * @return the command's permit
+	 * @throws InterruptedException if the thread is interrupted while
+	 *                              waiting
+	 */
+	public Permit acquire(final CommandPriority priority) throws InterruptedException {
+		int[] holdCount = holds.get();
+		if (holdCount[0] > 0) {
+			holdCount[0]++;
+			return new Permit(priority, holdCount, true);
+		}
+		int index = priority.ordinal();
+		lock.lock();
+		try {
+			if (canStart(index) && !hasWaitersAtOrAbove(index)) {
+				start(index, 0);
+				holdCount[0]++;
+				return new Permit(priority, holdCount, false);
+			}
+			Waiter waiter = new Waiter(priority, lock.newCondition());
+			queues[index].addLast(waiter);
+			dispatch();
+			try {
+				while (!waiter.granted) {
+					waiter.condition.await();
+				}
+			} catch (InterruptedException exc) {
+				if (waiter.granted) {
+					// Granted as we were interrupted; pass it on.
+					active[index]--;
+					totalActive--;
+					dispatch();
+				} else {
+					queues[index].remove(waiter);
+				}
+				throw exc;
+			}
+			holdCount[0]++;
+			return new Permit(priority, holdCount, false);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Limit the number of commands of one class running at once.
+	 *
+	 * @param priority priority class
+	 * @param limit    maximum number running at once; between one and
+	 *                 maxActive
+	 */
+	public void setLimit(final CommandPriority priority, final int limit) {
+		lock.lock();
+		try {
+			limits[priority.ordinal()] = Math.max(1, Math.min(limit, maxActive));
+			dispatch();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int getLimit(final CommandPriority priority) {
+		lock.lock();
+		try {
+			return limits[priority.ordinal()];
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int getMaxActive() {
+		return maxActive;
+	}
+
+	/**
+	 * @param agingMillis time after which a waiting command goes ahead of
+	 *                    more urgent classes
+	 */
+	public void setAgingMillis(final long agingMillis) {
+		this.agingNanos = TimeUnit.MILLISECONDS.toNanos(agingMillis);
+	}
+
+	public long getAgingMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(agingNanos);
+	}
+
+	/**
+	 * @param defaultPriority class of commands run by threads with no class
+	 *                        set
+	 */
+	public void setDefaultPriority(final CommandPriority defaultPriority) {
+		this.defaultPriority = isNull(defaultPriority) ? CommandPriority.NORMAL : defaultPriority;
+	}
+
+	public CommandPriority getDefaultPriority() {
+		return defaultPriority;
+	}
+
+	/**
+	 * @return number of commands running now
+	 */
+	public int getActiveCount() {
+		lock.lock();
+		try {
+			return totalActive;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @param priority priority class
+	 * @return number of commands of the class running now
+	 */
+	public int getActiveCount(final CommandPriority priority) {
+		lock.lock();
+		try {
+			return active[priority.ordinal()];
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @param priority priority class
+	 * @return number of commands of the class waiting to run
+	 */
+	public int getQueueDepth(final CommandPriority priority) {
+		lock.lock();
+		try {
+			return queues[priority.ordinal()].size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @param priority priority class
+	 * @return number of commands of the class started so far
+	 */
+	public long getStartedCount(final CommandPriority priority) {
+		return started[priority.ordinal()].sum();
+	}
+
+	/**
+	 * @param priority priority class
+	 * @return mean time commands of the class waited to start, in
+	 * milliseconds
+	 */
+	public double getMeanWaitMillis(final CommandPriority priority) {
+		long count = started[priority.ordinal()].sum();
+		return count == 0 ? 0 : toMillis(waitNanos[priority.ordinal()].sum()) / count;
+	}
+
+	/**
+	 * @param priority priority class
+	 * @return longest time a command of the class waited to start, in
+	 * milliseconds
+	 */
+	public double getMaxWaitMillis(final CommandPriority priority) {
+		return toMillis(maxWaitNanos[priority.ordinal()].get());
+	}
+
+	// Caller must hold the lock.
+	private boolean canStart(final int index) {
+		return totalActive < maxActive && active[index] < limits[index];
+	}
+
+	// Caller must hold the lock.
+	private boolean hasWaitersAtOrAbove(final int index) {
+		for (int i = 0; i <= index; i++) {
+			if (!queues[i].isEmpty()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// Caller must hold the lock.
+	private void start(final int index, final long waited) {
+		active[index]++;
+		totalActive++;
+		started[index].increment();
+		waitNanos[index].add(waited);
+		maxWaitNanos[index].accumulate(waited);
+	}
+
+	// Start as many waiting commands as there is room for. Caller must hold
+	// the lock.
+	private void dispatch() {
+		while (totalActive < maxActive) {
+			Waiter next = null;
+			long now = System.nanoTime();
+			long oldest = Long.MAX_VALUE;
+			for (int i = 0; i < queues.length; i++) {
+				Waiter head = queues[i].peekFirst();
+				if (head != null && canStart(i) && now - head.enqueueNanos > agingNanos && head.enqueueNanos < oldest) {
+					next = head;
+					oldest = head.enqueueNanos;
+				}
+			}
+			for (int i = 0; next == null && i < queues.length; i++) {
+				if (!queues[i].isEmpty() && canStart(i)) {
+					next = queues[i].peekFirst();
+				}
+			}
+			if (next == null) {
+				return;
+			}
+			int index = next.priority.ordinal();
+			queues[index].pollFirst();
+			next.granted = true;
+			start(index, now - next.enqueueNanos);
+			next.condition.signal();
+		}
+	}
+
+	private static double toMillis(final long nanos) {
+		return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+	}
+}
@@ -0,0 +1,352 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.impl.mapbased.rpc;
+
+import com.perforce.p4java.Log;
+import com.perforce.p4java.PropertyDefs;
+import com.perforce.p4java.server.ICommandMetrics;
+import com.perforce.p4java.server.IMetricsRegistry;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Default metrics registry: keeps running statistics for each command name,
+ * with a latency histogram giving percentiles to within about 20%.
+ * <p>
+ * Recording never locks; counters are LongAdders and histogram buckets are
+ * atomic, so many threads can record at once without contending on a
+ * shared counter. The shared registry used by server objects created with
+ * the {@link PropertyDefs#ENABLE_METRICS} property is also published over
+ * JMX as "com.perforce.p4java:type=Metrics".
+ *
+ * @since 2025.2
+ */
+public class MetricsRegistry implements IMetricsRegistry, MetricsRegistryMXBean {
+
+	public static final String OBJECT_NAME = "com.perforce.p4java:type=Metrics";
+
+	// Each power of two is split into 2^SUB_BUCKET_BITS buckets.
+	private static final int SUB_BUCKET_BITS = 2;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+	private static volatile MetricsRegistry sharedRegistry = null;
+
+	private final ConcurrentMap<String, Command> commands = new ConcurrentHashMap<>();
+
+	/**
+	 * Get the process-wide registry, creating and registering it with the
+	 * platform MBean server if need be.
+	 *
+	 * @return the shared registry
+	 */
+	public static MetricsRegistry getSharedRegistry() {
+		if (isNull(sharedRegistry)) {
+			synchronized (MetricsRegistry.class) {
+				if (isNull(sharedRegistry)) {
+					MetricsRegistry registry = new MetricsRegistry();
+					try {
+						MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+						ObjectName name = new ObjectName(OBJECT_NAME);
+						if (!mbeanServer.isRegistered(name)) {
+							mbeanServer.registerMBean(registry, name);
+						}
+					} catch (Exception exc) {
+						Log.warn("Unable to register metrics MBean: %s", exc.getLocalizedMessage());
+					}
+					sharedRegistry = registry;
+				}
+			}
+		}
+		return sharedRegistry;
+	}
+
+	@Override
+	public void recordCommand(final ICommandMetrics metrics) {
+		if (isNull(metrics) || isNull(metrics.getCommandName())) {
+			return;
+		}
+		Command command = commands.get(metrics.getCommandName());
+		if (isNull(command)) {
+			command = commands.computeIfAbsent(metrics.getCommandName(), k -> new Command());
+		}
+		command.record(metrics);
+	}
+
+	@Override
+	public Map<String, CommandStatistics> getCommandStatistics() {
+		Map<String, CommandStatistics> statistics = new TreeMap<>();
+		for (Map.Entry<String, Command> entry : commands.entrySet()) {
+			statistics.put(entry.getKey(), entry.getValue().snapshot(entry.getKey()));
+		}
+		return statistics;
+	}
+
+	/**
+	 * @param commandName command name, e.g. "fstat"
+	 * @return a snapshot of the command's statistics, or null if the command
+	 * has not been recorded
+	 */
+	public CommandStatistics getCommandStatistics(final String commandName) {
+		Command command = commands.get(commandName);
+		return isNull(command) ? null : command.snapshot(commandName);
+	}
+
+	@Override
+	public long getCommandCount() {
+		long count = 0;
+		for (Command command : commands.values()) {
+			count += command.count.sum();
+		}
+		return count;
+	}
+
+	@Override
+	public void reset() {
+		commands.clear();
+	}
+
+	/**
+	 * Map a latency onto its histogram bucket: values below SUB_BUCKETS get a
+	 * bucket each, larger values are bucketed by their highest bit and the
+	 * SUB_BUCKET_BITS bits below it.
+	 */
+	static int bucketOf(final long nanos) {
+		if (nanos < SUB_BUCKETS) {
+			return (int) Math.max(0, nanos);
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(nanos) - SUB_BUCKET_BITS;
+		return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((nanos >>> shift) & (SUB_BUCKETS - 1));
+	}
+
+	/**
+	 * @return the largest latency that falls in the bucket
+	 */
+	static long bucketUpperBound(final int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+		long base = (long) (SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1))) << shift;
+		return base + (1L << shift) - 1;
+	}
+
+	private static double toMillis(final long nanos) {
+		return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	private static class Command {
+		private final LongAdder count = new LongAdder();
+		private final LongAdder failures = new LongAdder();
+		private final LongAdder serverErrors = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+		private final LongAdder connectNanos = new LongAdder();
+		private final LongAdder poolWaitNanos = new LongAdder();
+		private final LongAdder sendNanos = new LongAdder();
+		private final LongAdder serverWaitNanos = new LongAdder();
+		private final LongAdder processingNanos = new LongAdder();
+		private final LongAdder bytesSent = new LongAdder();
+		private final LongAdder bytesReceived = new LongAdder();
+		private final LongAdder packetsSent = new LongAdder();
+		private final LongAdder packetsReceived = new LongAdder();
+		private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+		private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+		private void record(final ICommandMetrics metrics) {
+			long nanos = metrics.getTotalNanos();
+			count.increment();
+			if (metrics.isFailed()) {
+				failures.increment();
+			}
+			if (metrics.getServerErrors() > 0) {
+				serverErrors.add(metrics.getServerErrors());
+			}
+			totalNanos.add(nanos);
+			connectNanos.add(metrics.getConnectNanos());
+			poolWaitNanos.add(metrics.getPoolWaitNanos());
+			sendNanos.add(metrics.getSendNanos());
+			serverWaitNanos.add(metrics.getServerWaitNanos());
+			processingNanos.add(metrics.getProcessingNanos());
+			bytesSent.add(metrics.getBytesSent());
+			bytesReceived.add(metrics.getBytesReceived());
+			packetsSent.add(metrics.getPacketsSent());
+			packetsReceived.add(metrics.getPacketsReceived());
+			maxNanos.accumulate(nanos);
+			histogram.incrementAndGet(bucketOf(nanos));
+		}
+
+		private CommandStatistics snapshot(final String name) {
+			long[] buckets = new long[BUCKETS];
+			long total = 0;
+			for (int i = 0; i < BUCKETS; i++) {
+				buckets[i] = histogram.get(i);
+				total += buckets[i];
+			}
+			CommandStatistics stats = new CommandStatistics();
+			stats.commandName = name;
+			stats.count = count.sum();
+			stats.failures = failures.sum();
+			stats.serverErrors = serverErrors.sum();
+			stats.meanMillis = stats.count == 0 ? 0 : toMillis(totalNanos.sum()) / stats.count;
+			stats.maxMillis = toMillis(maxNanos.get());
+			stats.p50Millis = toMillis(Math.min(percentile(buckets, total, 0.50), maxNanos.get()));
+			stats.p90Millis = toMillis(Math.min(percentile(buckets, total, 0.90), maxNanos.get()));
+			stats.p99Millis = toMillis(Math.min(percentile(buckets, total, 0.99), maxNanos.get()));
+			stats.totalMillis = toMillis(totalNanos.sum());
+			stats.connectMillis = toMillis(connectNanos.sum());
+			stats.poolWaitMillis = toMillis(poolWaitNanos.sum());
+			stats.sendMillis = toMillis(sendNanos.sum());
+			stats.serverWaitMillis = toMillis(serverWaitNanos.sum());
+			stats.processingMillis = toMillis(processingNanos.sum());
+			stats.bytesSent = bytesSent.sum();
+			stats.bytesReceived = bytesReceived.sum();
+			stats.packetsSent = packetsSent.sum();
+			stats.packetsReceived = packetsReceived.sum();
+			return stats;
+		}
+
+		private static long percentile(final long[] buckets, final long total, final double fraction) {
+			if (total == 0) {
+				return 0;
+			}
+			long rank = (long) Math.ceil(total * fraction);
+			long seen = 0;
+			for (int i = 0; i < buckets.length; i++) {
+				seen += buckets[i];
+				if (seen >= rank) {
+					return bucketUpperBound(i);
+				}
+			}
+			return bucketUpperBound(buckets.length - 1);
+		}
+	}
+
+	/**
+	 * Snapshot of the statistics gathered for one command name. Latencies
+	 * are in milliseconds; the phase times are totals over all the
+	 * command's runs.
+	 */
+	public static class CommandStatistics {
+		private String commandName;
+		private long count;
+		private long failures;
+		private long serverErrors;
+		private double meanMillis;
+		private double p50Millis;
+		private double p90Millis;
+		private double p99Millis;
+		private double maxMillis;
+		private double totalMillis;
+		private double connectMillis;
+		private double poolWaitMillis;
+		private double sendMillis;
+		private double serverWaitMillis;
+		private double processingMillis;
+		private long bytesSent;
+		private long bytesReceived;
+		private long packetsSent;
+		private long packetsReceived;
+
+		public String getCommandName() {
+			return commandName;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * @return the number of runs that ended with an exception
+		 */
+		public long getFailures() {
+			return failures;
+		}
+
+		/**
+		 * @return the number of server error messages returned
+		 */
+		public long getServerErrors() {
+			return serverErrors;
+		}
+
+		public double getMeanMillis() {
+			return meanMillis;
+		}
+
+		public double getP50Millis() {
+			return p50Millis;
+		}
+
+		public double getP90Millis() {
+			return p90Millis;
+		}
+
+		public double getP99Millis() {
+			return p99Millis;
+		}
+
+		public double getMaxMillis() {
+			return maxMillis;
+		}
+
+		public double getTotalMillis() {
+			return totalMillis;
+		}
+
+		public double getConnectMillis() {
+			return connectMillis;
+		}
+
+		public double getPoolWaitMillis() {
+			return poolWaitMillis;
+		}
+
+		public double getSendMillis() {
+			return sendMillis;
+		}
+
+		public double getServerWaitMillis() {
+			return serverWaitMillis;
+		}
+
+		public double getProcessingMillis() {
+			return processingMillis;
+		}
+
+		public long getBytesSent() {
+			return bytesSent;
+		}
+
+		public long getBytesReceived() {
+			return bytesReceived;
+		}
+
+		public long getPacketsSent() {
+			return packetsSent;
+		}
+
+		public long getPacketsReceived() {
+			return packetsReceived;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s: count=%d failures=%d errors=%d mean=%.3fms p50=%.3fms p90=%.3fms p99=%.3fms max=%.3fms sent=%d/%d recv=%d/%d",
+					commandName, count, failures, serverErrors, meanMillis, p50Millis, p90Millis, p99Millis, maxMillis,
+					packetsSent, bytesSent, packetsReceived, bytesReceived);
+		}
+	}
+}
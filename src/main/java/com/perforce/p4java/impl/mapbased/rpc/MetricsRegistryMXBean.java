@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.impl.mapbased.rpc;
+
+import java.util.Map;
+
+/**
+ * JMX view of a MetricsRegistry; the shared registry is registered as
+ * "com.perforce.p4java:type=Metrics".
+ *
+ * @since 2025.2
+ */
+public interface MetricsRegistryMXBean {
+
+	/**
+	 * @return a snapshot of the statistics of each command name seen so far
+	 */
+	Map<String, MetricsRegistry.CommandStatistics> getCommandStatistics();
+
+	/**
+	 * @return the total number of commands recorded
+	 */
+	long getCommandCount();
+
+	/**
+	 * Discard all statistics gathered so far.
+	 */
+	void reset();
+}
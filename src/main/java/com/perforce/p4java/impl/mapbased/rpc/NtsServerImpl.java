@@ -29,6 +29,7 @@ import com.perforce.p4java.option.UsageOptions;
 import com.perforce.p4java.server.CmdSpec;
 import com.perforce.p4java.server.IServerAddress;
 import com.perforce.p4java.server.IServerAddress.Protocol;
+import com.perforce.p4java.server.ITraceSpan;
 import com.perforce.p4java.server.ServerStatus;
 import com.perforce.p4java.server.callback.IFilterCallback;
 import com.perforce.p4java.server.callback.IParallelCallback;
@@ -156,7 +157,17 @@ public class NtsServerImpl extends RpcServer {
 	 */
 
 	public void connect() throws ConnectionException, AccessException, RequestException, ConfigException {
-		this.rpcConnection = new RpcStreamConnection(serverHost, serverPort, props, this.serverStats, this.p4Charset, null, null, this.secure, this.rsh);
+		TraceSpan span = TraceSpan.start(this.traceListener, ITraceSpan.Kind.CONNECT, "connect", null);
+		try {
+			this.rpcConnection = new RpcStreamConnection(serverHost, serverPort, props, this.serverStats, this.p4Charset, null, null, this.secure, this.rsh);
+			if (span != null) {
+				span.setAttribute(ITraceSpan.ATTR_HOST, serverHost).setAttribute(ITraceSpan.ATTR_PORT, serverPort).completed();
+			}
+		} finally {
+			if (span != null) {
+				span.end();
+			}
+		}
 		this.dispatcher = new RpcPacketDispatcher(props, this);
 
 		Log.info("RPC connection to Perforce server " + serverHost + ":" + serverPort + " established");
@@ -288,9 +299,17 @@ public class NtsServerImpl extends RpcServer {
 	protected List<Map<String, Object>> execMapCmdList(String cmdName, String[] cmdArgs, Map<String, Object> inMap, String inString, boolean ignoreCallbacks, IStreamingCallback callback, int callbackKey, IFilterCallback filterCallback, IParallelCallback parallelCallback) throws ConnectionException, AccessException, RequestException {
 
 		CommandEnv cmdEnv = null;
+		CommandMetrics metrics = startCommandMetrics(cmdName.toLowerCase(Locale.ENGLISH));
+		TraceSpan span = startCommandSpan(cmdName.toLowerCase(Locale.ENGLISH));
 
 		try {
 			int cmdCallBackKey = this.nextCmdCallBackKey.incrementAndGet();
+			if (metrics != null && this.rpcConnection != null) {
+				this.rpcConnection.setMetrics(metrics);
+			}
+			if (span != null) {
+				span.trackBytes(this.rpcConnection);
+			}
 			long startTime = System.currentTimeMillis();
 			if (inMap != null && ClientLineEnding.CONVERT_TEXT) {
 				ClientLineEnding.convertMap(inMap);
@@ -299,6 +318,7 @@ public class NtsServerImpl extends RpcServer {
 			cmdEnv = new CommandEnv(this, new RpcCmdSpec(cmdName, cmdArgs, getAuthTicket(), inMap, inString, env), this.rpcConnection, this.protocolSpecs, this.serverProtocolMap, this.progressCallback, cmdCallBackKey, writeInPlace(cmdName), this.isNonCheckedSyncs());
 			cmdEnv.setDontWriteTicket(isDontWriteTicket(cmdName.toLowerCase(Locale.ENGLISH), cmdArgs));
 			cmdEnv.setFieldRule(getRpcPacketFieldRule(inMap, CmdSpec.getValidP4JCmdSpec(cmdName)));
+			cmdEnv.setTraceSpan(span);
 			cmdEnv.setStreamingCallback(callback);
 			cmdEnv.setStreamingCallbackKey(callbackKey);
 			cmdEnv.setFilterCallback(filterCallback);
@@ -312,6 +332,12 @@ public class NtsServerImpl extends RpcServer {
 				}
 			}
 			List<Map<String, Object>> resultMaps = this.dispatcher.dispatch(cmdEnv);
+			if (metrics != null) {
+				metrics.results(resultMaps);
+			}
+			if (span != null) {
+				span.results(resultMaps);
+			}
 			long endTime = System.currentTimeMillis();
 			if (callback != null) {
 				try {
@@ -340,6 +366,12 @@ public class NtsServerImpl extends RpcServer {
 				outStream.close();
 			}
 
+			if (metrics != null) {
+				metrics.completed();
+			}
+			if (span != null) {
+				span.completed();
+			}
 			return resultMaps;
 
 		} catch (BufferOverflowException exc) {
@@ -355,6 +387,13 @@ public class NtsServerImpl extends RpcServer {
 			Log.exception(ioexc);
 			throw new RequestException("I/O error encountered in stream command: " + ioexc.getLocalizedMessage(), ioexc);
 		} finally {
+			if (metrics != null && this.rpcConnection != null) {
+				this.rpcConnection.setMetrics(null);
+			}
+			recordCommandMetrics(metrics);
+			if (span != null) {
+				span.end();
+			}
 			// Handle user cancelled command
 			if (cmdEnv != null && cmdEnv.isUserCanceled()) {
 				if (rpcConnection != null) {
@@ -453,9 +492,17 @@ public class NtsServerImpl extends RpcServer {
 		}
 
 		CommandEnv cmdEnv = null;
+		CommandMetrics metrics = startCommandMetrics(cmdName.toLowerCase(Locale.ENGLISH));
+		TraceSpan span = startCommandSpan(cmdName.toLowerCase(Locale.ENGLISH));
 
 		try {
 			int cmdCallBackKey = this.nextCmdCallBackKey.incrementAndGet();
+			if (metrics != null && this.rpcConnection != null) {
+				this.rpcConnection.setMetrics(metrics);
+			}
+			if (span != null) {
+				span.trackBytes(this.rpcConnection);
+			}
 			long startTime = System.currentTimeMillis();
 			if (inMap != null && ClientLineEnding.CONVERT_TEXT) {
 				ClientLineEnding.convertMap(inMap);
@@ -464,9 +511,16 @@ public class NtsServerImpl extends RpcServer {
 			cmdEnv = new CommandEnv(this, new RpcCmdSpec(cmdName, cmdArgs, getAuthTicket(), inMap, inString, env), this.rpcConnection, this.protocolSpecs, this.serverProtocolMap, this.progressCallback, cmdCallBackKey, writeInPlace(cmdName), this.isNonCheckedSyncs());
 			cmdEnv.setDontWriteTicket(isDontWriteTicket(cmdName.toLowerCase(Locale.ENGLISH), cmdArgs));
 			cmdEnv.setFieldRule(getRpcPacketFieldRule(inMap, CmdSpec.getValidP4JCmdSpec(cmdName)));
+			cmdEnv.setTraceSpan(span);
 			cmdEnv.setStreamCmd(true);
 
 			List<Map<String, Object>> resultMaps = this.dispatcher.dispatch(cmdEnv);
+			if (metrics != null) {
+				metrics.results(resultMaps);
+			}
+			if (span != null) {
+				span.results(resultMaps);
+			}
 
 			long endTime = System.currentTimeMillis();
 
@@ -480,6 +534,12 @@ public class NtsServerImpl extends RpcServer {
 					ResultMapParser.handleWarningStr(map);
 				}
 			}
+			if (metrics != null) {
+				metrics.completed();
+			}
+			if (span != null) {
+				span.completed();
+			}
 
 			RpcOutputStream outStream = (RpcOutputStream) cmdEnv.getStateMap().get(RpcServer.RPC_TMP_OUTFILE_STREAM_KEY);
 
@@ -504,6 +564,13 @@ public class NtsServerImpl extends RpcServer {
 			Log.exception(ioexc);
 			throw new RequestException("I/O error encountered in stream command: " + ioexc.getLocalizedMessage(), ioexc);
 		} finally {
+			if (metrics != null && this.rpcConnection != null) {
+				this.rpcConnection.setMetrics(null);
+			}
+			recordCommandMetrics(metrics);
+			if (span != null) {
+				span.end();
+			}
 			// Handle user cancelled command
 			if (cmdEnv != null && cmdEnv.isUserCanceled()) {
 				if (rpcConnection != null) {
@@ -545,9 +612,17 @@ public class NtsServerImpl extends RpcServer {
 		}
 
 		CommandEnv cmdEnv = null;
+		CommandMetrics metrics = startCommandMetrics(cmdName.toLowerCase(Locale.ENGLISH));
+		TraceSpan span = startCommandSpan(cmdName.toLowerCase(Locale.ENGLISH));
 
 		try {
 			int cmdCallBackKey = this.nextCmdCallBackKey.incrementAndGet();
+			if (metrics != null && this.rpcConnection != null) {
+				this.rpcConnection.setMetrics(metrics);
+			}
+			if (span != null) {
+				span.trackBytes(this.rpcConnection);
+			}
 			long startTime = System.currentTimeMillis();
 			if (inMap != null && ClientLineEnding.CONVERT_TEXT) {
 				ClientLineEnding.convertMap(inMap);
@@ -556,10 +631,17 @@ public class NtsServerImpl extends RpcServer {
 			cmdEnv = new CommandEnv(this, new RpcCmdSpec(cmdName, cmdArgs, getAuthTicket(), inMap, inString, env), this.rpcConnection, this.protocolSpecs, this.serverProtocolMap, this.progressCallback, cmdCallBackKey, writeInPlace(cmdName), this.isNonCheckedSyncs());
 			cmdEnv.setDontWriteTicket(isDontWriteTicket(cmdName.toLowerCase(Locale.ENGLISH), cmdArgs));
 			cmdEnv.setFieldRule(getRpcPacketFieldRule(inMap, CmdSpec.getValidP4JCmdSpec(cmdName)));
+			cmdEnv.setTraceSpan(span);
 			cmdEnv.setStreamCmd(true);
 			cmdEnv.setBufferOutput(true);
 
 			List<Map<String, Object>> retMapList = dispatcher.dispatch(cmdEnv);
+			if (metrics != null) {
+				metrics.results(retMapList);
+			}
+			if (span != null) {
+				span.results(retMapList);
+			}
 
 			long endTime = System.currentTimeMillis();
 
@@ -573,6 +655,12 @@ public class NtsServerImpl extends RpcServer {
 					ResultMapParser.handleWarningStr(map);
 				}
 			}
+			if (metrics != null) {
+				metrics.completed();
+			}
+			if (span != null) {
+				span.completed();
+			}
 
 			RpcByteBufferOutput outStream = (RpcByteBufferOutput) cmdEnv.getStateMap().get(RpcServer.RPC_BYTE_BUFFER_OUTPUT_KEY);
 
@@ -591,6 +679,13 @@ public class NtsServerImpl extends RpcServer {
 			this.status = ServerStatus.ERROR;
 			throw cnce;
 		} finally {
+			if (metrics != null && this.rpcConnection != null) {
+				this.rpcConnection.setMetrics(null);
+			}
+			recordCommandMetrics(metrics);
+			if (span != null) {
+				span.end();
+			}
 			// Handle user cancelled command
 			if (cmdEnv != null && cmdEnv.isUserCanceled()) {
 				if (rpcConnection != null) {
@@ -640,6 +735,9 @@ public class NtsServerImpl extends RpcServer {
 		// An exception (ConnectionException) is thrown if ssl but not trusted.
 		trustConnectionCheck(rpcConnection);
 
+		// Client file digests may be served from the workspace index.
+		rpcConnection.setWorkspaceIndex(getWorkspaceIndex());
+
 		ExternalEnv env = new ExternalEnv(this.getUsageOptions().getProgramName(), this.getUsageOptions().getProgramVersion(), this.getClientNameForEnv(), this.getUsageOptions().getWorkingDirectory(), this.getHostForEnv(), this.getServerHostPort(), this.getUsageOptions().getTextLanguage(), this.getOsTypeForEnv(), this.getUserForEnv(), this.isServerUnicode(), this.getClientCharset());
 
 		if (!ignoreCallbacks && (this.commandCallback != null)) {
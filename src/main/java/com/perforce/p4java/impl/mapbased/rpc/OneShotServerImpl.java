@@ -29,8 +29,10 @@ import com.perforce.p4java.impl.mapbased.server.ServerAddressBuilder;
 import com.perforce.p4java.impl.mapbased.server.cmd.ResultMapParser;
 import com.perforce.p4java.option.UsageOptions;
 import com.perforce.p4java.server.CmdSpec;
+import com.perforce.p4java.server.CommandPriority;
 import com.perforce.p4java.server.IServerAddress;
 import com.perforce.p4java.server.IServerAddress.Protocol;
+import com.perforce.p4java.server.ITraceSpan;
 import com.perforce.p4java.server.ServerStatus;
 import com.perforce.p4java.server.callback.IFilterCallback;
 import com.perforce.p4java.server.callback.IParallelCallback;
@@ -47,6 +49,18 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 
+import static com.perforce.p4java.PropertyDefs.COALESCED_COMMANDS;
+import static com.perforce.p4java.PropertyDefs.COALESCED_COMMANDS_SHORT_FORM;
+import static com.perforce.p4java.PropertyDefs.COMMAND_SCHEDULER_BATCH_LIMIT;
+import static com.perforce.p4java.PropertyDefs.COMMAND_SCHEDULER_BATCH_LIMIT_SHORT_FORM;
+import static com.perforce.p4java.PropertyDefs.COMMAND_SCHEDULER_MAX_ACTIVE;
+import static com.perforce.p4java.PropertyDefs.COMMAND_SCHEDULER_MAX_ACTIVE_SHORT_FORM;
+import static com.perforce.p4java.PropertyDefs.ENABLE_COMMAND_COALESCING;
+import static com.perforce.p4java.PropertyDefs.ENABLE_COMMAND_COALESCING_SHORT_FORM;
+import static com.perforce.p4java.util.PropertiesHelper.getPropertyAsInt;
+import static com.perforce.p4java.util.PropertiesHelper.getPropertyByKeys;
+import static com.perforce.p4java.util.PropertiesHelper.isExistProperty;
+
 /**
  * A one-shot (connection-per-command) version of the RPC protocol
  * implementation. This version is intended for use by multiple threads
@@ -105,6 +119,20 @@ public class OneShotServerImpl extends RpcServer {
 	 */
 	protected RpcSocketPool socketPool = null;
 
+	/**
+	 * Shares calls of identical read-only commands between threads; null
+	 * unless enabled through the ENABLE_COMMAND_COALESCING property or set
+	 * explicitly.
+	 */
+	protected CommandCoalescer commandCoalescer = null;
+
+	/**
+	 * Orders commands waiting for a connection by priority class; null
+	 * unless enabled through the COMMAND_SCHEDULER_MAX_ACTIVE property or
+	 * set explicitly.
+	 */
+	protected CommandScheduler commandScheduler = null;
+
 	/**
 	 * Initialize the server. Basically defers to the superclass after setting
 	 * up the required server version and any optional socket pools.
@@ -131,10 +159,62 @@ public class OneShotServerImpl extends RpcServer {
 			};
 			this.socketPool = new RpcSocketPool(poolSize, this.serverHost, this.serverPort, this.props, handler, this.secure);
 		}
+		if (isExistProperty(this.props, ENABLE_COMMAND_COALESCING_SHORT_FORM, ENABLE_COMMAND_COALESCING, false)) {
+			this.commandCoalescer = new CommandCoalescer(CommandCoalescer.parseCommands(
+					getPropertyByKeys(this.props, COALESCED_COMMANDS_SHORT_FORM, COALESCED_COMMANDS)));
+		}
+		int maxActive = getPropertyAsInt(this.props, new String[]{COMMAND_SCHEDULER_MAX_ACTIVE_SHORT_FORM, COMMAND_SCHEDULER_MAX_ACTIVE}, 0);
+		if (maxActive > 0) {
+			this.commandScheduler = new CommandScheduler(maxActive);
+			int batchLimit = getPropertyAsInt(this.props, new String[]{COMMAND_SCHEDULER_BATCH_LIMIT_SHORT_FORM, COMMAND_SCHEDULER_BATCH_LIMIT}, 0);
+			if (batchLimit > 0) {
+				this.commandScheduler.setLimit(CommandPriority.BATCH, batchLimit);
+			}
+		}
 
 		return status;
 	}
 
+	/**
+	 * @return the command coalescer used by this server, or null if
+	 * commands are not coalesced.
+	 * @since 2025.2
+	 */
+	public CommandCoalescer getCommandCoalescer() {
+		return this.commandCoalescer;
+	}
+
+	/**
+	 * Set the command coalescer for this server; null stops identical
+	 * commands from sharing calls.
+	 *
+	 * @param commandCoalescer command coalescer, or null
+	 * @since 2025.2
+	 */
+	public void setCommandCoalescer(CommandCoalescer commandCoalescer) {
+		this.commandCoalescer = commandCoalescer;
+	}
+
+	/**
+	 * @return the command scheduler used by this server, or null if
+	 * commands are not scheduled.
+	 * @since 2025.2
+	 */
+	public CommandScheduler getCommandScheduler() {
+		return this.commandScheduler;
+	}
+
+	/**
+	 * Set the command scheduler for this server; null lets every command
+	 * go straight to the connection pool.
+	 *
+	 * @param commandScheduler command scheduler, or null
+	 * @since 2025.2
+	 */
+	public void setCommandScheduler(CommandScheduler commandScheduler) {
+		this.commandScheduler = commandScheduler;
+	}
+
 	/**
 	 * Shorthand for the options-based init() above, but with a false secure arg.
 	 *
@@ -262,6 +342,24 @@ public class OneShotServerImpl extends RpcServer {
 	}
 
 	protected List<Map<String, Object>> execMapCmdList(String cmdName, String[] cmdArgs, Map<String, Object> inMap, String inString, boolean ignoreCallbacks, IStreamingCallback callback, int callbackKey, IFilterCallback filterCallback, IParallelCallback parallelCallback) throws ConnectionException, AccessException, RequestException {
+		CommandCoalescer coalescer = this.commandCoalescer;
+		if (coalescer != null && inMap == null && inString == null && callback == null && filterCallback == null && parallelCallback == null
+				&& (ignoreCallbacks || this.commandCallback == null) && this.connected && coalescer.isCoalesced(cmdName)) {
+			// Callers of different priority classes do not share a call, so
+			// that an urgent caller never waits on a batch one's permit.
+			CommandScheduler scheduler = this.commandScheduler;
+			CommandPriority priority = CommandScheduler.getThreadPriority();
+			if (priority == null && scheduler != null) {
+				priority = scheduler.getDefaultPriority();
+			}
+			String key = CommandCoalescer.keyOf(cmdName, cmdArgs, getUserForEnv(), getClientNameForEnv(), getHostForEnv(),
+					getWorkingDirectory(), getCharsetName(), String.valueOf(isServerUnicode()), String.valueOf(priority));
+			return coalescer.execute(key, () -> runMapCmdList(cmdName, cmdArgs, null, null, ignoreCallbacks, null, callbackKey, null, null));
+		}
+		return runMapCmdList(cmdName, cmdArgs, inMap, inString, ignoreCallbacks, callback, callbackKey, filterCallback, parallelCallback);
+	}
+
+	private List<Map<String, Object>> runMapCmdList(String cmdName, String[] cmdArgs, Map<String, Object> inMap, String inString, boolean ignoreCallbacks, IStreamingCallback callback, int callbackKey, IFilterCallback filterCallback, IParallelCallback parallelCallback) throws ConnectionException, AccessException, RequestException {
 		RpcPacketDispatcher dispatcher = null;
 		RpcConnection rpcConnection = null;
 
@@ -273,11 +371,15 @@ public class OneShotServerImpl extends RpcServer {
 			throw new ConnectionNotConnectedException("Not currently connected to a Perforce server");
 		}
 
+		CommandMetrics metrics = startCommandMetrics(cmdName.toLowerCase(Locale.ENGLISH));
+		TraceSpan span = startCommandSpan(cmdName.toLowerCase(Locale.ENGLISH));
+		CommandScheduler.Permit permit = null;
 		try {
 			int cmdCallBackKey = this.nextCmdCallBackKey.incrementAndGet();
 			long startTime = System.currentTimeMillis();
 			dispatcher = new RpcPacketDispatcher(props, this);
-			rpcConnection = new RpcStreamConnection(serverHost, serverPort, props, this.serverStats, this.p4Charset, null, this.socketPool, this.secure, this.rsh);
+			permit = acquirePermit(cmdName);
+			rpcConnection = openConnection(metrics, span);
 			ProtocolCommand protocolSpecs = new ProtocolCommand();
 
 			if (inMap != null && ClientLineEnding.CONVERT_TEXT) {
@@ -288,6 +390,7 @@ public class OneShotServerImpl extends RpcServer {
 			CommandEnv cmdEnv = new CommandEnv(this, new RpcCmdSpec(cmdName.toLowerCase(Locale.ENGLISH), cmdArgs, getAuthTicket(), inMap, inString, env), rpcConnection, protocolSpecs, this.serverProtocolMap, this.progressCallback, cmdCallBackKey, writeInPlace(cmdName), this.isNonCheckedSyncs());
 			cmdEnv.setDontWriteTicket(isDontWriteTicket(cmdName.toLowerCase(Locale.ENGLISH), cmdArgs));
 			cmdEnv.setFieldRule(getRpcPacketFieldRule(inMap, CmdSpec.getValidP4JCmdSpec(cmdName)));
+			cmdEnv.setTraceSpan(span);
 			cmdEnv.setStreamingCallback(callback);
 			cmdEnv.setStreamingCallbackKey(callbackKey);
 			cmdEnv.setFilterCallback(filterCallback);
@@ -301,6 +404,12 @@ public class OneShotServerImpl extends RpcServer {
 				}
 			}
 			List<Map<String, Object>> retMapList = dispatcher.dispatch(cmdEnv);
+			if (metrics != null) {
+				metrics.results(retMapList);
+			}
+			if (span != null) {
+				span.results(retMapList);
+			}
 			long endTime = System.currentTimeMillis();
 			if (callback != null) {
 				try {
@@ -329,6 +438,12 @@ public class OneShotServerImpl extends RpcServer {
 				outStream.close();
 			}
 
+			if (metrics != null) {
+				metrics.completed();
+			}
+			if (span != null) {
+				span.completed();
+			}
 			return retMapList;
 
 		} catch (BufferOverflowException exc) {
@@ -347,6 +462,13 @@ public class OneShotServerImpl extends RpcServer {
 			if (rpcConnection != null) {
 				rpcConnection.disconnect(dispatcher);
 			}
+			if (permit != null) {
+				permit.release();
+			}
+			recordCommandMetrics(metrics);
+			if (span != null) {
+				span.end();
+			}
 		}
 	}
 
@@ -435,11 +557,15 @@ public class OneShotServerImpl extends RpcServer {
 			throw new ConnectionNotConnectedException("Not currently connected to a Perforce server");
 		}
 
+		CommandMetrics metrics = startCommandMetrics(cmdName.toLowerCase(Locale.ENGLISH));
+		TraceSpan span = startCommandSpan(cmdName.toLowerCase(Locale.ENGLISH));
+		CommandScheduler.Permit permit = null;
 		try {
 			int cmdCallBackKey = this.nextCmdCallBackKey.incrementAndGet();
 			long startTime = System.currentTimeMillis();
 			dispatcher = new RpcPacketDispatcher(props, this);
-			rpcConnection = new RpcStreamConnection(serverHost, serverPort, props, this.serverStats, this.p4Charset, null, this.socketPool, this.secure, this.rsh);
+			permit = acquirePermit(cmdName);
+			rpcConnection = openConnection(metrics, span);
 			ProtocolCommand protocolSpecs = new ProtocolCommand();
 			if (inMap != null && ClientLineEnding.CONVERT_TEXT) {
 				ClientLineEnding.convertMap(inMap);
@@ -448,9 +574,16 @@ public class OneShotServerImpl extends RpcServer {
 			CommandEnv cmdEnv = new CommandEnv(this, new RpcCmdSpec(cmdName.toLowerCase(Locale.ENGLISH), cmdArgs, getAuthTicket(), inMap, inString, env), rpcConnection, protocolSpecs, this.serverProtocolMap, this.progressCallback, cmdCallBackKey, writeInPlace(cmdName), this.isNonCheckedSyncs());
 			cmdEnv.setDontWriteTicket(isDontWriteTicket(cmdName.toLowerCase(Locale.ENGLISH), cmdArgs));
 			cmdEnv.setFieldRule(getRpcPacketFieldRule(inMap, CmdSpec.getValidP4JCmdSpec(cmdName)));
+			cmdEnv.setTraceSpan(span);
 			cmdEnv.setStreamCmd(true);
 
 			List<Map<String, Object>> retMapList = dispatcher.dispatch(cmdEnv);
+			if (metrics != null) {
+				metrics.results(retMapList);
+			}
+			if (span != null) {
+				span.results(retMapList);
+			}
 
 			long endTime = System.currentTimeMillis();
 
@@ -464,6 +597,12 @@ public class OneShotServerImpl extends RpcServer {
 					ResultMapParser.handleWarningStr(map);
 				}
 			}
+			if (metrics != null) {
+				metrics.completed();
+			}
+			if (span != null) {
+				span.completed();
+			}
 
 			RpcOutputStream outStream = (RpcOutputStream) cmdEnv.getStateMap().get(RpcServer.RPC_TMP_OUTFILE_STREAM_KEY);
 
@@ -491,6 +630,13 @@ public class OneShotServerImpl extends RpcServer {
 			if (rpcConnection != null) {
 				rpcConnection.disconnect(dispatcher);
 			}
+			if (permit != null) {
+				permit.release();
+			}
+			recordCommandMetrics(metrics);
+			if (span != null) {
+				span.end();
+			}
 		}
 	}
 
@@ -520,11 +666,15 @@ public class OneShotServerImpl extends RpcServer {
 			throw new ConnectionNotConnectedException("Not currently connected to a Perforce server");
 		}
 
+		CommandMetrics metrics = startCommandMetrics(cmdName.toLowerCase(Locale.ENGLISH));
+		TraceSpan span = startCommandSpan(cmdName.toLowerCase(Locale.ENGLISH));
+		CommandScheduler.Permit permit = null;
 		try {
 			int cmdCallBackKey = this.nextCmdCallBackKey.incrementAndGet();
 			long startTime = System.currentTimeMillis();
 			dispatcher = new RpcPacketDispatcher(props, this);
-			rpcConnection = new RpcStreamConnection(serverHost, serverPort, props, this.serverStats, this.p4Charset, null, this.socketPool, this.secure, this.rsh);
+			permit = acquirePermit(cmdName);
+			rpcConnection = openConnection(metrics, span);
 			ProtocolCommand protocolSpecs = new ProtocolCommand();
 			if (inMap != null && ClientLineEnding.CONVERT_TEXT) {
 				ClientLineEnding.convertMap(inMap);
@@ -533,10 +683,17 @@ public class OneShotServerImpl extends RpcServer {
 			CommandEnv cmdEnv = new CommandEnv(this, new RpcCmdSpec(cmdName.toLowerCase(Locale.ENGLISH), cmdArgs, getAuthTicket(), inMap, inString, env), rpcConnection, protocolSpecs, this.serverProtocolMap, this.progressCallback, cmdCallBackKey, writeInPlace(cmdName), this.isNonCheckedSyncs());
 			cmdEnv.setDontWriteTicket(isDontWriteTicket(cmdName.toLowerCase(Locale.ENGLISH), cmdArgs));
 			cmdEnv.setFieldRule(getRpcPacketFieldRule(inMap, CmdSpec.getValidP4JCmdSpec(cmdName)));
+			cmdEnv.setTraceSpan(span);
 			cmdEnv.setStreamCmd(true);
 			cmdEnv.setBufferOutput(true);
 
 			List<Map<String, Object>> retMapList = dispatcher.dispatch(cmdEnv);
+			if (metrics != null) {
+				metrics.results(retMapList);
+			}
+			if (span != null) {
+				span.results(retMapList);
+			}
 
 			long endTime = System.currentTimeMillis();
 
@@ -550,6 +707,12 @@ public class OneShotServerImpl extends RpcServer {
 					ResultMapParser.handleWarningStr(map);
 				}
 			}
+			if (metrics != null) {
+				metrics.completed();
+			}
+			if (span != null) {
+				span.completed();
+			}
 
 			RpcByteBufferOutput outStream = (RpcByteBufferOutput) cmdEnv.getStateMap().get(RpcServer.RPC_BYTE_BUFFER_OUTPUT_KEY);
 
@@ -571,6 +734,58 @@ public class OneShotServerImpl extends RpcServer {
 			if (rpcConnection != null) {
 				rpcConnection.disconnect(dispatcher);
 			}
+			if (permit != null) {
+				permit.release();
+			}
+			recordCommandMetrics(metrics);
+			if (span != null) {
+				span.end();
+			}
+		}
+	}
+
+	/**
+	 * Wait for the command scheduler, if any, to let a command run.
+	 *
+	 * @param cmdName command name
+	 * @return the command's permit, or null if there is no scheduler
+	 * @throws ConnectionException if interrupted while waiting
+	 */
+	private CommandScheduler.Permit acquirePermit(String cmdName) throws ConnectionException {
+		CommandScheduler scheduler = this.commandScheduler;
+		if (scheduler == null) {
+			return null;
+		}
+		try {
+			return scheduler.acquire();
+		} catch (InterruptedException exc) {
+			Thread.currentThread().interrupt();
+			throw new ConnectionException("Interrupted while waiting to run command " + cmdName, exc);
+		}
+	}
+
+	/**
+	 * Open the connection for a command, within a connect span if the
+	 * command is being traced.
+	 *
+	 * @param metrics the command's metrics; may be null
+	 * @param span    the command's trace span; may be null
+	 * @return the new connection
+	 * @throws ConnectionException if the connection could not be made
+	 */
+	private RpcConnection openConnection(CommandMetrics metrics, TraceSpan span) throws ConnectionException {
+		TraceSpan connectSpan = TraceSpan.startChild(span, ITraceSpan.Kind.CONNECT, "connect");
+		if (connectSpan == null) {
+			return new RpcStreamConnection(serverHost, serverPort, props, this.serverStats, this.p4Charset, null, this.socketPool, this.secure, this.rsh, metrics);
+		}
+		try {
+			connectSpan.setAttribute(ITraceSpan.ATTR_HOST, serverHost).setAttribute(ITraceSpan.ATTR_PORT, serverPort);
+			RpcConnection rpcConnection = new RpcStreamConnection(serverHost, serverPort, props, this.serverStats, this.p4Charset, null, this.socketPool, this.secure, this.rsh, metrics);
+			connectSpan.completed();
+			span.trackBytes(rpcConnection);
+			return rpcConnection;
+		} finally {
+			connectSpan.end();
 		}
 	}
 
@@ -612,6 +827,9 @@ public class OneShotServerImpl extends RpcServer {
 		// An exception (ConnectionException) is thrown if ssl but not trusted.
 		trustConnectionCheck(rpcConnection);
 
+		// Client file digests may be served from the workspace index.
+		rpcConnection.setWorkspaceIndex(getWorkspaceIndex());
+
 		ExternalEnv env = new ExternalEnv(this.getUsageOptions().getProgramName(), this.getUsageOptions().getProgramVersion(), this.getClientNameForEnv(), this.getUsageOptions().getWorkingDirectory(), this.getHostForEnv(), this.getServerHostPort(), this.getUsageOptions().getTextLanguage(), this.getOsTypeForEnv(), this.getUserForEnv(), this.isServerUnicode(), this.getClientCharset());
 
 		if (!ignoreCallbacks && (this.commandCallback != null)) {
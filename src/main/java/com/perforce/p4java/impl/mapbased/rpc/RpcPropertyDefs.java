@@ -274,6 +274,19 @@ public class RpcPropertyDefs {
 	 */
 	public static final String RPC_APPLICATION_NAME_NICK = "applicationName";
 
+	/**
+	 * Default size in bytes below which the content of a client-side merge
+	 * (resolve) is held in memory rather than spooled to temporary files.
+	 */
+	public static final int RPC_DEFAULT_MERGE_MEMORY_THRESHOLD = 1024 * 1024;
+
+	/**
+	 * If this property is set, attempt to use the associated value as the
+	 * size in bytes below which client-side merge content is held in memory;
+	 * zero or less means always use temporary files.
+	 */
+	public static final String RPC_MERGE_MEMORY_THRESHOLD_NICK = "mergeMemoryThreshold";
+
 	/**
 	 * Convenience method to first try to get the short form from the passed-in
 	 * properties, then try for the long form. Returns null if it can't find
@@ -19,6 +19,7 @@ import com.perforce.p4java.impl.mapbased.rpc.func.proto.ProtocolCommand;
 import com.perforce.p4java.impl.mapbased.rpc.helper.RpcUserAuthCounter;
 import com.perforce.p4java.impl.mapbased.rpc.packet.helper.RpcPacketFieldRule;
 import com.perforce.p4java.impl.mapbased.rpc.stream.RpcStreamConnection;
+import com.perforce.p4java.impl.mapbased.rpc.sys.WorkspaceStateIndex;
 import com.perforce.p4java.impl.mapbased.server.Server;
 import com.perforce.p4java.impl.mapbased.server.cmd.ResultMapParser;
 import com.perforce.p4java.messages.PerforceMessages;
@@ -31,9 +32,13 @@ import com.perforce.p4java.server.Fingerprint;
 import com.perforce.p4java.server.FingerprintsHelper;
 import com.perforce.p4java.server.IServerAddress;
 import com.perforce.p4java.server.IServerImplMetadata;
+import com.perforce.p4java.server.IMetricsRegistry;
 import com.perforce.p4java.server.IServerInfo;
+import com.perforce.p4java.server.ITraceListener;
+import com.perforce.p4java.server.ITraceSpan;
 import com.perforce.p4java.server.P4Charset;
 import com.perforce.p4java.server.ServerStatus;
+import com.perforce.p4java.server.callback.ILogCallback.LogCategory;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.Validate;
 
@@ -58,6 +63,10 @@ import static com.perforce.p4java.PropertyDefs.AUTH_FILE_LOCK_TRY_KEY;
 import static com.perforce.p4java.PropertyDefs.AUTH_FILE_LOCK_TRY_KEY_SHORT_FORM;
 import static com.perforce.p4java.PropertyDefs.AUTH_FILE_LOCK_WAIT_KEY;
 import static com.perforce.p4java.PropertyDefs.AUTH_FILE_LOCK_WAIT_KEY_SHORT_FORM;
+import static com.perforce.p4java.PropertyDefs.ENABLE_METRICS;
+import static com.perforce.p4java.PropertyDefs.ENABLE_METRICS_SHORT_FORM;
+import static com.perforce.p4java.PropertyDefs.ENABLE_WORKSPACE_INDEX;
+import static com.perforce.p4java.PropertyDefs.ENABLE_WORKSPACE_INDEX_SHORT_FORM;
 import static com.perforce.p4java.PropertyDefs.TICKET_PATH_KEY;
 import static com.perforce.p4java.PropertyDefs.TICKET_PATH_KEY_SHORT_FORM;
 import static com.perforce.p4java.PropertyDefs.TRUST_PATH_KEY;
@@ -97,6 +106,7 @@ import static com.perforce.p4java.server.CmdSpec.getValidP4JCmdSpec;
 import static com.perforce.p4java.util.PropertiesHelper.getPropertyAsInt;
 import static com.perforce.p4java.util.PropertiesHelper.getPropertyAsLong;
 import static com.perforce.p4java.util.PropertiesHelper.getPropertyByKeys;
+import static com.perforce.p4java.util.PropertiesHelper.isExistProperty;
 import static java.util.Objects.nonNull;
 import static org.apache.commons.lang3.StringUtils.EMPTY;
 import static org.apache.commons.lang3.StringUtils.contains;
@@ -249,6 +259,23 @@ public abstract class RpcServer extends Server {
 
 	protected ServerStats serverStats = null;
 
+	/**
+	 * Metrics registry; null unless enabled through the ENABLE_METRICS
+	 * property or set explicitly.
+	 */
+	protected IMetricsRegistry metricsRegistry = null;
+
+	/**
+	 * Trace listener; null unless set explicitly.
+	 */
+	protected ITraceListener traceListener = null;
+
+	/**
+	 * Whether client file digests are kept in a workspace index; set by the
+	 * ENABLE_WORKSPACE_INDEX property.
+	 */
+	protected boolean workspaceIndexEnabled = false;
+
 	protected String serverId = null;
 
 	protected Map<String, String> secretKeys = new HashMap<>();
@@ -322,6 +349,10 @@ public abstract class RpcServer extends Server {
 	 */
 	protected boolean relaxCmdNameValidationChecks = false;
 
+	/**
+	 * @deprecated never populated; use the metrics registry instead.
+	 */
+	@Deprecated
 	private PerformanceMonitor perfMonitor = new PerformanceMonitor();
 
 	public String getApplicationName() {
@@ -349,14 +380,130 @@ public abstract class RpcServer extends Server {
 		this.clientApiLevel = clientApiLevel;
 	}
 
+	/**
+	 * @return a performance monitor that is never populated
+	 * @deprecated use {@link #getMetricsRegistry()} instead.
+	 */
+	@Deprecated
 	public PerformanceMonitor getPerfMonitor() {
 		return perfMonitor;
 	}
 
+	/**
+	 * @param perfMonitor ignored, other than being returned by getPerfMonitor
+	 * @deprecated use {@link #setMetricsRegistry(IMetricsRegistry)} instead.
+	 */
+	@Deprecated
 	public void setPerfMonitor(PerformanceMonitor perfMonitor) {
 		this.perfMonitor = perfMonitor;
 	}
 
+	/**
+	 * @return the metrics registry used by this server, or null if metrics
+	 * are not enabled.
+	 * @since 2025.2
+	 */
+	public IMetricsRegistry getMetricsRegistry() {
+		return metricsRegistry;
+	}
+
+	/**
+	 * Set the metrics registry for this server; null disables metrics.
+	 *
+	 * @param metricsRegistry metrics registry, or null
+	 * @since 2025.2
+	 */
+	public void setMetricsRegistry(IMetricsRegistry metricsRegistry) {
+		this.metricsRegistry = metricsRegistry;
+	}
+
+	/**
+	 * @return the trace listener used by this server, or null if tracing is
+	 * not enabled.
+	 * @since 2025.2
+	 */
+	public ITraceListener getTraceListener() {
+		return traceListener;
+	}
+
+	/**
+	 * Set the listener for this server's trace spans; null disables tracing.
+	 *
+	 * @param traceListener trace listener, or null
+	 * @since 2025.2
+	 */
+	public void setTraceListener(ITraceListener traceListener) {
+		this.traceListener = traceListener;
+	}
+
+	/**
+	 * @return the workspace index for the current client, or null if there
+	 * is no current client or the index is not enabled.
+	 * @since 2025.2
+	 */
+	public WorkspaceStateIndex getWorkspaceIndex() {
+		String clientName = getClientName();
+		if (!workspaceIndexEnabled || isBlank(clientName)) {
+			return null;
+		}
+		return WorkspaceStateIndex.getSharedIndex(tmpDirName, getServerHostPort(), clientName);
+	}
+
+	/**
+	 * Turn the workspace index on or off for this server.
+	 *
+	 * @param workspaceIndexEnabled true to keep client file digests in a
+	 *                              workspace index
+	 * @since 2025.2
+	 */
+	public void setWorkspaceIndexEnabled(boolean workspaceIndexEnabled) {
+		this.workspaceIndexEnabled = workspaceIndexEnabled;
+	}
+
+	/**
+	 * Start the trace span for a command.
+	 *
+	 * @param cmdName command name
+	 * @return the command's span, or null if there is no trace listener
+	 */
+	protected TraceSpan startCommandSpan(final String cmdName) {
+		TraceSpan span = TraceSpan.start(traceListener, ITraceSpan.Kind.COMMAND, cmdName, null);
+		if (nonNull(span)) {
+			span.setAttribute(ITraceSpan.ATTR_COMMAND, cmdName)
+					.setAttribute(ITraceSpan.ATTR_HOST, serverHost)
+					.setAttribute(ITraceSpan.ATTR_PORT, serverPort);
+		}
+		return span;
+	}
+
+	/**
+	 * Start gathering metrics for a command.
+	 *
+	 * @param cmdName command name
+	 * @return the command's metrics, or null if there is no metrics registry
+	 */
+	protected CommandMetrics startCommandMetrics(final String cmdName) {
+		return nonNull(metricsRegistry) ? new CommandMetrics(cmdName) : null;
+	}
+
+	/**
+	 * Pass a finished command's metrics to the metrics registry; does
+	 * nothing if metrics is null.
+	 *
+	 * @param metrics the command's metrics, or null
+	 */
+	protected void recordCommandMetrics(final CommandMetrics metrics) {
+		IMetricsRegistry registry = metricsRegistry;
+		if (nonNull(metrics) && nonNull(registry)) {
+			metrics.finish();
+			try {
+				registry.recordCommand(metrics);
+			} catch (Throwable thr) {
+				Log.warn("Unable to record metrics for command %s: %s", metrics.getCommandName(), thr.getLocalizedMessage());
+			}
+		}
+	}
+
 	/**
 	 * Get the server's address for the RPC connection.
 	 *
@@ -756,10 +903,16 @@ public abstract class RpcServer extends Server {
 		super.disconnect();
 
 		if (connectionStart != 0) {
-			Log.stats("RPC connection connected for %s msec elapsed time", (System.currentTimeMillis() - connectionStart));
+			long connected = System.currentTimeMillis() - connectionStart;
+			Log.stats(LogCategory.CONNECTION, () -> "RPC connection connected for " + connected + " msec elapsed time");
 		}
 		serverStats.logStats();
 
+		WorkspaceStateIndex workspaceIndex = getWorkspaceIndex();
+		if (nonNull(workspaceIndex)) {
+			workspaceIndex.save();
+		}
+
 		// Clear up all counts for this RPC server
 		authCounter.clearCount();
 	}
@@ -860,6 +1013,10 @@ public abstract class RpcServer extends Server {
 				}
 			}
 			serverStats = new ServerStats();
+			if (isExistProperty(properties, ENABLE_METRICS_SHORT_FORM, ENABLE_METRICS, false)) {
+				metricsRegistry = MetricsRegistry.getSharedRegistry();
+			}
+			workspaceIndexEnabled = isExistProperty(properties, ENABLE_WORKSPACE_INDEX_SHORT_FORM, ENABLE_WORKSPACE_INDEX, false);
 			// Auth file lock handling properties
 			authFileLockTry = getPropertyAsInt(properties, new String[]{AUTH_FILE_LOCK_TRY_KEY_SHORT_FORM, AUTH_FILE_LOCK_TRY_KEY}, AbstractAuthHelper.DEFAULT_LOCK_TRY);
 
@@ -6,6 +6,8 @@ package com.perforce.p4java.impl.mapbased.rpc;
 import java.util.concurrent.atomic.AtomicLong;
 
 import com.perforce.p4java.Log;
+import com.perforce.p4java.server.callback.ILogCallback.LogCategory;
+import com.perforce.p4java.server.callback.ILogCallback.LogLevel;
 
 /**
  * Simple class to centralize statistics gathering and reporting for
@@ -13,6 +15,11 @@ import com.perforce.p4java.Log;
  * thread-safe because we're using the Atomic series of classes,
  * but in any case the stats gathered here aren't intended to be
  * exact or precise....
+ * <p>
+ * These are connection-wide totals only; per-command latencies, traffic
+ * and errors are available through an IMetricsRegistry.
+ *
+ * @see com.perforce.p4java.server.IMetricsRegistry
  */
 
 public class ServerStats {
@@ -57,20 +64,23 @@ public class ServerStats {
 	}
 	
 	public void logStats() {
-		Log.stats("RPC server connections made: " + this.serverConnections);
-		Log.stats("RPC send ByteBuffer size: " + this.sendBufSize);
-		Log.stats("RPC receive ByteBuffer size: " + this.recvBufSize);
-		Log.stats("RPC packets sent: " + this.packetsSent
+		if (!Log.isEnabled(LogLevel.STATS, LogCategory.CONNECTION)) {
+			return;
+		}
+		Log.stats(LogCategory.CONNECTION, () -> "RPC server connections made: " + this.serverConnections);
+		Log.stats(LogCategory.CONNECTION, () -> "RPC send ByteBuffer size: " + this.sendBufSize);
+		Log.stats(LogCategory.CONNECTION, () -> "RPC receive ByteBuffer size: " + this.recvBufSize);
+		Log.stats(LogCategory.CONNECTION, () -> "RPC packets sent: " + this.packetsSent
 				+ "; RPC packets received: " + this.packetsRecv);
-		Log.stats("stream sends: " + this.streamSends
+		Log.stats(LogCategory.CONNECTION, () -> "stream sends: " + this.streamSends
 				+ "; stream recvs: " + this.streamRecvs);
-		Log.stats("bytes sent: " + this.totalBytesSent + "; bytes received: "
+		Log.stats(LogCategory.CONNECTION, () -> "bytes sent: " + this.totalBytesSent + "; bytes received: "
 				+ this.totalBytesRecv + " bytes");
-		Log.stats("largest RPC packet sent (bytes): " + this.largestRpcPacketSent
+		Log.stats(LogCategory.CONNECTION, () -> "largest RPC packet sent (bytes): " + this.largestRpcPacketSent
 				+ "; largest RPC packet receieved (bytes): " + this.largestRpcPacketRecv);
-		Log.stats("largest socket send (bytes): " + this.largestSend
+		Log.stats(LogCategory.CONNECTION, () -> "largest socket send (bytes): " + this.largestSend
 				+ "; largest socket recv (bytes): " + this.largestRecv);
-		Log.stats("RPC put buffer resizes: " + this.bufferCompacts);
-		Log.stats("RPC read buffer incomplete reads: " + this.incompleteReads);
+		Log.stats(LogCategory.CONNECTION, () -> "RPC put buffer resizes: " + this.bufferCompacts);
+		Log.stats(LogCategory.CONNECTION, () -> "RPC read buffer incomplete reads: " + this.incompleteReads);
 	}
 }
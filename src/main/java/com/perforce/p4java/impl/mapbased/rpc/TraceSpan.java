@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.impl.mapbased.rpc;
+
+import com.perforce.p4java.Log;
+import com.perforce.p4java.impl.mapbased.rpc.connection.RpcConnection;
+import com.perforce.p4java.server.ITraceListener;
+import com.perforce.p4java.server.ITraceSpan;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Trace span as created by the RPC layer. The listener is told about the
+ * span when it is constructed and again when end is called.
+ * <p>
+ * A span is used by one thread at a time; attributes are not visible to
+ * other threads until the span has ended.
+ *
+ * @since 2025.2
+ */
+public class TraceSpan implements ITraceSpan {
+
+	private final ITraceListener listener;
+	private final Kind kind;
+	private final String name;
+	private final TraceSpan parent;
+	private final long startTimeMillis;
+	private final long startNanos;
+	private final Map<String, Object> attributes = new LinkedHashMap<>();
+	private volatile long durationNanos = -1;
+	private boolean completed = false;
+	private RpcConnection connection = null;
+	private long bytesSentBase = 0;
+	private long bytesReceivedBase = 0;
+
+	/**
+	 * Start a span, returning null if there is no listener.
+	 *
+	 * @param listener trace listener; may be null
+	 * @param kind     span kind
+	 * @param name     span name
+	 * @param parent   enclosing span; may be null
+	 * @return the new span, or null
+	 */
+	public static TraceSpan start(final ITraceListener listener, final Kind kind, final String name, final TraceSpan parent) {
+		return isNull(listener) ? null : new TraceSpan(listener, kind, name, parent);
+	}
+
+	/**
+	 * Start a child of the given span, returning null if the parent is null.
+	 *
+	 * @param parent enclosing span; may be null
+	 * @param kind   span kind
+	 * @param name   span name
+	 * @return the new span, or null
+	 */
+	public static TraceSpan startChild(final TraceSpan parent, final Kind kind, final String name) {
+		return isNull(parent) ? null : new TraceSpan(parent.listener, kind, name, parent);
+	}
+
+	private TraceSpan(final ITraceListener listener, final Kind kind, final String name, final TraceSpan parent) {
+		this.listener = listener;
+		this.kind = kind;
+		this.name = name;
+		this.parent = parent;
+		this.startTimeMillis = System.currentTimeMillis();
+		this.startNanos = System.nanoTime();
+		try {
+			listener.spanStarted(this);
+		} catch (RuntimeException exc) {
+			Log.warn("Trace listener failed on start of span %s: %s", name, exc.getLocalizedMessage());
+		}
+	}
+
+	public TraceSpan setAttribute(final String key, final Object value) {
+		if (nonNull(value)) {
+			attributes.put(key, value);
+		}
+		return this;
+	}
+
+	/**
+	 * Count the bytes sent and received on the connection from now until
+	 * the span ends, as the ATTR_BYTES_SENT and ATTR_BYTES_RECEIVED
+	 * attributes.
+	 *
+	 * @param connection the connection the span's work is done on
+	 * @return this span
+	 */
+	public TraceSpan trackBytes(final RpcConnection connection) {
+		return trackBytes(connection, 0);
+	}
+
+	/**
+	 * As trackBytes(connection), also counting bytes that were read for the
+	 * span before it started, such as the packet that called a client
+	 * function.
+	 *
+	 * @param connection       the connection the span's work is done on
+	 * @param alreadyReceived  bytes already read for the span
+	 * @return this span
+	 */
+	public TraceSpan trackBytes(final RpcConnection connection, final long alreadyReceived) {
+		if (nonNull(connection)) {
+			this.connection = connection;
+			this.bytesSentBase = connection.getBytesSent();
+			this.bytesReceivedBase = connection.getBytesReceived() - alreadyReceived;
+		}
+		return this;
+	}
+
+	/**
+	 * Set the ATTR_RESULTS and ATTR_SERVER_ERRORS attributes of a command
+	 * span.
+	 *
+	 * @param resultMaps the command's results; may be null
+	 * @return this span
+	 */
+	public TraceSpan results(final List<Map<String, Object>> resultMaps) {
+		setAttribute(ATTR_RESULTS, isNull(resultMaps) ? 0 : resultMaps.size());
+		return setAttribute(ATTR_SERVER_ERRORS, CommandMetrics.countServerErrors(resultMaps));
+	}
+
+	/**
+	 * Report an event within this span to the listener.
+	 *
+	 * @param eventName  event name
+	 * @param attributes event attributes
+	 */
+	public void event(final String eventName, final Map<String, Object> attributes) {
+		try {
+			listener.event(this, eventName, Collections.unmodifiableMap(attributes));
+		} catch (RuntimeException exc) {
+			Log.warn("Trace listener failed on event %s: %s", eventName, exc.getLocalizedMessage());
+		}
+	}
+
+	/**
+	 * Mark the span as having finished without an exception.
+	 */
+	public void completed() {
+		completed = true;
+	}
+
+	/**
+	 * End the span and tell the listener; spans not marked as completed are
+	 * reported as failed.
+	 */
+	public void end() {
+		if (durationNanos >= 0) {
+			return;
+		}
+		long duration = System.nanoTime() - startNanos;
+		if (nonNull(connection)) {
+			setAttribute(ATTR_BYTES_SENT, connection.getBytesSent() - bytesSentBase);
+			setAttribute(ATTR_BYTES_RECEIVED, connection.getBytesReceived() - bytesReceivedBase);
+			connection = null;
+		}
+		durationNanos = duration;
+		try {
+			listener.spanEnded(this);
+		} catch (RuntimeException exc) {
+			Log.warn("Trace listener failed on end of span %s: %s", name, exc.getLocalizedMessage());
+		}
+	}
+
+	@Override
+	public Kind getKind() {
+		return kind;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public ITraceSpan getParent() {
+		return parent;
+	}
+
+	@Override
+	public long getStartTimeMillis() {
+		return startTimeMillis;
+	}
+
+	@Override
+	public long getDurationNanos() {
+		return durationNanos;
+	}
+
+	@Override
+	public Map<String, Object> getAttributes() {
+		return Collections.unmodifiableMap(attributes);
+	}
+
+	@Override
+	public Object getAttribute(final String key) {
+		return attributes.get(key);
+	}
+
+	@Override
+	public boolean isFailed() {
+		return durationNanos >= 0 && !completed;
+	}
+
+	@Override
+	public String toString() {
+		return kind + " " + name + " " + attributes;
+	}
+}
@@ -9,6 +9,7 @@ import com.perforce.p4java.PropertyDefs;
 import com.perforce.p4java.exception.ConnectionException;
 import com.perforce.p4java.exception.NullPointerError;
 import com.perforce.p4java.exception.P4JavaError;
+import com.perforce.p4java.impl.mapbased.rpc.CommandMetrics;
 import com.perforce.p4java.impl.mapbased.rpc.ServerStats;
 import com.perforce.p4java.impl.mapbased.rpc.func.RpcFunctionMapKey;
 import com.perforce.p4java.impl.mapbased.rpc.func.helper.DigestResult;
@@ -16,8 +17,10 @@ import com.perforce.p4java.impl.mapbased.rpc.func.helper.MD5Digester;
 import com.perforce.p4java.impl.mapbased.rpc.packet.RpcPacket;
 import com.perforce.p4java.impl.mapbased.rpc.packet.RpcPacketDispatcher;
 import com.perforce.p4java.impl.mapbased.rpc.packet.helper.RpcPacketFieldRule;
+import com.perforce.p4java.impl.mapbased.rpc.sys.LocalFileScanner.DigestSpec;
 import com.perforce.p4java.impl.mapbased.rpc.sys.RpcPerforceDigestType;
 import com.perforce.p4java.impl.mapbased.rpc.sys.RpcPerforceFileType;
+import com.perforce.p4java.impl.mapbased.rpc.sys.WorkspaceStateIndex;
 import com.perforce.p4java.impl.mapbased.rpc.sys.helper.SymbolicLinkHelper;
 import com.perforce.p4java.server.P4Charset;
 import com.perforce.p4java.server.callback.IFilterCallback;
@@ -105,6 +108,21 @@ public abstract class RpcConnection {
 
 	protected ServerStats stats = null;
 
+	/**
+	 * Metrics of the command currently using this connection; null unless
+	 * a metrics registry is in use.
+	 */
+	protected CommandMetrics metrics = null;
+
+	/**
+	 * Index of known client file digests; null unless enabled.
+	 */
+	protected WorkspaceStateIndex workspaceIndex = null;
+
+	// Bytes written to and read from the server on this connection so far.
+	protected long bytesSent = 0;
+	protected long bytesReceived = 0;
+
 	protected P4Charset p4Charset = null;
 
 	protected String hostIp = UNKNOWN_SERVER_HOST;
@@ -500,6 +518,54 @@ public abstract class RpcConnection {
 		this.stats = stats;
 	}
 
+	/**
+	 * @since 2025.2
+	 */
+	public CommandMetrics getMetrics() {
+		return this.metrics;
+	}
+
+	/**
+	 * @since 2025.2
+	 */
+	public void setMetrics(CommandMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * @since 2025.2
+	 */
+	public WorkspaceStateIndex getWorkspaceIndex() {
+		return this.workspaceIndex;
+	}
+
+	/**
+	 * Set the index consulted and updated by getDigest and
+	 * getDigestAndSizeOfFile; null to always read files.
+	 *
+	 * @param workspaceIndex workspace index, or null
+	 * @since 2025.2
+	 */
+	public void setWorkspaceIndex(WorkspaceStateIndex workspaceIndex) {
+		this.workspaceIndex = workspaceIndex;
+	}
+
+	/**
+	 * @return the number of bytes written to the server on this connection
+	 * @since 2025.2
+	 */
+	public long getBytesSent() {
+		return this.bytesSent;
+	}
+
+	/**
+	 * @return the number of bytes read from the server on this connection
+	 * @since 2025.2
+	 */
+	public long getBytesReceived() {
+		return this.bytesReceived;
+	}
+
 	public String getHostIp() {
 		return this.hostIp;
 	}
@@ -613,36 +679,26 @@ public abstract class RpcConnection {
 			digest = RpcPerforceDigestType.MD5;
 		}
 
-		Charset digestCharset = null;
-		boolean convertLineEndings = false;
-		switch (fileType) {
-			case FST_SYMLINK:
-				return getSymlinkMD5Digest(file);
-
-			case FST_UTF16:
-				digestCharset = CharsetDefs.UTF16;
-				break;
-			case FST_UTF8:
-				digestCharset = CharsetDefs.UTF8;
-				convertLineEndings = true;
-				break;
-			case FST_UNICODE:
-				digestCharset = getClientCharset();
-				break;
-			case FST_XTEXT:
-			case FST_TEXT:
-				// Convert line endings
-				convertLineEndings = true;
-				break;
-			default:
-				break;
+		if (fileType == RpcPerforceFileType.FST_SYMLINK) {
+			return getSymlinkMD5Digest(file);
+		}
+		DigestSpec spec = getDigestSpec(fileType);
+		WorkspaceStateIndex index = this.workspaceIndex;
+		if (index != null) {
+			WorkspaceStateIndex.Entry entry = index.lookup(file, spec);
+			if (entry != null) {
+				return entry.getDigest();
+			}
 		}
 
 		// Digest the file using the configured local file content
 		// charset. A null digestCharset specified will cause the
 		// file to be read as raw byte stream directly off disk.
 		//TODO: Digester might be SHA* variant
-		String digestStr = digester.digestFileAs32ByteHex(file, digestCharset, convertLineEndings);
+		String digestStr = digester.digestFileAs32ByteHex(file, spec.getCharset(), spec.isConvertLineEndings());
+		if (index != null) {
+			index.record(file, spec, digestStr, digester.getByteCount());
+		}
 
 		return digestStr;
 	}
@@ -654,13 +710,49 @@ public abstract class RpcConnection {
 
 		MD5Digester digester = new MD5Digester();
 
+		if (fileType == RpcPerforceFileType.FST_SYMLINK) {
+			String symlinkDigest = getSymlinkMD5Digest(file);
+			return new DigestResult(symlinkDigest, file.length());
+		}
+		DigestSpec spec = getDigestSpec(fileType);
+		WorkspaceStateIndex index = this.workspaceIndex;
+		if (index != null) {
+			WorkspaceStateIndex.Entry entry = index.lookup(file, spec);
+			if (entry != null && entry.getDigestedSize() >= 0) {
+				return new DigestResult(entry.getDigest(), entry.getDigestedSize());
+			}
+		}
+
+		// Perform digest and capture adjusted file size
+		String digestStr = digester.digestFileAs32ByteHex(file, spec.getCharset(), spec.isConvertLineEndings());
+		long fileSize;
+		if (digestStr == null) {
+			fileSize = 0;
+		} else {
+			fileSize = digester.getByteCount();
+			if (index != null) {
+				index.record(file, spec, digestStr, fileSize);
+			}
+		}
+
+		return new DigestResult(digestStr, fileSize);
+	}
+
+	/**
+	 * Get how the local content of a file of the given type is digested;
+	 * symlinks are digested by their target path instead.
+	 *
+	 * @param fileType file type
+	 * @return the digest spec, or null for symlinks
+	 * @since 2025.2
+	 */
+	public DigestSpec getDigestSpec(RpcPerforceFileType fileType) {
 		Charset digestCharset = null;
 		boolean convertLineEndings = false;
-
 		switch (fileType) {
 			case FST_SYMLINK:
-				String symlinkDigest = getSymlinkMD5Digest(file);
-				return new DigestResult(symlinkDigest, file.length());
+				return null;
+
 			case FST_UTF16:
 				digestCharset = CharsetDefs.UTF16;
 				break;
@@ -673,22 +765,13 @@ public abstract class RpcConnection {
 				break;
 			case FST_XTEXT:
 			case FST_TEXT:
+				// Convert line endings
 				convertLineEndings = true;
 				break;
 			default:
 				break;
 		}
-
-		// Perform digest and capture adjusted file size
-		String digestStr = digester.digestFileAs32ByteHex(file, digestCharset, convertLineEndings);
-		long fileSize;
-		if (digestStr == null) {
-			fileSize = 0;
-		} else {
-			fileSize = digester.getByteCount();
-		}
-
-		return new DigestResult(digestStr, fileSize);
+		return new DigestSpec(digestCharset, convertLineEndings);
 	}
 
 	private String getSymlinkMD5Digest(File file) {
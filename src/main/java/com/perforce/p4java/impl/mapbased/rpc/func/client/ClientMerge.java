@@ -81,6 +81,7 @@ public class ClientMerge {
 
 	private Properties props = null;
 	private String tmpDirName = null;
+	private int mergeMemoryThreshold = RpcPropertyDefs.RPC_DEFAULT_MERGE_MEMORY_THRESHOLD;
 
 	@SuppressWarnings("unused")
 	private static final String COPY_MERGE = "copy"; // here for completeness
@@ -120,6 +121,9 @@ public class ClientMerge {
 			Log.warn("Unable to get tmp name from P4 props or System; using " + tmpDirName + " instead");
 
 		}
+
+		this.mergeMemoryThreshold = RpcPropertyDefs.getPropertyAsInt(this.props,
+				RpcPropertyDefs.RPC_MERGE_MEMORY_THRESHOLD_NICK, RpcPropertyDefs.RPC_DEFAULT_MERGE_MEMORY_THRESHOLD);
 	}
 
 	/**
@@ -198,6 +202,7 @@ public class ClientMerge {
 				mergeState.setBaseName(baseName);
 				mergeState.setTheirName(theirName);
 				mergeState.setYourName(yourName);
+				mergeState.setMemoryThreshold(this.mergeMemoryThreshold);
 				mergeState.openMergeFiles(rpcConnection);
 				mergeState.setShowAll(showAll != null);
 
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.impl.mapbased.rpc.func.client;
+
+import com.perforce.p4java.exception.FileDecoderException;
+import com.perforce.p4java.exception.FileEncoderException;
+import com.perforce.p4java.impl.mapbased.rpc.sys.RpcOutputStream;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * In-memory stand-in for one of the merge temp files in ClientMergeState.
+ * <p>
+ * The chunks are kept exactly as received from the server, along with their
+ * boundaries, so that replaying them through RpcOutputStream.writeConverted
+ * produces exactly what writing them to a temp file as they arrived would
+ * have done. Backing arrays are taken from and returned to a small shared
+ * pool, as a resolve typically goes through many small files in a row.
+ * <p>
+ * Note: not thread-safe; each buffer belongs to a single merge.
+ *
+ * @since 2025.2
+ */
+final class ClientMergeBuffer {
+
+	private static final int INITIAL_SIZE = 8 * 1024;
+	private static final int INITIAL_CHUNKS = 64;
+
+	// Arrays bigger than this are left to the garbage collector.
+	private static final int MAX_POOLED_SIZE = 1024 * 1024;
+	private static final BlockingQueue<byte[]> pool = new ArrayBlockingQueue<>(16);
+
+	private byte[] data = null;
+	private int size = 0;
+	private int[] ends = new int[INITIAL_CHUNKS];
+	private int chunks = 0;
+
+	ClientMergeBuffer() {
+		data = pool.poll();
+		if (data == null) {
+			data = new byte[INITIAL_SIZE];
+		}
+	}
+
+	/**
+	 * @return total bytes held
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Append a chunk.
+	 *
+	 * @param bytes chunk bytes
+	 */
+	void add(byte[] bytes) {
+		if (size + bytes.length > data.length) {
+			data = Arrays.copyOf(data, Math.max(data.length * 2, size + bytes.length));
+		}
+		System.arraycopy(bytes, 0, data, size, bytes.length);
+		size += bytes.length;
+
+		if (chunks == ends.length) {
+			ends = Arrays.copyOf(ends, chunks * 2);
+		}
+		ends[chunks++] = size;
+	}
+
+	/**
+	 * Replay the chunks, in order, through the stream's charset and line end
+	 * conversion.
+	 *
+	 * @param stream target stream; not closed
+	 */
+	void writeTo(RpcOutputStream stream) throws IOException, FileDecoderException, FileEncoderException {
+		int start = 0;
+		for (int i = 0; i < chunks; i++) {
+			stream.writeConverted(Arrays.copyOfRange(data, start, ends[i]));
+			start = ends[i];
+		}
+	}
+
+	/**
+	 * Give the backing array back to the pool; the buffer must not be used
+	 * afterwards.
+	 */
+	void release() {
+		if (data != null && data.length <= MAX_POOLED_SIZE) {
+			pool.offer(data);
+		}
+		data = null;
+		size = 0;
+		chunks = 0;
+	}
+}
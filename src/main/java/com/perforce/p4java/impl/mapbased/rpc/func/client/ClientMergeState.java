@@ -16,6 +16,7 @@ import com.perforce.p4java.impl.mapbased.rpc.sys.RpcOutputStream;
 import com.perforce.p4java.impl.mapbased.rpc.sys.RpcPerforceFile;
 import com.perforce.p4java.impl.mapbased.rpc.sys.RpcPerforceFileType;
 
+import java.io.File;
 import java.io.FileDescriptor;
 import java.io.IOException;
 import java.nio.charset.Charset;
@@ -27,6 +28,12 @@ import java.nio.charset.Charset;
  * Also includes support for two-way merge, but this is currently less-well
  * exercised and tested.
  * <p>
+ * If a memory threshold is set, the base, their and result content is held
+ * in memory rather than in temp files for as long as it stays below the
+ * threshold; the chosen result is then written straight to the target file,
+ * and nothing at all is written for a "yours" or skipped resolve. Content
+ * that grows past the threshold is spooled to the usual temp files.
+ * <p>
  * Note: not particularly thread-safe, nor intended to be.
  */
 
@@ -70,6 +77,12 @@ public class ClientMergeState {
 	private RpcOutputStream theirTmpFileStream = null;
 	private RpcOutputStream resultTmpFileStream = null;
 
+	private int memoryThreshold = 0;
+	private RpcConnection rpcConnection = null;
+	private ClientMergeBuffer baseBuffer = null;
+	private ClientMergeBuffer theirBuffer = null;
+	private ClientMergeBuffer resultBuffer = null;
+
 	private MD5Digester theirDigester = null;
 	private MD5Digester yourDigester = null;
 	private MD5Digester resultDigester = null;
@@ -135,6 +148,22 @@ public class ClientMergeState {
 	 * @throws IOException if there's been a problem opening any of the files.
 	 */
 	protected void openMergeFiles(RpcConnection rpcConnection) throws IOException {
+		this.rpcConnection = rpcConnection;
+
+		if (this.memoryThreshold > 0) {
+			this.baseBuffer = new ClientMergeBuffer();
+			this.theirBuffer = new ClientMergeBuffer();
+			this.theirDigester = new MD5Digester();
+
+			this.yourTmpFilename = this.clientPath;
+			this.yourTmpFile = new RpcPerforceFile(this.yourTmpFilename, clientType);
+			this.yourDigester = new MD5Digester();
+
+			this.resultBuffer = new ClientMergeBuffer();
+			this.resultDigester = new MD5Digester();
+			return;
+		}
+
 		this.baseTmpFilename = RpcPerforceFile.createTempFileName(this.tmpDir);
 		this.baseTmpFile = new RpcPerforceFile(this.baseTmpFilename, clientType, clientLineEnding);
 		this.baseTmpFileStream = new RpcOutputStream(this.baseTmpFile, rpcConnection, false);
@@ -155,7 +184,10 @@ public class ClientMergeState {
 	}
 
 	protected void writeMarker(String markerString) throws IOException, FileDecoderException, FileEncoderException {
-		if (checkStream(resultTmpFileStream)) {
+		if (isInMemory()) {
+			resultBuffer.add(markerString.getBytes(CharsetDefs.UTF8_NAME));
+			checkMemoryThreshold();
+		} else if (checkStream(resultTmpFileStream)) {
 			// Convert the marker to UTF-8 since writeConverted assumes a UTF-8
 			// to local charset conversion
 			resultTmpFileStream.writeConverted(markerString.getBytes(CharsetDefs.UTF8_NAME));
@@ -165,7 +197,10 @@ public class ClientMergeState {
 	}
 
 	protected void writeBaseChunk(byte[] bytes) throws IOException, FileDecoderException, FileEncoderException {
-		if (checkStream(baseTmpFileStream)) {
+		if (isInMemory()) {
+			baseBuffer.add(bytes);
+			checkMemoryThreshold();
+		} else if (checkStream(baseTmpFileStream)) {
 			baseTmpFileStream.writeConverted(bytes);
 		} else {
 			throw new NullPointerError("bad stream in writeBaseChunk");
@@ -173,7 +208,11 @@ public class ClientMergeState {
 	}
 
 	protected void writeTheirChunk(byte[] bytes) throws IOException, FileDecoderException, FileEncoderException {
-		if (checkStream(theirTmpFileStream)) {
+		if (isInMemory()) {
+			theirDigester.update(bytes);
+			theirBuffer.add(bytes);
+			checkMemoryThreshold();
+		} else if (checkStream(theirTmpFileStream)) {
 			theirDigester.update(bytes);
 			theirTmpFileStream.writeConverted(bytes);
 		} else {
@@ -187,7 +226,11 @@ public class ClientMergeState {
 	}
 
 	protected void writeResultChunk(byte[] bytes) throws IOException, FileDecoderException, FileEncoderException {
-		if (checkStream(resultTmpFileStream)) {
+		if (isInMemory()) {
+			resultDigester.update(bytes);
+			resultBuffer.add(bytes);
+			checkMemoryThreshold();
+		} else if (checkStream(resultTmpFileStream)) {
 			resultDigester.update(bytes);
 			resultTmpFileStream.writeConverted(bytes);
 		} else {
@@ -196,6 +239,9 @@ public class ClientMergeState {
 	}
 
 	protected boolean finishMerge(ResolveChoice choice) throws IOException {
+		if (isInMemory()) {
+			return finishMemoryMerge(choice);
+		}
 
 		boolean succeeded = false;
 
@@ -250,6 +296,126 @@ public class ClientMergeState {
 		return succeeded;
 	}
 
+	/**
+	 * Memory mode equivalent of finishMerge: write the chosen content to a
+	 * temp file in the target's directory and rename that over the target,
+	 * so that the target is left as it was if anything goes wrong.
+	 */
+	private boolean finishMemoryMerge(ResolveChoice choice) throws IOException {
+		try {
+			switch (choice) {
+				case THEIRS:
+					return writeTarget(theirBuffer);
+
+				case MERGED:
+				case EDIT:
+					return writeTarget(resultBuffer);
+
+				default:
+					return true;
+			}
+		} finally {
+			releaseBuffers();
+		}
+	}
+
+	private boolean writeTarget(ClientMergeBuffer buffer) {
+		String targetDir = new File(this.clientPath).getAbsoluteFile().getParent();
+		String tmpFilename = RpcPerforceFile.createTempFileName(targetDir);
+		if (tmpFilename == null) {
+			return false;
+		}
+
+		RpcPerforceFile tmpFile = new RpcPerforceFile(tmpFilename, resultType, resultLineEnding);
+		boolean succeeded = false;
+		try {
+			RpcOutputStream stream = new RpcOutputStream(tmpFile, rpcConnection, false);
+			try {
+				buffer.writeTo(stream);
+			} finally {
+				stream.close();
+			}
+			succeeded = tmpFile.renameTo(this.yourTmpFile);
+		} catch (FileDecoderException | FileEncoderException exc) {
+			Log.error("Charset conversion exception writing merge result: " + exc.getLocalizedMessage());
+			Log.exception(exc);
+		} catch (IOException ioexc) {
+			Log.error("Unable to write merge result for " + this.clientPath + ": " + ioexc.getLocalizedMessage());
+			Log.exception(ioexc);
+		} finally {
+			if (!succeeded && tmpFile.exists() && !tmpFile.delete()) {
+				Log.warn("Unable to delete merge temp file " + tmpFilename);
+			}
+		}
+		return succeeded;
+	}
+
+	/**
+	 * Spool the in-memory content to the usual temp files once it has grown
+	 * past the memory threshold; later chunks go straight to the files.
+	 */
+	private void checkMemoryThreshold() throws IOException, FileDecoderException, FileEncoderException {
+		if (baseBuffer.size() + theirBuffer.size() + resultBuffer.size() <= memoryThreshold) {
+			return;
+		}
+
+		ClientMergeBuffer base = baseBuffer;
+		ClientMergeBuffer their = theirBuffer;
+		ClientMergeBuffer result = resultBuffer;
+		MD5Digester theirs = theirDigester;
+		MD5Digester yours = yourDigester;
+		MD5Digester results = resultDigester;
+
+		this.memoryThreshold = 0;
+		this.baseBuffer = null;
+		this.theirBuffer = null;
+		this.resultBuffer = null;
+		try {
+			openMergeFiles(rpcConnection);
+
+			// Keep the digests accumulated so far.
+			this.theirDigester = theirs;
+			this.yourDigester = yours;
+			this.resultDigester = results;
+
+			base.writeTo(baseTmpFileStream);
+			their.writeTo(theirTmpFileStream);
+			result.writeTo(resultTmpFileStream);
+		} finally {
+			base.release();
+			their.release();
+			result.release();
+		}
+	}
+
+	private void releaseBuffers() {
+		if (baseBuffer != null) baseBuffer.release();
+		if (theirBuffer != null) theirBuffer.release();
+		if (resultBuffer != null) resultBuffer.release();
+		baseBuffer = null;
+		theirBuffer = null;
+		resultBuffer = null;
+	}
+
+	private boolean isInMemory() {
+		return resultBuffer != null;
+	}
+
+	protected int getMemoryThreshold() {
+		return this.memoryThreshold;
+	}
+
+	/**
+	 * Set the size in bytes below which merge content is held in memory;
+	 * zero or less means always use temp files. Must be called before
+	 * openMergeFiles.
+	 *
+	 * @param memoryThreshold memory threshold in bytes
+	 */
+	protected void setMemoryThreshold(int memoryThreshold) {
+		this.memoryThreshold = memoryThreshold;
+	}
+
 	protected String getMergeDigestString() {
 		// If the file has conflicts, do not report merge digest, otherwise
 		// return result digest:
@@ -3,6 +3,7 @@
  */
 package com.perforce.p4java.impl.mapbased.rpc.func.client;
 
+import com.perforce.p4java.common.base.P4DateUtils;
 import com.perforce.p4java.impl.mapbased.MapKeys;
 import com.perforce.p4java.impl.mapbased.rpc.CommandEnv;
 import com.perforce.p4java.impl.mapbased.rpc.RpcServer;
@@ -12,9 +13,7 @@ import com.perforce.p4java.impl.mapbased.server.cmd.ResultMapParser;
 import com.perforce.p4java.server.CmdSpec;
 import com.perforce.p4java.server.callback.IProgressCallback;
 
-import java.text.DateFormat;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -204,7 +203,7 @@ public class ClientProgressReport {
 						sb.append("Change ").append((String) resultsMap.get(RpcFunctionMapKey.CHANGE));
 					}
 					if (resultsMap.get(RpcFunctionMapKey.TIME) != null) {
-						Date date = new Date(Long.parseLong((String) resultsMap.get(RpcFunctionMapKey.TIME)) * 1000);
+						Date date = P4DateUtils.fromEpochSeconds((String) resultsMap.get(RpcFunctionMapKey.TIME));
 						String dateStr = formatDate(date, DATE_PATTERN2);
 						sb.append(" on ").append(dateStr);
 					}
@@ -236,7 +235,7 @@ public class ClientProgressReport {
 						sb.append(" (").append((String) resultsMap.get(MapKeys.FULLNAME_KEY)).append(")");
 					}
 					if (resultsMap.get(MapKeys.ACCESS_KEY) != null) {
-						Date date = new Date(Long.parseLong((String) resultsMap.get(MapKeys.ACCESS_KEY)) * 1000);
+						Date date = P4DateUtils.fromEpochSeconds((String) resultsMap.get(MapKeys.ACCESS_KEY));
 						String dateStr = formatDate(date, DATE_PATTERN2);
 						sb.append(" accessed ").append(dateStr);
 					}
@@ -265,8 +264,7 @@ public class ClientProgressReport {
 	private Date parseDate(String date, String pattern) throws ParseException {
 		Date d = null;
 		if (date != null) {
-			DateFormat df = new SimpleDateFormat(pattern);
-			d = df.parse(date);
+			d = P4DateUtils.parseDate(date, pattern);
 		}
 		return d;
 	}
@@ -281,8 +279,7 @@ public class ClientProgressReport {
 	private String formatDate(Date date, String pattern) {
 		String d = null;
 		if (date != null) {
-			DateFormat df = new SimpleDateFormat(pattern);
-			d = df.format(date);
+			d = P4DateUtils.formatDate(date, pattern);
 		}
 		return d;
 	}
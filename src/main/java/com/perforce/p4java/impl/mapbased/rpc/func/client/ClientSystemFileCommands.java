@@ -28,18 +28,23 @@ import com.perforce.p4java.impl.mapbased.rpc.func.RpcFunctionSpec;
 import com.perforce.p4java.impl.mapbased.rpc.func.client.ClientMessage.ClientMessageId;
 import com.perforce.p4java.impl.mapbased.rpc.func.helper.DigestResult;
 import com.perforce.p4java.impl.mapbased.rpc.handles.ClientFile;
+import com.perforce.p4java.impl.mapbased.rpc.jfr.FileWriteEvent;
+import com.perforce.p4java.impl.mapbased.rpc.jfr.FlightEvents;
 import com.perforce.p4java.impl.mapbased.rpc.msg.RpcMessage;
 import com.perforce.p4java.impl.mapbased.rpc.packet.RpcPacket;
 import com.perforce.p4java.impl.mapbased.rpc.packet.RpcPacketDispatcher.RpcPacketDispatcherResult;
+import com.perforce.p4java.impl.mapbased.rpc.sys.LocalFileScanner;
 import com.perforce.p4java.impl.mapbased.rpc.sys.RpcByteBufferOutput;
 import com.perforce.p4java.impl.mapbased.rpc.sys.RpcOutputStream;
 import com.perforce.p4java.impl.mapbased.rpc.sys.RpcPerforceDigestType;
 import com.perforce.p4java.impl.mapbased.rpc.sys.RpcPerforceFile;
 import com.perforce.p4java.impl.mapbased.rpc.sys.RpcPerforceFileType;
 import com.perforce.p4java.impl.mapbased.rpc.sys.RpcPerforceFileType.RpcServerTypeStringSpec;
+import com.perforce.p4java.impl.mapbased.rpc.sys.WorkspaceStateIndex;
 import com.perforce.p4java.impl.mapbased.rpc.sys.helper.AppleFileHelper;
 import com.perforce.p4java.impl.mapbased.rpc.sys.helper.SymbolicLinkHelper;
 import com.perforce.p4java.impl.mapbased.rpc.sys.helper.SysFileHelperBridge;
+import com.perforce.p4java.server.callback.ILogCallback.LogCategory;
 import com.perforce.p4java.util.FilesHelper;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 
@@ -109,7 +114,7 @@ public class ClientSystemFileCommands {
 
 			tmpDirName = SYSTEM_TMPDIR_DEFAULT;
 
-			Log.warn("Unable to get tmp name from P4 props or System; using " + tmpDirName + " instead");
+			Log.warn(LogCategory.FILE, () -> "Unable to get tmp name from P4 props or System; using " + tmpDirName + " instead");
 		}
 	}
 
@@ -390,7 +395,7 @@ public class ClientSystemFileCommands {
 							return RpcPacketDispatcherResult.CONTINUE_LOOP;
 						} else {
 							if (!cfile.getFile().createNewFile()) {
-								Log.warn(TRACE_PREFIX + ".openFile: unable to create new target file");
+								Log.warn(LogCategory.FILE, () -> TRACE_PREFIX + ".openFile: unable to create new target file");
 							}
 						}
 
@@ -541,7 +546,13 @@ public class ClientSystemFileCommands {
 
 		try {
 			if ((outStream.getFD() != null) && outStream.getFD().valid()) {
+				FileWriteEvent event = FlightEvents.beginFileWrite();
 				long bytesWritten = outStream.write(resultsMap);
+				if (event != null && event.shouldCommit()) {
+					event.path = path;
+					event.bytes = bytesWritten;
+					event.commit();
+				}
 
 				// Send back the data bytes written (accumulated)
 				// This is for the progress indicator
@@ -553,27 +564,27 @@ public class ClientSystemFileCommands {
 		} catch (FileDecoderException e) {
 			handler.setError(true);
 			cmdEnv.handleResult(new RpcMessage(ClientMessageId.FILE_DECODER_ERROR, MessageSeverityCode.E_FAILED, MessageGenericCode.EV_CLIENT, new String[]{path == null ? "<unknown>" : path}).toMap());
-			Log.error("failed to decode file " + (path == null ? "<unknown>" : path) + "; exception follows...");
+			Log.error(LogCategory.FILE, () -> "failed to decode file " + (path == null ? "<unknown>" : path) + "; exception follows...");
 			Log.exception(e);
 		} catch (FileEncoderException e) {
 			handler.setError(true);
 			cmdEnv.handleResult(new RpcMessage(ClientMessageId.FILE_ENCODER_ERROR, MessageSeverityCode.E_FAILED, MessageGenericCode.EV_CLIENT, new String[]{path == null ? "<unknown>" : path}).toMap());
-			Log.error("failed to encode file " + (path == null ? "<unknown>" : path) + "; exception follows...");
+			Log.error(LogCategory.FILE, () -> "failed to encode file " + (path == null ? "<unknown>" : path) + "; exception follows...");
 			Log.exception(e);
 			if (ExceptionUtils.getRootCause(e) instanceof UnmappableCharacterException) {
-				Log.warn("cleaning up file " + (path == null ? "<unknown>" : path));
+				Log.warn(LogCategory.FILE, () -> "cleaning up file " + (path == null ? "<unknown>" : path));
 				try {
 					outStream.close();
 					outStream.getFile().delete();
 				} catch (IOException ex) {
-					Log.error("Unable to close file " + (path == null ? "<unknown>" : path));
+					Log.error(LogCategory.FILE, () -> "Unable to close file " + (path == null ? "<unknown>" : path));
 					Log.exception(ex);
 				}
 			}
 		} catch (IOException e) {
 			handler.setError(true);
 			cmdEnv.handleResult(new RpcMessage(ClientMessageId.FILE_WRITE_ERROR, MessageSeverityCode.E_FAILED, MessageGenericCode.EV_CLIENT, new String[]{path == null ? "<unknown>" : path, e.getLocalizedMessage()}).toMap());
-			Log.error("failed write for file " + (path == null ? "<unknown>" : path) + "; exception follows...");
+			Log.error(LogCategory.FILE, () -> "failed write for file " + (path == null ? "<unknown>" : path) + "; exception follows...");
 			Log.exception(e);
 		}
 
@@ -1004,7 +1015,7 @@ public class ClientSystemFileCommands {
 						cfile.getTmpStream().flush();
 						cfile.getTmpStream().close();
 					} catch (IOException e) {
-						Log.error("Flushing or closing stream failed in closeFile(); tmp file: " + cfile.getFile().getName());
+						Log.error(LogCategory.FILE, () -> "Flushing or closing stream failed in closeFile(); tmp file: " + cfile.getFile().getName());
 					}
 
 					try {
@@ -1022,7 +1033,7 @@ public class ClientSystemFileCommands {
 					} catch (IOException e) {
 						// Total failure occurred - was unable to rename
 						// or even copy the file to its target.
-						Log.error("Rename/copy failed completely in closeFile(); tmp file: " + cfile.getFile().getName() + "; target file: " + cfile.getFile().getName());
+						Log.error(LogCategory.FILE, () -> "Rename/copy failed completely in closeFile(); tmp file: " + cfile.getFile().getName() + "; target file: " + cfile.getFile().getName());
 						handler.setError(true);
 						cmdEnv.handleResult(new RpcMessage(ClientMessageId.FILE_WRITE_ERROR, MessageSeverityCode.E_FAILED, MessageGenericCode.EV_CLIENT, new String[]{cfile.getFile().getName(), e.getLocalizedMessage()}).toMap());
 
@@ -1034,7 +1045,7 @@ public class ClientSystemFileCommands {
 						try {
 							cfile.getStream().flush();
 						} catch (IOException e) {
-							Log.error("Flushing stream failed in closeFile(); tmp file: " + cfile.getFile().getName());
+							Log.error(LogCategory.FILE, () -> "Flushing stream failed in closeFile(); tmp file: " + cfile.getFile().getName());
 							handler.setError(true);
 							cmdEnv.handleResult(new RpcMessage(ClientMessageId.FILE_WRITE_ERROR, MessageSeverityCode.E_FAILED, MessageGenericCode.EV_CLIENT, new String[]{cfile.getFile().getName(), e.getLocalizedMessage()}).toMap());
 
@@ -1049,7 +1060,7 @@ public class ClientSystemFileCommands {
 						try {
 							cfile.getTmpStream().flush();
 						} catch (IOException e) {
-							Log.error("Flushing stream failed in closeFile(); tmp file: " + cfile.getFile().getName());
+							Log.error(LogCategory.FILE, () -> "Flushing stream failed in closeFile(); tmp file: " + cfile.getFile().getName());
 							handler.setError(true);
 							cmdEnv.handleResult(new RpcMessage(ClientMessageId.FILE_WRITE_ERROR, MessageSeverityCode.E_FAILED, MessageGenericCode.EV_CLIENT, new String[]{cfile.getFile().getName(), e.getLocalizedMessage()}).toMap());
 
@@ -1063,7 +1074,7 @@ public class ClientSystemFileCommands {
 						try {
 							cfile.getStream().flush();
 						} catch (IOException e) {
-							Log.error("Flushing stream failed in closeFile(); target file: " + cfile.getFile().getName());
+							Log.error(LogCategory.FILE, () -> "Flushing stream failed in closeFile(); target file: " + cfile.getFile().getName());
 							handler.setError(true);
 							cmdEnv.handleResult(new RpcMessage(ClientMessageId.FILE_WRITE_ERROR, MessageSeverityCode.E_FAILED, MessageGenericCode.EV_CLIENT, new String[]{cfile.getFile().getName(), e.getLocalizedMessage()}).toMap());
 
@@ -1075,7 +1086,7 @@ public class ClientSystemFileCommands {
 						try {
 							cfile.getStream().close();
 						} catch (IOException e) {
-							Log.warn("target file close error in ClientSystemFileCommands.closeFile(): " + e.getLocalizedMessage());
+							Log.warn(LogCategory.FILE, () -> "target file close error in ClientSystemFileCommands.closeFile(): " + e.getLocalizedMessage());
 							handler.setError(true);
 							cmdEnv.handleResult(new RpcMessage(ClientMessageId.FILE_WRITE_ERROR, MessageSeverityCode.E_FAILED, MessageGenericCode.EV_CLIENT, new String[]{cfile.getFile().getName(), e.getLocalizedMessage()}).toMap());
 
@@ -1107,7 +1118,7 @@ public class ClientSystemFileCommands {
 					try {
 						cfile.getFile().setLastModified(cfile.getModTime() * 1000);
 					} catch (Exception exc) {
-						Log.warn("Unable to set target file modification time: " + exc);
+						Log.warn(LogCategory.FILE, () -> "Unable to set target file modification time: " + exc);
 					}
 				}
 
@@ -1128,24 +1139,32 @@ public class ClientSystemFileCommands {
 					// Set exec bit for Owner, Group and World.
 					fileCommands.setExecutable(cfile.getFile().getPath(), true, false);
 				}
+
+				// The digest of what was written has been checked against the
+				// server's, so reconcile and friends need not read it again.
+				WorkspaceStateIndex workspaceIndex = rpcConnection.getWorkspaceIndex();
+				if (workspaceIndex != null && localDigest != null && serverDigest != null && !cmdEnv.isNonCheckedSyncs()
+						&& !cfile.isSymlink() && cfile.getFile().getFileType() != RpcPerforceFileType.FST_APPLEFILE) {
+					workspaceIndex.record(cfile.getFile(), rpcConnection.getDigestSpec(cfile.getFile().getFileType()), localDigest, -1);
+				}
 			} finally {
 				try {
 					if (cfile.getTmpStream() != null) {
 						cfile.getTmpStream().close();
 					}
 				} catch (IOException ioexc) {
-					Log.warn("tmp file close error in ClientSystemFileCommands.closeFile(): " + ioexc.getLocalizedMessage());
+					Log.warn(LogCategory.FILE, () -> "tmp file close error in ClientSystemFileCommands.closeFile(): " + ioexc.getLocalizedMessage());
 				}
 				try {
 					if (cfile.getStream() != null) {
 						cfile.getStream().close();
 					}
 				} catch (IOException ioexc) {
-					Log.warn("target file close error in ClientSystemFileCommands.closeFile(): " + ioexc.getLocalizedMessage());
+					Log.warn(LogCategory.FILE, () -> "target file close error in ClientSystemFileCommands.closeFile(): " + ioexc.getLocalizedMessage());
 				}
 				if (cfile.getTmpFile() != null) {
 					if (cfile.getTmpFile().exists() && !cfile.getTmpFile().delete()) {
-						Log.warn("Unable to delete tmp file '" + cfile.getTmpFile().getPath() + "' in ClientSystemFileCommands.closeFile() -- unknown cause");
+						Log.warn(LogCategory.FILE, () -> "Unable to delete tmp file '" + cfile.getTmpFile().getPath() + "' in ClientSystemFileCommands.closeFile() -- unknown cause");
 					}
 				}
 			}
@@ -1259,7 +1278,7 @@ public class ClientSystemFileCommands {
 			/// fix on the fly, so report it to the user and the log and don't
 			// ack a confirm back to the server...
 
-			Log.error("Rename failed completely in moveFile (cause unknown); source file: " + clientPath + "; target file: " + targetPath);
+			Log.error(LogCategory.FILE, () -> "Rename failed completely in moveFile (cause unknown); source file: " + clientPath + "; target file: " + targetPath);
 
 			cmdEnv.handleResult(new RpcMessage(ClientMessageId.FILE_MOVE_ERROR, MessageSeverityCode.E_FAILED, MessageGenericCode.EV_CLIENT, new String[]{clientPath, "(cause unknown)"}).toMap());
 		}
@@ -1279,10 +1298,10 @@ public class ClientSystemFileCommands {
 				 *  were symbolic links.
 				 */
 				if (!SymbolicLinkHelper.isSymbolicLink(dir.getAbsolutePath()) && !dir.delete()) {
-					Log.stats("Unable to delete parent directory for delete for file '" + clientPath + "'; (unknown cause)");
+					Log.stats(LogCategory.FILE, () -> "Unable to delete parent directory for delete for file '" + clientPath + "'; (unknown cause)");
 				}
 			} else {
-				Log.warn("Unable to open parent directory for delete for file '" + clientPath + "'; (no parent directory)");
+				Log.warn(LogCategory.FILE, () -> "Unable to open parent directory for delete for file '" + clientPath + "'; (no parent directory)");
 			}
 		}
 
@@ -1409,12 +1428,12 @@ public class ClientSystemFileCommands {
 					 *  were symbolic links.
 					 */
 					if (!SymbolicLinkHelper.isSymbolicLink(dir.getAbsolutePath()) && !dir.delete()) {
-						Log.stats("Unable to delete parent directory for delete for file '" + clientPath + "'; (unknown cause)");
+						Log.stats(LogCategory.FILE, () -> "Unable to delete parent directory for delete for file '" + clientPath + "'; (unknown cause)");
 						// Stop when unable to delete the parent directory
 						break;
 					}
 				} else {
-					Log.warn("Unable to open parent directory for delete for file '" + clientPath + "' (unknown cause)");
+					Log.warn(LogCategory.FILE, () -> "Unable to open parent directory for delete for file '" + clientPath + "' (unknown cause)");
 					// Stop when unable to open the parent directory
 					break;
 				}
@@ -1627,14 +1646,20 @@ public class ClientSystemFileCommands {
 				}
 			}
 
-			// Infer the file type, since it's not given.
+			// Infer the file type, since it's not given; the digested size,
+			// if wanted, comes from the same read of the file.
 			File file = new File(clientPath);
-			fileType = RpcPerforceFileType.inferFileType(file, scan, cmdEnv.getRpcConnection().isUnicodeServer(), cmdEnv.getRpcConnection().getClientCharset());
+			LocalFileScanner.ScanResult scanned = LocalFileScanner.scan(file, scan,
+					cmdEnv.getRpcConnection().isUnicodeServer(), cmdEnv.getRpcConnection().getClientCharset(),
+					sendFileSize != null ? type -> type != RpcPerforceFileType.FST_BINARY ? rpcConnection.getDigestSpec(type) : null : null);
+			fileType = scanned.getFileType();
 			fstSymlink = (fileType == RpcPerforceFileType.FST_SYMLINK);
-			fileSize = String.valueOf(file.length());
+			fileSize = String.valueOf(scanned.getSize());
 
 			if(fileType!=RpcPerforceFileType.FST_BINARY && sendFileSize!=null) {
-				digestResult = rpcConnection.getDigestAndSizeOfFile(fileType, file);
+				digestResult = scanned.isDigested()
+						? new DigestResult(scanned.getDigest(), scanned.getDigestedSize())
+						: rpcConnection.getDigestAndSizeOfFile(fileType, file);
 				fileSize = String.valueOf(digestResult.getFileSize());
 			}
 
@@ -1899,7 +1924,7 @@ public class ClientSystemFileCommands {
 					// Set the new temp RPC output stream to the command env state map
 					cmdEnv.getStateMap().put(RpcServer.RPC_TMP_OUTFILE_STREAM_KEY, outStream);
 				} catch (IOException ioexc) {
-					Log.error("tmp file creation error: " + ioexc.getLocalizedMessage());
+					Log.error(LogCategory.FILE, () -> "tmp file creation error: " + ioexc.getLocalizedMessage());
 					Log.exception(ioexc);
 					throw new ConnectionException("Unable to create temporary file for Perforce file retrieval; " + "reason: " + ioexc.getLocalizedMessage(), ioexc);
 				}
@@ -1938,7 +1963,7 @@ public class ClientSystemFileCommands {
 					// Set the new temp RPC byte buffer output stream to the command env state map
 					cmdEnv.getStateMap().put(RpcServer.RPC_BYTE_BUFFER_OUTPUT_KEY, outStream);
 				} catch (IOException ioexc) {
-					Log.error("byte buffer creation error: " + ioexc.getLocalizedMessage());
+					Log.error(LogCategory.FILE, () -> "byte buffer creation error: " + ioexc.getLocalizedMessage());
 					Log.exception(ioexc);
 					throw new ConnectionException("Unable to create Byte Buffer; " + " reason: " + ioexc.getLocalizedMessage(), ioexc);
 				}
@@ -9,7 +9,6 @@ import com.perforce.p4java.diff.DiffAnalyze;
 import com.perforce.p4java.diff.DiffFlags;
 import com.perforce.p4java.diff.DigestTree;
 import com.perforce.p4java.diff.Sequence;
-import com.perforce.p4java.diff.Snake;
 import com.perforce.p4java.diff.StrStr;
 import com.perforce.p4java.exception.ConnectionException;
 import com.perforce.p4java.exception.MessageGenericCode;
@@ -28,9 +27,11 @@ import com.perforce.p4java.impl.mapbased.rpc.handles.ClientFile;
 import com.perforce.p4java.impl.mapbased.rpc.handles.ReconcileHandle;
 import com.perforce.p4java.impl.mapbased.rpc.msg.RpcMessage;
 import com.perforce.p4java.impl.mapbased.rpc.packet.RpcPacketDispatcher.RpcPacketDispatcherResult;
+import com.perforce.p4java.impl.mapbased.rpc.sys.LocalFileScanner;
 import com.perforce.p4java.impl.mapbased.rpc.sys.RpcPerforceDigestType;
 import com.perforce.p4java.impl.mapbased.rpc.sys.RpcPerforceFile;
 import com.perforce.p4java.impl.mapbased.rpc.sys.RpcPerforceFileType;
+import com.perforce.p4java.impl.mapbased.rpc.sys.WorkspaceStateIndex;
 import com.perforce.p4java.impl.mapbased.rpc.sys.helper.FilePathHelper;
 import com.perforce.p4java.impl.mapbased.rpc.sys.helper.SymbolicLinkHelper;
 import com.perforce.p4java.mapapi.MapFlag;
@@ -189,7 +190,7 @@ public class ClientSystemFileMatchCommands {
 
 				String toFile = cfile.getMatchDict().get(RpcFunctionMapKey.TO_FILE + index);
 				RpcPerforceFileType fileType = RpcPerforceFileType.decodeFromServerString(type);
-				String digestStr = digestFile(new File(toFile), fileType, rpcConnection.getClientCharset());
+				String digestStr = digestFile(new File(toFile), fileType, rpcConnection.getClientCharset(), recHandle);
 				StrStr fileNameDigest = new StrStr(toFile, digestStr);
 				if (fileSet.contains(fileNameDigest))
 					continue;
@@ -375,7 +376,7 @@ public class ClientSystemFileMatchCommands {
 				continue;
 			}
 
-			String localDigest = recHandle.getDigest(matchFile, digestFile(f, fileType, rpcConnection.getClientCharset()));
+			String localDigest = recHandle.getDigest(matchFile, digestFile(f, fileType, rpcConnection.getClientCharset(), recHandle));
 			if (localDigest == null) {
 				continue;
 			}
@@ -736,11 +737,22 @@ public class ClientSystemFileMatchCommands {
 		String fileName = file.getAbsolutePath();
 
 		addFilesMap.add(fileName);
-		sizes.put(fileName, file.length());
 
-		RpcPerforceFileType fileType = RpcPerforceFileType.inferFileType(file, -1,
+		// Type, size and digest from one look at the file; the content is
+		// not read again if the workspace index has a current digest.
+		LocalFileScanner.DigestSpec digestSpec = new LocalFileScanner.DigestSpec(charset, false);
+		WorkspaceStateIndex workspaceIndex = cmdEnv.getRpcConnection().getWorkspaceIndex();
+		WorkspaceStateIndex.Entry indexed = (sendDigest && workspaceIndex != null) ? workspaceIndex.lookup(file, digestSpec) : null;
+		LocalFileScanner.ScanResult scanned = LocalFileScanner.scan(file, -1,
 				cmdEnv.getRpcConnection().isUnicodeServer(),
-				cmdEnv.getRpcConnection().getClientCharset());
+				cmdEnv.getRpcConnection().getClientCharset(),
+				(sendDigest && indexed == null) ? type -> digestSpec : null);
+		if (workspaceIndex != null && scanned.isDigested()) {
+			workspaceIndex.record(file, digestSpec, scanned.getDigest(), scanned.getDigestedSize());
+		}
+		sizes.put(fileName, scanned.getSize());
+
+		RpcPerforceFileType fileType = scanned.getFileType();
 		if (sendType) {
 			int serverXLevel = 0;
 			String serverXLevelStr = (String) cmdEnv.getServerProtocolSpecsMap().get("xfiles");
@@ -760,9 +772,12 @@ public class ClientSystemFileMatchCommands {
 		}
 
 		if (sendDigest) {
-			String digestStr = digestFile(file, fileType, charset);
+			String digestStr = indexed != null ? indexed.getDigest() : scanned.getDigest();
 			if (digestStr != null) {
 				digests.put(fileName, digestStr);
+				if (cmdEnv.getHandler(RECONCILE_HANDLE) != null) {
+					getReconcileHandle(cmdEnv).putScannedDigest(fileName, digestStr);
+				}
 			}
 		}
 	}
@@ -914,6 +929,15 @@ public class ClientSystemFileMatchCommands {
 		}
 	}
 
+	/**
+	 * Digest a file, unless it was already digested while scanning for files
+	 * to add in this command.
+	 */
+	private String digestFile(File file, RpcPerforceFileType fileType, Charset charset, ReconcileHandle recHandle) {
+		String digest = recHandle.getScannedDigest(file.getAbsolutePath());
+		return digest != null ? digest : digestFile(file, fileType, charset);
+	}
+
 	private String digestFile(File file, RpcPerforceFileType fileType, Charset charset) {
 
 		MD5Digester digester = new MD5Digester();
@@ -1317,10 +1341,8 @@ public class ClientSystemFileMatchCommands {
 
 			DiffAnalyze diff = new DiffAnalyze(fromSequence, toFile);
 
-			Snake snakeDiff = diff.GetSnake();
-			while (snakeDiff != null) {
-				same += (snakeDiff.u.get() - snakeDiff.x.get());
-				snakeDiff = snakeDiff.next;
+			for (int i = 0; i < diff.GetSnakeCount(); i++) {
+				same += (diff.GetU(i) - diff.GetX(i));
 			}
 		} catch (Exception e) {
 			// throw new ConnectionException("Exception in DiffMatchFiles : " + e);
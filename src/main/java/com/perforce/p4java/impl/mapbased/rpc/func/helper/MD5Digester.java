@@ -7,6 +7,8 @@ import com.perforce.p4java.CharsetDefs;
 import com.perforce.p4java.Log;
 import com.perforce.p4java.exception.P4JavaError;
 import com.perforce.p4java.impl.generic.client.ClientLineEnding;
+import com.perforce.p4java.impl.mapbased.rpc.jfr.DigestEvent;
+import com.perforce.p4java.impl.mapbased.rpc.jfr.FlightEvents;
 import org.apache.commons.io.ByteOrderMark;
 import org.apache.commons.io.input.BOMInputStream;
 import org.apache.commons.lang3.StringUtils;
@@ -82,6 +84,7 @@ public class MD5Digester {
 	public String digestFileAs32ByteHex(@Nonnull File file) {
 		requireNonNull(file, "Null file passed to MD5Digester.digestFileAs32ByteHex()");
 		if (Files.isReadable(file.toPath())) {
+			DigestEvent event = FlightEvents.beginDigest();
 			try (FileInputStream inStream = new FileInputStream(file)) {
 				reset();
 				byte[] inBytes = new byte[bufferSize];
@@ -94,11 +97,30 @@ public class MD5Digester {
 			} catch (final IOException ioexc) {
 				Log.error("error digesting file: " + file.getPath() + "; exception follows...");
 				Log.exception(ioexc);
+			} finally {
+				commitDigestEvent(event, file);
 			}
 		}
 		return null;
 	}
 
+	/**
+	 * Commit a flight recorder event for digesting the file, if it is
+	 * being recorded.
+	 *
+	 * @param event event begun before digesting the file, from
+	 *              FlightEvents.beginDigest; null if not recorded
+	 * @param file  file
+	 * @since 2025.2
+	 */
+	public void commitDigestEvent(DigestEvent event, @Nonnull File file) {
+		if (event != null && event.shouldCommit()) {
+			event.path = file.getPath();
+			event.bytes = byteCount;
+			event.commit();
+		}
+	}
+
 	public void reset() {
 		messageDigest.reset();
 		byteCount = 0;
@@ -178,23 +200,44 @@ public class MD5Digester {
 
 		requireNonNull(file, "Null file passed to MD5Digester.digestFileAs32ByteHex()");
 		if (Files.isReadable(file.toPath())) {
+			DigestEvent event = FlightEvents.beginDigest();
 			try (FileInputStream inStream = new FileInputStream(file)) {
-				reset();
-				if (nonNull(charset)) {
-					digestEncodedStreamToUtf8(inStream, charset, isRequireLineEndingConvert, clientLineEnding);
-				} else {
-					digestStream(inStream, isRequireLineEndingConvert, clientLineEnding);
-				}
-				return digestAs32ByteHex();
+				return digestStreamAs32ByteHex(inStream, charset, isRequireLineEndingConvert, clientLineEnding);
 			} catch (IOException ioexc) {
 				Log.error("error digesting file: " + file.getPath() + "; exception follows...");
 				Log.exception(ioexc);
+			} finally {
+				commitDigestEvent(event, file);
 			}
 		}
 
 		return null;
 	}
 
+	/**
+	 * Return the results of digesting the rest of a stream of file content
+	 * with this digester, exactly as digestFileAs32ByteHex would digest the
+	 * file. The stream is read to the end, and may be closed on return.
+	 *
+	 * @param inStream                   file content
+	 * @param charset                    charset
+	 * @param isRequireLineEndingConvert isRequireLineEndingConvert
+	 * @param clientLineEnding           clientLineEnding
+	 * @return the computed digest
+	 * @throws IOException if the stream cannot be read
+	 * @since 2025.2
+	 */
+	public String digestStreamAs32ByteHex(@Nonnull InputStream inStream, @Nullable Charset charset, boolean isRequireLineEndingConvert, @Nullable ClientLineEnding clientLineEnding) throws IOException {
+
+		reset();
+		if (nonNull(charset)) {
+			digestEncodedStreamToUtf8(inStream, charset, isRequireLineEndingConvert, clientLineEnding);
+		} else {
+			digestStream(inStream, isRequireLineEndingConvert, clientLineEnding);
+		}
+		return digestAs32ByteHex();
+	}
+
 	private void digestEncodedStreamToUtf8(@Nonnull InputStream inStream, @Nonnull Charset charset, boolean isRequireLineEndingConvert, @Nullable ClientLineEnding clientLineEnding) throws IOException {
 
 		try (BOMInputStream unicodeInputStream = new BOMInputStream(inStream, false, ByteOrderMark.UTF_8, ByteOrderMark.UTF_16LE, ByteOrderMark.UTF_16BE, ByteOrderMark.UTF_32LE, ByteOrderMark.UTF_32BE)) {
@@ -8,9 +8,10 @@ package com.perforce.p4java.impl.mapbased.rpc.func.proto;
  * and reporting. Currently just embryonic... and not ever intended
  * to be precise or exact.
  * 
- *
+ * @deprecated never populated; use an IMetricsRegistry instead.
+ * @see com.perforce.p4java.server.IMetricsRegistry
  */
-
+@Deprecated
 public class PerformanceMonitor {
 
 	/**
@@ -8,12 +8,15 @@ import com.perforce.p4java.exception.NullPointerError;
 import com.perforce.p4java.exception.P4JavaError;
 import com.perforce.p4java.exception.ProtocolError;
 import com.perforce.p4java.impl.mapbased.rpc.CommandEnv;
+import com.perforce.p4java.impl.mapbased.rpc.TraceSpan;
 import com.perforce.p4java.impl.mapbased.rpc.connection.RpcConnection;
+import com.perforce.p4java.impl.mapbased.rpc.func.RpcFunctionMapKey;
 import com.perforce.p4java.impl.mapbased.rpc.func.RpcFunctionSpec;
 import com.perforce.p4java.impl.mapbased.rpc.packet.RpcPacket;
 import com.perforce.p4java.impl.mapbased.rpc.packet.RpcPacketDispatcher;
 import com.perforce.p4java.impl.mapbased.rpc.packet.RpcPacketDispatcher.RpcPacketDispatcherMode;
 import com.perforce.p4java.impl.mapbased.rpc.packet.RpcPacketDispatcher.RpcPacketDispatcherResult;
+import com.perforce.p4java.server.ITraceSpan;
 import com.perforce.p4java.server.callback.IProgressCallback;
 
 import java.util.HashMap;
@@ -82,8 +85,23 @@ public class ProtocolFunctionDispatcher {
 				// Basically all we're supposed to do is send out a corresponding flush2
 				// packet, post haste. This may not always be possible, but we do our best...
 				
-				RpcPacket flush2Packet = rpcConnection.getFlowController().respondToFlush1(resultsMap);
-				rpcConnection.putRpcPacket(flush2Packet);
+				TraceSpan flushSpan = TraceSpan.startChild(cmdEnv.getTraceSpan(), ITraceSpan.Kind.FLUSH, "flush");
+				try {
+					if (flushSpan != null) {
+						flushSpan.setAttribute(ITraceSpan.ATTR_FLUSH_SEQ, parseFlushValue(resultsMap.get(RpcFunctionMapKey.FLUSH_SEQ)))
+								.setAttribute(ITraceSpan.ATTR_FLUSH_HIMARK, parseFlushValue(resultsMap.get(RpcFunctionMapKey.FLUSH_HWM)))
+								.trackBytes(rpcConnection);
+					}
+					RpcPacket flush2Packet = rpcConnection.getFlowController().respondToFlush1(resultsMap);
+					rpcConnection.putRpcPacket(flush2Packet);
+					if (flushSpan != null) {
+						flushSpan.completed();
+					}
+				} finally {
+					if (flushSpan != null) {
+						flushSpan.end();
+					}
+				}
 				result = RpcPacketDispatcherResult.CONTINUE;
 				
 				break;
@@ -162,4 +180,19 @@ public class ProtocolFunctionDispatcher {
 		
 		rpcConnection.putRpcPacket(flush2Packet);
 	}
+
+	/**
+	 * Parse a flush sequence number or mark for tracing; null if absent or
+	 * malformed.
+	 */
+	private static Long parseFlushValue(Object value) {
+		if (value instanceof String) {
+			try {
+				return Long.valueOf((String) value);
+			} catch (NumberFormatException nfe) {
+				return null;
+			}
+		}
+		return null;
+	}
 }
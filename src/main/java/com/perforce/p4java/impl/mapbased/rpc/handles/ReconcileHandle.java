@@ -1,8 +1,10 @@
 package com.perforce.p4java.impl.mapbased.rpc.handles;
 
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import com.perforce.p4java.diff.DigestTree;
@@ -13,6 +15,7 @@ public class ReconcileHandle extends AbstractHandle {
 
     private static final String RECONCILE_HANDLER_SKIP_ADD_KEY = "skipAdd";
     private static final String RECONCILE_DEL_COUNT_KEY = "delCount";
+    private static final String RECONCILE_SCANNED_DIGESTS_KEY = "scannedDigests";
     private final Set<Integer> matchedIndex = new HashSet<>();
     private final DigestTree digestTree = new DigestTree();
 
@@ -51,6 +54,35 @@ public class ReconcileHandle extends AbstractHandle {
         return 0;
     }
 
+    /**
+     * Remember the digest computed for a local file while scanning for
+     * files to add, so that matching it against deleted files later in the
+     * same command does not read it again.
+     *
+     * @param fileName local file path
+     * @param digest   the file's digest
+     * @since 2025.2
+     */
+    @SuppressWarnings("unchecked")
+    public void putScannedDigest(String fileName, String digest) {
+        if (fileName != null && digest != null) {
+            ((Map<String, String>) rpcHandler.getMap()
+                    .computeIfAbsent(RECONCILE_SCANNED_DIGESTS_KEY, k -> new HashMap<String, String>()))
+                    .put(fileName, digest);
+        }
+    }
+
+    /**
+     * @param fileName local file path
+     * @return the digest remembered for the file, or null
+     * @since 2025.2
+     */
+    @SuppressWarnings("unchecked")
+    public String getScannedDigest(String fileName) {
+        Map<String, String> digests = (Map<String, String>) rpcHandler.getMap().get(RECONCILE_SCANNED_DIGESTS_KEY);
+        return digests == null ? null : digests.get(fileName);
+    }
+
     public void setMatch(int i) {
         this.matchedIndex.add(i);
     }
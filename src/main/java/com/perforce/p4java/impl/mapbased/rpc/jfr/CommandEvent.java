@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.impl.mapbased.rpc.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for one command, from sending it until the
+ * server's release; the connect time is not included.
+ *
+ * @since 2025.2
+ */
+@Name("com.perforce.p4java.Command")
+@Label("P4Java Command")
+@Category("P4Java")
+@Description("A command run against the Perforce server")
+public class CommandEvent extends jdk.jfr.Event {
+
+	@Label("Command")
+	public String command;
+
+	@Label("Results")
+	public int results;
+
+	@Label("Server Errors")
+	public int serverErrors;
+
+	@Label("Bytes Sent")
+	@DataAmount
+	public long bytesSent;
+
+	@Label("Bytes Received")
+	@DataAmount
+	public long bytesReceived;
+}
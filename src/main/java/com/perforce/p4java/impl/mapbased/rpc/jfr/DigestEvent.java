@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.impl.mapbased.rpc.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event for computing the MD5 digest of a local file.
+ *
+ * @since 2025.2
+ */
+@Name("com.perforce.p4java.Digest")
+@Label("P4Java Digest")
+@Category("P4Java")
+@Description("MD5 digest of a local file")
+@Threshold("1 ms")
+public class DigestEvent extends jdk.jfr.Event {
+
+	@Label("Path")
+	public String path;
+
+	@Label("Bytes")
+	@Description("Bytes digested, after any charset and line ending conversion")
+	@DataAmount
+	public long bytes;
+}
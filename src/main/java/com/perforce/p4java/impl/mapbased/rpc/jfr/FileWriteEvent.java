@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.impl.mapbased.rpc.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event for writing a block of file content sent by the
+ * server to a local file.
+ *
+ * @since 2025.2
+ */
+@Name("com.perforce.p4java.FileWrite")
+@Label("P4Java File Write")
+@Category("P4Java")
+@Description("File content from the Perforce server written to a local file")
+@Threshold("1 ms")
+public class FileWriteEvent extends jdk.jfr.Event {
+
+	@Label("Path")
+	public String path;
+
+	@Label("Bytes")
+	@DataAmount
+	public long bytes;
+}
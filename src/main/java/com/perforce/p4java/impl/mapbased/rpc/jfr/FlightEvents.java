@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.impl.mapbased.rpc.jfr;
+
+import com.perforce.p4java.Log;
+
+/**
+ * Begins P4Java's flight recorder events, so that nothing else refers to
+ * the event classes directly.
+ * <p>
+ * Whether the flight recorder is there is checked once, the first time an
+ * event is begun; on a runtime without the jdk.jfr module, or where the
+ * flight recorder is not available, the event classes are never loaded and
+ * every begin method returns null. They also return null while the event
+ * is not being recorded, so callers need only check for null before
+ * gathering anything for the event.
+ *
+ * @since 2025.2
+ */
+public final class FlightEvents {
+
+	private static final class Availability {
+		private static final boolean AVAILABLE = checkAvailable();
+	}
+
+	private FlightEvents() {
+	}
+
+	/**
+	 * @return true if the flight recorder is there to record events
+	 */
+	public static boolean isAvailable() {
+		return Availability.AVAILABLE;
+	}
+
+	/**
+	 * @return a begun command event, or null if not recorded
+	 */
+	public static CommandEvent beginCommand() {
+		if (!isAvailable()) {
+			return null;
+		}
+		CommandEvent event = new CommandEvent();
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * @return a begun digest event, or null if not recorded
+	 */
+	public static DigestEvent beginDigest() {
+		if (!isAvailable()) {
+			return null;
+		}
+		DigestEvent event = new DigestEvent();
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * @return a begun file write event, or null if not recorded
+	 */
+	public static FileWriteEvent beginFileWrite() {
+		if (!isAvailable()) {
+			return null;
+		}
+		FileWriteEvent event = new FileWriteEvent();
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * @return a begun packet receive event, or null if not recorded
+	 */
+	public static PacketReceiveEvent beginPacketReceive() {
+		if (!isAvailable()) {
+			return null;
+		}
+		PacketReceiveEvent event = new PacketReceiveEvent();
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * @return a begun packet send event, or null if not recorded
+	 */
+	public static PacketSendEvent beginPacketSend() {
+		if (!isAvailable()) {
+			return null;
+		}
+		PacketSendEvent event = new PacketSendEvent();
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * @return a begun pool checkout event, or null if not recorded
+	 */
+	public static PoolCheckoutEvent beginPoolCheckout() {
+		if (!isAvailable()) {
+			return null;
+		}
+		PoolCheckoutEvent event = new PoolCheckoutEvent();
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.begin();
+		return event;
+	}
+
+	private static boolean checkAvailable() {
+		try {
+			Class.forName("jdk.jfr.FlightRecorder", false, FlightEvents.class.getClassLoader());
+			return jdk.jfr.FlightRecorder.isAvailable();
+		} catch (ClassNotFoundException | LinkageError | SecurityException e) {
+			Log.info("Flight recorder not available; P4Java events will not be recorded");
+			return false;
+		}
+	}
+}
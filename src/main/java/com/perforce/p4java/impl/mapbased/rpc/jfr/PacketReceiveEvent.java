@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.impl.mapbased.rpc.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for waiting for and reading one RPC packet from
+ * the server. Disabled by default as there can be very many of them.
+ *
+ * @since 2025.2
+ */
+@Name("com.perforce.p4java.PacketReceive")
+@Label("P4Java Packet Receive")
+@Category("P4Java")
+@Description("An RPC packet read from the Perforce server")
+@Enabled(false)
+public class PacketReceiveEvent extends jdk.jfr.Event {
+
+	@Label("Function")
+	public String function;
+
+	@Label("Bytes")
+	@DataAmount
+	public long bytes;
+}
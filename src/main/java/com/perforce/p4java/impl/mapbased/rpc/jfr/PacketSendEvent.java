@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.impl.mapbased.rpc.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for writing one RPC packet to the server. Disabled
+ * by default as there can be very many of them.
+ *
+ * @since 2025.2
+ */
+@Name("com.perforce.p4java.PacketSend")
+@Label("P4Java Packet Send")
+@Category("P4Java")
+@Description("An RPC packet written to the Perforce server")
+@Enabled(false)
+public class PacketSendEvent extends jdk.jfr.Event {
+
+	@Label("Bytes")
+	@DataAmount
+	public long bytes;
+
+	@Label("Compressed Bytes")
+	@Description("Bytes after connection compression; 0 if the connection is not compressed")
+	@DataAmount
+	public long compressedBytes;
+
+	@Label("Compression Ratio")
+	@Description("Compressed bytes divided by bytes; 0 if the connection is not compressed")
+	public double compressionRatio;
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.impl.mapbased.rpc.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for getting a socket from a socket pool, including
+ * connecting a new socket if no pooled one could be used.
+ *
+ * @since 2025.2
+ */
+@Name("com.perforce.p4java.PoolCheckout")
+@Label("P4Java Pool Checkout")
+@Category("P4Java")
+@Description("A socket taken from the socket pool")
+public class PoolCheckoutEvent extends jdk.jfr.Event {
+
+	@Label("Host")
+	public String host;
+
+	@Label("Port")
+	public int port;
+
+	@Label("Reused")
+	@Description("Whether a pooled socket was reused rather than a new one connected")
+	public boolean reused;
+}
@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.impl.mapbased.rpc.msg;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A server message format string (the fmtX value of a message) compiled
+ * once for repeated rendering against message argument maps.
+ * <p>
+ * Rendering follows RpcMessage.interpolateArgs exactly, in two passes: first
+ * each "[...]" group is resolved against the arguments (an optional part is
+ * kept if any of its %var% arguments is non-empty; an "[a|b]" alternate picks
+ * the side with the %var% arguments if any of them is non-empty, the other
+ * side otherwise), then the %var% references in the result are replaced by
+ * their values, or left alone if there is no value. %'text'% is replaced by
+ * the literal text.
+ * <p>
+ * Servers send the same few hundred format strings over and over, so
+ * compiled templates are cached by format string, as are the second pass
+ * forms for each resolution of a template's groups.
+ *
+ * @since 2025.2
+ */
+public final class MessageTemplate {
+
+	// Format strings are not normally unbounded, but arbitrary strings may be
+	// passed in by callers; beyond this, templates are compiled but not kept.
+	private static final int MAX_TEMPLATES = 4096;
+	private static final int MAX_RESOLUTIONS = 64;
+
+	private static final ConcurrentMap<String, MessageTemplate> templates = new ConcurrentHashMap<>();
+
+	private final String fmtStr;
+
+	// Literal strings and groups; null if the format has no groups.
+	private final Object[] groupParts;
+
+	// The second pass form when the first pass result does not vary.
+	private final Substitution fixed;
+	private final ConcurrentMap<String, Substitution> resolutions;
+
+	/**
+	 * Get the compiled template for a format string.
+	 *
+	 * @param fmtStr non-null format string
+	 * @return the compiled template
+	 */
+	public static MessageTemplate get(final String fmtStr) {
+		MessageTemplate template = templates.get(fmtStr);
+		if (template == null) {
+			template = new MessageTemplate(fmtStr);
+			if (templates.size() < MAX_TEMPLATES) {
+				MessageTemplate existing = templates.putIfAbsent(fmtStr, template);
+				if (existing != null) {
+					template = existing;
+				}
+			}
+		}
+		return template;
+	}
+
+	private MessageTemplate(final String fmtStr) {
+		this.fmtStr = fmtStr;
+		Object[] parts = compileGroups(fmtStr);
+		boolean dynamic = false;
+		for (Object part : parts) {
+			dynamic |= part instanceof Group;
+		}
+		if (dynamic) {
+			this.groupParts = parts;
+			this.fixed = null;
+			this.resolutions = new ConcurrentHashMap<>();
+		} else {
+			StringBuilder resolved = new StringBuilder(fmtStr.length());
+			for (Object part : parts) {
+				resolved.append((String) part);
+			}
+			this.groupParts = null;
+			this.fixed = new Substitution(resolved.toString());
+			this.resolutions = null;
+		}
+	}
+
+	/**
+	 * @return the format string this template was compiled from
+	 */
+	public String getFormat() {
+		return fmtStr;
+	}
+
+	/**
+	 * Render the message for the given arguments.
+	 *
+	 * @param map message arguments, keyed by name
+	 * @return the rendered message
+	 */
+	public String render(final Map<String, Object> map) {
+		return resolve(map).render(map);
+	}
+
+	/**
+	 * Check whether the message rendered for the given arguments is sure to
+	 * contain more than white space, without rendering it.
+	 *
+	 * @param map message arguments, keyed by name
+	 * @return true if the rendered message is known not to be blank
+	 */
+	public boolean hasText(final Map<String, Object> map) {
+		return resolve(map).hasText;
+	}
+
+	private Substitution resolve(final Map<String, Object> map) {
+		if (fixed != null) {
+			return fixed;
+		}
+		StringBuilder resolved = new StringBuilder(fmtStr.length());
+		for (Object part : groupParts) {
+			if (part instanceof Group) {
+				resolved.append(((Group) part).resolve(map));
+			} else {
+				resolved.append((String) part);
+			}
+		}
+		String key = resolved.toString();
+		Substitution substitution = resolutions.get(key);
+		if (substitution == null) {
+			substitution = new Substitution(key);
+			if (resolutions.size() < MAX_RESOLUTIONS) {
+				resolutions.putIfAbsent(key, substitution);
+			}
+		}
+		return substitution;
+	}
+
+	/**
+	 * Split the format string into literal text and "[...]" groups. A group
+	 * is a '[' followed by anything but '[', '^' or ']', then a ']'; groups
+	 * whose resolution cannot depend on the arguments are folded into the
+	 * literal text.
+	 */
+	private static Object[] compileGroups(final String fmtStr) {
+		List<Object> parts = new ArrayList<>();
+		StringBuilder literal = new StringBuilder();
+		int length = fmtStr.length();
+		int i = 0;
+		int start = 0;
+		while (start < length) {
+			int open = fmtStr.indexOf('[', start);
+			if (open < 0) {
+				break;
+			}
+			int close = open + 1;
+			while (close < length && "[^]".indexOf(fmtStr.charAt(close)) < 0) {
+				close++;
+			}
+			if (close >= length || fmtStr.charAt(close) != ']') {
+				start = open + 1;
+				continue;
+			}
+
+			literal.append(fmtStr, i, open);
+			Object group = compileGroup(fmtStr.substring(open + 1, close));
+			if (group instanceof String) {
+				literal.append((String) group);
+			} else {
+				if (literal.length() > 0) {
+					parts.add(literal.toString());
+					literal.setLength(0);
+				}
+				parts.add(group);
+			}
+			i = close + 1;
+			start = i;
+		}
+		literal.append(fmtStr, i, length);
+		if (literal.length() > 0 || parts.isEmpty()) {
+			parts.add(literal.toString());
+		}
+		return parts.toArray();
+	}
+
+	/**
+	 * @return the group's fixed text, or a Group if it depends on the arguments
+	 */
+	private static Object compileGroup(final String inner) {
+		if (inner.contains("|")) {
+			String[] split = inner.split("\\|");
+			if (split.length != 2) {
+				return "";
+			}
+			int side;
+			if (split[0].contains("%")) {
+				side = 0;
+			} else if (split[1].contains("%")) {
+				side = 1;
+			} else {
+				return "[" + inner + "]";
+			}
+			return Group.of(split[side], split[side], split[1 - side]);
+		}
+		if (!inner.contains("%")) {
+			return "[" + inner + "]";
+		}
+		return Group.of(inner, inner, "");
+	}
+
+	/**
+	 * A "[...]" group: resolves to one text if any argument it depends on is
+	 * non-empty, to another otherwise.
+	 */
+	private static final class Group {
+		private final String[] names;
+		private final String ifSet;
+		private final String ifUnset;
+
+		/**
+		 * @return the group, or its fixed text if the check cannot fail
+		 */
+		private static Object of(final String checked, final String ifSet, final String ifUnset) {
+			List<String> names = new ArrayList<>();
+			int i = 0;
+			while (true) {
+				int open = checked.indexOf('%', i);
+				int close = open < 0 ? -1 : checked.indexOf('%', open + 1);
+				if (close < 0) {
+					break;
+				}
+				String match = checked.substring(open, close + 1);
+				if (isUniquote(match)) {
+					return ifSet;
+				}
+				names.add(match.substring(1, match.length() - 1));
+				i = close + 1;
+			}
+			if (names.isEmpty()) {
+				return ifUnset;
+			}
+			return new Group(names.toArray(new String[0]), ifSet, ifUnset);
+		}
+
+		private Group(final String[] names, final String ifSet, final String ifUnset) {
+			this.names = names;
+			this.ifSet = ifSet;
+			this.ifUnset = ifUnset;
+		}
+
+		private String resolve(final Map<String, Object> map) {
+			if (map != null) {
+				for (String name : names) {
+					String value = (String) map.get(name);
+					if (value != null && value.length() > 0) {
+						return ifSet;
+					}
+				}
+			}
+			return ifUnset;
+		}
+	}
+
+	/**
+	 * The second pass: literal text and %var% references.
+	 */
+	private static final class Substitution {
+		// Literal strings, and Var references.
+		private final Object[] parts;
+		private final int literalLength;
+		private final boolean hasText;
+
+		private Substitution(final String resolved) {
+			List<Object> list = new ArrayList<>();
+			StringBuilder literal = new StringBuilder();
+			int i = 0;
+			while (true) {
+				int open = resolved.indexOf('%', i);
+				int close = open < 0 ? -1 : resolved.indexOf('%', open + 1);
+				if (close < 0) {
+					break;
+				}
+				literal.append(resolved, i, open);
+				String match = resolved.substring(open, close + 1);
+				if (isUniquote(match)) {
+					literal.append(match, 2, match.length() - 2);
+				} else {
+					if (literal.length() > 0) {
+						list.add(literal.toString());
+						literal.setLength(0);
+					}
+					list.add(new Var(match));
+				}
+				i = close + 1;
+			}
+			literal.append(resolved, i, resolved.length());
+			if (literal.length() > 0) {
+				list.add(literal.toString());
+			}
+
+			int length = 0;
+			boolean text = false;
+			for (Object part : list) {
+				if (part instanceof String) {
+					String str = (String) part;
+					length += str.length();
+					for (int j = 0; !text && j < str.length(); j++) {
+						text = !Character.isWhitespace(str.charAt(j));
+					}
+				}
+			}
+			this.parts = list.toArray();
+			this.literalLength = length;
+			this.hasText = text;
+		}
+
+		private String render(final Map<String, Object> map) {
+			if (parts.length == 1 && parts[0] instanceof String) {
+				return (String) parts[0];
+			}
+			StringBuilder out = new StringBuilder(literalLength + 16 * parts.length);
+			for (Object part : parts) {
+				if (part instanceof Var) {
+					Var var = (Var) part;
+					String value = map == null ? null : (String) map.get(var.name);
+					out.append(value != null ? value : var.match);
+				} else {
+					out.append((String) part);
+				}
+			}
+			return out.toString();
+		}
+	}
+
+	/**
+	 * A %var% reference; left as is if the argument has no value.
+	 */
+	private static final class Var {
+		private final String match;
+		private final String name;
+
+		private Var(final String match) {
+			this.match = match;
+			this.name = match.substring(1, match.length() - 1);
+		}
+	}
+
+	/**
+	 * Non-translated literals look like %'value'%; the %' and '% are just
+	 * removed.
+	 */
+	static boolean isUniquote(final String str) {
+		return str != null && str.length() >= 4 && str.charAt(1) == '\'' && str.charAt(str.length() - 2) == '\'';
+	}
+}
@@ -14,8 +14,6 @@ import com.perforce.p4java.impl.mapbased.rpc.func.client.ClientMessage.ClientMes
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 
 /**
@@ -70,17 +68,6 @@ public class RpcMessage {
 	private String[] argNameStrs = null;
 	private String[] argStrs = null;
 
-	// Pattern matching defs for error / info (etc.) message parsing:
-
-	private static final String ALT_PATTERN = "\\[[^\\[^\\]]*\\]";
-	private static final String PC_PATTERN = "%[^%]*%";
-	private static final String SPLIT_PATTERN = "\\|";
-	private static final String SPLIT_MARKER = "|";
-	private static final String PC_MARKER = "%";
-
-	private static Pattern altPat = Pattern.compile(ALT_PATTERN);
-	private static Pattern pcPat = Pattern.compile(PC_PATTERN);
-
 	/**
 	 * Try to fill in the %...% bits in a typical server text message. Example:
 	 * <pre>
@@ -97,9 +84,7 @@ public class RpcMessage {
 	 * Typically used in this implementation for error messages coming back from
 	 * the server, but can have broader uses with untagged server output in general.
 	 * <p>
-	 * FIXME: this is a rather ad-hoc and not particularly efficient algorithm,
-	 * which will be replaced by a better implementation when I get more experience
-	 * with relative efficiencies, etc. -- (HR).
+	 * Format strings are compiled once and cached; see MessageTemplate.
 	 * <p>
 	 * FIXME: provide a version that works with multiple format strings -- HR.
 	 *
@@ -110,7 +95,7 @@ public class RpcMessage {
 	public static String interpolateArgs(String fmtStr, Map<String, Object> map) {
 
 		if ((fmtStr != null) && (map != null) && (fmtStr.contains("%") || fmtStr.contains("|"))) {
-			return doParse(fmtStr, map);
+			return MessageTemplate.get(fmtStr).render(map);
 		}
 
 		return fmtStr;
@@ -337,133 +322,4 @@ public class RpcMessage {
 	public void setArgNameStrs(String[] argNameStrs) {
 		this.argNameStrs = argNameStrs;
 	}
-
-	private static String doParse(String fmtStr, Map<String, Object> argMap) {
-
-		// Note also that a format string containing "[" ... "]" pairs is
-		// (usually, as far as I can tell) a simple alternate message element
-		// keyed on the existence of the contained args; this complicates things
-		// a little but is crucial for correct string interpretation.
-
-		StringBuilder strBuf = new StringBuilder();
-		StringBuilder outBuf = new StringBuilder();
-
-		Matcher altMatcher = altPat.matcher(fmtStr);
-		int i = 0;
-		while (altMatcher.find()) {
-			String match = altMatcher.group();
-
-			strBuf.append(fmtStr.subSequence(i, altMatcher.start()));
-
-			String matchStr = (String) match.subSequence(1, match.length() - 1);
-
-			if (matchStr.contains(SPLIT_MARKER)) {
-
-				String[] splitMatch = matchStr.split(SPLIT_PATTERN);
-				if ((splitMatch.length == 2) && (splitMatch[0] != null) && (splitMatch[1] != null)) {
-					// Only one of these should contain % match markers...
-
-					int useIndx = -1;
-
-					if (splitMatch[0].contains(PC_MARKER)) {
-						if (containsValueMatches(splitMatch[0], argMap)) {
-							useIndx = 0;
-						} else {
-							useIndx = 1;
-						}
-					} else if (splitMatch[1].contains(PC_MARKER)) {
-						if (containsValueMatches(splitMatch[1], argMap)) {
-							useIndx = 1;
-						} else {
-							useIndx = 0;
-						}
-					}
-
-					if ((useIndx < 0) || (useIndx > 1)) {
-						strBuf.append("[").append(matchStr).append("]");
-					} else {
-						strBuf.append(splitMatch[useIndx]);
-					}
-				}
-			} else {
-				if (containsValueMatches(matchStr, argMap)) {
-					strBuf.append(matchStr);
-				} else if (!matchStr.contains(PC_MARKER)) {
-					strBuf.append("[").append(matchStr).append("]");
-				}
-			}
-			i = altMatcher.start();
-			i += (match.length());
-		}
-
-		if (i == 0) {
-			strBuf.append(fmtStr);
-		} else {
-			if (i < fmtStr.length()) {
-				strBuf.append(fmtStr.subSequence(i, fmtStr.length()));
-			}
-		}
-
-		Matcher pcMatcher = pcPat.matcher(strBuf);
-
-		int j = 0;
-		while (pcMatcher.find()) {
-			String match = pcMatcher.group();
-			String repl = null;
-
-			outBuf.append(strBuf.subSequence(j, pcMatcher.start()));
-			if (isUniquote(match)) {
-				repl = match.substring(2, match.length() - 2);
-			} else {
-				repl = (String) argMap.get(match.subSequence(1, match.length() - 1));
-			}
-
-			if (repl != null) {
-				outBuf.append(repl);
-			} else {
-				outBuf.append(match);
-			}
-
-			j = pcMatcher.start();
-			j += match.length();
-		}
-
-		if (j == 0) {
-			outBuf.append(strBuf);
-		} else {
-			if (j < strBuf.length()) {
-				outBuf.append(strBuf.subSequence(j, strBuf.length()));
-			}
-		}
-
-		return outBuf.toString();
-	}
-
-	private static boolean containsValueMatches(String str, Map<String, Object> map) {
-
-		if ((str != null) && (map != null)) {
-			Pattern pcPat = Pattern.compile(PC_PATTERN);
-			Matcher pcMatcher = pcPat.matcher(str);
-
-			while (pcMatcher.find()) {
-				String pcMatch = pcMatcher.group();
-				if (isUniquote(pcMatch)) {
-					return true;
-				}
-
-				String repl = (String) map.get(pcMatch.subSequence(1, pcMatch.length() - 1));
-
-				if (repl != null && repl.length() > 0) {
-					return true;
-				}
-			}
-		}
-		return false;
-	}
-
-	private static boolean isUniquote(String str) {
-		// Handle non-translated literals.
-		// These look like %'value'% and the %' and '% should just be removed
-		return str != null && str.length() >= 4 && str.charAt(1) == '\'' && str.charAt(str.length() - 2) == '\'';
-	}
 }
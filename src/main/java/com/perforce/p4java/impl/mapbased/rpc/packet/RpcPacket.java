@@ -12,6 +12,7 @@ import com.perforce.p4java.impl.mapbased.rpc.func.RpcFunctionMapKey;
 import com.perforce.p4java.impl.mapbased.rpc.func.RpcFunctionSpec;
 import com.perforce.p4java.impl.mapbased.rpc.packet.helper.RpcPacketFieldRule;
 import com.perforce.p4java.server.callback.IFilterCallback;
+import com.perforce.p4java.server.callback.ILogCallback.LogCategory;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
@@ -341,7 +342,7 @@ public class RpcPacket {
 		} catch (ProtocolError pe) {
 			throw pe;
 		} catch (Throwable thr) {
-			Log.error("Unexpected exception: " + thr.getLocalizedMessage());
+			Log.error(LogCategory.PACKET, () -> "Unexpected exception: " + thr.getLocalizedMessage());
 			Log.exception(thr);
 			throw new ProtocolError(thr.getLocalizedMessage(), thr);
 		}
@@ -7,17 +7,27 @@ import com.perforce.p4java.Log;
 import com.perforce.p4java.exception.AccessException;
 import com.perforce.p4java.exception.ConnectionException;
 import com.perforce.p4java.exception.ConnectionNotConnectedException;
+import com.perforce.p4java.exception.MessageSeverityCode;
 import com.perforce.p4java.exception.NullPointerError;
 import com.perforce.p4java.exception.ProtocolError;
 import com.perforce.p4java.exception.UnimplementedError;
 import com.perforce.p4java.impl.mapbased.rpc.CommandEnv;
+import com.perforce.p4java.impl.mapbased.rpc.CommandMetrics;
 import com.perforce.p4java.impl.mapbased.rpc.RpcServer;
+import com.perforce.p4java.impl.mapbased.rpc.TraceSpan;
 import com.perforce.p4java.impl.mapbased.rpc.connection.RpcConnection;
+import com.perforce.p4java.impl.mapbased.rpc.func.RpcFunctionMapKey;
 import com.perforce.p4java.impl.mapbased.rpc.func.RpcFunctionSpec;
 import com.perforce.p4java.impl.mapbased.rpc.func.client.ClientFunctionDispatcher;
 import com.perforce.p4java.impl.mapbased.rpc.func.proto.FlowControl;
 import com.perforce.p4java.impl.mapbased.rpc.func.proto.ProtocolFunctionDispatcher;
+import com.perforce.p4java.impl.mapbased.rpc.jfr.CommandEvent;
+import com.perforce.p4java.impl.mapbased.rpc.jfr.FlightEvents;
+import com.perforce.p4java.impl.mapbased.rpc.msg.RpcMessage;
+import com.perforce.p4java.server.ITraceSpan;
+import com.perforce.p4java.server.callback.ILogCallback.LogCategory;
 
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -120,6 +130,10 @@ public class RpcPacketDispatcher {
 		List<Map<String, Object>> resultMaps = new CopyOnWriteArrayList<>(new LinkedList<Map<String, Object>>());
 		cmdEnv.setResultMaps(resultMaps);
 
+		CommandEvent event = FlightEvents.beginCommand();
+		long bytesSentBase = event != null ? rpcConnection.getBytesSent() : 0;
+		long bytesReceivedBase = event != null ? rpcConnection.getBytesReceived() : 0;
+
 		try {
 			RpcPacketDispatcherMode dispatchMode = RpcPacketDispatcherMode.PRIMAL;
 			RpcPacket packet = null;
@@ -160,7 +174,14 @@ public class RpcPacketDispatcher {
 				switch (func.getType()) {
 
 					case CLIENT:
-						switch (clientDispatcher.dispatch(dispatchMode, func, cmdEnv, paramMap)) {
+						RpcPacketDispatcherResult clientResult;
+						TraceSpan funcSpan = TraceSpan.startChild(cmdEnv.getTraceSpan(), ITraceSpan.Kind.FUNCTION, funcNameStr);
+						if (funcSpan == null) {
+							clientResult = clientDispatcher.dispatch(dispatchMode, func, cmdEnv, paramMap);
+						} else {
+							clientResult = dispatchTraced(funcSpan, packet, dispatchMode, func, cmdEnv, paramMap);
+						}
+						switch (clientResult) {
 							case CONTINUE:
 								break;
 							case CONTINUE_LOOP:
@@ -212,9 +233,53 @@ public class RpcPacketDispatcher {
 		} catch (ConnectionNotConnectedException cnce) {
 			throw cnce;
 		} catch (Throwable thr) {
-			Log.error("Unexpected exception: " + thr.getLocalizedMessage());
+			Log.error(LogCategory.PACKET, () -> "Unexpected exception: " + thr.getLocalizedMessage());
 			Log.exception(thr);
 			throw new ConnectionException(thr.getLocalizedMessage(), thr);
+		} finally {
+			if (event != null && event.shouldCommit()) {
+				event.command = cmdEnv.getCmdSpec() == null ? null : cmdEnv.getCmdSpec().getCmdName();
+				event.results = resultMaps.size();
+				event.serverErrors = CommandMetrics.countServerErrors(resultMaps);
+				event.bytesSent = rpcConnection.getBytesSent() - bytesSentBase;
+				event.bytesReceived = rpcConnection.getBytesReceived() - bytesReceivedBase;
+				event.commit();
+			}
+		}
+	}
+
+	/**
+	 * Dispatch a client function within its trace span, reporting server
+	 * warning and error messages as events on the command's span.
+	 */
+	private RpcPacketDispatcherResult dispatchTraced(TraceSpan span, RpcPacket packet, RpcPacketDispatcherMode dispatchMode, RpcFunctionSpec func, CommandEnv cmdEnv, Map<String, Object> paramMap) throws ConnectionException {
+		span.setAttribute(ITraceSpan.ATTR_FUNCTION, span.getName());
+		Object path = paramMap.get(RpcFunctionMapKey.PATH);
+		if (path instanceof String) {
+			span.setAttribute(ITraceSpan.ATTR_PATH, path);
+		}
+		span.trackBytes(cmdEnv.getRpcConnection(), RpcPacketPreamble.RPC_PREAMBLE_SIZE + packet.getPacketLength());
+
+		if (func == RpcFunctionSpec.CLIENT_MESSAGE) {
+			Object code = paramMap.get(RpcMessage.CODE + "0");
+			if (code instanceof String) {
+				int severity = RpcMessage.getSeverity((String) code);
+				if (severity >= MessageSeverityCode.E_WARN) {
+					Map<String, Object> attributes = new HashMap<>();
+					attributes.put("code", code);
+					attributes.put("severity", severity);
+					attributes.put("generic", RpcMessage.getGeneric((String) code));
+					cmdEnv.getTraceSpan().event("serverMessage", attributes);
+				}
+			}
+		}
+
+		try {
+			RpcPacketDispatcherResult result = clientDispatcher.dispatch(dispatchMode, func, cmdEnv, paramMap);
+			span.completed();
+			return result;
+		} finally {
+			span.end();
 		}
 	}
 
@@ -231,7 +296,7 @@ public class RpcPacketDispatcher {
 			try {
 				this.protocolDispatcher.sendRelease2(rpcConnection);
 			} catch (Exception exc) {
-				Log.warn("Unexpected exception in RPC packet dispatch shutdown: " + exc.getLocalizedMessage());
+				Log.warn(LogCategory.PACKET, () -> "Unexpected exception in RPC packet dispatch shutdown: " + exc.getLocalizedMessage());
 				Log.exception(exc);
 			}
 		}
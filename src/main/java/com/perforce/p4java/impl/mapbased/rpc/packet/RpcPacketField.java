@@ -10,6 +10,7 @@ import com.perforce.p4java.exception.P4JavaError;
 import com.perforce.p4java.exception.ProtocolError;
 import com.perforce.p4java.impl.mapbased.rpc.connection.RpcConnection;
 import com.perforce.p4java.impl.mapbased.rpc.packet.helper.RpcPacketFieldRule;
+import com.perforce.p4java.server.callback.ILogCallback.LogCategory;
 
 import java.io.UnsupportedEncodingException;
 import java.nio.BufferOverflowException;
@@ -286,7 +287,7 @@ public class RpcPacketField {
 			// Should be buffer overflow errors only; in any case,
 			// this is really a panic...
 
-			Log.error("Unexpected exception: " + thr.getLocalizedMessage());
+			Log.error(LogCategory.PACKET, () -> "Unexpected exception: " + thr.getLocalizedMessage());
 			Log.exception(thr);
 			throw new P4JavaError(thr.getLocalizedMessage());
 		}
@@ -332,7 +333,7 @@ public class RpcPacketField {
 			}
 			buf.put((byte) 0);
 		} catch (Throwable thr) {
-			Log.error("Unexpected exception: " + thr.getLocalizedMessage());
+			Log.error(LogCategory.PACKET, () -> "Unexpected exception: " + thr.getLocalizedMessage());
 			Log.exception(thr);
 			throw new P4JavaError("Unexpected exception in RpcPacketField.marshal(ByteBuffer): " + thr.getLocalizedMessage(), thr);
 		}
@@ -186,6 +186,22 @@ public class RpcGZIPOutputStream extends FilterOutputStream {
 		this.jzOutputSream.deflateEnd();
 	}
 
+	/**
+	 * @return the number of bytes given to this stream so far
+	 * @since 2025.2
+	 */
+	public long getTotalIn() {
+		return this.jzOutputSream.getTotalIn();
+	}
+
+	/**
+	 * @return the number of compressed bytes produced so far
+	 * @since 2025.2
+	 */
+	public long getTotalOut() {
+		return this.jzOutputSream.getTotalOut();
+	}
+
 	/**
 	 * Provide a more human-readable form of the underlying JZlib compression errors.
 	 * <p>
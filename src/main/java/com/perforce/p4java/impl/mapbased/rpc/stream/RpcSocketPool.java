@@ -4,6 +4,8 @@
 package com.perforce.p4java.impl.mapbased.rpc.stream;
 
 import com.perforce.p4java.Log;
+import com.perforce.p4java.impl.mapbased.rpc.jfr.FlightEvents;
+import com.perforce.p4java.impl.mapbased.rpc.jfr.PoolCheckoutEvent;
 import com.perforce.p4java.impl.mapbased.rpc.stream.helper.RpcSocketHelper;
 
 import java.io.IOException;
@@ -201,6 +203,7 @@ public class RpcSocketPool {
 	 * @throws IOException on error
 	 */
 	public Socket acquire() throws IOException {
+		PoolCheckoutEvent event = FlightEvents.beginPoolCheckout();
 		Socket socket = null;
 		synchronized (this.pool) {
 			SocketEntry entry = this.pool.poll();
@@ -208,10 +211,17 @@ public class RpcSocketPool {
 				socket = entry.socket;
 			}
 		}
-		if (!isAlive(socket)) {
+		boolean reused = isAlive(socket);
+		if (!reused) {
 			quietClose(socket);
 			socket = RpcSocketHelper.createSocket(this.host, this.port, this.socketProperties, this.secure);
 		}
+		if (event != null && event.shouldCommit()) {
+			event.host = this.host;
+			event.port = this.port;
+			event.reused = reused;
+			event.commit();
+		}
 		return socket;
 	}
 
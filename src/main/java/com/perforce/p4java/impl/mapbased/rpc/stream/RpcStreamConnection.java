@@ -6,12 +6,16 @@ package com.perforce.p4java.impl.mapbased.rpc.stream;
 import com.perforce.p4java.Log;
 import com.perforce.p4java.exception.ConnectionException;
 import com.perforce.p4java.exception.P4JavaError;
+import com.perforce.p4java.impl.mapbased.rpc.CommandMetrics;
 import com.perforce.p4java.impl.mapbased.rpc.ExternalEnv;
 import com.perforce.p4java.impl.mapbased.rpc.ServerStats;
 import com.perforce.p4java.impl.mapbased.rpc.connection.RpcConnection;
 import com.perforce.p4java.impl.mapbased.rpc.func.RpcFunctionMapKey;
 import com.perforce.p4java.impl.mapbased.rpc.func.RpcFunctionSpec;
 import com.perforce.p4java.impl.mapbased.rpc.func.client.ClientTrust;
+import com.perforce.p4java.impl.mapbased.rpc.jfr.FlightEvents;
+import com.perforce.p4java.impl.mapbased.rpc.jfr.PacketReceiveEvent;
+import com.perforce.p4java.impl.mapbased.rpc.jfr.PacketSendEvent;
 import com.perforce.p4java.impl.mapbased.rpc.packet.RpcPacket;
 import com.perforce.p4java.impl.mapbased.rpc.packet.RpcPacketDispatcher;
 import com.perforce.p4java.impl.mapbased.rpc.packet.RpcPacketPreamble;
@@ -21,6 +25,7 @@ import com.perforce.p4java.impl.mapbased.rpc.stream.helper.RpcSocketHelper;
 import com.perforce.p4java.impl.mapbased.server.Server;
 import com.perforce.p4java.server.P4Charset;
 import com.perforce.p4java.server.callback.IFilterCallback;
+import com.perforce.p4java.server.callback.ILogCallback.LogCategory;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 
@@ -169,10 +174,33 @@ public class RpcStreamConnection extends RpcConnection {
 	 * @throws ConnectionException on error
 	 */
 	public RpcStreamConnection(String serverHost, int serverPort, Properties props, ServerStats stats, P4Charset p4Charset, Socket socket, RpcSocketPool pool, boolean secure, String rsh) throws ConnectionException {
+		this(serverHost, serverPort, props, stats, p4Charset, socket, pool, secure, rsh, null);
+	}
+
+	/**
+	 * Construct a new Perforce RPC connection to the named Perforce server,
+	 * recording the connect time and packet traffic into the given command
+	 * metrics.
+	 *
+	 * @param serverHost serverHost
+	 * @param serverPort serverPort
+	 * @param props      props
+	 * @param stats      stats
+	 * @param p4Charset  p4Charset
+	 * @param socket     socket
+	 * @param pool       pool
+	 * @param secure     secure
+	 * @param rsh        rsh
+	 * @param metrics    metrics of the command using this connection; may be null
+	 * @throws ConnectionException on error
+	 * @since 2025.2
+	 */
+	public RpcStreamConnection(String serverHost, int serverPort, Properties props, ServerStats stats, P4Charset p4Charset, Socket socket, RpcSocketPool pool, boolean secure, String rsh, CommandMetrics metrics) throws ConnectionException {
 		super(serverHost, serverPort, props, stats, p4Charset, secure);
 		this.socket = socket;
 		this.pool = pool;
 		this.rsh = rsh;
+		this.metrics = metrics;
 		init();
 	}
 
@@ -180,6 +208,7 @@ public class RpcStreamConnection extends RpcConnection {
 	 * Initialize actual connection to the server.
 	 */
 	private void init() throws ConnectionException {
+		long start = nonNull(metrics) ? System.nanoTime() : 0;
 		if (isNotBlank(rsh)) {
 			initRshModeServer();
 		} else {
@@ -188,6 +217,9 @@ public class RpcStreamConnection extends RpcConnection {
 
 		topInputStream = inputStream;
 		topOutputStream = outputStream;
+		if (nonNull(metrics)) {
+			metrics.connected(System.nanoTime() - start, 0);
+		}
 	}
 
 	private void initRshModeServer() throws ConnectionException {
@@ -205,7 +237,7 @@ public class RpcStreamConnection extends RpcConnection {
 			inputStream = new RpcRshInputStream(in, stats);
 			outputStream = new RpcRshOutputStream(out, stats);
 		} catch (Throwable thr) {
-			Log.error("Unexpected exception: %s", thr.getLocalizedMessage());
+			Log.error(LogCategory.CONNECTION, () -> "Unexpected exception: " + thr.getLocalizedMessage());
 			Log.exception(thr);
 			throwConnectionException(thr);
 		}
@@ -215,7 +247,11 @@ public class RpcStreamConnection extends RpcConnection {
 		try {
 			if (isNull(socket)) {
 				if (nonNull(pool)) {
+					long start = nonNull(metrics) ? System.nanoTime() : 0;
 					socket = pool.acquire();
+					if (nonNull(metrics)) {
+						metrics.connected(0, System.nanoTime() - start);
+					}
 				} else {
 					socket = RpcSocketHelper.createSocket(hostName, hostPort, props, secure);
 				}
@@ -225,7 +261,7 @@ public class RpcStreamConnection extends RpcConnection {
 		} catch (IOException exc) {
 			throwConnectionException(exc, "Unable to connect to Perforce server at %s:%s", hostName, hostPort);
 		} catch (Throwable thr) {
-			Log.error("Unexpected exception: %s", thr.getLocalizedMessage());
+			Log.error(LogCategory.CONNECTION, () -> "Unexpected exception: " + thr.getLocalizedMessage());
 			Log.exception(thr);
 			throwConnectionException(thr);
 		}
@@ -313,7 +349,7 @@ public class RpcStreamConnection extends RpcConnection {
 				throwConnectionException(e, "Error occurred while generating the fingerprint for the Perforce SSL connection");
 			} catch (IOException e) {
 				String errorMessage = format("Error occurred during SSL hankshake. Please check the release notes for known SSL issues");
-				Log.error(errorMessage);
+				Log.error(LogCategory.CONNECTION, () -> errorMessage);
 				Log.exception(e);
 				throwConnectionException(e, errorMessage);
 			}
@@ -325,7 +361,7 @@ public class RpcStreamConnection extends RpcConnection {
 			inputStream = new RpcSocketInputStream(socket, stats);
 			outputStream = new RpcSocketOutputStream(socket, stats);
 		} catch (Throwable thr) {
-			Log.error("Unexpected exception: %s", thr.getLocalizedMessage());
+			Log.error(LogCategory.CONNECTION, () -> "Unexpected exception: " + thr.getLocalizedMessage());
 			Log.exception(thr);
 			throwConnectionException(thr);
 		}
@@ -424,6 +460,8 @@ public class RpcStreamConnection extends RpcConnection {
 	public RpcPacket getRpcPacket(final RpcPacketFieldRule fieldRule, final IFilterCallback filterCallback) throws ConnectionException {
 		byte[] preambleBytes = new byte[RpcPacketPreamble.RPC_PREAMBLE_SIZE];
 		RpcPacket packet = null;
+		long start = nonNull(metrics) ? System.nanoTime() : 0;
+		PacketReceiveEvent event = FlightEvents.beginPacketReceive();
 
 		try {
 			int bytesRead = topInputStream.read(preambleBytes);
@@ -434,6 +472,7 @@ public class RpcStreamConnection extends RpcConnection {
 			bytesRead = continueReadIfGetPartialRead(preambleBytes, bytesRead, streamRecvs);
 			throwConnectionExceptionIfConditionFails(bytesRead == preambleBytes.length, "Incomplete RPC packet preamble read from Perforce server; connection probably broken. bytes read: %s", bytesRead);
 			stats.totalBytesRecv.getAndAdd(bytesRead);
+			bytesReceived += bytesRead;
 
 			RpcPacketPreamble preamble = RpcPacketPreamble.retrievePreamble(preambleBytes);
 			throwProtocolErrorIfConditionFails(preamble.isValidChecksum(), "Bad checksum in RPC preamble");
@@ -453,13 +492,22 @@ public class RpcStreamConnection extends RpcConnection {
 			throwConnectionExceptionIfConditionFails(packetBytesRead > 0, "Perforce server network connection closed unexpectedly");
 			streamRecvs.incrementAndGet();
 			stats.totalBytesRecv.getAndAdd(packetBytesRead);
+			bytesReceived += packetBytesRead;
 
 			packetBytesRead = continueReadIfIncompleteRead(streamRecvs, payloadLength, packetBytes, packetBytesRead);
 			throwP4JavaErrorIfConditionFails(packetBytesRead == payloadLength, "RPC packet payload read size mismatch; expected: %s; got: %s", payloadLength, packetBytesRead);
+			if (nonNull(metrics)) {
+				metrics.packetReceived(bytesRead + packetBytesRead, System.nanoTime() - start);
+			}
 
 			packet = RpcPacket.constructRpcPacket(preamble, packetBytes, unicodeServer, p4Charset.getCharset(), fieldRule, filterCallback);
 			stats.packetsRecv.incrementAndGet();
 			stats.largestRpcPacketRecv.set(Math.max(stats.largestRpcPacketRecv.get(), packet.getPacketLength()));
+			if (nonNull(event) && event.shouldCommit()) {
+				event.function = packet.getFuncNameString();
+				event.bytes = bytesRead + packetBytesRead;
+				event.commit();
+			}
 		} catch (IOException exc) {
 			throwConnectionException(exc);
 		} catch (ConnectionException | P4JavaError p4jexc) {
@@ -467,7 +515,7 @@ public class RpcStreamConnection extends RpcConnection {
 		} catch (Throwable thr) {
 			// Never a good sign; typically a buffer overflow or positioning
 			// problem, and almost always unrecoverable.
-			Log.error("Unexpected exception: %s", thr.getLocalizedMessage());
+			Log.error(LogCategory.PACKET, () -> "Unexpected exception: " + thr.getLocalizedMessage());
 			Log.exception(thr);
 			throwP4JavaError(thr, thr.getLocalizedMessage());
 		}
@@ -503,6 +551,7 @@ public class RpcStreamConnection extends RpcConnection {
 
 			streamRecvs.incrementAndGet();
 			stats.totalBytesRecv.getAndAdd(moreBytesRead);
+			bytesReceived += moreBytesRead;
 			totalPacketBytesRead += moreBytesRead;
 		}
 		return totalPacketBytesRead;
@@ -513,7 +562,7 @@ public class RpcStreamConnection extends RpcConnection {
 			try {
 				return socket.getReceiveBufferSize();
 			} catch (SocketException exc) {
-				Log.error("unexpected exception: %s", exc.getLocalizedMessage());
+				Log.error(LogCategory.CONNECTION, () -> "unexpected exception: " + exc.getLocalizedMessage());
 				Log.exception(exc);
 			}
 		}
@@ -526,7 +575,7 @@ public class RpcStreamConnection extends RpcConnection {
 			try {
 				return socket.getSendBufferSize();
 			} catch (SocketException exc) {
-				Log.error("unexpected exception: %s", exc.getLocalizedMessage());
+				Log.error(LogCategory.CONNECTION, () -> "unexpected exception: " + exc.getLocalizedMessage());
 				Log.exception(exc);
 			}
 		}
@@ -640,10 +689,25 @@ public class RpcStreamConnection extends RpcConnection {
 		byte[] preambleBytes = RpcPacketPreamble.constructPreamble(sendPos - RpcPacketPreamble.RPC_PREAMBLE_SIZE).marshalAsBytes();
 		System.arraycopy(preambleBytes, 0, sendBytes, 0, preambleBytes.length);
 		try {
+			long start = nonNull(metrics) ? System.nanoTime() : 0;
+			PacketSendEvent event = FlightEvents.beginPacketSend();
+			long compressedBase = nonNull(event) ? getCompressedBytesSent() : 0;
 			topOutputStream.write(sendBytes, 0, sendPos);
 			topOutputStream.flush();
+			if (nonNull(metrics)) {
+				metrics.packetSent(sendPos, System.nanoTime() - start);
+			}
+			if (nonNull(event) && event.shouldCommit()) {
+				event.bytes = sendPos;
+				if (topOutputStream instanceof RpcGZIPOutputStream) {
+					event.compressedBytes = getCompressedBytesSent() - compressedBase;
+					event.compressionRatio = (double) event.compressedBytes / sendPos;
+				}
+				event.commit();
+			}
 			stats.streamSends.incrementAndGet();
 			stats.totalBytesSent.getAndAdd(sendPos);
+			bytesSent += sendPos;
 			stats.packetsSent.incrementAndGet();
 			if (stats.largestRpcPacketSent.get() < sendPos) {
 				stats.largestRpcPacketSent.set(sendPos);
@@ -661,6 +725,10 @@ public class RpcStreamConnection extends RpcConnection {
 		}
 	}
 
+	private long getCompressedBytesSent() {
+		return topOutputStream instanceof RpcGZIPOutputStream ? ((RpcGZIPOutputStream) topOutputStream).getTotalOut() : 0;
+	}
+
 	@Override
 	public void useConnectionCompression() throws ConnectionException {
 		if (!usingCompression) {
@@ -675,7 +743,7 @@ public class RpcStreamConnection extends RpcConnection {
 				topOutputStream = new RpcGZIPOutputStream(outputStream);
 				topInputStream = new RpcGZIPInputStream(inputStream);
 			} catch (IOException exc) {
-				Log.error("I/O exception encountered while setting up GZIP streaming: %s", exc.getLocalizedMessage());
+				Log.error(LogCategory.CONNECTION, () -> "I/O exception encountered while setting up GZIP streaming: " + exc.getLocalizedMessage());
 				Log.exception(exc);
 				throwConnectionException(exc, "unable to set up client compression streaming to Perforce server: %s", exc.getLocalizedMessage());
 			}
@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.impl.mapbased.rpc.sys;
+
+import com.perforce.p4java.Log;
+import com.perforce.p4java.impl.generic.sys.ISystemFileCommandsHelper;
+import com.perforce.p4java.impl.mapbased.rpc.RpcPropertyDefs;
+import com.perforce.p4java.impl.mapbased.rpc.func.helper.MD5Digester;
+import com.perforce.p4java.impl.mapbased.rpc.jfr.DigestEvent;
+import com.perforce.p4java.impl.mapbased.rpc.jfr.FlightEvents;
+import com.perforce.p4java.impl.mapbased.rpc.sys.helper.SymbolicLinkHelper;
+import com.perforce.p4java.impl.mapbased.rpc.sys.helper.SysFileHelperBridge;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import static com.perforce.p4java.impl.mapbased.rpc.sys.RpcPerforceFileType.FST_CANTTELL;
+import static com.perforce.p4java.impl.mapbased.rpc.sys.RpcPerforceFileType.FST_DIRECTORY;
+import static com.perforce.p4java.impl.mapbased.rpc.sys.RpcPerforceFileType.FST_EMPTY;
+import static com.perforce.p4java.impl.mapbased.rpc.sys.RpcPerforceFileType.FST_MISSING;
+import static com.perforce.p4java.impl.mapbased.rpc.sys.RpcPerforceFileType.FST_SYMLINK;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Works out the type, size and content digest of a local file together,
+ * with a single attribute lookup and a single read of its contents.
+ * <p>
+ * The results are those of RpcPerforceFileType.inferFileType, File.length
+ * and MD5Digester.digestFileAs32ByteHex on the same file: the type is
+ * inferred from the first block of the file, read into a per-thread buffer,
+ * and the digest, if wanted, is computed from that block and the rest of
+ * the same stream. How the content is digested may depend on the type, and
+ * is chosen by a {@link DigestSelector} once the type is known.
+ *
+ * @since 2025.2
+ */
+public final class LocalFileScanner {
+
+	private static final ISystemFileCommandsHelper fileCommands = SysFileHelperBridge.getSysFileCommands();
+
+	private static final ThreadLocal<byte[]> peekBuffers = ThreadLocal.withInitial(
+			() -> new byte[RpcPropertyDefs.RPC_DEFAULT_FILETYPE_PEEK_SIZE]);
+
+	/**
+	 * How file content is digested: the charset it is read in, if any, and
+	 * whether client line endings are converted, as for
+	 * MD5Digester.digestFileAs32ByteHex.
+	 */
+	public static final class DigestSpec {
+		private final Charset charset;
+		private final boolean convertLineEndings;
+
+		/**
+		 * @param charset            charset the content is read in, or null
+		 *                           to digest the raw bytes
+		 * @param convertLineEndings convert client line endings
+		 */
+		public DigestSpec(final Charset charset, final boolean convertLineEndings) {
+			this.charset = charset;
+			this.convertLineEndings = convertLineEndings;
+		}
+
+		public Charset getCharset() {
+			return charset;
+		}
+
+		public boolean isConvertLineEndings() {
+			return convertLineEndings;
+		}
+	}
+
+	/**
+	 * Chooses how to digest a file once its type is known.
+	 */
+	@FunctionalInterface
+	public interface DigestSelector {
+		/**
+		 * @param fileType the inferred file type
+		 * @return how to digest the content, or null to not digest it
+		 */
+		DigestSpec select(RpcPerforceFileType fileType);
+	}
+
+	/**
+	 * What a scan found out about a file.
+	 */
+	public static final class ScanResult {
+		private final RpcPerforceFileType fileType;
+		private final long size;
+		private final boolean digested;
+		private final String digest;
+		private final long digestedSize;
+
+		private ScanResult(final RpcPerforceFileType fileType, final long size, final boolean digested,
+		                   final String digest, final long digestedSize) {
+			this.fileType = fileType;
+			this.size = size;
+			this.digested = digested;
+			this.digest = digested ? digest : null;
+			this.digestedSize = digested && nonNull(digest) ? digestedSize : 0;
+		}
+
+		public RpcPerforceFileType getFileType() {
+			return fileType;
+		}
+
+		public boolean isSymlink() {
+			return fileType == FST_SYMLINK;
+		}
+
+		/**
+		 * @return the size of the file, following symlinks; as for File.length
+		 */
+		public long getSize() {
+			return size;
+		}
+
+		/**
+		 * @return true if the content was digested
+		 */
+		public boolean isDigested() {
+			return digested;
+		}
+
+		/**
+		 * @return the content digest, or null if not digested or unreadable
+		 */
+		public String getDigest() {
+			return digest;
+		}
+
+		/**
+		 * @return number of bytes digested, after any conversion; zero if the
+		 * content was not digested
+		 */
+		public long getDigestedSize() {
+			return digestedSize;
+		}
+	}
+
+	private LocalFileScanner() { /* util */ }
+
+	/**
+	 * Scan a local file.
+	 *
+	 * @param file            the file
+	 * @param scanSize        number of bytes to infer the type from; negative
+	 *                        for the default
+	 * @param isUnicodeServer whether the server is in unicode mode
+	 * @param clientCharset   client charset
+	 * @param selector        chooses how to digest the content; null to not
+	 *                        digest it
+	 * @return the scan result
+	 */
+	public static ScanResult scan(final File file, final int scanSize, final boolean isUnicodeServer,
+	                              final Charset clientCharset, final DigestSelector selector) {
+		BasicFileAttributes attrs;
+		try {
+			if (!SymbolicLinkHelper.isSymbolicLinkCapable()) {
+				return scanSeparately(file, scanSize, isUnicodeServer, clientCharset, selector);
+			}
+			attrs = Files.readAttributes(file.toPath(), BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+		} catch (NoSuchFileException e) {
+			return finish(file, FST_MISSING, 0, selector);
+		} catch (Exception e) {
+			return scanSeparately(file, scanSize, isUnicodeServer, clientCharset, selector);
+		}
+
+		if (attrs.isSymbolicLink()) {
+			return finish(file, FST_SYMLINK, file.length(), selector);
+		}
+		if (attrs.isDirectory()) {
+			return finish(file, FST_DIRECTORY, attrs.size(), selector);
+		}
+		if (!attrs.isRegularFile()) {
+			return finish(file, FST_CANTTELL, attrs.size(), selector);
+		}
+		if (attrs.size() == 0) {
+			return finish(file, FST_EMPTY, 0, selector);
+		}
+
+		boolean isExecutable = fileCommands.canExecute(file.getPath());
+		int peekSize = scanSize < 0 ? RpcPropertyDefs.RPC_DEFAULT_FILETYPE_PEEK_SIZE : scanSize;
+		byte[] buffer = getPeekBuffer(peekSize);
+		try (FileInputStream inStream = new FileInputStream(file)) {
+			int bytesRead = inStream.read(buffer, 0, peekSize);
+			if (bytesRead < 0) {
+				return finish(file, FST_CANTTELL, attrs.size(), selector);
+			}
+			RpcPerforceFileType fileType = RpcPerforceFileType.inferFileTypeFromContents(buffer, bytesRead,
+					isExecutable, isUnicodeServer, clientCharset);
+			DigestSpec spec = isNull(selector) ? null : selector.select(fileType);
+			if (isNull(spec)) {
+				return new ScanResult(fileType, attrs.size(), false, null, 0);
+			}
+
+			MD5Digester digester = new MD5Digester();
+			String digest = null;
+			DigestEvent event = FlightEvents.beginDigest();
+			try {
+				digest = digester.digestStreamAs32ByteHex(
+						new SequenceInputStream(new ByteArrayInputStream(buffer, 0, bytesRead), inStream),
+						spec.getCharset(), spec.isConvertLineEndings(), null);
+			} catch (IOException ioexc) {
+				Log.error("error digesting file: " + file.getPath() + "; exception follows...");
+				Log.exception(ioexc);
+			} finally {
+				digester.commitDigestEvent(event, file);
+			}
+			return new ScanResult(fileType, attrs.size(), true, digest, digester.getByteCount());
+		} catch (IOException ioexc) {
+			Log.warn("Unexpected exception: %s", ioexc.getMessage());
+			Log.exception(ioexc);
+			return finish(file, FST_CANTTELL, attrs.size(), selector);
+		}
+	}
+
+	/**
+	 * Get this thread's buffer for peeking at file contents.
+	 *
+	 * @param size minimum buffer size
+	 * @return a buffer of at least the given size
+	 */
+	static byte[] getPeekBuffer(final int size) {
+		byte[] buffer = peekBuffers.get();
+		if (buffer.length < size) {
+			// Unusually large scan sizes are not kept.
+			return new byte[size];
+		}
+		return buffer;
+	}
+
+	/**
+	 * Complete a scan of a file whose content the type is not inferred from.
+	 */
+	private static ScanResult finish(final File file, final RpcPerforceFileType fileType, final long size,
+	                                 final DigestSelector selector) {
+		DigestSpec spec = isNull(selector) ? null : selector.select(fileType);
+		if (isNull(spec)) {
+			return new ScanResult(fileType, size, false, null, 0);
+		}
+		MD5Digester digester = new MD5Digester();
+		String digest = digester.digestFileAs32ByteHex(file, spec.getCharset(), spec.isConvertLineEndings());
+		return new ScanResult(fileType, size, true, digest, digester.getByteCount());
+	}
+
+	/**
+	 * Scan a file the way it was done before, for when its attributes
+	 * cannot be read directly.
+	 */
+	private static ScanResult scanSeparately(final File file, final int scanSize, final boolean isUnicodeServer,
+	                                         final Charset clientCharset, final DigestSelector selector) {
+		RpcPerforceFileType fileType = RpcPerforceFileType.inferFileType(file, scanSize, isUnicodeServer, clientCharset);
+		return finish(file, fileType, file.length(), selector);
+	}
+}
@@ -568,15 +568,11 @@ public enum RpcPerforceFileType {
 
 	private static RpcPerforceFileType inferFileTypeFromContents(File file, boolean isExecutable, int scanSize, boolean isUnicodeServer, Charset clientCharset) {
 
-		byte[] buffer;
-		if (scanSize < 0) {
-			buffer = new byte[RpcPropertyDefs.RPC_DEFAULT_FILETYPE_PEEK_SIZE];
-		} else {
-			buffer = new byte[scanSize];
-		}
+		int peekSize = scanSize < 0 ? RpcPropertyDefs.RPC_DEFAULT_FILETYPE_PEEK_SIZE : scanSize;
+		byte[] buffer = LocalFileScanner.getPeekBuffer(peekSize);
 		int bytesRead = 0;
 		try (FileInputStream inStream = new FileInputStream(file)) {
-			if ((bytesRead = inStream.read(buffer)) < 0) {
+			if ((bytesRead = inStream.read(buffer, 0, peekSize)) < 0) {
 				return FST_CANTTELL;
 			}
 		} catch (IOException ioexc) {
@@ -585,6 +581,15 @@ public enum RpcPerforceFileType {
 			return FST_CANTTELL;
 		}
 
+		return inferFileTypeFromContents(buffer, bytesRead, isExecutable, isUnicodeServer, clientCharset);
+	}
+
+	/**
+	 * Work out the type of a file from the first bytesRead bytes of its
+	 * contents, as read into buffer.
+	 */
+	static RpcPerforceFileType inferFileTypeFromContents(byte[] buffer, int bytesRead, boolean isExecutable, boolean isUnicodeServer, Charset clientCharset) {
+
 		if (bytesRead == 0) {
 			return FST_EMPTY;
 		}
@@ -0,0 +1,376 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.impl.mapbased.rpc.sys;
+
+import com.perforce.p4java.Log;
+import com.perforce.p4java.PropertyDefs;
+import com.perforce.p4java.impl.mapbased.rpc.sys.LocalFileScanner.DigestSpec;
+import com.perforce.p4java.util.FilesHelper;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Persistent index of the content digests of the files in a client
+ * workspace, used to avoid re-reading files that have not changed since
+ * they were last digested.
+ * <p>
+ * Each entry records a file's size, modification time and file key (the
+ * inode, where the file system has one) as they were when the file was
+ * digested, along with the digest. A lookup only returns the digest if
+ * all three still match the file, so stale entries are never used; an
+ * entry whose modification time is too close to when it was recorded is
+ * not trusted either, as the file could have changed again within the
+ * file system's timestamp granularity, but it is kept until the file is
+ * digested again. Digests are kept separately for each way of digesting a
+ * file (charset and line ending conversion).
+ * <p>
+ * Entries are added whenever a file is digested through the connection,
+ * when sync writes a file whose digest has been checked against the
+ * server's, and when submit or reconcile read one; as sync normally writes
+ * a file just before recording it, its entries are only trusted as they
+ * stand on modtime clients, where the file keeps the server's older
+ * modification time. The index is kept in memory and written under the
+ * P4Java tmp directory as
+ * {@code p4java-workspace-index-<user>/<sha256 of server and client>.idx}
+ * when the server disconnects, and on JVM exit. The directory is private
+ * to the user (see FilesHelper.getPrivateDirectory), and an index file
+ * owned by anyone else is ignored; if the directory cannot be used, the
+ * index is kept in memory only.
+ * <p>
+ * The index is only used by server objects created with the
+ * {@link PropertyDefs#ENABLE_WORKSPACE_INDEX} property set.
+ *
+ * @since 2025.2
+ */
+public class WorkspaceStateIndex {
+
+	/**
+	 * Name of the index directory, under the P4Java tmp directory; the user
+	 * name is added to it.
+	 */
+	public static final String INDEX_DIR_NAME = "p4java-workspace-index";
+
+	private static final String INDEX_FILE_SFX = ".idx";
+	private static final String TMP_FILE_PFX = "p4j";
+	private static final String TMP_FILE_SFX = ".tmp";
+	private static final int MAGIC = 0x50344A57;
+	private static final int VERSION = 1;
+
+	// Modification times this close to the time an entry was recorded may
+	// not show a later change; 2s covers the coarsest common file systems.
+	private static final long RACY_WINDOW_MILLIS = 2000;
+
+	private static final ConcurrentMap<String, WorkspaceStateIndex> sharedIndexes = new ConcurrentHashMap<>();
+	private static final AtomicBoolean shutdownHookAdded = new AtomicBoolean(false);
+
+	/**
+	 * What the index knows about a file.
+	 */
+	public static final class Entry {
+		private final long size;
+		private final long modTime;
+		private final String fileKey;
+		private final long recordTime;
+		private final String digest;
+		private final long digestedSize;
+
+		private Entry(final long size, final long modTime, final String fileKey, final long recordTime,
+		              final String digest, final long digestedSize) {
+			this.size = size;
+			this.modTime = modTime;
+			this.fileKey = fileKey;
+			this.recordTime = recordTime;
+			this.digest = digest;
+			this.digestedSize = digestedSize;
+		}
+
+		public String getDigest() {
+			return digest;
+		}
+
+		/**
+		 * @return number of bytes digested, after any conversion; negative
+		 * if not known
+		 */
+		public long getDigestedSize() {
+			return digestedSize;
+		}
+
+		private boolean matches(final BasicFileAttributes attrs) {
+			return attrs.size() == size
+					&& attrs.lastModifiedTime().toMillis() == modTime
+					&& (isNull(fileKey) || fileKey.equals(fileKeyOf(attrs)));
+		}
+
+		// The file may have changed again since it was recorded without its
+		// modification time moving.
+		private boolean isRacy() {
+			return modTime >= recordTime - RACY_WINDOW_MILLIS;
+		}
+	}
+
+	private final File indexFile;
+	private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+	private final AtomicBoolean dirty = new AtomicBoolean(false);
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * Get the process-wide index for a client workspace, loading it if need
+	 * be.
+	 *
+	 * @param tmpDirName P4Java tmp directory
+	 * @param serverId   identifies the server, e.g. its host and port
+	 * @param clientName client workspace name
+	 * @return the shared index
+	 */
+	public static WorkspaceStateIndex getSharedIndex(final String tmpDirName, final String serverId, final String clientName) {
+		String name = DigestUtils.sha256Hex(serverId + "\n" + clientName) + INDEX_FILE_SFX;
+		String key = new File(tmpDirName).getAbsolutePath() + File.pathSeparator + name;
+		WorkspaceStateIndex index = sharedIndexes.get(key);
+		if (isNull(index)) {
+			index = sharedIndexes.computeIfAbsent(key, k -> {
+				try {
+					return new WorkspaceStateIndex(new File(FilesHelper.getPrivateDirectory(tmpDirName, INDEX_DIR_NAME), name));
+				} catch (IOException ioexc) {
+					Log.warn("Keeping workspace index in memory only: %s", ioexc.getLocalizedMessage());
+					return new WorkspaceStateIndex(null);
+				}
+			});
+			if (shutdownHookAdded.compareAndSet(false, true)) {
+				Runtime.getRuntime().addShutdownHook(new Thread(WorkspaceStateIndex::saveSharedIndexes, "p4java-workspace-index"));
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Write all shared indexes that have changed.
+	 */
+	public static void saveSharedIndexes() {
+		for (WorkspaceStateIndex index : sharedIndexes.values()) {
+			index.save();
+		}
+	}
+
+	/**
+	 * @param indexFile file the index is kept in, in a directory private to
+	 *                  the user; read now if it exists. Null to keep the
+	 *                  index in memory only
+	 */
+	public WorkspaceStateIndex(final File indexFile) {
+		this.indexFile = indexFile;
+		load();
+	}
+
+	/**
+	 * Look up the digest of a file as it is now.
+	 *
+	 * @param file the file
+	 * @param spec how the file's content is digested
+	 * @return the entry, or null if the file is not in the index or has
+	 * changed since it was recorded
+	 */
+	public Entry lookup(final File file, final DigestSpec spec) {
+		String key = keyOf(file, spec);
+		Entry entry = entries.get(key);
+		if (nonNull(entry)) {
+			BasicFileAttributes attrs = readAttributes(file);
+			if (nonNull(attrs) && entry.matches(attrs)) {
+				if (!entry.isRacy()) {
+					hits.incrementAndGet();
+					return entry;
+				}
+				// Kept until the caller digests the file again and records
+				// it, which it can then trust.
+			} else {
+				entries.remove(key, entry);
+				dirty.set(true);
+			}
+		}
+		misses.incrementAndGet();
+		return null;
+	}
+
+	/**
+	 * Record the digest of a file as it is now. The caller must have
+	 * digested the file's current content; nothing is recorded for a null
+	 * digest or a file that is not a regular file.
+	 *
+	 * @param file         the file
+	 * @param spec         how the file's content was digested
+	 * @param digest       the digest
+	 * @param digestedSize number of bytes digested, after any conversion;
+	 *                     negative if not known
+	 */
+	public void record(final File file, final DigestSpec spec, final String digest, final long digestedSize) {
+		if (isNull(digest)) {
+			return;
+		}
+		BasicFileAttributes attrs = readAttributes(file);
+		if (isNull(attrs) || !attrs.isRegularFile()) {
+			return;
+		}
+		entries.put(keyOf(file, spec), new Entry(attrs.size(), attrs.lastModifiedTime().toMillis(),
+				fileKeyOf(attrs), System.currentTimeMillis(), digest, digestedSize));
+		dirty.set(true);
+	}
+
+	/**
+	 * Write the index to its file if it has changed since it was last
+	 * written or read.
+	 */
+	public synchronized void save() {
+		if (isNull(indexFile) || !dirty.getAndSet(false)) {
+			return;
+		}
+		File dir = indexFile.getParentFile();
+		File tmpFile = null;
+		try {
+			tmpFile = File.createTempFile(TMP_FILE_PFX, TMP_FILE_SFX, dir);
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile.toPath())))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+					Entry entry = mapEntry.getValue();
+					out.writeBoolean(true);
+					out.writeUTF(mapEntry.getKey());
+					out.writeLong(entry.size);
+					out.writeLong(entry.modTime);
+					out.writeUTF(isNull(entry.fileKey) ? "" : entry.fileKey);
+					out.writeLong(entry.recordTime);
+					out.writeUTF(entry.digest);
+					out.writeLong(entry.digestedSize);
+				}
+				out.writeBoolean(false);
+			}
+			try {
+				Files.move(tmpFile.toPath(), indexFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmpFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException ioexc) {
+			dirty.set(true);
+			Log.warn("Unable to save workspace index %s: %s", indexFile.getPath(), ioexc.getLocalizedMessage());
+			if (nonNull(tmpFile) && !tmpFile.delete()) {
+				tmpFile.deleteOnExit();
+			}
+		}
+	}
+
+	/**
+	 * Forget all entries.
+	 */
+	public void clear() {
+		entries.clear();
+		dirty.set(true);
+	}
+
+	/**
+	 * @return the file the index is kept in, or null if it is kept in
+	 * memory only
+	 */
+	public File getIndexFile() {
+		return indexFile;
+	}
+
+	/**
+	 * @return number of files and digest kinds in the index
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return number of lookups that found a current digest
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return number of lookups that did not
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	private synchronized void load() {
+		if (isNull(indexFile)) {
+			return;
+		}
+		BasicFileAttributes attrs = readAttributes(indexFile);
+		if (isNull(attrs)) {
+			return;
+		}
+		if (!attrs.isRegularFile() || !FilesHelper.isOwnedByCurrentUser(indexFile)) {
+			Log.warn("Ignoring workspace index %s not written by the current user", indexFile.getPath());
+			return;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile.toPath())))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				Log.warn("Ignoring workspace index %s with unknown format", indexFile.getPath());
+				return;
+			}
+			while (in.readBoolean()) {
+				String key = in.readUTF();
+				long size = in.readLong();
+				long modTime = in.readLong();
+				String fileKey = in.readUTF();
+				long recordTime = in.readLong();
+				String digest = in.readUTF();
+				long digestedSize = in.readLong();
+				entries.put(key, new Entry(size, modTime, fileKey.isEmpty() ? null : fileKey, recordTime, digest, digestedSize));
+			}
+		} catch (IOException ioexc) {
+			// A damaged index costs re-digesting, nothing more.
+			entries.clear();
+			Log.warn("Unable to read workspace index %s: %s", indexFile.getPath(), ioexc.getLocalizedMessage());
+		}
+	}
+
+	private static String keyOf(final File file, final DigestSpec spec) {
+		StringBuilder key = new StringBuilder(file.getAbsolutePath()).append('\0');
+		if (nonNull(spec.getCharset())) {
+			key.append(spec.getCharset().name());
+		}
+		if (spec.isConvertLineEndings()) {
+			key.append("+le");
+		}
+		return key.toString();
+	}
+
+	private static String fileKeyOf(final BasicFileAttributes attrs) {
+		Object fileKey = attrs.fileKey();
+		return isNull(fileKey) ? null : fileKey.toString();
+	}
+
+	private static BasicFileAttributes readAttributes(final File file) {
+		try {
+			return Files.readAttributes(file.toPath(), BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+		} catch (IOException | RuntimeException e) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.impl.mapbased.server;
+
+import com.perforce.p4java.Log;
+import org.apache.commons.io.input.ProxyInputStream;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * A directory of immutable files bounded by total size, evicted least
+ * recently used first, shared by the graph object and file content caches.
+ * <p>
+ * Files are looked up by key. Each file's name holds its key and says what
+ * its content must be (a Git object id, or an MD5 digest), so content is
+ * checked once: by the caller before it is stored, or, for files left by an
+ * earlier process and picked up when the store is created, the first time
+ * each is opened. After that a file is only checked to still have its
+ * stored length, so a hit costs no more than opening the file.
+ */
+final class BlobStore {
+
+	/**
+	 * Checks that a file has the content its name says it has.
+	 */
+	@FunctionalInterface
+	interface Verifier {
+		boolean verify(File file) throws IOException;
+	}
+
+	private static final String TMP_FILE_PFX = "p4j";
+	private static final String TMP_FILE_SFX = ".tmp";
+
+	private static final class Stored {
+		private final File file;
+		private final long length;
+		private volatile boolean verified;
+
+		private Stored(final File file, final long length, final boolean verified) {
+			this.file = file;
+			this.length = length;
+			this.verified = verified;
+		}
+	}
+
+	private final File dir;
+	private final long maxBytes;
+	private final Pattern namePattern;
+	private final Verifier verifier;
+	private final String description;
+
+	// In access order and guarded by this.
+	private final LinkedHashMap<String, Stored> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long bytes = 0;
+
+	private final AtomicLong evictions = new AtomicLong();
+
+	/**
+	 * @param dir         store directory; must exist and not be writable by
+	 *                    other users
+	 * @param maxBytes    maximum total size; zero or less means nothing is
+	 *                    stored
+	 * @param namePattern names of the files that belong to the store; its
+	 *                    first group is the file's key
+	 * @param verifier    checks files found in the directory
+	 * @param description what the files hold, for log messages
+	 */
+	BlobStore(final File dir, final long maxBytes, final Pattern namePattern, final Verifier verifier,
+	          final String description) {
+		this.dir = dir;
+		this.maxBytes = maxBytes;
+		this.namePattern = namePattern;
+		this.verifier = verifier;
+		this.description = description;
+		load();
+	}
+
+	File getDir() {
+		return dir;
+	}
+
+	long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * @return true if content can be stored
+	 */
+	boolean isEnabled() {
+		return maxBytes > 0 && dir.isDirectory();
+	}
+
+	/**
+	 * @return a new temporary file in the store directory, to write content
+	 * to before storing it
+	 */
+	File createTempFile() throws IOException {
+		return File.createTempFile(TMP_FILE_PFX, TMP_FILE_SFX, dir);
+	}
+
+	/**
+	 * Store a temporary file, whose content the caller has checked, under a
+	 * key, replacing any file stored under it.
+	 *
+	 * @param key     the file's key
+	 * @param name    the file's name, matching the name pattern
+	 * @param tmpFile temporary file, from createTempFile
+	 * @return the stored file
+	 */
+	File store(final String key, final String name, final File tmpFile) throws IOException {
+		File file = new File(dir, name);
+		long length = tmpFile.length();
+		Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		synchronized (this) {
+			Stored old = remove(key);
+			if (nonNull(old) && !old.file.equals(file)) {
+				old.file.delete();
+			}
+			entries.put(key, new Stored(file, length, true));
+			bytes += length;
+			evict();
+		}
+		return file;
+	}
+
+	/**
+	 * @return the file stored under a key, or null if there is none or it
+	 * has been changed or removed since it was stored
+	 */
+	File open(final String key) {
+		Stored stored;
+		synchronized (this) {
+			stored = entries.get(key);
+		}
+		if (isNull(stored)) {
+			return null;
+		}
+		try {
+			if (stored.file.length() == stored.length && (stored.verified || verifyFirstOpen(stored))) {
+				return stored.file;
+			}
+			Log.warn("Discarding " + description + " " + stored.file.getPath() + " that does not match its name");
+			Files.deleteIfExists(stored.file.toPath());
+		} catch (IOException e) {
+			// Unreadable, or deleted by clearing the store elsewhere; either
+			// way it is no longer stored.
+		}
+		synchronized (this) {
+			if (entries.get(key) == stored) {
+				remove(key);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return true if a file is stored under the key
+	 */
+	synchronized boolean contains(final String key) {
+		return entries.containsKey(key);
+	}
+
+	/**
+	 * Delete every stored file.
+	 */
+	synchronized void clear() {
+		for (Stored stored : entries.values()) {
+			stored.file.delete();
+		}
+		entries.clear();
+		bytes = 0;
+	}
+
+	synchronized int getEntryCount() {
+		return entries.size();
+	}
+
+	synchronized long getBytes() {
+		return bytes;
+	}
+
+	long getEvictionCount() {
+		return evictions.get();
+	}
+
+	/**
+	 * @return a stream over a temporary file that deletes the file once
+	 * closed, for content that is not stored
+	 */
+	static InputStream deleteOnClose(final File file) throws IOException {
+		return new ProxyInputStream(new FileInputStream(file)) {
+			@Override
+			public void close() throws IOException {
+				try {
+					super.close();
+				} finally {
+					Files.deleteIfExists(file.toPath());
+				}
+			}
+		};
+	}
+
+	private boolean verifyFirstOpen(final Stored stored) throws IOException {
+		if (verifier.verify(stored.file)) {
+			stored.verified = true;
+		}
+		return stored.verified;
+	}
+
+	// Caller must hold the lock.
+	private Stored remove(final String key) {
+		Stored stored = entries.remove(key);
+		if (nonNull(stored)) {
+			bytes -= stored.length;
+		}
+		return stored;
+	}
+
+	// Caller must hold the lock.
+	private void evict() {
+		Iterator<Map.Entry<String, Stored>> it = entries.entrySet().iterator();
+		while (bytes > maxBytes && it.hasNext()) {
+			Stored eldest = it.next().getValue();
+			it.remove();
+			bytes -= eldest.length;
+			evictions.incrementAndGet();
+			if (!eldest.file.delete()) {
+				Log.warn("Unable to delete evicted " + description + " " + eldest.file.getPath());
+			}
+		}
+	}
+
+	// Pick up files left by earlier processes, oldest first for eviction;
+	// they are verified when first opened.
+	private synchronized void load() {
+		if (maxBytes <= 0) {
+			return;
+		}
+		File[] files = dir.listFiles(f -> Files.isRegularFile(f.toPath(), LinkOption.NOFOLLOW_LINKS)
+				&& namePattern.matcher(f.getName()).matches());
+		if (isNull(files)) {
+			return;
+		}
+		List<File> sorted = new ArrayList<>(Arrays.asList(files));
+		sorted.sort(Comparator.comparingLong(File::lastModified));
+		for (File file : sorted) {
+			Matcher matcher = namePattern.matcher(file.getName());
+			if (matcher.matches()) {
+				Stored old = remove(matcher.group(1));
+				if (nonNull(old)) {
+					old.file.delete();
+				}
+				entries.put(matcher.group(1), new Stored(file, file.length(), false));
+				bytes += file.length();
+			}
+		}
+		evict();
+	}
+}
@@ -0,0 +1,378 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.impl.mapbased.server;
+
+import com.perforce.p4java.PropertyDefs;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Shared cache for 'change -o' and 'describe' results of submitted
+ * changelists, whose file lists do not change once submitted.
+ * <p>
+ * Entries are keyed by server address (host:port) and changelist number,
+ * and hold the results of each distinct command line run against that
+ * changelist by each user; what a user is shown depends on their
+ * protections, so results are never shared between users. Result maps are
+ * held in a compact form (field names and short values are interned, each
+ * map is a pair of arrays) and are rebuilt on the way out, so callers may
+ * freely modify what they get back; diff output is held deflated.
+ * Changelists are evicted least recently used first.
+ * <p>
+ * Results for submitted changelists do not expire. Another process can
+ * still change a submitted changelist's description, date, user or fixes
+ * ('change -f', 'fix'); such edits are not seen until the changelist is
+ * evicted. Results for pending changelists are only cached when they list
+ * shelved files, and expire after the given time-to-live. Results are
+ * dropped at once whenever this process changes, fixes, shelves into or
+ * submits the changelist.
+ * <p>
+ * The cache is only consulted by server objects created with the
+ * {@link PropertyDefs#ENABLE_CHANGELIST_CACHE} property set, or given one
+ * explicitly.
+ *
+ * @since 2025.2
+ */
+public class ChangelistCache {
+
+	// Interned field names and values are shared by all entries; the pool is
+	// bounded so odd values cannot grow it without limit.
+	private static final int MAX_POOLED_VALUE_LENGTH = 32;
+	private static final int MAX_POOL_SIZE = 50000;
+	private static final ConcurrentMap<String, String> pool = new ConcurrentHashMap<>();
+
+	private static volatile ChangelistCache sharedCache = null;
+
+	private final int maxChanges;
+
+	// In access order and guarded by this.
+	private final LinkedHashMap<String, Change> entries;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * Get the process-wide cache, creating it with the given limit if need be.
+	 *
+	 * @param maxChanges maximum number of changelists held
+	 * @return the shared cache
+	 */
+	public static ChangelistCache getSharedCache(final int maxChanges) {
+		if (isNull(sharedCache)) {
+			synchronized (ChangelistCache.class) {
+				if (isNull(sharedCache)) {
+					sharedCache = new ChangelistCache(maxChanges);
+				}
+			}
+		}
+		return sharedCache;
+	}
+
+	/**
+	 * @param maxChanges maximum number of changelists held
+	 */
+	public ChangelistCache(final int maxChanges) {
+		this.maxChanges = maxChanges;
+		this.entries = new LinkedHashMap<String, Change>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Change> eldest) {
+				return size() > ChangelistCache.this.maxChanges;
+			}
+		};
+	}
+
+	/**
+	 * Compose the key for a command line run against a changelist.
+	 *
+	 * @param cmd     command name; e.g. "describe"
+	 * @param cmdArgs command arguments
+	 * @return the command key
+	 */
+	public static String composeCmdKey(final String cmd, final String[] cmdArgs) {
+		StringBuilder cmdKey = new StringBuilder(cmd);
+		if (nonNull(cmdArgs)) {
+			for (String arg : cmdArgs) {
+				cmdKey.append(' ').append(arg);
+			}
+		}
+		return cmdKey.toString();
+	}
+
+	/**
+	 * Get a copy of the cached result maps for a command.
+	 *
+	 * @param key    cache key
+	 * @param change changelist number
+	 * @param user   user the command is run as
+	 * @param cmdKey the command line; e.g. "describe -s 1234"
+	 * @param ttlMs  time-to-live in milliseconds of pending changelist results
+	 * @return a copy of the cached result maps, or null
+	 */
+	public List<Map<String, Object>> getResultMaps(final String key, final int change, final String user,
+	                                               final String cmdKey, final long ttlMs) {
+		Change entry = getEntry(key, change);
+		Item item = isNull(entry) ? null : entry.results.get(resultKey(user, cmdKey));
+		if (isNull(item) || !item.isFresh(ttlMs)) {
+			misses.incrementAndGet();
+			return null;
+		}
+		hits.incrementAndGet();
+		return ((CompactResultMaps) item.value).toResultMaps();
+	}
+
+	/**
+	 * Store the result maps for a command if they describe a submitted
+	 * changelist, or a pending one with shelved files.
+	 *
+	 * @param key        cache key
+	 * @param change     changelist number
+	 * @param user       user the command was run as
+	 * @param cmdKey     the command line; e.g. "describe -s 1234"
+	 * @param resultMaps error-free result maps
+	 * @return true if the results were cached
+	 */
+	public boolean putResultMaps(final String key, final int change, final String user, final String cmdKey,
+	                             final List<Map<String, Object>> resultMaps) {
+		if (isNull(key) || change <= 0 || isNull(resultMaps) || resultMaps.isEmpty()) {
+			return false;
+		}
+		String status = getStatus(resultMaps.get(0));
+		boolean submitted = "submitted".equals(status);
+		if (!submitted && !("pending".equals(status) && hasShelvedFiles(cmdKey))) {
+			return false;
+		}
+		Change entry = putEntry(key, change);
+		entry.submitted |= submitted;
+		entry.results.put(resultKey(user, cmdKey), new Item(new CompactResultMaps(resultMaps), !submitted));
+		return true;
+	}
+
+	/**
+	 * @param key    cache key
+	 * @param change changelist number
+	 * @return true if the changelist is known to have been submitted
+	 */
+	public boolean isSubmitted(final String key, final int change) {
+		Change entry = getEntry(key, change);
+		return nonNull(entry) && entry.submitted;
+	}
+
+	/**
+	 * Get the cached diff output for a command.
+	 *
+	 * @param key    cache key
+	 * @param change changelist number
+	 * @param user   user the command is run as
+	 * @param cmdKey the command line; e.g. "describe -du 1234"
+	 * @param ttlMs  time-to-live in milliseconds of pending changelist results
+	 * @return a stream over the cached output, or null
+	 */
+	public InputStream getStream(final String key, final int change, final String user, final String cmdKey,
+	                             final long ttlMs) {
+		Change entry = getEntry(key, change);
+		Item item = isNull(entry) ? null : entry.results.get(resultKey(user, cmdKey));
+		if (isNull(item) || !item.isFresh(ttlMs)) {
+			misses.incrementAndGet();
+			return null;
+		}
+		hits.incrementAndGet();
+		return new InflaterInputStream(new ByteArrayInputStream((byte[]) item.value));
+	}
+
+	/**
+	 * Store the diff output for a command against a submitted changelist.
+	 *
+	 * @param key    cache key
+	 * @param change changelist number
+	 * @param user   user the command was run as
+	 * @param cmdKey the command line; e.g. "describe -du 1234"
+	 * @param output complete command output
+	 */
+	public void putStream(final String key, final int change, final String user, final String cmdKey,
+	                      final byte[] output) {
+		if (!isSubmitted(key, change) || isNull(output)) {
+			return;
+		}
+		ByteArrayOutputStream deflated = new ByteArrayOutputStream(output.length / 4 + 64);
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try (DeflaterOutputStream out = new DeflaterOutputStream(deflated, deflater)) {
+			out.write(output);
+		} catch (IOException e) {
+			return;
+		} finally {
+			deflater.end();
+		}
+		Change entry = getEntry(key, change);
+		if (nonNull(entry)) {
+			entry.results.put(resultKey(user, cmdKey), new Item(deflated.toByteArray(), false));
+		}
+	}
+
+	/**
+	 * Drop everything cached for a changelist, for all users; used when its
+	 * shelved files, its description or its fixes are changed.
+	 *
+	 * @param key    cache key
+	 * @param change changelist number
+	 */
+	public synchronized void invalidate(final String key, final int change) {
+		if (nonNull(key)) {
+			entries.remove(entryKey(key, change));
+		}
+	}
+
+	/**
+	 * Drop everything cached.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * @return number of changelists held
+	 */
+	public synchronized int getChangeCount() {
+		return entries.size();
+	}
+
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	private synchronized Change getEntry(final String key, final int change) {
+		return isNull(key) ? null : entries.get(entryKey(key, change));
+	}
+
+	private synchronized Change putEntry(final String key, final int change) {
+		return entries.computeIfAbsent(entryKey(key, change), k -> new Change());
+	}
+
+	private static String entryKey(final String key, final int change) {
+		return key + "@" + change;
+	}
+
+	private static String resultKey(final String user, final String cmdKey) {
+		return (isNull(user) ? "" : user) + "\0" + cmdKey;
+	}
+
+	private static String getStatus(final Map<String, Object> map) {
+		if (isNull(map)) {
+			return null;
+		}
+		// 'describe' reports "status", 'change -o' reports "Status".
+		Object status = map.containsKey("status") ? map.get("status") : map.get("Status");
+		return status instanceof String ? (String) status : null;
+	}
+
+	private static boolean hasShelvedFiles(final String cmdKey) {
+		// cmdKey is the bare command line, without the user.
+		return cmdKey.contains(" -S ");
+	}
+
+	private static String intern(final String value) {
+		if (value.length() > MAX_POOLED_VALUE_LENGTH) {
+			return value;
+		}
+		String pooled = pool.get(value);
+		if (nonNull(pooled)) {
+			return pooled;
+		}
+		if (pool.size() >= MAX_POOL_SIZE) {
+			return value;
+		}
+		pooled = pool.putIfAbsent(value, value);
+		return isNull(pooled) ? value : pooled;
+	}
+
+	/**
+	 * Everything cached for a single changelist.
+	 */
+	private static class Change {
+		private volatile boolean submitted = false;
+		private final ConcurrentMap<String, Item> results = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * A cached value, stamped with its load time.
+	 */
+	private static class Item {
+		private final Object value;
+		private final boolean expires;
+		private final long loadedAt = System.currentTimeMillis();
+
+		private Item(final Object value, final boolean expires) {
+			this.value = value;
+			this.expires = expires;
+		}
+
+		private boolean isFresh(final long ttlMs) {
+			return !expires || ttlMs <= 0 || System.currentTimeMillis() - loadedAt < ttlMs;
+		}
+	}
+
+	/**
+	 * Result maps as parallel arrays of interned field names and values.
+	 */
+	private static class CompactResultMaps {
+		private final String[][] keys;
+		private final Object[][] values;
+
+		private CompactResultMaps(final List<Map<String, Object>> resultMaps) {
+			keys = new String[resultMaps.size()][];
+			values = new Object[resultMaps.size()][];
+			for (int i = 0; i < resultMaps.size(); i++) {
+				Map<String, Object> map = resultMaps.get(i);
+				if (isNull(map)) {
+					continue;
+				}
+				keys[i] = new String[map.size()];
+				values[i] = new Object[map.size()];
+				int j = 0;
+				for (Map.Entry<String, Object> field : map.entrySet()) {
+					keys[i][j] = intern(field.getKey());
+					Object value = field.getValue();
+					values[i][j] = value instanceof String ? intern((String) value) : value;
+					j++;
+				}
+			}
+		}
+
+		private List<Map<String, Object>> toResultMaps() {
+			List<Map<String, Object>> resultMaps = new ArrayList<>(keys.length);
+			for (int i = 0; i < keys.length; i++) {
+				if (isNull(keys[i])) {
+					resultMaps.add(null);
+					continue;
+				}
+				Map<String, Object> map = new HashMap<>(keys[i].length * 4 / 3 + 1);
+				for (int j = 0; j < keys[i].length; j++) {
+					map.put(keys[i][j], values[i][j]);
+				}
+				resultMaps.add(map);
+			}
+			return resultMaps;
+		}
+	}
+}
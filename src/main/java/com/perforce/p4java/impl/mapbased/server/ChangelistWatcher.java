@@ -0,0 +1,539 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.impl.mapbased.server;
+
+import com.perforce.p4java.Log;
+import com.perforce.p4java.core.IChangelistSummary;
+import com.perforce.p4java.core.file.IFileSpec;
+import com.perforce.p4java.exception.P4JavaException;
+import com.perforce.p4java.impl.generic.core.ChangelistSummary;
+import com.perforce.p4java.impl.generic.core.file.FileSpec;
+import com.perforce.p4java.impl.mapbased.server.cmd.ResultMapParser;
+import com.perforce.p4java.mapapi.MapFlag;
+import com.perforce.p4java.mapapi.MapTable;
+import com.perforce.p4java.mapapi.MapTableT;
+import com.perforce.p4java.server.IOptionsServer;
+import org.apache.commons.lang3.Validate;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.perforce.p4java.impl.mapbased.rpc.func.RpcFunctionMapKey.DEPOT_FILE;
+import static com.perforce.p4java.server.CmdSpec.CHANGES;
+import static com.perforce.p4java.server.CmdSpec.DESCRIBE;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Watches the server for newly submitted changelists on behalf of any
+ * number of path subscriptions, notifying each subscription's listener of
+ * the changelists that touch its paths.
+ * <p>
+ * Each poll first asks for the most recently submitted changelist with
+ * 'changes -m1 -s submitted', and goes no further unless it is past the last
+ * one seen; so an idle server costs one cheap 'changes' command per poll
+ * however many subscriptions there are. Otherwise new changelists up to it
+ * are listed with 'changes -s submitted -e' against the union of all
+ * subscribed paths, with duplicate paths and paths lying under other
+ * subscribed paths left out, then described in batches with a single
+ * 'describe -s' each. The files of each changelist are matched against every
+ * distinct subscription view locally, so subscriptions sharing a view are
+ * matched once.
+ * <p>
+ * The last changelist seen only moves past changelists known to be
+ * submitted: a pending changelist is given a number above every submitted
+ * one when it is submitted, unless it already has the highest number, so
+ * nothing submitted later can fall at or below the most recent submitted
+ * changelist. If a changelist cannot be described, the poll stops before it
+ * and the next poll starts from it again.
+ * <p>
+ * Listeners are called on the executor given to the watcher; each
+ * subscription's events are delivered one at a time and in changelist
+ * order, while different subscriptions may be notified concurrently. A
+ * listener's exception is logged and otherwise ignored. Events already
+ * dispatched are still delivered after the watcher is closed. Connection
+ * failures are retried as described for {@link PollingFollower}.
+ * <p>
+ * All subscriptions share the watcher's server object, which must not be
+ * used for anything else while the watcher is polling.
+ *
+ * @since 2025.2
+ */
+public class ChangelistWatcher extends PollingFollower<ChangelistWatcher> {
+
+	/**
+	 * Receives the changelists submitted to a subscription's paths.
+	 */
+	@FunctionalInterface
+	public interface ChangelistListener {
+		/**
+		 * @param event the changelist and its files under the subscribed paths
+		 */
+		void onChangelist(ChangelistEvent event);
+	}
+
+	/**
+	 * A submitted changelist as seen by one subscription.
+	 */
+	public static final class ChangelistEvent {
+		private final Subscription subscription;
+		private final IChangelistSummary changelist;
+		private final List<IFileSpec> files;
+
+		private ChangelistEvent(final Subscription subscription, final IChangelistSummary changelist,
+		                        final List<IFileSpec> files) {
+			this.subscription = subscription;
+			this.changelist = changelist;
+			this.files = files;
+		}
+
+		public Subscription getSubscription() {
+			return subscription;
+		}
+
+		public IChangelistSummary getChangelist() {
+			return changelist;
+		}
+
+		/**
+		 * @return the changelist's files that lie under the subscribed paths
+		 */
+		public List<IFileSpec> getFiles() {
+			return files;
+		}
+	}
+
+	/**
+	 * A set of depot paths and the listener notified of changelists
+	 * submitted to them. Closing a subscription cancels it.
+	 */
+	public final class Subscription implements Closeable {
+		private final List<String> paths;
+		private final ChangelistListener listener;
+		private final View view;
+
+		// Chains this subscription's deliveries; guarded by this.
+		private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+
+		private Subscription(final List<String> paths, final ChangelistListener listener, final View view) {
+			this.paths = paths;
+			this.listener = listener;
+			this.view = view;
+		}
+
+		/**
+		 * @return the subscribed paths, in depot syntax
+		 */
+		public List<String> getPaths() {
+			return paths;
+		}
+
+		@Override
+		public void close() {
+			unsubscribe(this);
+		}
+
+		private synchronized void deliver(final ChangelistEvent event) {
+			tail = tail.thenRunAsync(() -> listener.onChangelist(event), executor)
+					.exceptionally(thr -> {
+						Log.error("Changelist listener failed for change " + event.getChangelist().getId()
+								+ ": " + thr.getMessage());
+						Log.exception(thr);
+						return null;
+					});
+		}
+	}
+
+	/**
+	 * A distinct set of subscribed paths, matched once for all the
+	 * subscriptions sharing it.
+	 */
+	private static final class View {
+		private final MapTable table;
+		private final List<String> includes = new ArrayList<>();
+		private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+		private View(final List<String> paths, final boolean caseSensitive) {
+			table = new MapTable();
+			table.setCaseSensitivity(caseSensitive ? 0 : 1);
+			for (String path : paths) {
+				if (path.startsWith("-")) {
+					table.insert(path.substring(1), path.substring(1), MapFlag.MfUnmap);
+				} else {
+					String include = path.startsWith("+") ? path.substring(1) : path;
+					table.insert(include, include, MapFlag.MfMap);
+					includes.add(include);
+				}
+			}
+		}
+
+		private boolean matches(final String depotFile) {
+			return nonNull(table.check(MapTableT.LHS, depotFile));
+		}
+	}
+
+	private final Executor executor;
+
+	// Views by their sorted paths; guarded by this.
+	private final Map<String, View> views = new LinkedHashMap<>();
+	private List<String> queryPaths = null;
+
+	private volatile int lastChange;
+	private int maxDescribeBatch = 100;
+	private int maxQueryPaths = 100;
+
+	private final AtomicLong polls = new AtomicLong();
+	private final AtomicLong queries = new AtomicLong();
+	private final AtomicLong changes = new AtomicLong();
+	private final AtomicLong events = new AtomicLong();
+
+	/**
+	 * @param server     connected and logged in server to watch
+	 * @param lastChange the last changelist already seen; changelists
+	 *                   submitted after it are reported. Negative to start
+	 *                   from the most recent submitted changelist at the
+	 *                   first poll
+	 * @param executor   executor listeners are called on
+	 */
+	public ChangelistWatcher(final IOptionsServer server, final int lastChange, final Executor executor) {
+		super(server, "Changelist watcher", 5000, 60000);
+		Validate.notNull(executor);
+		this.executor = executor;
+		this.lastChange = lastChange;
+	}
+
+	/**
+	 * @param maxDescribeBatch maximum number of changelists described at once
+	 * @return this watcher
+	 */
+	public ChangelistWatcher setMaxDescribeBatch(final int maxDescribeBatch) {
+		Validate.isTrue(maxDescribeBatch > 0, "describe batch must be positive");
+		this.maxDescribeBatch = maxDescribeBatch;
+		return this;
+	}
+
+	/**
+	 * @param maxQueryPaths maximum number of paths passed to one 'changes'
+	 * @return this watcher
+	 */
+	public ChangelistWatcher setMaxQueryPaths(final int maxQueryPaths) {
+		Validate.isTrue(maxQueryPaths > 0, "query paths must be positive");
+		this.maxQueryPaths = maxQueryPaths;
+		return this;
+	}
+
+	/**
+	 * Subscribe to changelists submitted to the given paths.
+	 *
+	 * @param paths    depot paths, with wildcards; a path starting with '-'
+	 *                 excludes files matched by an earlier path
+	 * @param listener receives the changelists
+	 * @return the subscription
+	 */
+	public Subscription subscribe(final List<String> paths, final ChangelistListener listener) {
+		Validate.notEmpty(paths);
+		Validate.notNull(listener);
+		for (String path : paths) {
+			Validate.isTrue(nonNull(path) && path.indexOf('@') < 0 && path.indexOf('#') < 0,
+					"subscribed paths must be depot paths without revisions: %s", path);
+		}
+		List<String> sorted = new ArrayList<>(paths);
+		Collections.sort(sorted);
+		String key = String.join("\n", sorted);
+		synchronized (this) {
+			View view = views.get(key);
+			if (isNull(view)) {
+				view = new View(paths, server.isCaseSensitive());
+				views.put(key, view);
+				queryPaths = null;
+			}
+			Subscription subscription = new Subscription(Collections.unmodifiableList(new ArrayList<>(paths)), listener, view);
+			view.subscriptions.add(subscription);
+			return subscription;
+		}
+	}
+
+	/**
+	 * Poll the server once, notifying listeners of any newly submitted
+	 * changelists.
+	 *
+	 * @return number of new changelists found
+	 * @throws P4JavaException if the server cannot be queried
+	 */
+	public int poll() throws P4JavaException {
+		polls.incrementAndGet();
+		int latest = getLatestChange();
+		if (lastChange < 0) {
+			lastChange = latest;
+			return 0;
+		}
+		if (latest <= lastChange) {
+			return 0;
+		}
+
+		List<String> paths;
+		List<View> current;
+		synchronized (this) {
+			paths = getQueryPaths();
+			current = new ArrayList<>(views.values());
+		}
+		if (paths.isEmpty()) {
+			lastChange = latest;
+			return 0;
+		}
+
+		TreeSet<Integer> found = new TreeSet<>();
+		for (int i = 0; i < paths.size(); i += maxQueryPaths) {
+			List<String> args = new ArrayList<>();
+			args.add("-s");
+			args.add("submitted");
+			args.add("-e");
+			args.add(String.valueOf(lastChange + 1));
+			args.addAll(paths.subList(i, Math.min(i + maxQueryPaths, paths.size())));
+			queries.incrementAndGet();
+			String[] cmdArgs = args.toArray(new String[0]);
+			for (Map<String, Object> map : execute(() -> server.execMapCmdList(CHANGES, cmdArgs, null))) {
+				if (nonNull(map)) {
+					checkError(map);
+					Object change = map.get("change");
+					if (change instanceof String) {
+						found.add(Integer.parseInt((String) change));
+					}
+				}
+			}
+		}
+
+		int described = 0;
+		List<Integer> batch = new ArrayList<>(maxDescribeBatch);
+		for (int change : found.subSet(lastChange, false, latest, true)) {
+			batch.add(change);
+			if (batch.size() == maxDescribeBatch) {
+				int count = describe(batch, current);
+				described += count;
+				if (count < batch.size()) {
+					return stopBefore(batch.get(count), described);
+				}
+				batch.clear();
+			}
+		}
+		if (!batch.isEmpty()) {
+			int count = describe(batch, current);
+			described += count;
+			if (count < batch.size()) {
+				return stopBefore(batch.get(count), described);
+			}
+		}
+		lastChange = latest;
+		changes.addAndGet(described);
+		return described;
+	}
+
+	/**
+	 * Poll the server on the calling thread until closed.
+	 *
+	 * @throws P4JavaException if the server cannot be queried
+	 */
+	public void watch() throws P4JavaException {
+		pollUntilClosed();
+	}
+
+	@Override
+	protected Progress step() throws P4JavaException {
+		return poll() > 0 ? Progress.SOME : Progress.NONE;
+	}
+
+	/**
+	 * @return the last submitted changelist seen
+	 */
+	public int getLastChange() {
+		return lastChange;
+	}
+
+	/**
+	 * @return number of active subscriptions
+	 */
+	public synchronized int getSubscriptionCount() {
+		int count = 0;
+		for (View view : views.values()) {
+			count += view.subscriptions.size();
+		}
+		return count;
+	}
+
+	/**
+	 * @return number of distinct subscribed views
+	 */
+	public synchronized int getViewCount() {
+		return views.size();
+	}
+
+	public long getPollCount() {
+		return polls.get();
+	}
+
+	/**
+	 * @return number of 'changes' commands run
+	 */
+	public long getQueryCount() {
+		return queries.get();
+	}
+
+	/**
+	 * @return number of new changelists found
+	 */
+	public long getChangeCount() {
+		return changes.get();
+	}
+
+	/**
+	 * @return number of events dispatched to listeners
+	 */
+	public long getEventCount() {
+		return events.get();
+	}
+
+	private synchronized void unsubscribe(final Subscription subscription) {
+		View view = subscription.view;
+		view.subscriptions.remove(subscription);
+		if (view.subscriptions.isEmpty()) {
+			views.values().remove(view);
+			queryPaths = null;
+		}
+	}
+
+	/**
+	 * The union of all subscribed paths, less duplicates and paths that lie
+	 * under another; caller must hold the lock.
+	 */
+	private List<String> getQueryPaths() {
+		if (nonNull(queryPaths)) {
+			return queryPaths;
+		}
+		TreeSet<String> distinct = new TreeSet<>();
+		for (View view : views.values()) {
+			distinct.addAll(view.includes);
+		}
+		MapTable matcher = new MapTable();
+		List<String> paths = new ArrayList<>(distinct.size());
+		for (String path : distinct) {
+			boolean covered = false;
+			for (String other : distinct) {
+				if (!other.equals(path) && matcher.match(other, path)) {
+					covered = true;
+					break;
+				}
+			}
+			if (!covered) {
+				paths.add(path);
+			}
+		}
+		queryPaths = paths;
+		return paths;
+	}
+
+	/**
+	 * Describe and dispatch a batch of changelists, in order, up to the
+	 * first that could not be described.
+	 *
+	 * @return number of changelists dispatched
+	 */
+	private int describe(final List<Integer> batch, final List<View> current) throws P4JavaException {
+		String[] args = new String[batch.size() + 1];
+		args[0] = "-s";
+		for (int i = 0; i < batch.size(); i++) {
+			args[i + 1] = String.valueOf(batch.get(i));
+		}
+		List<Map<String, Object>> resultMaps = execute(() -> server.execMapCmdList(DESCRIBE, args, null));
+
+		// Deliver in changelist order whatever order the server used.
+		Map<Integer, Map<String, Object>> described = new TreeMap<>();
+		for (Map<String, Object> map : resultMaps) {
+			if (isNull(map)) {
+				continue;
+			}
+			String errStr = ResultMapParser.getErrorStr(map);
+			if (nonNull(errStr)) {
+				Log.warn("Unable to describe changelist: " + errStr);
+				continue;
+			}
+			Object change = map.get("change");
+			if (change instanceof String) {
+				described.put(Integer.parseInt((String) change), map);
+			}
+		}
+
+		int count = 0;
+		for (int change : batch) {
+			Map<String, Object> map = described.get(change);
+			if (isNull(map)) {
+				break;
+			}
+			dispatch(change, map, current);
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Leave the last change seen just before a changelist that could not be
+	 * described, so the next poll tries it again.
+	 */
+	private int stopBefore(final int change, final int described) {
+		Log.warn("Changelist watcher stopped before change " + change + ", which could not be described");
+		lastChange = change - 1;
+		changes.addAndGet(described);
+		return described;
+	}
+
+	private void dispatch(final int change, final Map<String, Object> map, final List<View> current) {
+		IChangelistSummary changelist = null;
+		for (View view : current) {
+			if (view.subscriptions.isEmpty()) {
+				continue;
+			}
+			List<IFileSpec> files = new ArrayList<>();
+			for (int i = 0; map.get(DEPOT_FILE + i) instanceof String; i++) {
+				if (view.matches((String) map.get(DEPOT_FILE + i))) {
+					FileSpec fileSpec = new FileSpec(map, server, i);
+					fileSpec.setChangelistId(change);
+					files.add(fileSpec);
+				}
+			}
+			if (files.isEmpty()) {
+				continue;
+			}
+			if (isNull(changelist)) {
+				changelist = new ChangelistSummary(map, true);
+			}
+			List<IFileSpec> viewFiles = Collections.unmodifiableList(files);
+			for (Subscription subscription : view.subscriptions) {
+				subscription.deliver(new ChangelistEvent(subscription, changelist, viewFiles));
+				events.incrementAndGet();
+			}
+		}
+	}
+
+	private int getLatestChange() throws P4JavaException {
+		for (Map<String, Object> map : execute(() -> server.execMapCmdList(CHANGES, new String[]{"-m1", "-s", "submitted"}, null))) {
+			if (nonNull(map)) {
+				checkError(map);
+				Object change = map.get("change");
+				if (change instanceof String) {
+					return Integer.parseInt((String) change);
+				}
+			}
+		}
+		return 0;
+	}
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.impl.mapbased.server;
+
+import com.perforce.p4java.Log;
+import com.perforce.p4java.PropertyDefs;
+import com.perforce.p4java.graph.ICommit;
+import com.perforce.p4java.graph.IGraphListTree;
+import com.perforce.p4java.graph.IGraphObject;
+import com.perforce.p4java.graph.IGraphObjectCache;
+import com.perforce.p4java.util.FilesHelper;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Default graph object cache: an in-heap LRU for commits, trees and object
+ * types, plus an on-disk blob store bounded by total size.
+ * <p>
+ * Blobs are stored in a directory private to the current user under the
+ * P4Java tmp directory, as {@code p4java-graph-cache-<user>/<sha256 of
+ * repo>-<sha>}, and are only stored once their content has been verified
+ * against the SHA, so an error response can never be cached as content.
+ * Blobs already in the store when the cache is created are picked up and
+ * verified the first time each is read; see {@link BlobStore}.
+ * <p>
+ * Server objects qualify the repo with their server address and user name,
+ * so one user is never given objects fetched for another. The cache is
+ * only used by server objects created with the
+ * {@link PropertyDefs#ENABLE_GRAPH_OBJECT_CACHE} property set, or given one
+ * explicitly.
+ *
+ * @since 2025.2
+ */
+public class GraphObjectCache implements IGraphObjectCache {
+
+	/**
+	 * Name of the blob store directory, under the P4Java tmp directory.
+	 */
+	public static final String CACHE_DIR_NAME = "p4java-graph-cache";
+
+	private static final String NO_REPO = "-";
+	private static final String NO_REPO_HASH = DigestUtils.sha256Hex(NO_REPO);
+	private static final Pattern BLOB_NAME_PATTERN = Pattern.compile("([0-9a-f]{64}-(?:[0-9a-f]{40}|[0-9a-f]{64}))");
+
+	private static final ConcurrentMap<String, GraphObjectCache> sharedCaches = new ConcurrentHashMap<>();
+
+	private final int maxObjects;
+	private final BlobStore blobs;
+
+	// In access order and guarded by this.
+	private final LinkedHashMap<String, Object> objects;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * Get the process-wide cache for a tmp directory, creating it with the
+	 * given limits if need be. If the user's private blob store directory
+	 * cannot be used, the cache keeps no blobs.
+	 * <p>
+	 * The limits only apply when the cache is created: once it exists, every
+	 * caller for the same tmp directory shares it with the limits its first
+	 * caller gave, and a caller giving different limits is warned.
+	 *
+	 * @param tmpDirName   P4Java tmp directory
+	 * @param maxObjects   maximum number of commits, trees and object types held
+	 * @param maxBlobBytes maximum total size of the blob store
+	 * @return the shared cache
+	 */
+	public static GraphObjectCache getSharedCache(final String tmpDirName, final int maxObjects, final long maxBlobBytes) {
+		File dir;
+		long maxBytes = maxBlobBytes;
+		try {
+			dir = FilesHelper.getPrivateDirectory(tmpDirName, CACHE_DIR_NAME);
+		} catch (IOException e) {
+			Log.warn("Graph blob store disabled: " + e.getLocalizedMessage());
+			dir = new File(tmpDirName, CACHE_DIR_NAME);
+			maxBytes = 0;
+		}
+		final File blobDir = dir;
+		final long blobBytes = maxBytes;
+		GraphObjectCache cache = sharedCaches.computeIfAbsent(blobDir.getAbsolutePath(),
+				k -> new GraphObjectCache(blobDir, maxObjects, blobBytes));
+		if (cache.maxObjects != maxObjects || cache.blobs.getMaxBytes() != blobBytes) {
+			Log.warn("Graph object cache " + blobDir.getPath() + " already created with limits "
+					+ cache.maxObjects + " objects and " + cache.blobs.getMaxBytes() + " blob bytes; ignoring "
+					+ maxObjects + " objects and " + blobBytes + " blob bytes");
+		}
+		return cache;
+	}
+
+	/**
+	 * @param blobDir      blob store directory; created if need be, and must
+	 *                     not be writable by other users
+	 * @param maxObjects   maximum number of commits, trees and object types held
+	 * @param maxBlobBytes maximum total size of the blob store; zero or less
+	 *                     means blobs are not stored
+	 */
+	public GraphObjectCache(final File blobDir, final int maxObjects, final long maxBlobBytes) {
+		this.maxObjects = maxObjects;
+		this.blobs = new BlobStore(blobDir, maxBlobBytes, BLOB_NAME_PATTERN,
+				file -> isBlobContent(file, file.getName().substring(file.getName().indexOf('-') + 1)),
+				"graph blob");
+		this.objects = new LinkedHashMap<String, Object>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+				return size() > GraphObjectCache.this.maxObjects;
+			}
+		};
+	}
+
+	@Override
+	public ICommit getCommit(final String repo, final String sha) {
+		return (ICommit) getObject("commit", repo, sha);
+	}
+
+	@Override
+	public void putCommit(final String repo, final String sha, final ICommit commit) {
+		putObject("commit", repo, sha, commit);
+	}
+
+	@Override
+	public List<IGraphListTree> getTree(final String repo, final String sha) {
+		@SuppressWarnings("unchecked")
+		List<IGraphListTree> tree = (List<IGraphListTree>) getObject("tree", repo, sha);
+		return isNull(tree) ? null : new ArrayList<>(tree);
+	}
+
+	@Override
+	public void putTree(final String repo, final String sha, final List<IGraphListTree> tree) {
+		if (nonNull(tree)) {
+			putObject("tree", repo, sha, Collections.unmodifiableList(new ArrayList<>(tree)));
+		}
+	}
+
+	@Override
+	public IGraphObject getObject(final String repo, final String sha) {
+		return (IGraphObject) getObject("type", repo, sha);
+	}
+
+	@Override
+	public void putObject(final String repo, final String sha, final IGraphObject object) {
+		putObject("type", repo, sha, object);
+	}
+
+	@Override
+	public InputStream getBlob(final String repo, final String sha) throws IOException {
+		File file = blobs.open(blobName(repo, sha));
+		if (nonNull(file)) {
+			try {
+				InputStream in = new FileInputStream(file);
+				hits.incrementAndGet();
+				return in;
+			} catch (IOException e) {
+				// Evicted since it was opened.
+			}
+		}
+		misses.incrementAndGet();
+		return null;
+	}
+
+	@Override
+	public InputStream putBlob(final String repo, final String sha, final InputStream content) throws IOException {
+		if (!blobs.isEnabled()) {
+			return content;
+		}
+
+		File tmpFile = blobs.createTempFile();
+		try (InputStream in = content; OutputStream out = Files.newOutputStream(tmpFile.toPath())) {
+			IOUtils.copyLarge(in, out);
+		} catch (IOException e) {
+			Files.deleteIfExists(tmpFile.toPath());
+			throw e;
+		}
+
+		if (tmpFile.length() > blobs.getMaxBytes() || !isBlobContent(tmpFile, sha)) {
+			return BlobStore.deleteOnClose(tmpFile);
+		}
+		String name = blobName(repo, sha);
+		return new FileInputStream(blobs.store(name, name, tmpFile));
+	}
+
+	@Override
+	public void clear() {
+		synchronized (this) {
+			objects.clear();
+		}
+		blobs.clear();
+	}
+
+	@Override
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	@Override
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * @return number of commits, trees and object types held in memory
+	 */
+	public synchronized int getObjectCount() {
+		return objects.size();
+	}
+
+	/**
+	 * @return total size in bytes of the blobs in the blob store
+	 */
+	public long getBlobStoreBytes() {
+		return blobs.getBytes();
+	}
+
+	/**
+	 * @return the blob store directory
+	 */
+	public File getBlobDir() {
+		return blobs.getDir();
+	}
+
+	private Object getObject(final String kind, final String repo, final String sha) {
+		Object value;
+		synchronized (this) {
+			value = objects.get(objectKey(kind, repo, sha));
+		}
+		if (isNull(value)) {
+			misses.incrementAndGet();
+		} else {
+			hits.incrementAndGet();
+		}
+		return value;
+	}
+
+	private void putObject(final String kind, final String repo, final String sha, final Object value) {
+		if (nonNull(sha) && nonNull(value) && maxObjects > 0) {
+			synchronized (this) {
+				objects.put(objectKey(kind, repo, sha), value);
+			}
+		}
+	}
+
+	private static String objectKey(final String kind, final String repo, final String sha) {
+		return kind + ":" + (isNull(repo) ? NO_REPO : repo) + ":" + sha;
+	}
+
+	private static String blobName(final String repo, final String sha) {
+		return (isNull(repo) ? NO_REPO_HASH : DigestUtils.sha256Hex(repo)) + "-" + sha.toLowerCase(Locale.ENGLISH);
+	}
+
+	/**
+	 * Check the content against its Git object id: the SHA-1 (or SHA-256)
+	 * of "blob {length}\0" followed by the content.
+	 */
+	private static boolean isBlobContent(final File file, final String sha) throws IOException {
+		String algorithm = sha.length() == 64 ? "SHA-256" : "SHA-1";
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance(algorithm);
+		} catch (NoSuchAlgorithmException e) {
+			return false;
+		}
+		digest.update(("blob " + file.length() + "\0").getBytes(StandardCharsets.US_ASCII));
+		byte[] buf = new byte[64 * 1024];
+		try (InputStream in = new FileInputStream(file)) {
+			int len;
+			while ((len = in.read(buf)) > 0) {
+				digest.update(buf, 0, len);
+			}
+		}
+		return sha.equalsIgnoreCase(Hex.encodeHexString(digest.digest()));
+	}
+}
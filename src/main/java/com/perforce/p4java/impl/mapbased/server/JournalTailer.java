@@ -0,0 +1,474 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.impl.mapbased.server;
+
+import com.perforce.p4java.Log;
+import com.perforce.p4java.exception.P4JavaException;
+import com.perforce.p4java.exception.RequestException;
+import com.perforce.p4java.option.server.ExportRecordsOptions;
+import com.perforce.p4java.server.IOptionsServer;
+import org.apache.commons.lang3.Validate;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Follows the server journal with repeated 'export -j', handing the records
+ * to a consumer in bounded batches and recording the position reached in a
+ * checkpoint.
+ * <p>
+ * Each batch is at most {@link #setBatchSize(long)} records, exported from
+ * the position in the checkpoint. The consumer is called synchronously and
+ * the next batch is not fetched until it returns, so a slow consumer simply
+ * slows the tailer down; the checkpoint is only moved past a batch once the
+ * consumer has returned normally. Delivery is therefore at least once: after
+ * a failure or restart, the batch in hand when it happened is exported and
+ * delivered again.
+ * <p>
+ * The position to continue from is taken from the last record of each
+ * export, which carries the journal number and the offset following the
+ * records returned ("journal" and "sequence", or "offset" on some servers),
+ * and is never passed on to the consumer. When the current journal has no
+ * more records and the server's journal counter shows it has since been
+ * rotated, the journal is exported once more, as records may have been
+ * written to it between the last export and the rotation; the tailer only
+ * moves on to the start of the next journal once an export made after the
+ * rotation was seen returns nothing. While there is nothing new, the server
+ * is polled at intervals backing off from {@link #setPollInterval(long)} to
+ * {@link #setMaxPollInterval(long)}.
+ * <p>
+ * Connection failures are retried as described for {@link PollingFollower};
+ * any other failure, including an exception thrown by the consumer, stops
+ * the tailer.
+ * <p>
+ * The tailer needs a server object of its own, logged in as a user allowed
+ * to run 'export' (super, or operator for journal export).
+ *
+ * @since 2025.2
+ */
+public class JournalTailer extends PollingFollower<JournalTailer> {
+
+	/**
+	 * Fields of the trailing position record of an 'export -j'.
+	 */
+	public static final String JOURNAL_KEY = "journal";
+	public static final String SEQUENCE_KEY = "sequence";
+	public static final String OFFSET_KEY = "offset";
+
+	/**
+	 * Name of the counter holding the server's current journal number.
+	 */
+	public static final String JOURNAL_COUNTER = "journal";
+
+	/**
+	 * Receives each batch of journal records.
+	 */
+	@FunctionalInterface
+	public interface RecordConsumer {
+		/**
+		 * Handle a batch of records. Returning normally acknowledges the
+		 * batch, and the checkpoint is moved on to the given position;
+		 * throwing stops the tailer with the checkpoint left where it was.
+		 *
+		 * @param records non-empty list of exported journal records
+		 * @param next    the position following the last of the records
+		 * @throws Exception if the batch could not be handled
+		 */
+		void accept(List<Map<String, Object>> records, Position next) throws Exception;
+	}
+
+	/**
+	 * Persists the position reached.
+	 */
+	public interface CheckpointStore {
+		/**
+		 * @return the saved position, or null if there is none
+		 * @throws IOException if the checkpoint cannot be read
+		 */
+		Position load() throws IOException;
+
+		/**
+		 * Save the position; when this returns the position must survive a
+		 * restart, and a failure part way must leave the previous one.
+		 *
+		 * @param position position to save
+		 * @throws IOException if the checkpoint cannot be written
+		 */
+		void save(Position position) throws IOException;
+	}
+
+	/**
+	 * A position in the journal: a journal number and an offset into it.
+	 */
+	public static final class Position {
+		private final int journal;
+		private final long offset;
+
+		/**
+		 * @param journal journal number
+		 * @param offset  offset into the journal
+		 */
+		public Position(final int journal, final long offset) {
+			this.journal = journal;
+			this.offset = offset;
+		}
+
+		/**
+		 * Parse a position in the "journal/offset" form used by 'export -j'.
+		 *
+		 * @param value position string; a bare journal number means offset 0
+		 * @return the position
+		 * @throws NumberFormatException if the value is not a position
+		 */
+		public static Position parse(final String value) {
+			Validate.notNull(value);
+			String trimmed = value.trim();
+			int slash = trimmed.indexOf('/');
+			if (slash < 0) {
+				return new Position(Integer.parseInt(trimmed), 0);
+			}
+			return new Position(Integer.parseInt(trimmed.substring(0, slash)),
+					Long.parseLong(trimmed.substring(slash + 1)));
+		}
+
+		public int getJournal() {
+			return journal;
+		}
+
+		public long getOffset() {
+			return offset;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Position)) {
+				return false;
+			}
+			Position other = (Position) obj;
+			return journal == other.journal && offset == other.offset;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * journal + Long.hashCode(offset);
+		}
+
+		/**
+		 * @return the position in "journal/offset" form
+		 */
+		@Override
+		public String toString() {
+			return journal + "/" + offset;
+		}
+	}
+
+	/**
+	 * Keeps the position in a small text file, replaced atomically on each
+	 * save by writing a temporary file alongside it and renaming it over the
+	 * old one.
+	 */
+	public static class FileCheckpointStore implements CheckpointStore {
+		private static final String TMP_FILE_SFX = ".tmp";
+
+		private final Path path;
+
+		/**
+		 * @param file checkpoint file; its directory must exist
+		 */
+		public FileCheckpointStore(final File file) {
+			Validate.notNull(file);
+			this.path = file.toPath();
+		}
+
+		@Override
+		public Position load() throws IOException {
+			if (!Files.exists(path)) {
+				return null;
+			}
+			String value = new String(Files.readAllBytes(path), StandardCharsets.UTF_8).trim();
+			if (value.isEmpty()) {
+				return null;
+			}
+			try {
+				return Position.parse(value);
+			} catch (NumberFormatException e) {
+				throw new IOException("Invalid journal checkpoint '" + value + "' in " + path, e);
+			}
+		}
+
+		@Override
+		public void save(final Position position) throws IOException {
+			Path tmp = path.resolveSibling(path.getFileName() + TMP_FILE_SFX);
+			try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING)) {
+				channel.write(ByteBuffer.wrap(position.toString().getBytes(StandardCharsets.UTF_8)));
+				channel.force(true);
+			}
+			try {
+				Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+	}
+
+	private final CheckpointStore store;
+	private final RecordConsumer consumer;
+	private final Position start;
+
+	private long batchSize = 10000;
+	private String journalPrefix = null;
+	private String filter = null;
+	private boolean format = false;
+	private String skipFieldPattern = null;
+
+	// Guarded by this.
+	private Position position = null;
+
+	private final AtomicLong batches = new AtomicLong();
+	private final AtomicLong records = new AtomicLong();
+
+	/**
+	 * @param server   connected and logged in server to export from
+	 * @param store    where the position reached is kept
+	 * @param start    position to start from if the store has none
+	 * @param consumer receives the records
+	 */
+	public JournalTailer(final IOptionsServer server, final CheckpointStore store, final Position start,
+	                     final RecordConsumer consumer) {
+		super(server, "Journal tailer", 1000, 30000);
+		Validate.notNull(store);
+		Validate.notNull(start);
+		Validate.notNull(consumer);
+		this.store = store;
+		this.start = start;
+		this.consumer = consumer;
+	}
+
+	/**
+	 * @param batchSize maximum number of records exported and delivered at once
+	 * @return this tailer
+	 */
+	public JournalTailer setBatchSize(final long batchSize) {
+		Validate.isTrue(batchSize > 0, "batch size must be positive");
+		this.batchSize = batchSize;
+		return this;
+	}
+
+	/**
+	 * @param journalPrefix journal file prefix, as for 'export -J'
+	 * @return this tailer
+	 */
+	public JournalTailer setJournalPrefix(final String journalPrefix) {
+		this.journalPrefix = journalPrefix;
+		return this;
+	}
+
+	/**
+	 * @param filter record filter, as for 'export -F'
+	 * @return this tailer
+	 */
+	public JournalTailer setFilter(final String filter) {
+		this.filter = filter;
+		return this;
+	}
+
+	/**
+	 * @param format format non-textual values, as for 'export -f'
+	 * @return this tailer
+	 */
+	public JournalTailer setFormat(final boolean format) {
+		this.format = format;
+		return this;
+	}
+
+	/**
+	 * @param skipFieldPattern pattern matching the fields whose values are
+	 *                         left as bytes rather than converted to strings;
+	 *                         see {@link ExportRecordsOptions#setSkipFieldPattern(String)}.
+	 *                         Null, the default, converts every field
+	 * @return this tailer
+	 */
+	public JournalTailer setSkipFieldPattern(final String skipFieldPattern) {
+		this.skipFieldPattern = skipFieldPattern;
+		return this;
+	}
+
+	/**
+	 * Follow the journal on the calling thread until closed.
+	 *
+	 * @throws P4JavaException if the tailer stops on an error; a consumer's
+	 *                         exception is wrapped in a P4JavaException
+	 */
+	public void tail() throws P4JavaException {
+		pollUntilClosed();
+	}
+
+	@Override
+	protected Progress step() throws P4JavaException {
+		Position from = getPosition();
+		return poll() > 0 || !from.equals(getPosition()) ? Progress.MORE : Progress.NONE;
+	}
+
+	/**
+	 * Export and deliver a single batch from the current position, moving the
+	 * checkpoint on if the consumer accepts it.
+	 *
+	 * @return number of records delivered; zero if there was nothing new
+	 * @throws P4JavaException if exporting, delivering or checkpointing fails
+	 */
+	public int poll() throws P4JavaException {
+		Position from = getPosition();
+		List<Map<String, Object>> batch = new ArrayList<>();
+		Position next = export(from, batch);
+		if (batch.isEmpty() && next.equals(from) && isRotated(from)) {
+			// The journal can no longer grow, but may have done so since the
+			// export above; only move on once it is known to be drained.
+			next = export(from, batch);
+			if (batch.isEmpty() && next.equals(from)) {
+				Log.info("Journal " + from.getJournal() + " rotated; continuing from journal " + (from.getJournal() + 1));
+				next = new Position(from.getJournal() + 1, 0);
+			}
+		}
+		if (!batch.isEmpty()) {
+			try {
+				consumer.accept(batch, next);
+			} catch (Exception e) {
+				throw new P4JavaException("Journal record consumer failed at " + from + ": " + e.getMessage(), e);
+			}
+			batches.incrementAndGet();
+			records.addAndGet(batch.size());
+		}
+		if (!next.equals(from)) {
+			commit(next);
+		}
+		return batch.size();
+	}
+
+	/**
+	 * @return the position the next batch will be exported from
+	 * @throws P4JavaException if the checkpoint cannot be read
+	 */
+	public synchronized Position getPosition() throws P4JavaException {
+		if (isNull(position)) {
+			try {
+				Position saved = store.load();
+				position = nonNull(saved) ? saved : start;
+			} catch (IOException e) {
+				throw new P4JavaException("Unable to read journal checkpoint: " + e.getMessage(), e);
+			}
+		}
+		return position;
+	}
+
+	/**
+	 * @return number of batches delivered
+	 */
+	public long getBatchCount() {
+		return batches.get();
+	}
+
+	/**
+	 * @return number of records delivered
+	 */
+	public long getRecordCount() {
+		return records.get();
+	}
+
+	/**
+	 * Export a batch from the given position into the list.
+	 *
+	 * @return the position following the records exported
+	 */
+	private Position export(final Position from, final List<Map<String, Object>> batch) throws P4JavaException {
+		ExportRecordsOptions opts = new ExportRecordsOptions()
+				.setUseJournal(true)
+				.setSourceNum(from.getJournal())
+				.setOffset(from.getOffset())
+				.setMaxRecs(batchSize)
+				.setJournalPrefix(journalPrefix)
+				.setFilter(filter)
+				.setFormat(format)
+				.setSkipDataConversion(nonNull(skipFieldPattern))
+				.setSkipFieldPattern(skipFieldPattern);
+
+		Position next = null;
+		for (Map<String, Object> record : execute(() -> server.getExportRecords(opts))) {
+			Position trailer = toPosition(record);
+			if (nonNull(trailer)) {
+				next = trailer;
+			} else if (nonNull(record)) {
+				batch.add(record);
+			}
+		}
+		if (isNull(next)) {
+			if (!batch.isEmpty()) {
+				throw new RequestException("Journal export from " + from + " returned no position");
+			}
+			return from;
+		}
+		return next;
+	}
+
+	/**
+	 * @return true if the server's journal counter shows the journal of the
+	 * given position has been rotated
+	 */
+	private boolean isRotated(final Position from) throws P4JavaException {
+		String counter = execute(() -> server.getCounter(JOURNAL_COUNTER));
+		try {
+			return nonNull(counter) && Integer.parseInt(counter.trim()) > from.getJournal();
+		} catch (NumberFormatException e) {
+			// Not set; nothing to go on.
+			return false;
+		}
+	}
+
+	private synchronized void commit(final Position next) throws P4JavaException {
+		try {
+			store.save(next);
+		} catch (IOException e) {
+			throw new P4JavaException("Unable to save journal checkpoint " + next + ": " + e.getMessage(), e);
+		}
+		position = next;
+	}
+
+	/**
+	 * @return the position carried by an export's trailing record, or null
+	 * if the record is a journal record
+	 */
+	private static Position toPosition(final Map<String, Object> record) {
+		if (isNull(record) || record.containsKey("table") || !(record.get(JOURNAL_KEY) instanceof String)) {
+			return null;
+		}
+		Object offset = record.containsKey(SEQUENCE_KEY) ? record.get(SEQUENCE_KEY) : record.get(OFFSET_KEY);
+		if (!(offset instanceof String)) {
+			return null;
+		}
+		try {
+			return new Position(Integer.parseInt(((String) record.get(JOURNAL_KEY)).trim()),
+					Long.parseLong(((String) offset).trim()));
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+}
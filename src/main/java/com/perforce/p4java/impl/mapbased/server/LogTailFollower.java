@@ -0,0 +1,485 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.impl.mapbased.server;
+
+import com.perforce.p4java.Log;
+import com.perforce.p4java.exception.P4JavaException;
+import com.perforce.p4java.option.server.LogTailOptions;
+import com.perforce.p4java.server.IOptionsServer;
+import com.perforce.p4java.server.callback.IStreamingCallback;
+import org.apache.commons.lang3.Validate;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.perforce.p4java.common.base.P4ResultMapUtils.parseString;
+import static com.perforce.p4java.impl.mapbased.rpc.func.RpcFunctionMapKey.DATA;
+import static com.perforce.p4java.impl.mapbased.rpc.func.RpcFunctionMapKey.FILE;
+import static com.perforce.p4java.impl.mapbased.rpc.func.RpcFunctionMapKey.OFFSET;
+import static com.perforce.p4java.impl.mapbased.server.Parameters.processParameters;
+import static com.perforce.p4java.server.CmdSpec.LOGTAIL;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Follows the server log with repeated 'logtail -s offset', handing each
+ * complete line to a consumer as it arrives.
+ * <p>
+ * Each poll streams at most {@link #setMaxBlocks(int)} blocks of
+ * {@link #setBlockSize(long)} bytes over the server object's connection,
+ * which is kept open between polls; the data is split into lines as it is
+ * read rather than collected, and a line left incomplete at the end of a
+ * poll is held over until the rest of it arrives. When a poll returns
+ * nothing new the next one waits longer, backing off from
+ * {@link #setPollInterval(long)} to {@link #setMaxPollInterval(long)}; as
+ * long as there is more to read, polls follow each other immediately.
+ * <p>
+ * Each line is delivered with the offset following it, so a follower can be
+ * resumed where a previous one left off; offsets are byte offsets into the
+ * log. Each block's offsets are anchored on the offsets the server reports
+ * for it, and a line ending within a block is placed by the UTF-8 length of
+ * the text before or after it; where a block holds bytes that were not
+ * valid UTF-8 (or a character split by a block boundary) and so cannot be
+ * measured, the offset given is the lowest the line could end at, so a
+ * resumed follower may see part of a line again but never misses one.
+ * Lines are passed on without their line terminator.
+ * <p>
+ * The consumer is called synchronously from the thread reading the log, so
+ * a slow consumer slows the follower down rather than letting lines pile up;
+ * {@link #openReader} wraps a follower in a Reader backed by a bounded
+ * buffer. Connection failures are retried as described for
+ * {@link PollingFollower}, restarting the poll from where the last complete
+ * line ended; any other failure stops the follower.
+ * <p>
+ * The follower needs a server object of its own, logged in as a super user.
+ *
+ * @since 2025.2
+ */
+public class LogTailFollower extends PollingFollower<LogTailFollower> {
+
+	private static final char REPLACEMENT_CHAR = '\uFFFD';
+
+	/**
+	 * Receives each line of the log.
+	 */
+	@FunctionalInterface
+	public interface LineConsumer {
+		/**
+		 * @param line       a log line, without its line terminator
+		 * @param nextOffset the offset in the log following the line
+		 * @throws Exception if the line could not be handled; this stops the
+		 *                   follower
+		 */
+		void accept(String line, long nextOffset) throws Exception;
+	}
+
+	private final LineConsumer consumer;
+
+	private long blockSize = 8192;
+	private int maxBlocks = 64;
+
+	// Only touched by the polling thread.
+	private final StringBuilder partial = new StringBuilder();
+	private long lineStart;
+	private long serverOffset;
+
+	private volatile long offset;
+	private volatile String logFile = null;
+
+	private final AtomicLong lines = new AtomicLong();
+
+	/**
+	 * @param server      connected and logged in server whose log is followed
+	 * @param startOffset offset to start from, e.g. the offset following the
+	 *                    last line handled by an earlier follower; negative to
+	 *                    start from the current end of the log
+	 * @param consumer    receives the lines
+	 */
+	public LogTailFollower(final IOptionsServer server, final long startOffset, final LineConsumer consumer) {
+		super(server, "Log follower", 500, 10000);
+		Validate.notNull(consumer);
+		this.consumer = consumer;
+		this.offset = startOffset;
+		this.lineStart = startOffset;
+		this.serverOffset = startOffset;
+	}
+
+	/**
+	 * Start following the log on the given executor, reading the lines
+	 * through a Reader. At most maxBufferedLines lines are held; while the
+	 * buffer is full the follower waits for the reader to catch up. The
+	 * reader sees the end of the stream once the follower stops, and closing
+	 * it stops the follower.
+	 *
+	 * @param server           server whose log is followed
+	 * @param startOffset      offset to start from; negative for the current
+	 *                         end of the log
+	 * @param maxBufferedLines maximum number of lines held for the reader
+	 * @param executor         executor to run the follower on
+	 * @return the reader; lines are terminated by '\n'
+	 */
+	public static LogReader openReader(final IOptionsServer server, final long startOffset,
+	                                   final int maxBufferedLines, final Executor executor) {
+		LogReader reader = new LogReader(maxBufferedLines);
+		reader.follower = new LogTailFollower(server, startOffset, reader::put);
+		reader.follower.start(executor).whenComplete((ignored, failure) -> reader.finish(failure));
+		return reader;
+	}
+
+	/**
+	 * @param blockSize block size in bytes, as for 'logtail -b'
+	 * @return this follower
+	 */
+	public LogTailFollower setBlockSize(final long blockSize) {
+		Validate.isTrue(blockSize > 0, "block size must be positive");
+		this.blockSize = blockSize;
+		return this;
+	}
+
+	/**
+	 * @param maxBlocks maximum number of blocks read per poll, as for
+	 *                  'logtail -m'
+	 * @return this follower
+	 */
+	public LogTailFollower setMaxBlocks(final int maxBlocks) {
+		Validate.isTrue(maxBlocks > 0, "max blocks must be positive");
+		this.maxBlocks = maxBlocks;
+		return this;
+	}
+
+	/**
+	 * Follow the log on the calling thread until closed.
+	 *
+	 * @throws P4JavaException if the follower stops on an error; a consumer's
+	 *                         exception is wrapped in a P4JavaException
+	 */
+	public void follow() throws P4JavaException {
+		pollUntilClosed();
+	}
+
+	@Override
+	protected Progress step() throws P4JavaException {
+		long read = poll();
+		if (read >= blockSize * maxBlocks) {
+			return Progress.MORE;
+		}
+		return read > 0 ? Progress.SOME : Progress.NONE;
+	}
+
+	/**
+	 * Read whatever the log has past the current position, delivering each
+	 * complete line.
+	 *
+	 * @return number of bytes read
+	 * @throws P4JavaException if reading or delivering fails
+	 */
+	public long poll() throws P4JavaException {
+		if (serverOffset < 0) {
+			findEnd();
+			return 0;
+		}
+		long from = serverOffset;
+		LogTailOptions opts = new LogTailOptions(blockSize, from, maxBlocks);
+		String[] args = processParameters(opts, server);
+		IStreamingCallback callback = new IStreamingCallback() {
+			@Override
+			public boolean startResults(final int key) {
+				return true;
+			}
+
+			@Override
+			public boolean endResults(final int key) {
+				return true;
+			}
+
+			@Override
+			public boolean handleResult(final Map<String, Object> resultMap, final int key) throws P4JavaException {
+				return handleBlock(resultMap);
+			}
+		};
+		execute(() -> {
+			server.execStreamingMapCommand(LOGTAIL.toString(), args, null, callback, 0);
+			return null;
+		});
+		return serverOffset - from;
+	}
+
+	/**
+	 * @return the offset following the last line delivered, from which a
+	 * new follower can resume; negative until the end of the log has been
+	 * found when starting from the end
+	 */
+	public long getOffset() {
+		return offset;
+	}
+
+	/**
+	 * @return the server log file name, once known
+	 */
+	public String getLogFile() {
+		return logFile;
+	}
+
+	/**
+	 * @return number of lines delivered
+	 */
+	public long getLineCount() {
+		return lines.get();
+	}
+
+	/**
+	 * Find the current end of the log with a minimal 'logtail -b 1'.
+	 */
+	private void findEnd() throws P4JavaException {
+		String[] args = processParameters(new LogTailOptions(1, -1, 0), server);
+		for (Map<String, Object> map : execute(() -> server.execMapCmdList(LOGTAIL, args, null))) {
+			if (nonNull(map)) {
+				checkError(map);
+				if (map.containsKey(FILE)) {
+					logFile = parseString(map, FILE);
+				}
+				if (map.containsKey(OFFSET)) {
+					serverOffset = Long.parseLong(parseString(map, OFFSET));
+				}
+			}
+		}
+		if (serverOffset >= 0) {
+			lineStart = serverOffset;
+			offset = serverOffset;
+		}
+	}
+
+	private boolean handleBlock(final Map<String, Object> map) throws P4JavaException {
+		if (isNull(map)) {
+			return !isClosed();
+		}
+		checkError(map);
+		if (map.containsKey(FILE)) {
+			logFile = parseString(map, FILE);
+		}
+		long blockEnd = -1;
+		if (map.containsKey(OFFSET)) {
+			try {
+				blockEnd = Long.parseLong(parseString(map, OFFSET));
+			} catch (NumberFormatException e) {
+				Log.exception(e);
+			}
+		}
+		String data = map.containsKey(DATA) ? parseString(map, DATA) : null;
+		if (nonNull(data)) {
+			if (blockEnd < 0) {
+				blockEnd = serverOffset + utf8Length(data, 0, data.length(), false);
+			}
+			split(data, serverOffset, blockEnd);
+		}
+		if (blockEnd >= 0) {
+			serverOffset = blockEnd;
+		}
+		return !isClosed();
+	}
+
+	/**
+	 * Split a block into lines. The block starts at blockStart and ends at
+	 * blockEnd, as reported by the server; if its text does not re-encode to
+	 * that many bytes, it holds replacement characters for undecodable bytes,
+	 * and line ends are measured from whichever end of the block has none in
+	 * between, or else given their lowest possible offset.
+	 */
+	private void split(final String data, final long blockStart, final long blockEnd) throws P4JavaException {
+		boolean exact = utf8Length(data, 0, data.length(), false) == blockEnd - blockStart;
+		int firstBad = exact ? data.length() : data.indexOf(REPLACEMENT_CHAR);
+		int lastBad = exact ? -1 : data.lastIndexOf(REPLACEMENT_CHAR);
+		if (firstBad < 0) {
+			// Lengths disagree with nothing to account for it; trust neither end.
+			firstBad = 0;
+			lastBad = data.length();
+		}
+
+		int start = 0;
+		int newline;
+		while ((newline = data.indexOf('\n', start)) >= 0) {
+			partial.append(data, start, newline);
+			int next = newline + 1;
+			long nextOffset;
+			if (next <= firstBad) {
+				nextOffset = blockStart + utf8Length(data, 0, next, false);
+			} else if (next > lastBad) {
+				nextOffset = blockEnd - utf8Length(data, next, data.length(), false);
+			} else {
+				nextOffset = blockStart + utf8Length(data, 0, next, true);
+			}
+			lineStart = Math.max(lineStart, Math.min(nextOffset, blockEnd));
+			int end = partial.length();
+			if (end > 0 && partial.charAt(end - 1) == '\r') {
+				end--;
+			}
+			String line = partial.substring(0, end);
+			partial.setLength(0);
+			try {
+				consumer.accept(line, lineStart);
+			} catch (P4JavaException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new P4JavaException("Log line consumer failed at " + lineStart + ": " + e.getMessage(), e);
+			}
+			offset = lineStart;
+			lines.incrementAndGet();
+			start = newline + 1;
+		}
+		partial.append(data, start, data.length());
+	}
+
+	/**
+	 * @param minReplacement count each replacement character as one byte,
+	 *                       the fewest it can stand for, rather than the
+	 *                       three bytes it encodes to
+	 * @return the UTF-8 length of part of a string
+	 */
+	private static long utf8Length(final CharSequence chars, final int from, final int to, final boolean minReplacement) {
+		long length = 0;
+		for (int i = from; i < to; i++) {
+			char c = chars.charAt(i);
+			if (c < 0x80 || c == REPLACEMENT_CHAR && minReplacement) {
+				length++;
+			} else if (c < 0x800) {
+				length += 2;
+			} else if (Character.isHighSurrogate(c) && i + 1 < to && Character.isLowSurrogate(chars.charAt(i + 1))) {
+				length += 4;
+				i++;
+			} else {
+				length += 3;
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * A failed poll is restarted from where the last complete line ended.
+	 */
+	@Override
+	protected void onRetry() {
+		if (offset >= 0) {
+			partial.setLength(0);
+			lineStart = offset;
+			serverOffset = offset;
+		}
+	}
+
+	/**
+	 * Reads the lines of a log follower through a bounded buffer.
+	 */
+	public static final class LogReader extends Reader {
+		private static final long POLL_MS = 100;
+
+		private final BlockingQueue<String> queue;
+		private volatile LogTailFollower follower;
+		private volatile boolean finished = false;
+		private volatile Throwable failure = null;
+		private String current = null;
+		private int pos = 0;
+		private boolean ended = false;
+
+		private LogReader(final int maxBufferedLines) {
+			Validate.isTrue(maxBufferedLines > 0, "buffer size must be positive");
+			this.queue = new ArrayBlockingQueue<>(maxBufferedLines);
+		}
+
+		/**
+		 * @return the follower feeding this reader, e.g. to check its offset
+		 */
+		public LogTailFollower getFollower() {
+			return follower;
+		}
+
+		@Override
+		public int read(final char[] cbuf, final int off, final int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			if (!fill(true)) {
+				return -1;
+			}
+			int count = 0;
+			while (count < len) {
+				int n = Math.min(len - count, current.length() - pos);
+				current.getChars(pos, pos + n, cbuf, off + count);
+				pos += n;
+				count += n;
+				if (!fill(false)) {
+					break;
+				}
+			}
+			return count;
+		}
+
+		@Override
+		public boolean ready() {
+			return nonNull(current) && pos < current.length() || !queue.isEmpty();
+		}
+
+		@Override
+		public void close() {
+			follower.close();
+			ended = true;
+			queue.clear();
+		}
+
+		/**
+		 * Make sure there is something to read in the current line.
+		 *
+		 * @param block wait for a line if none is buffered
+		 * @return false at the end of the stream, or if nothing is buffered
+		 * and block is false
+		 */
+		private boolean fill(final boolean block) throws IOException {
+			while (isNull(current) || pos >= current.length()) {
+				if (ended) {
+					return false;
+				}
+				String line;
+				try {
+					line = block ? queue.poll(POLL_MS, TimeUnit.MILLISECONDS) : queue.poll();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException();
+				}
+				if (nonNull(line)) {
+					current = line;
+					pos = 0;
+				} else if (finished && queue.isEmpty()) {
+					ended = true;
+					if (nonNull(failure)) {
+						throw new IOException("Log follower stopped: " + failure.getMessage(), failure);
+					}
+					return false;
+				} else if (!block) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private void put(final String line, final long nextOffset) throws InterruptedException {
+			String terminated = line + "\n";
+			while (!follower.isClosed()) {
+				if (queue.offer(terminated, POLL_MS, TimeUnit.MILLISECONDS)) {
+					return;
+				}
+			}
+		}
+
+		private void finish(final Throwable thr) {
+			failure = thr instanceof CompletionException && nonNull(thr.getCause()) ? thr.getCause() : thr;
+			finished = true;
+		}
+	}
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.impl.mapbased.server;
+
+import com.perforce.p4java.Log;
+import com.perforce.p4java.exception.ConnectionException;
+import com.perforce.p4java.exception.P4JavaException;
+import com.perforce.p4java.exception.RequestException;
+import com.perforce.p4java.impl.mapbased.server.cmd.ResultMapParser;
+import com.perforce.p4java.server.IOptionsServer;
+import org.apache.commons.lang3.Validate;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.perforce.p4java.common.base.P4ResultMapUtils.parseCode0ErrorString;
+import static java.util.Objects.nonNull;
+
+/**
+ * Base for objects that follow something on the server by polling it
+ * repeatedly from a single thread until closed.
+ * <p>
+ * Each pass calls {@link #step()}, which reports whether it found anything:
+ * if there may be more to fetch the next pass follows at once; if something
+ * was found the next pass waits {@link #setPollInterval(long)}; if nothing
+ * was found the wait backs off, doubling each time up to
+ * {@link #setMaxPollInterval(long)}.
+ * <p>
+ * Server commands run through {@link #execute(ServerCall)}, which retries
+ * connection failures, reconnecting the server if need be, with the delay
+ * between attempts backing off from {@link #setRetryInterval(long)} to
+ * {@link #setMaxRetryInterval(long)}, up to {@link #setMaxRetries(int)}
+ * times in a row. Any other failure stops the follower.
+ *
+ * @param <T> the concrete follower type, returned by the setters
+ * @since 2025.2
+ */
+public abstract class PollingFollower<T extends PollingFollower<T>> implements Runnable, Closeable {
+
+	/**
+	 * What a pass found.
+	 */
+	protected enum Progress {
+		/**
+		 * Something, and there may be more ready now.
+		 */
+		MORE,
+		/**
+		 * Something new.
+		 */
+		SOME,
+		/**
+		 * Nothing new.
+		 */
+		NONE
+	}
+
+	/**
+	 * A server command run by {@link #execute(ServerCall)}.
+	 */
+	@FunctionalInterface
+	protected interface ServerCall<R> {
+		R call() throws P4JavaException;
+	}
+
+	protected final IOptionsServer server;
+	private final String description;
+
+	private long pollInterval;
+	private long maxPollInterval;
+	private long retryInterval = 1000;
+	private long maxRetryInterval = 60000;
+	private int maxRetries = 10;
+
+	private volatile boolean closed = false;
+
+	private final AtomicLong retries = new AtomicLong();
+
+	/**
+	 * @param server          connected and logged in server to poll
+	 * @param description     what the follower is, for log messages; e.g.
+	 *                        "Journal tailer"
+	 * @param pollInterval    default poll interval in milliseconds
+	 * @param maxPollInterval default longest poll interval in milliseconds
+	 */
+	protected PollingFollower(final IOptionsServer server, final String description, final long pollInterval,
+	                          final long maxPollInterval) {
+		Validate.notNull(server);
+		this.server = server;
+		this.description = description;
+		this.pollInterval = pollInterval;
+		this.maxPollInterval = maxPollInterval;
+	}
+
+	/**
+	 * @param pollInterval milliseconds to wait after a poll
+	 * @return this follower
+	 */
+	public T setPollInterval(final long pollInterval) {
+		this.pollInterval = Math.max(1, pollInterval);
+		return self();
+	}
+
+	/**
+	 * @param maxPollInterval longest wait, in milliseconds, that repeatedly
+	 *                        finding nothing new backs off to
+	 * @return this follower
+	 */
+	public T setMaxPollInterval(final long maxPollInterval) {
+		this.maxPollInterval = maxPollInterval;
+		return self();
+	}
+
+	/**
+	 * @param retryInterval milliseconds to wait before retrying after a
+	 *                      connection failure
+	 * @return this follower
+	 */
+	public T setRetryInterval(final long retryInterval) {
+		this.retryInterval = Math.max(1, retryInterval);
+		return self();
+	}
+
+	/**
+	 * @param maxRetryInterval longest wait, in milliseconds, that repeated
+	 *                         connection failures back off to
+	 * @return this follower
+	 */
+	public T setMaxRetryInterval(final long maxRetryInterval) {
+		this.maxRetryInterval = maxRetryInterval;
+		return self();
+	}
+
+	/**
+	 * @param maxRetries number of connection failures in a row tolerated
+	 *                   before stopping; negative means no limit
+	 * @return this follower
+	 */
+	public T setMaxRetries(final int maxRetries) {
+		this.maxRetries = maxRetries;
+		return self();
+	}
+
+	/**
+	 * Poll on the calling thread until closed.
+	 *
+	 * @throws P4JavaException if the follower stops on an error
+	 */
+	protected final void pollUntilClosed() throws P4JavaException {
+		long idle = pollInterval;
+		while (!closed) {
+			Progress progress = step();
+			if (progress == Progress.MORE) {
+				idle = pollInterval;
+				continue;
+			}
+			if (progress == Progress.SOME) {
+				idle = pollInterval;
+			}
+			pause(idle);
+			if (progress == Progress.NONE) {
+				idle = Math.min(Math.max(idle * 2, pollInterval), Math.max(maxPollInterval, pollInterval));
+			}
+		}
+	}
+
+	/**
+	 * Make one pass.
+	 *
+	 * @return what the pass found
+	 * @throws P4JavaException if the pass fails; this stops the follower
+	 */
+	protected abstract Progress step() throws P4JavaException;
+
+	/**
+	 * Called after a connection failure, before the command is retried.
+	 */
+	protected void onRetry() {
+	}
+
+	/**
+	 * Poll until closed; failures are logged.
+	 */
+	@Override
+	public void run() {
+		try {
+			pollUntilClosed();
+		} catch (P4JavaException e) {
+			Log.error(description + " stopped: " + e.getMessage());
+			Log.exception(e);
+		}
+	}
+
+	/**
+	 * Poll on the given executor until closed.
+	 *
+	 * @param executor executor to poll on
+	 * @return a future completed when the follower stops; exceptionally if
+	 * it stopped on an error
+	 */
+	public CompletableFuture<Void> start(final Executor executor) {
+		return CompletableFuture.runAsync(() -> {
+			try {
+				pollUntilClosed();
+			} catch (P4JavaException e) {
+				throw new CompletionException(e);
+			}
+		}, executor);
+	}
+
+	/**
+	 * Stop polling once the pass in hand, if any, is done. The server object
+	 * is left as is.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		synchronized (this) {
+			notifyAll();
+		}
+	}
+
+	public boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * @return number of connection failures retried
+	 */
+	public long getRetryCount() {
+		return retries.get();
+	}
+
+	/**
+	 * Run a command, reconnecting and retrying on connection failures.
+	 */
+	protected <R> R execute(final ServerCall<R> call) throws P4JavaException {
+		long delay = retryInterval;
+		int failures = 0;
+		while (true) {
+			try {
+				if (!server.isConnected()) {
+					server.connect();
+				}
+				return call.call();
+			} catch (ConnectionException e) {
+				failures++;
+				if (closed || maxRetries >= 0 && failures > maxRetries) {
+					throw e;
+				}
+				retries.incrementAndGet();
+				Log.warn(description + " connection failed (" + e.getMessage() + "); retrying in " + delay + "ms");
+				onRetry();
+				pause(delay);
+				if (closed) {
+					throw e;
+				}
+				try {
+					server.disconnect();
+				} catch (P4JavaException ignored) {
+					// Already gone; the next attempt reconnects.
+				}
+				delay = Math.min(delay * 2, Math.max(maxRetryInterval, retryInterval));
+			}
+		}
+	}
+
+	/**
+	 * Wait, unless closed first.
+	 */
+	protected final synchronized void pause(final long millis) {
+		if (closed) {
+			return;
+		}
+		try {
+			wait(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			closed = true;
+		}
+	}
+
+	/**
+	 * @throws RequestException if the result map is an error
+	 */
+	protected static void checkError(final Map<String, Object> map) throws RequestException {
+		String errStr = ResultMapParser.getErrorStr(map);
+		if (nonNull(errStr) && !errStr.trim().isEmpty()) {
+			throw new RequestException(errStr, parseCode0ErrorString(map));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private T self() {
+		return (T) this;
+	}
+}
@@ -0,0 +1,353 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.impl.mapbased.server;
+
+import com.perforce.p4java.Log;
+import com.perforce.p4java.PropertyDefs;
+import com.perforce.p4java.exception.P4JavaException;
+import com.perforce.p4java.util.FilesHelper;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.input.MemoryMappedFileInputStream;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * On-disk cache of printed file revisions, used by getFileContents for
+ * single-revision 'print -q' requests.
+ * <p>
+ * Content is stored in a directory private to the current user under the
+ * P4Java tmp directory, as
+ * {@code p4java-content-cache-<user>/<sha256 of key>.<md5 of content>},
+ * where the key names the server, the user, the depot revision, its type
+ * and digest and the client charset; the store is bounded by total size,
+ * least recently used first. Content is checked against the server's digest
+ * where that applies before it is stored, and content left by an earlier
+ * process is checked against the MD5 digest in its name the first time it
+ * is read (see {@link BlobStore}); hits are read through a memory-mapped
+ * stream.
+ * <p>
+ * Every request is first resolved to a revision with 'fstat -Ol', which is
+ * cheap compared to printing the content and also checks the user may
+ * still read it. Concurrent requests for the same revision share a single
+ * fetch.
+ * <p>
+ * The cache is only used by server objects created with the
+ * {@link PropertyDefs#ENABLE_CONTENT_CACHE} property set, or given one
+ * explicitly.
+ *
+ * @since 2025.2
+ */
+public class RevisionContentCache {
+
+	/**
+	 * Name of the content store directory, under the P4Java tmp directory.
+	 */
+	public static final String CACHE_DIR_NAME = "p4java-content-cache";
+
+	private static final Pattern ENTRY_NAME_PATTERN = Pattern.compile("([0-9a-f]{64})\\.([0-9a-f]{32})");
+
+	private static final ConcurrentMap<String, RevisionContentCache> sharedCaches = new ConcurrentHashMap<>();
+
+	/**
+	 * Fetches the content of a revision from the server.
+	 */
+	@FunctionalInterface
+	public interface ContentLoader {
+		/**
+		 * @return the printed content, or null if none
+		 */
+		InputStream load() throws P4JavaException;
+	}
+
+	/**
+	 * Resolves a request to the revision it currently names.
+	 */
+	@FunctionalInterface
+	public interface RevisionResolver {
+		/**
+		 * @return the revision, or null if the request should not be cached
+		 */
+		Revision resolve() throws P4JavaException;
+	}
+
+	/**
+	 * A resolved revision: its cache key, plus the MD5 digest the printed
+	 * content is expected to have, if it can be checked.
+	 */
+	public static final class Revision {
+		private final String key;
+		private final String digest;
+
+		/**
+		 * @param key    cache key; must identify the content exactly
+		 * @param digest expected MD5 digest of the printed content, or null if
+		 *               the printed content is not expected to match the
+		 *               server's digest (e.g. keyword expansion)
+		 */
+		public Revision(final String key, final String digest) {
+			this.key = key;
+			this.digest = digest;
+		}
+
+		public String getKey() {
+			return key;
+		}
+
+		public String getDigest() {
+			return digest;
+		}
+	}
+
+	// Entries are keyed by the sha256 of the cache key.
+	private final BlobStore store;
+
+	private final ConcurrentMap<String, CompletableFuture<File>> inFlight = new ConcurrentHashMap<>();
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong coalesced = new AtomicLong();
+	private final AtomicLong validations = new AtomicLong();
+
+	/**
+	 * Get the process-wide cache for a tmp directory, creating it with the
+	 * given limit if need be. If the user's private content store directory
+	 * cannot be used, nothing is stored.
+	 * <p>
+	 * The limit only applies when the cache is created: once it exists,
+	 * every caller for the same tmp directory shares it with the limit its
+	 * first caller gave, and a caller giving a different limit is warned.
+	 *
+	 * @param tmpDirName P4Java tmp directory
+	 * @param maxBytes   maximum total size of the content store
+	 * @return the shared cache
+	 */
+	public static RevisionContentCache getSharedCache(final String tmpDirName, final long maxBytes) {
+		File dir;
+		long limit = maxBytes;
+		try {
+			dir = FilesHelper.getPrivateDirectory(tmpDirName, CACHE_DIR_NAME);
+		} catch (IOException e) {
+			Log.warn("File content cache disabled: " + e.getLocalizedMessage());
+			dir = new File(tmpDirName, CACHE_DIR_NAME);
+			limit = 0;
+		}
+		final File storeDir = dir;
+		final long storeLimit = limit;
+		RevisionContentCache cache = sharedCaches.computeIfAbsent(storeDir.getAbsolutePath(),
+				k -> new RevisionContentCache(storeDir, storeLimit));
+		if (cache.store.getMaxBytes() != storeLimit) {
+			Log.warn("File content cache " + storeDir.getPath() + " already created with limit "
+					+ cache.store.getMaxBytes() + " bytes; ignoring " + storeLimit + " bytes");
+		}
+		return cache;
+	}
+
+	/**
+	 * @param dir      content store directory; must exist and not be
+	 *                 writable by other users
+	 * @param maxBytes maximum total size of the content store; zero or less
+	 *                 means nothing is stored
+	 */
+	public RevisionContentCache(final File dir, final long maxBytes) {
+		this.store = new BlobStore(dir, maxBytes, ENTRY_NAME_PATTERN,
+				file -> digestOf(file).equals(digestInName(file)), "file content");
+	}
+
+	/**
+	 * Get the content for a request, from the cache if possible.
+	 *
+	 * @param resolver resolves the request to a revision
+	 * @param loader   fetches the content from the server
+	 * @return a stream over the content
+	 * @throws P4JavaException if resolving or loading fails
+	 */
+	public InputStream getContent(final RevisionResolver resolver, final ContentLoader loader) throws P4JavaException {
+		validations.incrementAndGet();
+		Revision revision = resolver.resolve();
+		if (isNull(revision)) {
+			return loader.load();
+		}
+
+		InputStream in = open(revision);
+		if (nonNull(in)) {
+			hits.incrementAndGet();
+			return in;
+		}
+		return fetch(revision, loader);
+	}
+
+	/**
+	 * Drop all cached content.
+	 */
+	public void clear() {
+		store.clear();
+	}
+
+	/**
+	 * @return number of requests served from the cache
+	 */
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * @return number of requests that fetched content from the server
+	 */
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * @return number of requests that waited on another request's fetch of
+	 * the same revision rather than fetching it themselves
+	 */
+	public long getCoalescedCount() {
+		return coalesced.get();
+	}
+
+	/**
+	 * @return number of requests resolved against the server with 'fstat'
+	 */
+	public long getValidationCount() {
+		return validations.get();
+	}
+
+	/**
+	 * @return number of revisions evicted to keep within the size limit
+	 */
+	public long getEvictionCount() {
+		return store.getEvictionCount();
+	}
+
+	/**
+	 * @return number of revisions in the content store
+	 */
+	public int getEntryCount() {
+		return store.getEntryCount();
+	}
+
+	/**
+	 * @return total size in bytes of the content store
+	 */
+	public long getStoreBytes() {
+		return store.getBytes();
+	}
+
+	/**
+	 * @return the content store directory
+	 */
+	public File getDir() {
+		return store.getDir();
+	}
+
+	private InputStream fetch(final Revision revision, final ContentLoader loader) throws P4JavaException {
+		String key = revision.getKey();
+		CompletableFuture<File> fetch = new CompletableFuture<>();
+		CompletableFuture<File> other = inFlight.putIfAbsent(key, fetch);
+		if (nonNull(other)) {
+			coalesced.incrementAndGet();
+			try {
+				File file = other.join();
+				InputStream in = isNull(file) ? null : open(revision);
+				if (nonNull(in)) {
+					return in;
+				}
+			} catch (CompletionException e) {
+				// Fall through to fetching it ourselves.
+			}
+			return loader.load();
+		}
+
+		misses.incrementAndGet();
+		File stored = null;
+		try {
+			InputStream content = loader.load();
+			if (isNull(content) || !store.isEnabled()) {
+				return content;
+			}
+
+			File tmpFile = store.createTempFile();
+			String digest;
+			try (InputStream in = content; OutputStream out = Files.newOutputStream(tmpFile.toPath())) {
+				digest = copyWithDigest(in, out);
+			} catch (IOException e) {
+				Files.deleteIfExists(tmpFile.toPath());
+				throw e;
+			}
+
+			if (tmpFile.length() > store.getMaxBytes()
+					|| nonNull(revision.getDigest()) && !revision.getDigest().equalsIgnoreCase(digest)) {
+				return BlobStore.deleteOnClose(tmpFile);
+			}
+
+			String name = DigestUtils.sha256Hex(key);
+			stored = store.store(name, name + "." + digest, tmpFile);
+			return map(stored);
+		} catch (IOException e) {
+			throw new P4JavaException(e.getLocalizedMessage(), e);
+		} finally {
+			fetch.complete(stored);
+			inFlight.remove(key, fetch);
+		}
+	}
+
+	/**
+	 * Open the stored content of a revision, if its digest is the one the
+	 * revision expects.
+	 */
+	private InputStream open(final Revision revision) {
+		File file = store.open(DigestUtils.sha256Hex(revision.getKey()));
+		if (isNull(file) || nonNull(revision.getDigest()) && !revision.getDigest().equalsIgnoreCase(digestInName(file))) {
+			return null;
+		}
+		try {
+			return map(file);
+		} catch (IOException e) {
+			// Evicted since it was opened.
+			return null;
+		}
+	}
+
+	private static String digestInName(final File file) {
+		String name = file.getName();
+		return name.substring(name.lastIndexOf('.') + 1);
+	}
+
+	private static String digestOf(final File file) throws IOException {
+		try (InputStream in = new FileInputStream(file)) {
+			return DigestUtils.md5Hex(in);
+		}
+	}
+
+	private static String copyWithDigest(final InputStream in, final OutputStream out) throws IOException {
+		MessageDigest digest = DigestUtils.getMd5Digest();
+		byte[] buf = new byte[64 * 1024];
+		int len;
+		while ((len = in.read(buf)) > 0) {
+			digest.update(buf, 0, len);
+			out.write(buf, 0, len);
+		}
+		return Hex.encodeHexString(digest.digest());
+	}
+
+	private static InputStream map(final File file) throws IOException {
+		return MemoryMappedFileInputStream.builder().setFile(file).get();
+	}
+}
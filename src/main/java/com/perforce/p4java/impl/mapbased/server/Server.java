@@ -59,12 +59,15 @@ import com.perforce.p4java.exception.P4JavaException;
 import com.perforce.p4java.exception.RequestException;
 import com.perforce.p4java.graph.ICommit;
 import com.perforce.p4java.graph.IGraphListTree;
+import com.perforce.p4java.graph.IGraphObjectCache;
 import com.perforce.p4java.graph.IGraphObject;
 import com.perforce.p4java.graph.IGraphRef;
 import com.perforce.p4java.graph.IRevListCommit;
+import com.perforce.p4java.common.base.P4DateUtils;
 import com.perforce.p4java.impl.generic.core.Extension;
 import com.perforce.p4java.impl.generic.core.ExtensionSummary;
 import com.perforce.p4java.impl.generic.core.ListData;
+import com.perforce.p4java.impl.mapbased.MapKeys;
 import com.perforce.p4java.impl.mapbased.rpc.RpcPropertyDefs;
 import com.perforce.p4java.impl.mapbased.server.cmd.AttributeDelegator;
 import com.perforce.p4java.impl.mapbased.server.cmd.BranchDelegator;
@@ -132,6 +135,7 @@ import com.perforce.p4java.impl.mapbased.server.cmd.RenameUserDelegator;
 import com.perforce.p4java.impl.mapbased.server.cmd.RenameClientDelegator;
 import com.perforce.p4java.impl.mapbased.server.cmd.ReposDelegator;
 import com.perforce.p4java.impl.mapbased.server.cmd.ResultListBuilder;
+import com.perforce.p4java.impl.mapbased.server.cmd.ResultMapParser;
 import com.perforce.p4java.impl.mapbased.server.cmd.ReviewDelegator;
 import com.perforce.p4java.impl.mapbased.server.cmd.ReviewsDelegator;
 import com.perforce.p4java.impl.mapbased.server.cmd.SearchDelegator;
@@ -218,6 +222,7 @@ import com.perforce.p4java.option.server.UpdateClientOptions;
 import com.perforce.p4java.option.server.UpdateUserGroupOptions;
 import com.perforce.p4java.option.server.UpdateUserOptions;
 import com.perforce.p4java.option.server.VerifyFilesOptions;
+import com.perforce.p4java.server.CmdSpec;
 import com.perforce.p4java.server.CustomSpec;
 import com.perforce.p4java.server.HelixCommandExecutor;
 import com.perforce.p4java.server.IOptionsServer;
@@ -314,11 +319,17 @@ import javax.annotation.Nullable;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.charset.UnsupportedCharsetException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.perforce.p4java.PropertyDefs.AUTO_CONNECT_KEY;
@@ -333,7 +344,29 @@ import static com.perforce.p4java.PropertyDefs.CLIENT_UNSET_NAME_DEFAULT;
 import static com.perforce.p4java.PropertyDefs.ENABLE_ANDMAPS;
 import static com.perforce.p4java.PropertyDefs.ENABLE_ANDMAPS_SHORT_FORM;
 import static com.perforce.p4java.PropertyDefs.ENABLE_GRAPH;
+import static com.perforce.p4java.PropertyDefs.ENABLE_METADATA_CACHE;
+import static com.perforce.p4java.PropertyDefs.ENABLE_METADATA_CACHE_SHORT_FORM;
 import static com.perforce.p4java.PropertyDefs.ENABLE_GRAPH_SHORT_FORM;
+import static com.perforce.p4java.PropertyDefs.CHANGELIST_CACHE_MAX_CHANGES;
+import static com.perforce.p4java.PropertyDefs.CHANGELIST_CACHE_MAX_CHANGES_DEFAULT;
+import static com.perforce.p4java.PropertyDefs.CHANGELIST_CACHE_MAX_CHANGES_SHORT_FORM;
+import static com.perforce.p4java.PropertyDefs.CONTENT_CACHE_MAX_BYTES;
+import static com.perforce.p4java.PropertyDefs.CONTENT_CACHE_MAX_BYTES_DEFAULT;
+import static com.perforce.p4java.PropertyDefs.CONTENT_CACHE_MAX_BYTES_SHORT_FORM;
+import static com.perforce.p4java.PropertyDefs.COMPACT_FILE_SPEC_LISTS;
+import static com.perforce.p4java.PropertyDefs.COMPACT_FILE_SPEC_LISTS_SHORT_FORM;
+import static com.perforce.p4java.PropertyDefs.ENABLE_CHANGELIST_CACHE;
+import static com.perforce.p4java.PropertyDefs.ENABLE_CHANGELIST_CACHE_SHORT_FORM;
+import static com.perforce.p4java.PropertyDefs.ENABLE_CONTENT_CACHE;
+import static com.perforce.p4java.PropertyDefs.ENABLE_CONTENT_CACHE_SHORT_FORM;
+import static com.perforce.p4java.PropertyDefs.ENABLE_GRAPH_OBJECT_CACHE;
+import static com.perforce.p4java.PropertyDefs.ENABLE_GRAPH_OBJECT_CACHE_SHORT_FORM;
+import static com.perforce.p4java.PropertyDefs.GRAPH_OBJECT_CACHE_MAX_BLOB_BYTES;
+import static com.perforce.p4java.PropertyDefs.GRAPH_OBJECT_CACHE_MAX_BLOB_BYTES_DEFAULT;
+import static com.perforce.p4java.PropertyDefs.GRAPH_OBJECT_CACHE_MAX_BLOB_BYTES_SHORT_FORM;
+import static com.perforce.p4java.PropertyDefs.GRAPH_OBJECT_CACHE_MAX_OBJECTS;
+import static com.perforce.p4java.PropertyDefs.GRAPH_OBJECT_CACHE_MAX_OBJECTS_DEFAULT;
+import static com.perforce.p4java.PropertyDefs.GRAPH_OBJECT_CACHE_MAX_OBJECTS_SHORT_FORM;
 import static com.perforce.p4java.PropertyDefs.ENABLE_PROGRESS;
 import static com.perforce.p4java.PropertyDefs.ENABLE_PROGRESS_SHORT_FORM;
 import static com.perforce.p4java.PropertyDefs.ENABLE_STREAMS;
@@ -342,6 +375,9 @@ import static com.perforce.p4java.PropertyDefs.ENABLE_TRACKING;
 import static com.perforce.p4java.PropertyDefs.ENABLE_TRACKING_SHORT_FORM;
 import static com.perforce.p4java.PropertyDefs.IGNORE_FILE_NAME_KEY;
 import static com.perforce.p4java.PropertyDefs.IGNORE_FILE_NAME_KEY_SHORT_FORM;
+import static com.perforce.p4java.PropertyDefs.METADATA_CACHE_TTL;
+import static com.perforce.p4java.PropertyDefs.METADATA_CACHE_TTL_DEFAULT;
+import static com.perforce.p4java.PropertyDefs.METADATA_CACHE_TTL_SHORT_FORM;
 import static com.perforce.p4java.PropertyDefs.NON_CHECKED_SYNC;
 import static com.perforce.p4java.PropertyDefs.NON_CHECKED_SYNC_SHORT_FORM;
 import static com.perforce.p4java.PropertyDefs.P4JAVA_TMP_DIR_KEY;
@@ -360,6 +396,8 @@ import static com.perforce.p4java.env.PerforceEnvironment.getP4Charset;
 import static com.perforce.p4java.env.PerforceEnvironment.getP4Client;
 import static com.perforce.p4java.env.PerforceEnvironment.getP4User;
 import static com.perforce.p4java.server.PerforceCharsets.getP4CharsetName;
+import static com.perforce.p4java.util.PropertiesHelper.getPropertyAsInt;
+import static com.perforce.p4java.util.PropertiesHelper.getPropertyAsLong;
 import static com.perforce.p4java.util.PropertiesHelper.getPropertyByKeys;
 import static com.perforce.p4java.util.PropertiesHelper.isExistProperty;
 import static java.util.Objects.isNull;
@@ -498,6 +536,47 @@ public abstract class Server extends HelixCommandExecutor implements IServerCont
 
 	protected Object browserVersion = null;
 
+	/**
+	 * Shared server metadata cache; null unless enabled through the
+	 * ENABLE_METADATA_CACHE property.
+	 */
+	protected ServerMetadataCache metadataCache = null;
+
+	protected long metadataCacheTtl = METADATA_CACHE_TTL_DEFAULT;
+
+	/**
+	 * True while serverInfo came from the metadata cache and so has only the
+	 * server level fields set.
+	 */
+	protected boolean serverInfoFromCache = false;
+
+	/**
+	 * Graph object cache; null unless enabled through the
+	 * ENABLE_GRAPH_OBJECT_CACHE property or set explicitly.
+	 */
+	protected IGraphObjectCache graphObjectCache = null;
+
+	// Number of changelists described per command when warming the changelist cache.
+	private static final int CHANGELIST_WARM_BATCH_SIZE = 100;
+
+	/**
+	 * File content cache; null unless enabled through the
+	 * ENABLE_CONTENT_CACHE property or set explicitly.
+	 */
+	protected RevisionContentCache contentCache = null;
+
+	/**
+	 * Submitted changelist cache; null unless enabled through the
+	 * ENABLE_CHANGELIST_CACHE property or set explicitly.
+	 */
+	protected ChangelistCache changelistCache = null;
+
+	/**
+	 * If true, large file spec results are returned as CompactFileSpecLists;
+	 * set through the COMPACT_FILE_SPEC_LISTS property.
+	 */
+	protected boolean compactFileSpecLists = false;
+
 	// The delegators for running perforce commands
 	private IAttributeDelegator attributeDelegator = null;
 	private IBranchDelegator branchDelegator = null;
@@ -827,7 +906,7 @@ public abstract class Server extends HelixCommandExecutor implements IServerCont
 		}
 
 		try {
-			serverInfo = getServerInfo();
+			serverInfo = getMetadataCachedServerInfo();
 			if (nonNull(serverInfo)) {
 				if (isNotBlank(serverInfo.getServerAddress())) {
 					serverAddress = serverInfo.getServerAddress();
@@ -845,16 +924,320 @@ public abstract class Server extends HelixCommandExecutor implements IServerCont
 		return UNKNOWN_SERVER_VERSION;
 	}
 
+	/**
+	 * Get the server info from the shared metadata cache when it is enabled
+	 * and holds a fresh entry for this server's address; otherwise run 'info'
+	 * and, if caching is enabled, store the result for other server objects.
+	 * Cached server info has only the server level fields set, and
+	 * serverInfoFromCache is set to say so.
+	 *
+	 * @return server info, or null
+	 * @throws ConnectionException if the Perforce server is unreachable or is not connected.
+	 * @throws RequestException    if the Perforce server encounters an error during its processing of the request
+	 * @throws AccessException     if the Perforce server denies access to the caller
+	 */
+	protected IServerInfo getMetadataCachedServerInfo() throws ConnectionException, RequestException, AccessException {
+		String key = getMetadataCacheKey();
+		if (nonNull(metadataCache) && nonNull(key)) {
+			IServerInfo cachedInfo = metadataCache.getServerInfo(key, metadataCacheTtl);
+			Boolean cachedCaseSensitive = metadataCache.getCaseSensitive(key, metadataCacheTtl);
+			if (nonNull(cachedInfo)) {
+				if (nonNull(cachedCaseSensitive)) {
+					caseSensitive = cachedCaseSensitive;
+				}
+				serverInfoFromCache = true;
+				return cachedInfo;
+			}
+		}
+
+		IServerInfo info = getServerInfo();
+		serverInfoFromCache = false;
+		if (nonNull(metadataCache) && nonNull(key) && nonNull(info) && isNotBlank(info.getServerVersion())) {
+			metadataCache.putServerInfo(key, info, caseSensitive);
+		}
+		return info;
+	}
+
+	/**
+	 * @return the shared server metadata cache used by this server, or null if
+	 * metadata caching is not enabled.
+	 * @since 2025.2
+	 */
+	public ServerMetadataCache getMetadataCache() {
+		return metadataCache;
+	}
+
+	/**
+	 * Set the server metadata cache for this server; null disables metadata
+	 * caching.
+	 *
+	 * @param metadataCache metadata cache, or null
+	 * @since 2025.2
+	 */
+	public void setMetadataCache(ServerMetadataCache metadataCache) {
+		this.metadataCache = metadataCache;
+	}
+
+	/**
+	 * @return the metadata cache time-to-live in milliseconds.
+	 * @since 2025.2
+	 */
+	public long getMetadataCacheTtl() {
+		return metadataCacheTtl;
+	}
+
+	/**
+	 * @return the key used for this server in the metadata cache, or null if
+	 * the server address is not known.
+	 * @since 2025.2
+	 */
+	public String getMetadataCacheKey() {
+		return ServerMetadataCache.composeKey(serverHost, serverPort);
+	}
+
+	/**
+	 * Drop everything held for this server in the metadata cache, forcing the
+	 * next connect and spec lookups to go to the server.
+	 *
+	 * @since 2025.2
+	 */
+	public void invalidateMetadataCache() {
+		if (nonNull(metadataCache)) {
+			metadataCache.invalidate(getMetadataCacheKey());
+			if (nonNull(serverInfo)) {
+				metadataCache.invalidate(serverInfo.getServerId());
+			}
+		}
+	}
+
+	/**
+	 * @return the graph object cache used by this server, or null if graph
+	 * object caching is not enabled.
+	 * @since 2025.2
+	 */
+	public IGraphObjectCache getGraphObjectCache() {
+		return graphObjectCache;
+	}
+
+	/**
+	 * Set the graph object cache for this server; null disables graph object
+	 * caching.
+	 *
+	 * @param graphObjectCache graph object cache, or null
+	 * @since 2025.2
+	 */
+	public void setGraphObjectCache(IGraphObjectCache graphObjectCache) {
+		this.graphObjectCache = graphObjectCache;
+	}
+
+	/**
+	 * @return the file content cache used by this server, or null if content
+	 * caching is not enabled.
+	 * @since 2025.2
+	 */
+	public RevisionContentCache getContentCache() {
+		return contentCache;
+	}
+
+	/**
+	 * Set the file content cache for this server; null disables content
+	 * caching.
+	 *
+	 * @param contentCache file content cache, or null
+	 * @since 2025.2
+	 */
+	public void setContentCache(RevisionContentCache contentCache) {
+		this.contentCache = contentCache;
+	}
+
+	/**
+	 * @return the changelist cache used by this server, or null if changelist
+	 * caching is not enabled.
+	 * @since 2025.2
+	 */
+	public ChangelistCache getChangelistCache() {
+		return changelistCache;
+	}
+
+	/**
+	 * Set the changelist cache for this server; null disables changelist
+	 * caching.
+	 *
+	 * @param changelistCache changelist cache, or null
+	 * @since 2025.2
+	 */
+	public void setChangelistCache(ChangelistCache changelistCache) {
+		this.changelistCache = changelistCache;
+	}
+
+	/**
+	 * @return true if 'files', 'have', 'opened' and 'fstat' results are returned
+	 * as compact lists.
+	 * @since 2025.2
+	 */
+	public boolean isCompactFileSpecLists() {
+		return compactFileSpecLists;
+	}
+
+	/**
+	 * @param compactFileSpecLists if true, return 'files', 'have', 'opened' and
+	 *                             'fstat' results as compact lists
+	 * @since 2025.2
+	 */
+	public void setCompactFileSpecLists(boolean compactFileSpecLists) {
+		this.compactFileSpecLists = compactFileSpecLists;
+	}
+
+	/**
+	 * Drop anything held for a changelist in the changelist cache, forcing the
+	 * next lookup to go to the server. Shelving into or submitting a shelved
+	 * changelist through P4Java does this automatically.
+	 *
+	 * @param changelistId changelist number
+	 * @since 2025.2
+	 */
+	public void invalidateChangelistCache(final int changelistId) {
+		if (nonNull(changelistCache)) {
+			changelistCache.invalidate(getMetadataCacheKey(), changelistId);
+		}
+	}
+
+	/**
+	 * Load the submitted changelists in a range into the changelist cache in
+	 * the background: their 'describe -s' file lists, fetched in batches, and
+	 * their 'change -o' specs, built from the same 'describe -s' results.
+	 * Does nothing if changelist caching is not enabled.
+	 * <p>
+	 * The loading runs on the given executor using this server object; for a
+	 * server implementation that is not thread-safe, the server must not be
+	 * used by anything else until the returned future completes.
+	 *
+	 * @param firstChange first changelist number of the range
+	 * @param lastChange  last changelist number of the range
+	 * @param executor    executor to run the loading on
+	 * @return a future giving the number of changelists loaded
+	 * @since 2025.2
+	 */
+	public CompletableFuture<Integer> warmChangelistCache(final int firstChange, final int lastChange, final Executor executor) {
+		final ChangelistCache cache = changelistCache;
+		final String key = getMetadataCacheKey();
+		if (isNull(cache) || isNull(key) || firstChange > lastChange) {
+			return CompletableFuture.completedFuture(0);
+		}
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return loadChangelists(cache, key, firstChange, lastChange);
+			} catch (P4JavaException e) {
+				throw new CompletionException(e);
+			}
+		}, executor);
+	}
+
+	private int loadChangelists(final ChangelistCache cache, final String key, final int firstChange, final int lastChange) throws P4JavaException {
+		List<Map<String, Object>> changeMaps = execMapCmdList(CmdSpec.CHANGES.toString(),
+				new String[]{"-s", "submitted", "@" + firstChange + ",@" + lastChange}, null);
+		List<String> changeIds = new ArrayList<>();
+		if (nonNull(changeMaps)) {
+			for (Map<String, Object> map : changeMaps) {
+				if (nonNull(map) && isBlank(ResultMapParser.getErrorStr(map)) && map.get("change") instanceof String) {
+					changeIds.add((String) map.get("change"));
+				}
+			}
+		}
+
+		int loaded = 0;
+		for (int i = 0; i < changeIds.size(); i += CHANGELIST_WARM_BATCH_SIZE) {
+			List<String> batch = changeIds.subList(i, Math.min(i + CHANGELIST_WARM_BATCH_SIZE, changeIds.size()));
+			List<String> args = new ArrayList<>(batch.size() + 1);
+			args.add("-s");
+			args.addAll(batch);
+			List<Map<String, Object>> resultMaps = execMapCmdList(CmdSpec.DESCRIBE.toString(), args.toArray(new String[0]), null);
+			if (isNull(resultMaps)) {
+				continue;
+			}
+			for (Map<String, Object> map : resultMaps) {
+				if (isNull(map) || isNotBlank(ResultMapParser.getErrorStr(map)) || !(map.get("change") instanceof String)) {
+					continue;
+				}
+				String change = (String) map.get("change");
+				int id = Integer.parseInt(change);
+				String cmdKey = ChangelistCache.composeCmdKey(CmdSpec.DESCRIBE.toString(), new String[]{"-s", change});
+				if (cache.putResultMaps(key, id, getUserName(), cmdKey, Collections.singletonList(map))) {
+					String specKey = ChangelistCache.composeCmdKey(CmdSpec.CHANGE.toString(), new String[]{"-o", change});
+					cache.putResultMaps(key, id, getUserName(), specKey, Collections.singletonList(toChangeSpecMap(map)));
+					loaded++;
+				}
+			}
+		}
+		return loaded;
+	}
+
+	/**
+	 * Build the 'change -o' spec map of a submitted changelist from its
+	 * 'describe -s' map, which carries the same fields under summary names.
+	 * The date is formatted in the default time zone, as Changelist parses it.
+	 */
+	private static Map<String, Object> toChangeSpecMap(final Map<String, Object> describeMap) {
+		Map<String, Object> map = new HashMap<>();
+		map.put(MapKeys.CHANGE_KEY, describeMap.get("change"));
+		map.put(MapKeys.CLIENT_KEY, describeMap.get("client"));
+		map.put(MapKeys.USER_KEY, describeMap.get("user"));
+		map.put(MapKeys.STATUS_KEY, describeMap.get("status"));
+		map.put(MapKeys.DESCRIPTION_KEY, describeMap.get("desc"));
+		if (describeMap.get("time") instanceof String) {
+			map.put(MapKeys.DATE_KEY, P4DateUtils.formatDate(P4DateUtils.fromEpochSeconds((String) describeMap.get("time"))));
+		}
+		if (describeMap.containsKey("changeType")) {
+			map.put(MapKeys.TYPE_KEY, describeMap.get("changeType"));
+		}
+		for (int i = 0; describeMap.containsKey("job" + i); i++) {
+			map.put(MapKeys.JOBS_KEY + i, describeMap.get("job" + i));
+		}
+		return map;
+	}
+
 	@Override
 	public void setCurrentServerInfo(IServerInfo info) {
 		this.serverInfo = info;
+		this.serverInfoFromCache = false;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * When the info came from the shared metadata cache (see
+	 * isServerInfoFromCache), only its server level fields are set; use
+	 * refreshServerInfo to replace it with this connection's own.
+	 */
 	@Override
 	public IServerInfo getCurrentServerInfo() {
 		return this.serverInfo;
 	}
 
+	/**
+	 * @return true if the current server info came from the shared metadata
+	 * cache, and so has only its server level fields set
+	 * @since 2025.2
+	 */
+	public boolean isServerInfoFromCache() {
+		return serverInfoFromCache;
+	}
+
+	/**
+	 * Run 'info' and make its results the current server info.
+	 *
+	 * @return the new current server info
+	 * @throws ConnectionException if the Perforce server is unreachable or is not connected.
+	 * @throws RequestException    if the Perforce server encounters an error during its processing of the request
+	 * @throws AccessException     if the Perforce server denies access to the caller
+	 * @since 2025.2
+	 */
+	public IServerInfo refreshServerInfo() throws ConnectionException, RequestException, AccessException {
+		IServerInfo info = getServerInfo();
+		setCurrentServerInfo(info);
+		return info;
+	}
+
 	@Override
 	public void connect() throws ConnectionException, AccessException, RequestException, ConfigException {
 		connected = true;
@@ -1007,7 +1390,7 @@ public abstract class Server extends HelixCommandExecutor implements IServerCont
 	@Override
 	public boolean supportsUnicode() throws ConnectionException, RequestException, AccessException {
 		if (isNull(serverInfo)) {
-			serverInfo = getServerInfo();
+			serverInfo = getMetadataCachedServerInfo();
 		}
 
 		return nonNull(serverInfo) && serverInfo.isUnicodeEnabled();
@@ -1056,6 +1439,24 @@ public abstract class Server extends HelixCommandExecutor implements IServerCont
 		enableProgress = isExistProperty(props, ENABLE_PROGRESS_SHORT_FORM, ENABLE_PROGRESS, enableProgress);
 		quietMode = isExistProperty(props, QUIET_MODE_SHORT_FORM, QUIET_MODE, quietMode);
 		useAuthMemoryStore = isExistProperty(props, USE_AUTH_MEMORY_STORE_KEY_SHORT_FORM, USE_AUTH_MEMORY_STORE_KEY, useAuthMemoryStore);
+		if (isExistProperty(props, ENABLE_METADATA_CACHE_SHORT_FORM, ENABLE_METADATA_CACHE, false)) {
+			metadataCache = ServerMetadataCache.getSharedCache();
+		}
+		metadataCacheTtl = getPropertyAsLong(props, new String[]{METADATA_CACHE_TTL_SHORT_FORM, METADATA_CACHE_TTL}, METADATA_CACHE_TTL_DEFAULT);
+		if (isExistProperty(props, ENABLE_GRAPH_OBJECT_CACHE_SHORT_FORM, ENABLE_GRAPH_OBJECT_CACHE, false)) {
+			graphObjectCache = GraphObjectCache.getSharedCache(tmpDirName,
+					getPropertyAsInt(props, new String[]{GRAPH_OBJECT_CACHE_MAX_OBJECTS_SHORT_FORM, GRAPH_OBJECT_CACHE_MAX_OBJECTS}, GRAPH_OBJECT_CACHE_MAX_OBJECTS_DEFAULT),
+					getPropertyAsLong(props, new String[]{GRAPH_OBJECT_CACHE_MAX_BLOB_BYTES_SHORT_FORM, GRAPH_OBJECT_CACHE_MAX_BLOB_BYTES}, GRAPH_OBJECT_CACHE_MAX_BLOB_BYTES_DEFAULT));
+		}
+		if (isExistProperty(props, ENABLE_CHANGELIST_CACHE_SHORT_FORM, ENABLE_CHANGELIST_CACHE, false)) {
+			changelistCache = ChangelistCache.getSharedCache(
+					getPropertyAsInt(props, new String[]{CHANGELIST_CACHE_MAX_CHANGES_SHORT_FORM, CHANGELIST_CACHE_MAX_CHANGES}, CHANGELIST_CACHE_MAX_CHANGES_DEFAULT));
+		}
+		compactFileSpecLists = isExistProperty(props, COMPACT_FILE_SPEC_LISTS_SHORT_FORM, COMPACT_FILE_SPEC_LISTS, false);
+		if (isExistProperty(props, ENABLE_CONTENT_CACHE_SHORT_FORM, ENABLE_CONTENT_CACHE, false)) {
+			contentCache = RevisionContentCache.getSharedCache(tmpDirName,
+					getPropertyAsLong(props, new String[]{CONTENT_CACHE_MAX_BYTES_SHORT_FORM, CONTENT_CACHE_MAX_BYTES}, CONTENT_CACHE_MAX_BYTES_DEFAULT));
+		}
 
 		// Attempt to get the P4IGNORE file name from the passed-in properties
 		// or the system environment variable 'P4IGNORE'
@@ -1200,7 +1601,7 @@ public abstract class Server extends HelixCommandExecutor implements IServerCont
 		}
 
 		try {
-			serverInfo = getServerInfo();
+			serverInfo = getMetadataCachedServerInfo();
 			if (nonNull(serverInfo)) {
 				String serverInfoServerAddress = serverInfo.getServerAddress();
 				if (isNotBlank(serverInfoServerAddress)) {
@@ -3,11 +3,10 @@
  */
 package com.perforce.p4java.impl.mapbased.server;
 
+import com.perforce.p4java.common.base.P4DateUtils;
 import com.perforce.p4java.server.IServerInfo;
 
-import java.text.DateFormat;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
@@ -23,6 +22,10 @@ public class ServerInfo implements IServerInfo {
 	// Example: "2014/06/05 17:28:14 -0700 PDT"
 	public static final String SERVER_INFO_DATE_PATTERN = "yyyy/MM/dd HH:mm:ss Z z";
 
+	// The offset fixes the time; the zone name after it may be abbreviated
+	// or spelled out ("Pacific Daylight Time"), and is ignored.
+	private static final String SERVER_INFO_DATE_PARSE_PATTERN = "yyyy/MM/dd HH:mm:ss Z";
+
 	private String clientName = null;
 	private String clientHost = null;
 	private String clientRoot = null;
@@ -167,9 +170,8 @@ public class ServerInfo implements IServerInfo {
 		this.ssoAuth = setFromMap(map, "ssoAuth", this.ssoAuth);
 
 		if (map.get("serverDate") != null) {
-			DateFormat df = new SimpleDateFormat(SERVER_INFO_DATE_PATTERN);
 			try {
-				Date d = df.parse((String) map.get("serverDate"));
+				Date d = P4DateUtils.parseDate((String) map.get("serverDate"), SERVER_INFO_DATE_PARSE_PATTERN);
 				if (d != null) {
 					this.serverCalendar = Calendar.getInstance();
 					this.serverCalendar.setTime(d);
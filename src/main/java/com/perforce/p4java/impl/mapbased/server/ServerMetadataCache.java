@@ -0,0 +1,309 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.impl.mapbased.server;
+
+import com.perforce.p4java.PropertyDefs;
+import com.perforce.p4java.server.IServerInfo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.apache.commons.lang3.StringUtils.equalsIgnoreCase;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+/**
+ * Shared cache for Perforce server metadata that rarely changes: the 'info'
+ * results used for server version, unicode and case handling checks, and the
+ * raw 'jobspec -o' / 'spec -o' definition maps.
+ * <p>
+ * Entries are keyed by server address (host:port) and are also matched by
+ * server id when invalidating. Each entry is valid until its time-to-live
+ * expires or the cache generation is advanced by {@link #invalidateAll()};
+ * stale entries are simply ignored and replaced on the next load.
+ * <p>
+ * Cached spec result maps and server info are copied in and out, so callers
+ * may freely modify what they get back. Only the server level fields of the
+ * server info are kept: the user and client fields (including the client
+ * and peer addresses) depend on the connection that ran 'info', and the
+ * server date and uptime change with every call, so all of these are null
+ * in the cached copy.
+ * <p>
+ * The cache is only consulted by server objects created with the
+ * {@link PropertyDefs#ENABLE_METADATA_CACHE} property set.
+ *
+ * @since 2025.2
+ */
+public class ServerMetadataCache {
+
+	/**
+	 * Cache key used for the 'jobspec -o' definition.
+	 */
+	public static final String JOBSPEC_KEY = "jobspec";
+
+	/**
+	 * Cache key prefix used for 'spec -o type' definitions.
+	 */
+	public static final String SPEC_KEY_PREFIX = "spec:";
+
+	private static final ServerMetadataCache sharedCache = new ServerMetadataCache();
+
+	private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+	private final AtomicLong generation = new AtomicLong();
+
+	/**
+	 * @return the process-wide cache shared by all server objects.
+	 */
+	public static ServerMetadataCache getSharedCache() {
+		return sharedCache;
+	}
+
+	/**
+	 * Compose the cache key for a server address.
+	 *
+	 * @param host server host name
+	 * @param port server port
+	 * @return the cache key, or null if the host is blank
+	 */
+	public static String composeKey(final String host, final int port) {
+		if (isBlank(host)) {
+			return null;
+		}
+		return host.toLowerCase() + ":" + port;
+	}
+
+	/**
+	 * @return the current cache generation; entries loaded under an older
+	 * generation are treated as stale.
+	 */
+	public long getGeneration() {
+		return generation.get();
+	}
+
+	/**
+	 * Get the cached server info for the key, if present and fresh.
+	 *
+	 * @param key   cache key
+	 * @param ttlMs time-to-live in milliseconds
+	 * @return a copy of the server level fields of the cached server info,
+	 * or null
+	 */
+	public IServerInfo getServerInfo(final String key, final long ttlMs) {
+		Item<IServerInfo> item = getEntryItem(key, ttlMs, null);
+		return isNull(item) ? null : copyServerFields(item.value);
+	}
+
+	/**
+	 * Get the case sensitivity recorded alongside the cached server info.
+	 *
+	 * @param key   cache key
+	 * @param ttlMs time-to-live in milliseconds
+	 * @return the cached case sensitivity, or null if unknown
+	 */
+	public Boolean getCaseSensitive(final String key, final long ttlMs) {
+		Item<IServerInfo> item = getEntryItem(key, ttlMs, null);
+		return isNull(item) ? null : item.caseSensitive;
+	}
+
+	/**
+	 * Store the server level fields of the server info (and the
+	 * protocol-derived case sensitivity) for the key.
+	 *
+	 * @param key           cache key
+	 * @param serverInfo    server info to cache
+	 * @param caseSensitive whether the server reported itself case sensitive
+	 */
+	public void putServerInfo(final String key, final IServerInfo serverInfo, final boolean caseSensitive) {
+		if (isNull(key) || isNull(serverInfo)) {
+			return;
+		}
+		Entry entry = entries.computeIfAbsent(key, k -> new Entry());
+		entry.serverInfo = new Item<>(copyServerFields(serverInfo), caseSensitive, generation.get());
+	}
+
+	/**
+	 * Get a copy of the cached result maps for a spec definition.
+	 *
+	 * @param key     cache key
+	 * @param specKey spec key; JOBSPEC_KEY or SPEC_KEY_PREFIX + type
+	 * @param ttlMs   time-to-live in milliseconds
+	 * @return a copy of the cached result maps, or null
+	 */
+	public List<Map<String, Object>> getSpecResultMaps(final String key, final String specKey, final long ttlMs) {
+		Item<List<Map<String, Object>>> item = getEntryItem(key, ttlMs, specKey);
+		return isNull(item) ? null : copyResultMaps(item.value);
+	}
+
+	/**
+	 * Store a copy of the result maps for a spec definition.
+	 *
+	 * @param key        cache key
+	 * @param specKey    spec key; JOBSPEC_KEY or SPEC_KEY_PREFIX + type
+	 * @param resultMaps result maps to cache
+	 */
+	public void putSpecResultMaps(final String key, final String specKey, final List<Map<String, Object>> resultMaps) {
+		if (isNull(key) || isNull(specKey) || isNull(resultMaps)) {
+			return;
+		}
+		Entry entry = entries.computeIfAbsent(key, k -> new Entry());
+		entry.specs.put(specKey, new Item<>(copyResultMaps(resultMaps), null, generation.get()));
+	}
+
+	/**
+	 * Invalidate a single cached spec definition.
+	 *
+	 * @param key     cache key, server address or server id
+	 * @param specKey spec key; JOBSPEC_KEY or SPEC_KEY_PREFIX + type
+	 */
+	public void invalidateSpec(final String key, final String specKey) {
+		for (Entry entry : matchingEntries(key)) {
+			entry.specs.remove(specKey);
+		}
+	}
+
+	/**
+	 * Invalidate everything cached for a server.
+	 *
+	 * @param key cache key, server address or server id
+	 */
+	public void invalidate(final String key) {
+		if (isNull(key)) {
+			return;
+		}
+		Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<String, Entry> mapEntry = it.next();
+			if (matches(key, mapEntry.getKey(), mapEntry.getValue())) {
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * Invalidate all cached metadata by advancing the cache generation.
+	 */
+	public void invalidateAll() {
+		generation.incrementAndGet();
+		entries.clear();
+	}
+
+	private <T> Item<T> getEntryItem(final String key, final long ttlMs, final String specKey) {
+		if (isNull(key)) {
+			return null;
+		}
+		Entry entry = entries.get(key);
+		if (isNull(entry)) {
+			return null;
+		}
+		@SuppressWarnings("unchecked")
+		Item<T> item = (Item<T>) (isNull(specKey) ? entry.serverInfo : entry.specs.get(specKey));
+		if (nonNull(item) && item.isFresh(generation.get(), ttlMs)) {
+			return item;
+		}
+		return null;
+	}
+
+	private List<Entry> matchingEntries(final String key) {
+		List<Entry> matching = new ArrayList<>();
+		if (nonNull(key)) {
+			for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+				if (matches(key, mapEntry.getKey(), mapEntry.getValue())) {
+					matching.add(mapEntry.getValue());
+				}
+			}
+		}
+		return matching;
+	}
+
+	private static boolean matches(final String key, final String entryKey, final Entry entry) {
+		if (equalsIgnoreCase(key, entryKey)) {
+			return true;
+		}
+		Item<IServerInfo> info = entry.serverInfo;
+		return nonNull(info) && equalsIgnoreCase(key, info.value.getServerId());
+	}
+
+	/**
+	 * Copy the fields of a server info that are the same for every
+	 * connection to the server, leaving out the user and client fields and
+	 * the server date and uptime.
+	 *
+	 * @param info server info
+	 * @return the copy
+	 */
+	private static ServerInfo copyServerFields(final IServerInfo info) {
+		ServerInfo copy = new ServerInfo();
+		copy.setServerAddress(info.getServerAddress());
+		copy.setServerRoot(info.getServerRoot());
+		copy.setServerVersion(info.getServerVersion());
+		copy.setServerLicense(info.getServerLicense());
+		copy.setServerLicenseIp(info.getServerLicenseIp());
+		copy.setServerEncrypted(info.isServerEncrypted());
+		copy.setServerId(info.getServerId());
+		copy.setServerCluster(info.getServerCluster());
+		copy.setProxyVersion(info.getProxyVersion());
+		copy.setProxyAddress(info.getProxyAddress());
+		copy.setProxyRoot(info.getProxyRoot());
+		copy.setProxyEncrypted(info.isProxyEncrypted());
+		copy.setBrokerVersion(info.getBrokerVersion());
+		copy.setBrokerAddress(info.getBrokerAddress());
+		copy.setBrokerEncrypted(info.isBrokerEncrypted());
+		copy.setSandboxVersion(info.getSandboxVersion());
+		copy.setSandboxPort(info.getSandboxPort());
+		copy.setIntegEngine(info.getIntegEngine());
+		copy.setPasswordEnabled(info.isPasswordEnabled());
+		copy.setCaseSensitive(info.isCaseSensitive());
+		copy.setUnicodeEnabled(info.isUnicodeEnabled());
+		copy.setMonitorEnabled(info.isMonitorEnabled());
+		copy.setMoveDisabled(info.isMoveDisabled());
+		copy.setSSOAuth(info.getSSOAuth());
+		if (info instanceof ServerInfo) {
+			copy.setReplica(((ServerInfo) info).getReplica());
+		}
+		return copy;
+	}
+
+	private static List<Map<String, Object>> copyResultMaps(final List<Map<String, Object>> resultMaps) {
+		List<Map<String, Object>> copy = new ArrayList<>(resultMaps.size());
+		for (Map<String, Object> map : resultMaps) {
+			copy.add(isNull(map) ? null : new HashMap<>(map));
+		}
+		return copy;
+	}
+
+	/**
+	 * Everything cached for a single server address.
+	 */
+	private static class Entry {
+		private volatile Item<IServerInfo> serverInfo = null;
+		private final ConcurrentMap<String, Item<List<Map<String, Object>>>> specs = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * A cached value stamped with its load time and cache generation.
+	 */
+	private static class Item<T> {
+		private final T value;
+		private final Boolean caseSensitive;
+		private final long generation;
+		private final long loadedAt = System.currentTimeMillis();
+
+		private Item(final T value, final Boolean caseSensitive, final long generation) {
+			this.value = value;
+			this.caseSensitive = caseSensitive;
+			this.generation = generation;
+		}
+
+		private boolean isFresh(final long currentGeneration, final long ttlMs) {
+			return generation == currentGeneration && (ttlMs <= 0 || System.currentTimeMillis() - loadedAt < ttlMs);
+		}
+	}
+}
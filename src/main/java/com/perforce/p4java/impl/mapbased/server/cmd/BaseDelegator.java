@@ -9,20 +9,32 @@ import com.perforce.p4java.core.file.IFileSpec;
 import com.perforce.p4java.exception.AccessException;
 import com.perforce.p4java.exception.ConnectionException;
 import com.perforce.p4java.exception.RequestException;
+import com.perforce.p4java.graph.IGraphObjectCache;
 import com.perforce.p4java.impl.generic.core.file.FileSpec;
+import com.perforce.p4java.impl.mapbased.server.ChangelistCache;
+import com.perforce.p4java.impl.mapbased.server.RevisionContentCache;
+import com.perforce.p4java.impl.mapbased.server.Server;
+import com.perforce.p4java.impl.mapbased.server.ServerMetadataCache;
 import com.perforce.p4java.server.CmdSpec;
 import com.perforce.p4java.server.IOptionsServer;
 import com.perforce.p4java.server.IServer;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
 import org.apache.commons.lang3.Validate;
 
 import javax.annotation.Nonnull;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
 
 import static com.perforce.p4java.common.base.P4JavaExceptions.throwRequestExceptionIfPerforceServerVersionOldThanExpected;
 import static com.perforce.p4java.common.base.P4ResultMapUtils.parseCode0ErrorString;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
@@ -34,6 +46,9 @@ public abstract class BaseDelegator {
 	protected static int USER_RESTRICTIONS_SUPPORTED_MIN_VERSION = 20062;
 	protected static int QUERY_EXPRESSIONS_SUPPORTED_MIN_VERSION = 20082;
 
+	// Changelist diff output larger than this is never cached.
+	private static final int MAX_CACHED_STREAM_BYTES = 1024 * 1024;
+
 	/**
 	 * The server object
 	 */
@@ -95,6 +110,219 @@ public abstract class BaseDelegator {
 		return server.execMapCmdList(cmdSpec.toString(), cmdArgs, inMap);
 	}
 
+	/**
+	 * Run the given metadata command (e.g. 'jobspec -o'), answering from the
+	 * server's metadata cache if it is enabled and holds a fresh copy. Error
+	 * free results are stored back into the cache.
+	 *
+	 * @param cmdSpec The command being run; e.g. JOBSPEC
+	 * @param cmdArgs The parameters transformed into an array of arguments
+	 * @param specKey The metadata cache key for this definition
+	 * @return A list of result map objects
+	 * @throws ConnectionException When there is a problem connecting to the server
+	 * @throws AccessException     When privileges are insufficient to run the command
+	 */
+	List<Map<String, Object>> execMetadataCachedMapCmdList(@Nonnull final CmdSpec cmdSpec, String[] cmdArgs, final String specKey) throws ConnectionException, AccessException, RequestException {
+		ServerMetadataCache cache = getMetadataCache();
+		if (isNull(cache)) {
+			return execMapCmdList(cmdSpec, cmdArgs, null);
+		}
+
+		Server serverImpl = (Server) server;
+		List<Map<String, Object>> resultMaps = cache.getSpecResultMaps(serverImpl.getMetadataCacheKey(), specKey, serverImpl.getMetadataCacheTtl());
+		if (nonNull(resultMaps)) {
+			return resultMaps;
+		}
+
+		resultMaps = execMapCmdList(cmdSpec, cmdArgs, null);
+		if (nonNull(resultMaps)) {
+			for (Map<String, Object> map : resultMaps) {
+				if (isNotBlank(ResultMapParser.getErrorStr(map))) {
+					return resultMaps;
+				}
+			}
+			cache.putSpecResultMaps(serverImpl.getMetadataCacheKey(), specKey, resultMaps);
+		}
+		return resultMaps;
+	}
+
+	/**
+	 * Invalidate a cached metadata definition after it has been changed.
+	 *
+	 * @param specKey The metadata cache key for the definition
+	 */
+	void invalidateMetadataCacheSpec(final String specKey) {
+		ServerMetadataCache cache = getMetadataCache();
+		if (nonNull(cache)) {
+			cache.invalidateSpec(((Server) server).getMetadataCacheKey(), specKey);
+		}
+	}
+
+	/**
+	 * @return the server's graph object cache, or null if not enabled.
+	 */
+	IGraphObjectCache getGraphObjectCache() {
+		if (server instanceof Server && nonNull(((Server) server).getMetadataCacheKey())) {
+			return ((Server) server).getGraphObjectCache();
+		}
+		return null;
+	}
+
+	/**
+	 * Qualify a repo name for the graph object cache with the server address
+	 * and user name; what a user may read depends on their repo permissions,
+	 * so objects fetched for one user must never be returned to another.
+	 *
+	 * @param repo repo name, or null for lookups not qualified by a repo
+	 * @return the repo name to pass to the graph object cache
+	 */
+	String graphCacheRepo(final String repo) {
+		Server serverImpl = (Server) server;
+		return serverImpl.getMetadataCacheKey() + "|" + serverImpl.getUserName() + "|" + (isNull(repo) ? "" : repo);
+	}
+
+	/**
+	 * @return the server's file content cache, or null if not enabled.
+	 */
+	RevisionContentCache getContentCache() {
+		if (server instanceof Server && nonNull(((Server) server).getMetadataCacheKey())) {
+			return ((Server) server).getContentCache();
+		}
+		return null;
+	}
+
+	/**
+	 * Only full object SHAs name immutable objects; refs and abbreviated SHAs
+	 * must always go to the server.
+	 *
+	 * @param sha object name as given by the caller
+	 * @return true if the name is a full SHA-1 or SHA-256 object id
+	 */
+	static boolean isGraphObjectId(final String sha) {
+		if (isNull(sha) || (sha.length() != 40 && sha.length() != 64)) {
+			return false;
+		}
+		for (int i = 0; i < sha.length(); i++) {
+			if (Character.digit(sha.charAt(i), 16) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Run the given command against a single changelist (e.g. 'describe -s'),
+	 * answering from the server's changelist cache if it is enabled and holds
+	 * the results. Error free results for submitted changelists, and shelved
+	 * file lists for pending ones, are stored back into the cache.
+	 *
+	 * @param cmdSpec  The command being run; e.g. DESCRIBE
+	 * @param cmdArgs  The parameters transformed into an array of arguments
+	 * @param changeId The changelist the command is run against
+	 * @return A list of result map objects
+	 * @throws ConnectionException When there is a problem connecting to the server
+	 * @throws AccessException     When privileges are insufficient to run the command
+	 */
+	List<Map<String, Object>> execChangelistCachedMapCmdList(@Nonnull final CmdSpec cmdSpec, String[] cmdArgs, final int changeId) throws ConnectionException, AccessException, RequestException {
+		ChangelistCache cache = getChangelistCache();
+		if (isNull(cache) || changeId <= 0) {
+			return execMapCmdList(cmdSpec, cmdArgs, null);
+		}
+
+		Server serverImpl = (Server) server;
+		String cmdKey = ChangelistCache.composeCmdKey(cmdSpec.toString(), cmdArgs);
+		List<Map<String, Object>> resultMaps = cache.getResultMaps(serverImpl.getMetadataCacheKey(), changeId,
+				serverImpl.getUserName(), cmdKey, serverImpl.getMetadataCacheTtl());
+		if (nonNull(resultMaps)) {
+			return resultMaps;
+		}
+
+		resultMaps = execMapCmdList(cmdSpec, cmdArgs, null);
+		if (nonNull(resultMaps)) {
+			for (Map<String, Object> map : resultMaps) {
+				if (isNotBlank(ResultMapParser.getErrorStr(map))) {
+					return resultMaps;
+				}
+			}
+			cache.putResultMaps(serverImpl.getMetadataCacheKey(), changeId, serverImpl.getUserName(), cmdKey, resultMaps);
+		}
+		return resultMaps;
+	}
+
+	/**
+	 * Run the given streaming command against a single changelist (e.g.
+	 * 'describe -du'), answering from the server's changelist cache if it
+	 * holds the output. Output for changelists already known to be submitted
+	 * is read in full and stored back into the cache, up to a size limit.
+	 *
+	 * @param cmdSpec  The command being run; e.g. DESCRIBE
+	 * @param cmdArgs  The parameters transformed into an array of arguments
+	 * @param changeId The changelist the command is run against
+	 * @return the stream returned by the server command
+	 * @throws ConnectionException When there is a problem connecting to the server
+	 * @throws AccessException     When privileges are insufficient to run the command
+	 */
+	InputStream execChangelistCachedStreamCmd(final CmdSpec cmdSpec, String[] cmdArgs, final int changeId) throws ConnectionException, RequestException, AccessException {
+		ChangelistCache cache = getChangelistCache();
+		if (isNull(cache) || changeId <= 0) {
+			return execStreamCmd(cmdSpec, cmdArgs);
+		}
+
+		Server serverImpl = (Server) server;
+		String key = serverImpl.getMetadataCacheKey();
+		String user = serverImpl.getUserName();
+		String cmdKey = ChangelistCache.composeCmdKey(cmdSpec.toString(), cmdArgs);
+		InputStream cached = cache.getStream(key, changeId, user, cmdKey, serverImpl.getMetadataCacheTtl());
+		if (nonNull(cached) || !cache.isSubmitted(key, changeId)) {
+			return nonNull(cached) ? cached : execStreamCmd(cmdSpec, cmdArgs);
+		}
+
+		InputStream in = execStreamCmd(cmdSpec, cmdArgs);
+		if (isNull(in)) {
+			return null;
+		}
+		try {
+			byte[] head = IOUtils.toByteArray(BoundedInputStream.builder()
+					.setInputStream(in)
+					.setMaxCount(MAX_CACHED_STREAM_BYTES + 1)
+					.setPropagateClose(false)
+					.get());
+			if (head.length <= MAX_CACHED_STREAM_BYTES) {
+				in.close();
+				cache.putStream(key, changeId, user, cmdKey, head);
+				return new ByteArrayInputStream(head);
+			}
+			return new SequenceInputStream(new ByteArrayInputStream(head), in);
+		} catch (IOException e) {
+			throw new ConnectionException(e.getLocalizedMessage(), e);
+		}
+	}
+
+	/**
+	 * Drop anything cached for a changelist after it has been changed.
+	 *
+	 * @param changeId The changelist that was changed
+	 */
+	void invalidateChangelistCache(final int changeId) {
+		if (server instanceof Server) {
+			((Server) server).invalidateChangelistCache(changeId);
+		}
+	}
+
+	private ChangelistCache getChangelistCache() {
+		if (server instanceof Server && nonNull(((Server) server).getMetadataCacheKey())) {
+			return ((Server) server).getChangelistCache();
+		}
+		return null;
+	}
+
+	private ServerMetadataCache getMetadataCache() {
+		if (server instanceof Server && nonNull(((Server) server).getMetadataCacheKey())) {
+			return ((Server) server).getMetadataCache();
+		}
+		return null;
+	}
+
 	/**
 	 * Run the given streaming command against the real server method.
 	 *
@@ -103,8 +103,8 @@ public class ChangeDelegator extends BaseDelegator implements IChangeDelegator {
             args = new String[] { "-o" };
         }
 
-        List<Map<String, Object>> resultMaps = execMapCmdList(CHANGE,
-                processParameters(opts, null, args, server), null);
+        List<Map<String, Object>> resultMaps = execChangelistCachedMapCmdList(CHANGE,
+                processParameters(opts, null, args, server), id);
 
         return ResultListBuilder.buildNullableObjectFromNonInfoMessageCommandResultMaps(
                 resultMaps,
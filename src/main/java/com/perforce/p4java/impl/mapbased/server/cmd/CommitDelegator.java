@@ -5,6 +5,7 @@ import com.perforce.p4java.exception.P4JavaException;
 import com.perforce.p4java.graph.CommitAction;
 import com.perforce.p4java.graph.ICommit;
 import com.perforce.p4java.graph.IGraphObject;
+import com.perforce.p4java.graph.IGraphObjectCache;
 import com.perforce.p4java.impl.generic.graph.Commit;
 import com.perforce.p4java.impl.generic.graph.GraphObject;
 import com.perforce.p4java.impl.mapbased.server.Parameters;
@@ -13,6 +14,7 @@ import com.perforce.p4java.server.CmdSpec;
 import com.perforce.p4java.server.IOptionsServer;
 import com.perforce.p4java.server.delegator.ICommitDelegator;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Date;
@@ -54,29 +56,34 @@ public class CommitDelegator extends BaseDelegator implements ICommitDelegator {
 
 	@Override
 	public ICommit getCommitObject(String sha) throws P4JavaException {
-
-		List<Map<String, Object>> resultMaps = execMapCmdList(GRAPH, Parameters.processParameters(null, null, new String[]{"cat-file", "commit", sha}, server), null);
-
-		List<ICommit> commits = parseCommitList(resultMaps);
-
-		// should only return a single result
-		if (commits != null && !commits.isEmpty()) {
-			return commits.get(0);
-		}
-
-		return null;
+		return getCommitObject(sha, null, new String[]{"cat-file", "commit", sha});
 	}
 
 	@Override
 	public ICommit getCommitObject(String sha, String repo) throws P4JavaException {
+		return getCommitObject(sha, repo, new String[]{"cat-file", "-n", repo, "commit", sha});
+	}
 
-		List<Map<String, Object>> resultMaps = execMapCmdList(GRAPH, Parameters.processParameters(null, null, new String[]{"cat-file", "-n", repo, "commit", sha}, server), null);
+	private ICommit getCommitObject(String sha, String repo, String[] args) throws P4JavaException {
+		IGraphObjectCache cache = isGraphObjectId(sha) ? getGraphObjectCache() : null;
+		if (nonNull(cache)) {
+			ICommit cached = cache.getCommit(graphCacheRepo(repo), sha);
+			if (nonNull(cached)) {
+				return cached;
+			}
+		}
+
+		List<Map<String, Object>> resultMaps = execMapCmdList(GRAPH, Parameters.processParameters(null, null, args, server), null);
 
 		List<ICommit> commits = parseCommitList(resultMaps);
 
 		// should only return a single result
 		if (commits != null && !commits.isEmpty()) {
-			return commits.get(0);
+			ICommit commit = commits.get(0);
+			if (nonNull(cache) && nonNull(commit) && sha.equalsIgnoreCase(commit.getCommit())) {
+				cache.putCommit(graphCacheRepo(repo), sha, commit);
+			}
+			return commit;
 		}
 
 		return null;
@@ -84,14 +91,35 @@ public class CommitDelegator extends BaseDelegator implements ICommitDelegator {
 
 	@Override
 	public InputStream getBlobObject(String repo, String sha) throws P4JavaException {
+		IGraphObjectCache cache = isGraphObjectId(sha) ? getGraphObjectCache() : null;
+		try {
+			if (nonNull(cache)) {
+				InputStream cached = cache.getBlob(graphCacheRepo(repo), sha);
+				if (nonNull(cached)) {
+					return cached;
+				}
+			}
 
-		InputStream inputStream = execStreamCmd(GRAPH, Parameters.processParameters(null, null, new String[]{"cat-file", "-n", repo, "blob", sha}, server));
+			InputStream inputStream = execStreamCmd(GRAPH, Parameters.processParameters(null, null, new String[]{"cat-file", "-n", repo, "blob", sha}, server));
 
-		return inputStream;
+			if (nonNull(cache) && nonNull(inputStream)) {
+				return cache.putBlob(graphCacheRepo(repo), sha, inputStream);
+			}
+			return inputStream;
+		} catch (IOException e) {
+			throw new P4JavaException("Graph object cache error: " + e.getLocalizedMessage(), e);
+		}
 	}
 
 	@Override
 	public IGraphObject getGraphObject(String sha) throws P4JavaException {
+		IGraphObjectCache cache = isGraphObjectId(sha) ? getGraphObjectCache() : null;
+		if (nonNull(cache)) {
+			IGraphObject cached = cache.getObject(graphCacheRepo(null), sha);
+			if (nonNull(cached)) {
+				return cached;
+			}
+		}
 
 		List<Map<String, Object>> resultMaps = execMapCmdList(CmdSpec.GRAPH, Parameters.processParameters(null, null, new String[]{"cat-file", "-t", sha}, server), null);
 
@@ -123,7 +151,11 @@ public class CommitDelegator extends BaseDelegator implements ICommitDelegator {
 			}
 		}
 
-		return new GraphObject(rsha, type);
+		GraphObject object = new GraphObject(rsha, type);
+		if (nonNull(cache) && nonNull(type)) {
+			cache.putObject(graphCacheRepo(null), sha, object);
+		}
+		return object;
 	}
 
 	/**
@@ -36,8 +36,8 @@ public class DescribeDelegator extends BaseDelegator implements IDescribeDelegat
 	public InputStream getChangelistDiffs(final int changelistId,
 	                                      final GetChangelistDiffsOptions opts) throws P4JavaException {
 
-		return execStreamCmd(DESCRIBE,
-				processParameters(opts, null, String.valueOf(changelistId), server));
+		return execChangelistCachedStreamCmd(DESCRIBE,
+				processParameters(opts, null, String.valueOf(changelistId), server), changelistId);
 	}
 
 	@Override
@@ -71,16 +71,16 @@ public class DescribeDelegator extends BaseDelegator implements IDescribeDelegat
 
 	@Override
 	public List<IFileSpec> getShelvedFiles(final int changelistId) throws P4JavaException {
-		List<Map<String, Object>> resultMaps = execMapCmdList(DESCRIBE,
-				new String[]{"-s", "-S", String.valueOf(changelistId)}, null);
+		List<Map<String, Object>> resultMaps = execChangelistCachedMapCmdList(DESCRIBE,
+				new String[]{"-s", "-S", String.valueOf(changelistId)}, changelistId);
 
 		return ResultMapParser.parseCommandResultMapAsFileSpecs(changelistId, server, resultMaps);
 	}
 
 	@Override
 	public List<IFileSpec> getShelvedFiles(final int changelistId, final int max) throws P4JavaException {
-		List<Map<String, Object>> resultMaps = execMapCmdList(DESCRIBE,
-				new String[]{"-s", "-m" + max, "-S", String.valueOf(changelistId)}, null);
+		List<Map<String, Object>> resultMaps = execChangelistCachedMapCmdList(DESCRIBE,
+				new String[]{"-s", "-m" + max, "-S", String.valueOf(changelistId)}, changelistId);
 
 		return ResultMapParser.parseCommandResultMapAsFileSpecs(changelistId, server, resultMaps);
 	}
@@ -105,8 +105,8 @@ public class DescribeDelegator extends BaseDelegator implements IDescribeDelegat
 		// command. See
 		// OneShotServerImpl.useTags() for a canonical example of this...
 		try {
-			List<Map<String, Object>> resultMaps = execMapCmdList(DESCRIBE,
-					new String[]{"-s", String.valueOf(id)}, null);
+			List<Map<String, Object>> resultMaps = execChangelistCachedMapCmdList(DESCRIBE,
+					new String[]{"-s", String.valueOf(id)}, id);
 
 			return ResultMapParser.parseCommandResultMapAsFileSpecs(id, server, resultMaps);
 		} catch (P4JavaException p4je) {
@@ -118,8 +118,8 @@ public class DescribeDelegator extends BaseDelegator implements IDescribeDelegat
 	public List<IFileSpec> getChangelistFiles(final int id, final int max)
 			throws ConnectionException, RequestException, AccessException {
 		try {
-			List<Map<String, Object>> resultMaps = execMapCmdList(DESCRIBE,
-					new String[]{"-s", "-m" + max, String.valueOf(id)}, null);
+			List<Map<String, Object>> resultMaps = execChangelistCachedMapCmdList(DESCRIBE,
+					new String[]{"-s", "-m" + max, String.valueOf(id)}, id);
 
 			return ResultMapParser.parseCommandResultMapAsFileSpecs(id, server, resultMaps);
 		} catch (P4JavaException p4je) {
@@ -138,8 +138,8 @@ public class DescribeDelegator extends BaseDelegator implements IDescribeDelegat
 		// command. See
 		// OneShotServerImpl.useTags() for a canonical example of this...
 		try {
-			List<Map<String, Object>> resultMaps = execMapCmdList(DESCRIBE,
-					new String[]{"-s", String.valueOf(id)}, null);
+			List<Map<String, Object>> resultMaps = execChangelistCachedMapCmdList(DESCRIBE,
+					new String[]{"-s", String.valueOf(id)}, id);
 
 			return ResultMapParser.parseCommandResultMapAsExtendedFileSpecs(id, server, resultMaps);
 		} catch (P4JavaException p4je) {
@@ -151,8 +151,8 @@ public class DescribeDelegator extends BaseDelegator implements IDescribeDelegat
 	public List<IExtendedFileSpec> getChangelistExtendedFiles(final int id, final int max)
 			throws ConnectionException, RequestException, AccessException {
 		try {
-			List<Map<String, Object>> resultMaps = execMapCmdList(DESCRIBE,
-					new String[]{"-s", "-m" + max, String.valueOf(id)}, null);
+			List<Map<String, Object>> resultMaps = execChangelistCachedMapCmdList(DESCRIBE,
+					new String[]{"-s", "-m" + max, String.valueOf(id)}, id);
 
 			return ResultMapParser.parseCommandResultMapAsExtendedFileSpecs(id, server, resultMaps);
 		} catch (P4JavaException p4je) {
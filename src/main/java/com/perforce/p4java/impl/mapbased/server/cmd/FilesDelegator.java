@@ -17,7 +17,6 @@ import java.util.Map;
 
 import static com.perforce.p4java.impl.mapbased.server.Parameters.processParameters;
 import static com.perforce.p4java.server.CmdSpec.FILES;
-import static java.util.Objects.nonNull;
 
 /**
  * Delegator for the 'p4 files' command.
@@ -57,15 +56,9 @@ public class FilesDelegator extends BaseDelegator implements IFilesDelegator {
             final GetDepotFilesOptions opts) throws P4JavaException {
 
         Validate.notNull(fileSpecs);
-        List<IFileSpec> fileList = new ArrayList<>();
         List<Map<String, Object>> resultMaps = execMapCmdList(FILES,
                 processParameters(opts, fileSpecs, server), null);
 
-        if (nonNull(resultMaps)) {
-            for (Map<String, Object> map : resultMaps) {
-                fileList.add(ResultListBuilder.handleFileReturn(map, server));
-            }
-        }
-        return fileList;
+        return ResultListBuilder.buildFileSpecListFromCommandResultMaps(resultMaps, server);
     }
 }
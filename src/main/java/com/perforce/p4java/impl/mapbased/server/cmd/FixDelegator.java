@@ -73,6 +73,7 @@ public class FixDelegator extends BaseDelegator implements IFixDelegator {
         List<IFix> fixList = new ArrayList<>();
         List<Map<String, Object>> resultMaps = execMapCmdList(FIX, Parameters.processParameters(
                 opts, null, args.toArray(new String[args.size()]), server), null);
+        invalidateChangelistCache(changeListId);
 
         if (nonNull(resultMaps)) {
             for (Map<String, Object> map : resultMaps) {
@@ -3,6 +3,7 @@ package com.perforce.p4java.impl.mapbased.server.cmd;
 import com.perforce.p4java.Log;
 import com.perforce.p4java.exception.P4JavaException;
 import com.perforce.p4java.graph.IGraphListTree;
+import com.perforce.p4java.graph.IGraphObjectCache;
 import com.perforce.p4java.impl.generic.graph.GraphListTree;
 import com.perforce.p4java.impl.mapbased.server.Parameters;
 import com.perforce.p4java.server.IOptionsServer;
@@ -34,6 +35,14 @@ public class GraphListTreeDelegator extends BaseDelegator implements IGraphListT
 
 	@Override
 	public List<IGraphListTree> getGraphListTree(String sha) throws P4JavaException {
+		IGraphObjectCache cache = isGraphObjectId(sha) ? getGraphObjectCache() : null;
+		if (nonNull(cache)) {
+			List<IGraphListTree> cached = cache.getTree(graphCacheRepo(null), sha);
+			if (nonNull(cached)) {
+				return cached;
+			}
+		}
+
 		List<Map<String, Object>> resultMaps = execMapCmdList(
 				GRAPH,
 				Parameters.processParameters(
@@ -75,6 +84,9 @@ public class GraphListTreeDelegator extends BaseDelegator implements IGraphListT
 			index++;
 		}
 
+		if (nonNull(cache) && !graphListTreeList.isEmpty()) {
+			cache.putTree(graphCacheRepo(null), sha, graphListTreeList);
+		}
 		return graphListTreeList;
 	}
 }
\ No newline at end of file
@@ -11,6 +11,7 @@ import com.perforce.p4java.exception.AccessException;
 import com.perforce.p4java.exception.ConnectionException;
 import com.perforce.p4java.exception.RequestException;
 import com.perforce.p4java.impl.generic.core.JobSpec;
+import com.perforce.p4java.impl.mapbased.server.ServerMetadataCache;
 import com.perforce.p4java.server.IOptionsServer;
 import com.perforce.p4java.server.delegator.IJobSpecDelegator;
 
@@ -33,7 +34,7 @@ public class JobSpecDelegator extends BaseDelegator implements IJobSpecDelegator
      */
     @Override
     public IJobSpec getJobSpec() throws ConnectionException, RequestException, AccessException {
-        List<Map<String, Object>> resultMaps = execMapCmdList(JOBSPEC, new String[] { "-o" }, null);
+        List<Map<String, Object>> resultMaps = execMetadataCachedMapCmdList(JOBSPEC, new String[] { "-o" }, ServerMetadataCache.JOBSPEC_KEY);
         return ResultListBuilder.buildNullableObjectFromNonInfoMessageCommandResultMaps(
                 resultMaps,
 				(Function<Map<String, Object>, IJobSpec>) map -> new JobSpec(map, server)
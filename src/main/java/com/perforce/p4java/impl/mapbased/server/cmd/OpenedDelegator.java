@@ -1,6 +1,5 @@
 package com.perforce.p4java.impl.mapbased.server.cmd;
 
-import static com.perforce.p4java.common.base.P4JavaExceptions.rethrowFunction;
 import static com.perforce.p4java.impl.mapbased.server.Parameters.processParameters;
 import static com.perforce.p4java.server.CmdSpec.OPENED;
 
@@ -67,9 +66,6 @@ public class OpenedDelegator extends BaseDelegator implements IOpenedDelegator {
         List<Map<String, Object>> resultMaps = execMapCmdList(OPENED,
                 processParameters(opts, fileSpecs, server), null);
 
-        return ResultListBuilder.buildNonNullObjectListFromCommandResultMaps(
-                resultMaps,
-                rethrowFunction(map -> ResultListBuilder.handleFileReturn(map, server))
-        );
+        return ResultListBuilder.buildNonNullFileSpecListFromCommandResultMaps(resultMaps, server);
     }
 }
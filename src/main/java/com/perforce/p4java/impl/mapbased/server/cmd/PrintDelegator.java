@@ -5,6 +5,8 @@ import com.perforce.p4java.exception.AccessException;
 import com.perforce.p4java.exception.ConnectionException;
 import com.perforce.p4java.exception.P4JavaException;
 import com.perforce.p4java.exception.RequestException;
+import com.perforce.p4java.impl.mapbased.server.RevisionContentCache;
+import com.perforce.p4java.impl.mapbased.server.Server;
 import com.perforce.p4java.option.server.GetFileContentsOptions;
 import com.perforce.p4java.server.IOptionsServer;
 import com.perforce.p4java.server.delegator.IPrintDelegator;
@@ -12,10 +14,16 @@ import com.perforce.p4java.server.delegator.IPrintDelegator;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.util.List;
+import java.util.Map;
 
 import static com.perforce.p4java.impl.mapbased.server.Parameters.processParameters;
+import static com.perforce.p4java.common.base.P4ResultMapUtils.parseString;
+import static com.perforce.p4java.server.CmdSpec.FSTAT;
 import static com.perforce.p4java.server.CmdSpec.PRINT;
 import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
 /**
  * Implementation to handle the Print command.
@@ -54,13 +62,84 @@ public class PrintDelegator extends BaseDelegator implements IPrintDelegator {
             final GetFileContentsOptions opts) throws P4JavaException {
 
         boolean annotateFiles = isNull(opts) || !opts.isDontAnnotateFiles();
-        return execStreamCmd(PRINT,
-                processParameters(
-                        opts,
-                        fileSpecs,
-                        null,
-                        annotateFiles,
-                        server));
+        String[] args = processParameters(
+                opts,
+                fileSpecs,
+                null,
+                annotateFiles,
+                server);
+
+        RevisionContentCache cache = getContentCache();
+        if (nonNull(cache) && isCacheablePrint(args)) {
+            String fileArg = args[args.length - 1];
+            // What a user may read depends on their protections, so every
+            // key is scoped to the user.
+            String scope = ((Server) server).getMetadataCacheKey() + "|" + server.getUserName()
+                    + "|" + server.getCharsetName();
+            return cache.getContent(() -> resolveRevision(scope, fileArg), () -> execStreamCmd(PRINT, args));
+        }
+        return execStreamCmd(PRINT, args);
+    }
+
+    /**
+     * Only 'print -q' of a single file revision is cached: the header line
+     * and -a output depend on more than the content, and --offset / --size
+     * and -T print something else altogether.
+     */
+    private static boolean isCacheablePrint(final String[] args) {
+        if (isNull(args) || args.length != 2 || !"-q".equals(args[0])) {
+            return false;
+        }
+        String fileArg = args[1];
+        if (isNull(fileArg) || fileArg.startsWith("-") || fileArg.contains("...")
+                || fileArg.contains("*") || fileArg.contains("%%") || fileArg.contains(",")) {
+            return false;
+        }
+        // Shelved content can change under the same name.
+        return !fileArg.contains("@=");
+    }
+
+    /**
+     * Resolve a print argument to the revision it currently names with
+     * 'fstat -Ol', which reports the revision's type and digest without
+     * transferring any content.
+     */
+    private RevisionContentCache.Revision resolveRevision(final String scope, final String fileArg) throws P4JavaException {
+        List<Map<String, Object>> resultMaps = execMapCmdList(FSTAT, new String[]{"-Ol", fileArg}, null);
+        if (isNull(resultMaps) || resultMaps.size() != 1) {
+            return null;
+        }
+        Map<String, Object> map = resultMaps.get(0);
+        if (isNull(map) || isNotBlank(ResultMapParser.getErrorStr(map))) {
+            return null;
+        }
+
+        String depotFile = parseString(map, "depotFile");
+        String headRev = parseString(map, "headRev");
+        String headType = parseString(map, "headType");
+        String headAction = parseString(map, "headAction");
+        String digest = parseString(map, "digest");
+        if (isBlank(depotFile) || isBlank(headRev) || isBlank(headType) || isBlank(digest)
+                || isNull(headAction) || headAction.contains("delete") || headAction.equals("purge")
+                || headAction.equals("archive")) {
+            return null;
+        }
+
+        String key = scope + "|" + depotFile + "#" + headRev + "|" + headType + "|" + digest;
+        return new RevisionContentCache.Revision(key, isDigestComparable(headType) ? digest : null);
+    }
+
+    /**
+     * The server's digest is of the stored content; printed content only
+     * matches it when neither keyword expansion nor charset translation
+     * applies.
+     */
+    private static boolean isDigestComparable(final String fileType) {
+        int plus = fileType.indexOf('+');
+        String base = plus < 0 ? fileType : fileType.substring(0, plus);
+        String mods = plus < 0 ? "" : fileType.substring(plus + 1);
+        return !mods.contains("k") && !base.startsWith("k")
+                && !base.contains("unicode") && !base.contains("utf");
     }
 
     @Override
@@ -11,19 +11,23 @@ import com.perforce.p4java.exception.AccessException;
 import com.perforce.p4java.exception.ConnectionException;
 import com.perforce.p4java.exception.P4JavaException;
 import com.perforce.p4java.exception.RequestException;
+import com.perforce.p4java.impl.generic.core.file.CompactFileSpecList;
 import com.perforce.p4java.impl.generic.core.file.ExtendedFileSpec;
 import com.perforce.p4java.impl.generic.core.file.FileSpec;
+import com.perforce.p4java.impl.mapbased.server.Server;
 import com.perforce.p4java.server.IOptionsServer;
 import com.perforce.p4java.server.IServer;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import static com.perforce.p4java.common.base.P4ResultMapUtils.isContainsValidRevisionSpecificInformation;
 import static com.perforce.p4java.common.base.P4ResultMapUtils.parseCode0ErrorString;
 import static com.perforce.p4java.core.file.FileSpecOpStatus.ERROR;
 import static com.perforce.p4java.core.file.FileSpecOpStatus.INFO;
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 
@@ -68,8 +72,61 @@ public class ResultListBuilder {
 		return obj;
 	}
 
+	/**
+	 * Build the file spec list for 'files' or 'have' style results, with an
+	 * entry for every result map; a CompactFileSpecList if the server is set
+	 * up for it.
+	 */
+	public static List<IFileSpec> buildFileSpecListFromCommandResultMaps(final List<Map<String, Object>> resultMaps, final IServer server) throws AccessException, ConnectionException {
+		CompactFileSpecList<IFileSpec> compactList = isCompactFileSpecLists(server) ? CompactFileSpecList.forFileSpecs(server) : null;
+		List<IFileSpec> specList = nonNull(compactList) ? compactList : new ArrayList<>();
+		if (resultMaps != null) {
+			for (Map<String, Object> map : resultMaps) {
+				addFileReturn(compactList, specList, map, server);
+			}
+		}
+		if (nonNull(compactList)) {
+			compactList.trimToSize();
+		}
+		return specList;
+	}
+
+	/**
+	 * As buildFileSpecListFromCommandResultMaps, but leaving out error results,
+	 * as for 'opened'.
+	 */
+	public static List<IFileSpec> buildNonNullFileSpecListFromCommandResultMaps(final List<Map<String, Object>> resultMaps, final IServer server) throws P4JavaException {
+		CompactFileSpecList<IFileSpec> compactList = isCompactFileSpecLists(server) ? CompactFileSpecList.forFileSpecs(server) : null;
+		List<IFileSpec> specList = nonNull(compactList) ? compactList : new ArrayList<>();
+		if (resultMaps != null) {
+			for (Map<String, Object> map : resultMaps) {
+				if (!ResultMapParser.handleErrorStr(map)) {
+					addFileReturn(compactList, specList, map, server);
+				}
+			}
+		}
+		if (nonNull(compactList)) {
+			compactList.trimToSize();
+		}
+		return specList;
+	}
+
+	private static void addFileReturn(final CompactFileSpecList<IFileSpec> compactList, final List<IFileSpec> specList, final Map<String, Object> map, final IServer server) throws AccessException, ConnectionException {
+		if (nonNull(compactList) && nonNull(map) && isNull(ResultMapParser.getDeferredFileMessage(map))
+				&& isBlank(ResultMapParser.handleFileErrorStr(map))) {
+			compactList.addResultMap(map);
+		} else {
+			specList.add(handleFileReturn(map, server));
+		}
+	}
+
+	private static boolean isCompactFileSpecLists(final IServer server) {
+		return server instanceof Server && ((Server) server).isCompactFileSpecLists();
+	}
+
 	public static List<IExtendedFileSpec> buildNonNullExtendedFileSpecListFromCommandResultMaps(final List<Map<String, Object>> resultMaps, final IOptionsServer server) throws AccessException, ConnectionException {
-		List<IExtendedFileSpec> specList = new ArrayList<>();
+		CompactFileSpecList<IExtendedFileSpec> compactList = isCompactFileSpecLists(server) ? CompactFileSpecList.forExtendedFileSpecs(server) : null;
+		List<IExtendedFileSpec> specList = nonNull(compactList) ? compactList : new ArrayList<>();
 		if (resultMaps != null) {
 			for (Map<String, Object> map : resultMaps) {
 				// We do this by hand for the statFiles case; this may be
@@ -87,7 +144,11 @@ public class ResultListBuilder {
 				String errStr = ResultMapParser.handleFileErrorStr(map);
 				if (isBlank(errStr)) {
 					if (isContainsValidRevisionSpecificInformation(map)) {
-						specList.add(new ExtendedFileSpec(map, server));
+						if (nonNull(compactList)) {
+							compactList.addResultMap(map);
+						} else {
+							specList.add(new ExtendedFileSpec(map, server));
+						}
 					}
 				} else {
 					FileSpecOpStatus fileSpecOpStatus = ERROR;
@@ -98,6 +159,9 @@ public class ResultListBuilder {
 				}
 			}
 		}
+		if (nonNull(compactList)) {
+			compactList.trimToSize();
+		}
 		return specList;
 	}
 
@@ -130,6 +194,14 @@ public class ResultListBuilder {
 
 	public static IFileSpec handleFileReturn(final Map<String, Object> map, final IServer server) throws AccessException, ConnectionException {
 		if (nonNull(map)) {
+			Supplier<String> deferredStr = ResultMapParser.getDeferredFileMessage(map);
+			if (nonNull(deferredStr)) {
+				FileSpecOpStatus specOpStatus = ResultMapParser.isInfoMessage(map) ? INFO : ERROR;
+				FileSpec fileSpec = new FileSpec(specOpStatus, (String) null, parseCode0ErrorString(map));
+				fileSpec.setDeferredStatusMessage(deferredStr);
+				return fileSpec;
+			}
+
 			String errStr = ResultMapParser.handleFileErrorStr(map);
 			if (isBlank(errStr)) {
 				return new FileSpec(map, server, -1);
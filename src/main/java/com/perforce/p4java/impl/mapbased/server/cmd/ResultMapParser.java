@@ -11,6 +11,7 @@ import com.perforce.p4java.exception.RequestException;
 import com.perforce.p4java.impl.generic.core.file.ExtendedFileSpec;
 import com.perforce.p4java.impl.generic.core.file.FileSpec;
 import com.perforce.p4java.impl.mapbased.MapKeys;
+import com.perforce.p4java.impl.mapbased.rpc.msg.MessageTemplate;
 import com.perforce.p4java.server.IServer;
 import org.apache.commons.lang3.Validate;
 
@@ -19,6 +20,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -527,6 +529,45 @@ public abstract class ResultMapParser {
 		return null;
 	}
 
+	/**
+	 * Deferred form of handleFileErrorStr for the info and warning rows that
+	 * make up most file command output (e.g. "file(s) up-to-date"): the
+	 * message is only rendered when the supplier is called. Rows with error
+	 * messages, which must be checked for authentication failures, and rows
+	 * whose message might render blank are not deferred.
+	 *
+	 * @param map the map
+	 * @return a supplier of the message handleFileErrorStr would return, or
+	 * null if the message cannot be deferred
+	 * @since 2025.2
+	 */
+	public static Supplier<String> getDeferredFileMessage(final Map<String, Object> map) {
+		if (isNull(map)) {
+			return null;
+		}
+		int index = 0;
+		String code = parseString(map, CODE + index);
+		boolean hasText = false;
+		while (isNotBlank(code)) {
+			int severity = getSeverity(code);
+			if (severity >= E_FAILED) {
+				return null;
+			}
+			if (severity >= E_INFO) {
+				String fmtStr = parseString(map, FMT + index);
+				if (isNotBlank(fmtStr)) {
+					hasText |= indexOf(fmtStr, '%') == -1 || MessageTemplate.get(fmtStr).hasText(map);
+				}
+			}
+			index++;
+			code = parseString(map, CODE + index);
+		}
+		if (!hasText) {
+			return null;
+		}
+		return () -> getErrorOrInfoStr(map).trim();
+	}
+
 	/**
 	 * Unfortunately, the p4 command version returns a valid map for
 	 * non-existent clients/labels/users; the only way we can detect that the
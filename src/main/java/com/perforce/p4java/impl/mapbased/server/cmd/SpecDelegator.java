@@ -5,6 +5,7 @@ import com.perforce.p4java.exception.AccessException;
 import com.perforce.p4java.exception.ConnectionException;
 import com.perforce.p4java.exception.P4JavaException;
 import com.perforce.p4java.exception.RequestException;
+import com.perforce.p4java.impl.mapbased.server.ServerMetadataCache;
 import com.perforce.p4java.server.CustomSpec;
 import com.perforce.p4java.server.IOptionsServer;
 import com.perforce.p4java.server.delegator.ISpecDelegator;
@@ -32,7 +33,7 @@ public class SpecDelegator extends BaseDelegator implements ISpecDelegator {
 	 */
 	@Override
 	public Map<String, Object> getSpec(CustomSpec type) throws AccessException, RequestException, ConnectionException {
-		List<Map<String, Object>> resultMaps = execMapCmdList(SPEC, new String[]{"-o", type.toString()}, null);
+		List<Map<String, Object>> resultMaps = execMetadataCachedMapCmdList(SPEC, new String[]{"-o", type.toString()}, ServerMetadataCache.SPEC_KEY_PREFIX + type);
 		return ResultListBuilder.buildNullableObjectFromNonInfoMessageCommandResultMaps(
 				resultMaps,
 				map -> map
@@ -47,7 +48,7 @@ public class SpecDelegator extends BaseDelegator implements ISpecDelegator {
 		Validate.notNull(spec);
 
 		List<Map<String, Object>> resultMaps = execMapCmdList(SPEC, new String[]{"-i", type.toString()}, spec);
-
+		invalidateSpecDefinitions(type);
 
 		return parseCommandResultMapIfIsInfoMessageAsString(resultMaps);
 	}
@@ -60,8 +61,16 @@ public class SpecDelegator extends BaseDelegator implements ISpecDelegator {
 		Validate.notNull(spec);
 
 		List<Map<String, Object>> resultMaps = server.execInputStringMapCmdList(SPEC.toString(), new String[]{"-i", type.toString()}, spec);
+		invalidateSpecDefinitions(type);
 
 		return parseCommandResultMapIfIsInfoMessageAsString(resultMaps);
 	}
 
+	private void invalidateSpecDefinitions(CustomSpec type) {
+		invalidateMetadataCacheSpec(ServerMetadataCache.SPEC_KEY_PREFIX + type);
+		// Updating the job spec also changes what 'jobspec -o' reports
+		if (type == CustomSpec.JOB) {
+			invalidateMetadataCacheSpec(ServerMetadataCache.JOBSPEC_KEY);
+		}
+	}
 }
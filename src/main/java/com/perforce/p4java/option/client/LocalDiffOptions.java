@@ -0,0 +1,93 @@
+package com.perforce.p4java.option.client;
+
+/**
+ * Simple default options object for IClient.getLocalDiffs.
+ *
+ * @since 2025.2
+ */
+public class LocalDiffOptions {
+
+	/**
+	 * Default diff flags; unified output with three lines of context.
+	 */
+	public static final String DEFAULT_DIFF_FLAGS = "u";
+
+	/**
+	 * Diff type and flags as given to 'p4 diff -d'
+	 */
+	private String diffFlags = DEFAULT_DIFF_FLAGS;
+	/**
+	 * Specifies the number of threads used to diff files; zero means one per processor
+	 */
+	private int numberOfThreads = 0;
+	/**
+	 * Specifies the number of concurrent print commands used to fetch base revisions;
+	 * zero means the same as numberOfThreads
+	 */
+	private int numberOfFetchThreads = 0;
+
+	/**
+	 * Default constructor
+	 */
+	public LocalDiffOptions() {
+	}
+
+	/**
+	 * Constructor with the given arguments
+	 *
+	 * @param diffFlags       - diff type and flags as given to 'p4 diff -d', e.g. "u" or "c5"
+	 * @param numberOfThreads - number of threads used to diff files
+	 */
+	public LocalDiffOptions(String diffFlags, int numberOfThreads) {
+		setDiffFlags(diffFlags);
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	/**
+	 * @return diff type and flags as given to 'p4 diff -d'
+	 */
+	public String getDiffFlags() {
+		return diffFlags;
+	}
+
+	/**
+	 * @param diffFlags - diff type and flags as given to 'p4 diff -d'; null means the default
+	 * @return this object
+	 */
+	public LocalDiffOptions setDiffFlags(String diffFlags) {
+		this.diffFlags = diffFlags == null ? DEFAULT_DIFF_FLAGS : diffFlags;
+		return this;
+	}
+
+	/**
+	 * @return number of threads used to diff files
+	 */
+	public int getNumberOfThreads() {
+		return numberOfThreads;
+	}
+
+	/**
+	 * @param numberOfThreads - number of threads used to diff files
+	 * @return this object
+	 */
+	public LocalDiffOptions setNumberOfThreads(int numberOfThreads) {
+		this.numberOfThreads = numberOfThreads;
+		return this;
+	}
+
+	/**
+	 * @return number of concurrent print commands used to fetch base revisions
+	 */
+	public int getNumberOfFetchThreads() {
+		return numberOfFetchThreads;
+	}
+
+	/**
+	 * @param numberOfFetchThreads - number of concurrent print commands used to fetch base revisions
+	 * @return this object
+	 */
+	public LocalDiffOptions setNumberOfFetchThreads(int numberOfFetchThreads) {
+		this.numberOfFetchThreads = numberOfFetchThreads;
+		return this;
+	}
+}
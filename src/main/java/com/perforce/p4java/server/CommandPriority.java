@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.server;
+
+/**
+ * Priority class of a command, used by a command scheduler to decide which
+ * waiting command gets the next connection. Classes are listed from most
+ * to least urgent.
+ *
+ * @since 2025.2
+ */
+public enum CommandPriority {
+	/**
+	 * Someone is waiting for the result.
+	 */
+	INTERACTIVE,
+
+	/**
+	 * The default class.
+	 */
+	NORMAL,
+
+	/**
+	 * Bulk or background work that can wait.
+	 */
+	BATCH;
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.server;
+
+/**
+ * What one command run against the server cost, as passed to an
+ * IMetricsRegistry once the command has finished.
+ * <p>
+ * Times are in nanoseconds. The total is split into the time spent
+ * connecting (including any wait for a pooled socket), sending packets,
+ * waiting for and reading the server's packets, and everything else, which
+ * is mostly the client-side processing of results.
+ *
+ * @since 2025.2
+ */
+public interface ICommandMetrics {
+
+	/**
+	 * @return the command name, e.g. "fstat"
+	 */
+	String getCommandName();
+
+	/**
+	 * @return the time from the start of the command until it finished
+	 */
+	long getTotalNanos();
+
+	/**
+	 * @return the time spent setting up the connection for the command; zero
+	 * if the command used an already open connection
+	 */
+	long getConnectNanos();
+
+	/**
+	 * @return the part of the connect time spent getting a socket from the
+	 * socket pool
+	 */
+	long getPoolWaitNanos();
+
+	/**
+	 * @return the time spent writing packets to the server
+	 */
+	long getSendNanos();
+
+	/**
+	 * @return the time spent waiting for and reading packets from the
+	 * server
+	 */
+	long getServerWaitNanos();
+
+	/**
+	 * @return the rest of the total time; mostly spent processing results
+	 */
+	long getProcessingNanos();
+
+	long getBytesSent();
+
+	long getBytesReceived();
+
+	long getPacketsSent();
+
+	long getPacketsReceived();
+
+	/**
+	 * @return the number of results carrying a server error message
+	 */
+	int getServerErrors();
+
+	/**
+	 * @return true if the command ended with an exception
+	 */
+	boolean isFailed();
+}
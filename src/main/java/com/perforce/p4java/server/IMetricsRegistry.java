@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.server;
+
+/**
+ * Receives the metrics of every command a server object runs.
+ * <p>
+ * A registry is set on a server with setMetricsRegistry, or the shared
+ * default one is used when the ENABLE_METRICS property is set; with no
+ * registry, no metrics are gathered at all. recordCommand is called on the
+ * thread that ran the command, often from many threads at once, so
+ * implementations must be thread-safe and should not block.
+ *
+ * @see com.perforce.p4java.impl.mapbased.rpc.MetricsRegistry
+ * @since 2025.2
+ */
+public interface IMetricsRegistry {
+
+	/**
+	 * Record a finished command. The metrics object belongs to the caller
+	 * and must not be kept.
+	 *
+	 * @param metrics the command's metrics
+	 */
+	void recordCommand(ICommandMetrics metrics);
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.server;
+
+import java.util.Map;
+
+/**
+ * Receives structured trace spans and events from the RPC layer; set on a
+ * server with setTraceListener. With no listener set, no spans are created.
+ * <p>
+ * Methods are called on the thread doing the work, synchronously, so they
+ * should return quickly; a span's attributes may still change until
+ * spanEnded is called for it. Exceptions thrown by a listener are logged
+ * and otherwise ignored.
+ *
+ * @since 2025.2
+ */
+public interface ITraceListener {
+
+	/**
+	 * @param span the span that has just started
+	 */
+	void spanStarted(ITraceSpan span);
+
+	/**
+	 * @param span the span that has just ended; its duration and attributes
+	 *             are final
+	 */
+	void spanEnded(ITraceSpan span);
+
+	/**
+	 * A point-in-time event within a span. Server warning and error messages
+	 * are reported as "serverMessage" events on the command span, with
+	 * "code", "severity" and "generic" attributes.
+	 *
+	 * @param span       the span the event happened in
+	 * @param name       event name
+	 * @param attributes event attributes
+	 */
+	default void event(ITraceSpan span, String name, Map<String, Object> attributes) {
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2025, Perforce Software, Inc.  All rights reserved.
+ */
+package com.perforce.p4java.server;
+
+import java.util.Map;
+
+/**
+ * A timed step in talking to the server, as passed to an ITraceListener.
+ * <p>
+ * Spans nest: a command span is the parent of the connect span (for
+ * connections opened per command), of one span for each client function
+ * the server asks for (e.g. "client-WriteFile"), and of one span for each
+ * flow control flush. Attributes are typed values keyed by the ATTR_
+ * names below; which attributes a span carries depends on its kind.
+ *
+ * @since 2025.2
+ */
+public interface ITraceSpan {
+
+	enum Kind {
+		/** Opening a connection to the server. */
+		CONNECT,
+		/** A whole command, from sending it to its last result. */
+		COMMAND,
+		/** A client function called by the server during a command. */
+		FUNCTION,
+		/** Answering a flow control flush from the server. */
+		FLUSH
+	}
+
+	/** Command name; String. */
+	String ATTR_COMMAND = "command";
+	/** Client function name, e.g. "client-SendFile"; String. */
+	String ATTR_FUNCTION = "function";
+	/** Client path of the file a function works on; String. */
+	String ATTR_PATH = "path";
+	/** Server host name; String. */
+	String ATTR_HOST = "host";
+	/** Server port; Integer. */
+	String ATTR_PORT = "port";
+	/** Bytes written to the server during the span; Long. */
+	String ATTR_BYTES_SENT = "bytesSent";
+	/** Bytes read from the server during the span; Long. */
+	String ATTR_BYTES_RECEIVED = "bytesReceived";
+	/** Number of results of a command; Integer. */
+	String ATTR_RESULTS = "results";
+	/** Number of server error messages in a command's results; Integer. */
+	String ATTR_SERVER_ERRORS = "serverErrors";
+	/** Flow control sequence number of a flush; Long. */
+	String ATTR_FLUSH_SEQ = "flushSeq";
+	/** Flow control high water mark of a flush; Long. */
+	String ATTR_FLUSH_HIMARK = "flushHimark";
+
+	Kind getKind();
+
+	/**
+	 * @return "connect", "flush", the command name or the client function
+	 * name
+	 */
+	String getName();
+
+	/**
+	 * @return the enclosing span, or null for a top-level span
+	 */
+	ITraceSpan getParent();
+
+	/**
+	 * @return the wall clock time the span started, in milliseconds since
+	 * the epoch
+	 */
+	long getStartTimeMillis();
+
+	/**
+	 * @return the span's duration in nanoseconds; -1 until the span has
+	 * ended
+	 */
+	long getDurationNanos();
+
+	/**
+	 * @return the span's attributes; not to be modified
+	 */
+	Map<String, Object> getAttributes();
+
+	/**
+	 * @param key attribute name
+	 * @return the attribute's value, or null if it is not set
+	 */
+	Object getAttribute(String key);
+
+	/**
+	 * @return true if the span ended with an exception
+	 */
+	boolean isFailed();
+}
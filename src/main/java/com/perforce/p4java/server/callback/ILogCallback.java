@@ -45,6 +45,32 @@ public interface ILogCallback {
 		NONE, COARSE, FINE, SUPERFINE, ALL;
 	}
 
+	/**
+	 * The levels of the non-trace log methods, used by isLogging.
+	 *
+	 * @since 2025.2
+	 */
+	enum LogLevel {
+		ERROR, WARN, INFO, STATS;
+	}
+
+	/**
+	 * The parts of P4Java a log message can come from, used by isLogging
+	 * and Log.setCategoryEnabled.
+	 *
+	 * @since 2025.2
+	 */
+	enum LogCategory {
+		/** Anything not covered by a more specific category. */
+		GENERAL,
+		/** Opening, pooling and closing server connections. */
+		CONNECTION,
+		/** Sending and receiving RPC packets. */
+		PACKET,
+		/** Reading, writing and moving client files. */
+		FILE;
+	}
+
 	/**
 	 * Report a P4Java-internal error. These are usually fatal
 	 * errors encountered deep within P4Java, and will typically be accompanied
@@ -106,4 +132,19 @@ public interface ILogCallback {
 	 * or to ignore certain tracing calls.
 	 */
 	LogTraceLevel getTraceLevel();
+
+	/**
+	 * Used within P4Java to decide whether a message is worth building at
+	 * all; messages at levels or in categories for which this returns false
+	 * are neither formatted nor passed to the callback. The default accepts
+	 * everything.
+	 *
+	 * @param level    level of the message
+	 * @param category category of the message
+	 * @return true if the callback wants messages at this level and category
+	 * @since 2025.2
+	 */
+	default boolean isLogging(LogLevel level, LogCategory category) {
+		return true;
+	}
 }
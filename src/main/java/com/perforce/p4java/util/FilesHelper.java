@@ -9,12 +9,25 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.EnumSet;
+import java.util.Set;
 
 /**
  * Files helper class with generally useful methods.
  */
 public class FilesHelper {
 
+	private static final Set<PosixFilePermission> OWNER_ONLY = EnumSet.of(
+			PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE, PosixFilePermission.OWNER_EXECUTE);
+
 	/**
 	 * Copy source file to destination file.
 	 *
@@ -87,4 +100,83 @@ public class FilesHelper {
 
 		return false;
 	}
+
+	/**
+	 * Get a directory that only the current user can use, creating it if
+	 * need be. The directory is named after the current user, so that users
+	 * sharing a parent directory such as the system tmp directory each get
+	 * their own.
+	 * <p>
+	 * Where the file system supports POSIX permissions the directory is
+	 * created with owner-only (0700) permissions, and an existing directory
+	 * that is looser than that is tightened. An existing directory that is a
+	 * symbolic link or is owned by another user is rejected.
+	 *
+	 * @param parentDirName parent directory; created if need be
+	 * @param name          directory name, to which the user name is added
+	 * @return the directory
+	 * @throws IOException if the directory cannot be created, or is not
+	 *                     private to the current user
+	 * @since 2025.2
+	 */
+	public static File getPrivateDirectory(String parentDirName, String name) throws IOException {
+		String userName = System.getProperty("user.name");
+		if (userName != null && !userName.isEmpty()) {
+			name = name + "-" + userName.replaceAll("[^A-Za-z0-9._-]", "_");
+		}
+		File dir = new File(parentDirName, name);
+		Path path = dir.toPath();
+		boolean posix = Files.getFileAttributeView(path.getParent() == null ? path : path.getParent(), PosixFileAttributeView.class) != null;
+
+		if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+			if (path.getParent() != null) {
+				Files.createDirectories(path.getParent());
+			}
+			try {
+				if (posix) {
+					Files.createDirectory(path, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+				} else {
+					Files.createDirectory(path);
+				}
+			} catch (FileAlreadyExistsException e) {
+				// Created by someone else meanwhile; checked below.
+			}
+		}
+
+		if (!Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+			throw new IOException(dir + " is not a directory");
+		}
+		if (!isOwnedByCurrentUser(dir)) {
+			throw new IOException(dir + " is not owned by the current user");
+		}
+		if (posix) {
+			Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(path, LinkOption.NOFOLLOW_LINKS);
+			if (!OWNER_ONLY.containsAll(permissions)) {
+				Files.setPosixFilePermissions(path, OWNER_ONLY);
+			}
+		}
+		return dir;
+	}
+
+	/**
+	 * Check that a file or directory, not following symbolic links, is owned
+	 * by the current user.
+	 *
+	 * @param file file or directory
+	 * @return true if the current user owns it; false if not, or if its
+	 * owner or the current user cannot be determined
+	 * @since 2025.2
+	 */
+	public static boolean isOwnedByCurrentUser(File file) {
+		try {
+			Path path = file.toPath();
+			UserPrincipal owner = Files.getOwner(path, LinkOption.NOFOLLOW_LINKS);
+			UserPrincipal user = path.getFileSystem().getUserPrincipalLookupService()
+					.lookupPrincipalByName(System.getProperty("user.name"));
+			return owner.equals(user);
+		} catch (IOException | RuntimeException e) {
+			Log.warn("Unable to check the owner of " + file + ": " + e.getLocalizedMessage());
+			return false;
+		}
+	}
 }